@@ -8,7 +8,11 @@
 package com.sitewhere.commands;
 
 import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.sitewhere.commands.spi.ICommandExecutionBuilder;
 import com.sitewhere.commands.spi.ICommandProcessingStrategy;
 import com.sitewhere.commands.spi.ICommandTargetResolver;
@@ -28,7 +32,10 @@ import com.sitewhere.spi.server.lifecycle.LifecycleComponentType;
 import com.sitewhere.spi.tenant.ITenant;
 
 /**
- * Default implementation of {@link ICommandProcessingStrategy}.
+ * Default implementation of {@link ICommandProcessingStrategy}. Commands and
+ * devices are cached for a short time so that fleet-wide invocations, which
+ * arrive as many invocations of the same command for devices that often share
+ * gateways, do not repeat the same lookups for every target.
  * 
  * @author Derek
  */
@@ -41,6 +48,18 @@ public class DefaultCommandProcessingStrategy extends TenantEngineLifecycleCompo
     /** Configured command execution builder */
     private ICommandExecutionBuilder commandExecutionBuilder = new DefaultCommandExecutionBuilder();
 
+    /** Maximum number of cached commands and devices */
+    private int cacheSize = 10000;
+
+    /** Number of seconds lookups are cached */
+    private int cacheTtlSeconds = 30;
+
+    /** Commands indexed by token */
+    private Cache<String, IDeviceCommand> commandsByToken;
+
+    /** Devices indexed by id */
+    private Cache<UUID, IDevice> devicesById;
+
     public DefaultCommandProcessingStrategy() {
 	super(LifecycleComponentType.CommandProcessingStrategy);
     }
@@ -56,19 +75,18 @@ public class DefaultCommandProcessingStrategy extends TenantEngineLifecycleCompo
     public void deliverCommand(IDeviceCommunication communication, IDeviceCommandInvocation invocation)
 	    throws SiteWhereException {
 	getLogger().debug("Command processing strategy handling invocation.");
-	IDeviceCommand command = getDeviceManagement(getTenantEngine().getTenant())
-		.getDeviceCommandByToken(invocation.getCommandToken());
+	IDeviceCommand command = getDeviceCommand(invocation.getCommandToken());
 	if (command != null) {
 	    IDeviceCommandExecution execution = getCommandExecutionBuilder().createExecution(command, invocation);
 	    List<IDeviceAssignment> assignments = getCommandTargetResolver().resolveTargets(invocation);
 	    for (IDeviceAssignment assignment : assignments) {
-		IDevice device = getDeviceManagement(getTenantEngine().getTenant()).getDevice(assignment.getDeviceId());
+		IDevice device = getDevice(assignment.getDeviceId());
 		if (device == null) {
 		    throw new SiteWhereException("Targeted assignment references device that does not exist.");
 		}
 
-		IDeviceNestingContext nesting = NestedDeviceSupport.calculateNestedDeviceInformation(device,
-			getTenantEngine().getTenant());
+		IDevice parent = (device.getParentDeviceId() != null) ? getDevice(device.getParentDeviceId()) : null;
+		IDeviceNestingContext nesting = NestedDeviceSupport.calculateNestedDeviceInformation(device, parent);
 		communication.getOutboundCommandRouter().routeCommand(execution, nesting, assignment);
 	    }
 	} else {
@@ -93,8 +111,8 @@ public class DefaultCommandProcessingStrategy extends TenantEngineLifecycleCompo
 	    throw new SiteWhereException("Targeted assignment references device that does not exist.");
 	}
 	IDeviceAssignment assignment = management.getDeviceAssignment(device.getDeviceAssignmentId());
-	IDeviceNestingContext nesting = NestedDeviceSupport.calculateNestedDeviceInformation(device,
-		getTenantEngine().getTenant());
+	IDevice parent = (device.getParentDeviceId() != null) ? getDevice(device.getParentDeviceId()) : null;
+	IDeviceNestingContext nesting = NestedDeviceSupport.calculateNestedDeviceInformation(device, parent);
 	communication.getOutboundCommandRouter().routeSystemCommand(command, nesting, assignment);
     }
 
@@ -108,6 +126,11 @@ public class DefaultCommandProcessingStrategy extends TenantEngineLifecycleCompo
     public void start(ILifecycleProgressMonitor monitor) throws SiteWhereException {
 	getLifecycleComponents().clear();
 
+	this.commandsByToken = CacheBuilder.newBuilder().maximumSize(getCacheSize())
+		.expireAfterWrite(getCacheTtlSeconds(), TimeUnit.SECONDS).build();
+	this.devicesById = CacheBuilder.newBuilder().maximumSize(getCacheSize())
+		.expireAfterWrite(getCacheTtlSeconds(), TimeUnit.SECONDS).build();
+
 	// Start command execution builder.
 	if (getCommandExecutionBuilder() == null) {
 	    throw new SiteWhereException("No command execution builder configured for command processing.");
@@ -139,6 +162,49 @@ public class DefaultCommandProcessingStrategy extends TenantEngineLifecycleCompo
 	if (getCommandTargetResolver() != null) {
 	    getCommandTargetResolver().lifecycleStop(monitor);
 	}
+
+	if (commandsByToken != null) {
+	    commandsByToken.invalidateAll();
+	}
+	if (devicesById != null) {
+	    devicesById.invalidateAll();
+	}
+    }
+
+    /**
+     * Get command by token, using cached value if available.
+     * 
+     * @param token
+     * @return
+     * @throws SiteWhereException
+     */
+    protected IDeviceCommand getDeviceCommand(String token) throws SiteWhereException {
+	IDeviceCommand command = commandsByToken.getIfPresent(token);
+	if (command == null) {
+	    command = getDeviceManagement(getTenantEngine().getTenant()).getDeviceCommandByToken(token);
+	    if (command != null) {
+		commandsByToken.put(token, command);
+	    }
+	}
+	return command;
+    }
+
+    /**
+     * Get device by id, using cached value if available.
+     * 
+     * @param id
+     * @return
+     * @throws SiteWhereException
+     */
+    protected IDevice getDevice(UUID id) throws SiteWhereException {
+	IDevice device = devicesById.getIfPresent(id);
+	if (device == null) {
+	    device = getDeviceManagement(getTenantEngine().getTenant()).getDevice(id);
+	    if (device != null) {
+		devicesById.put(id, device);
+	    }
+	}
+	return device;
     }
 
     public ICommandTargetResolver getCommandTargetResolver() {
@@ -157,6 +223,22 @@ public class DefaultCommandProcessingStrategy extends TenantEngineLifecycleCompo
 	this.commandExecutionBuilder = commandExecutionBuilder;
     }
 
+    public int getCacheSize() {
+	return cacheSize;
+    }
+
+    public void setCacheSize(int cacheSize) {
+	this.cacheSize = cacheSize;
+    }
+
+    public int getCacheTtlSeconds() {
+	return cacheTtlSeconds;
+    }
+
+    public void setCacheTtlSeconds(int cacheTtlSeconds) {
+	this.cacheTtlSeconds = cacheTtlSeconds;
+    }
+
     private IDeviceManagement getDeviceManagement(ITenant tenant) {
 	return null;
     }
@@ -31,6 +31,25 @@ public class NestedDeviceSupport {
      */
     public static NestedDeviceInformation calculateNestedDeviceInformation(IDevice target, ITenant tenant)
 	    throws SiteWhereException {
+	IDevice parent = null;
+	if (target.getParentDeviceId() != null) {
+	    parent = getDeviceManagement(tenant).getDevice(target.getParentDeviceId());
+	}
+	return calculateNestedDeviceInformation(target, parent);
+    }
+
+    /**
+     * Calculate device nesting information using a parent device that has
+     * already been resolved. Allows callers delivering to many devices to look
+     * up each parent only once.
+     * 
+     * @param target
+     * @param parent
+     * @return
+     * @throws SiteWhereException
+     */
+    public static NestedDeviceInformation calculateNestedDeviceInformation(IDevice target, IDevice parent)
+	    throws SiteWhereException {
 	NestedDeviceInformation nested = new NestedDeviceInformation();
 
 	// No parent set. Treat target device as gateway.
@@ -39,8 +58,7 @@ public class NestedDeviceSupport {
 	    return nested;
 	}
 
-	// Resolve parent and verify it exists.
-	IDevice parent = getDeviceManagement(tenant).getDevice(target.getParentDeviceId());
+	// Verify parent exists.
 	if (parent == null) {
 	    throw new SiteWhereException("Parent device reference points to device that does not exist.");
 	}
@@ -217,6 +217,16 @@ public class CommandDeliveryModelProvider extends ConfigurationModelProvider {
 	CommonConnectorModel.addMqttCommonAttributes(builder, ConfigurationModelProvider.ATTR_GROUP_CONNECTIVITY,
 		ConfigurationModelProvider.ATTR_GROUP_AUTHENTICATION);
 
+	builder.attributeGroup(ConfigurationModelProvider.ATTR_GROUP_PERFORMANCE);
+	builder.attribute((new AttributeNode.Builder("Connection pool size", "connectionPoolSize",
+		AttributeType.Integer, ConfigurationModelProvider.ATTR_GROUP_PERFORMANCE)
+			.description("Number of broker connections used to publish commands.").defaultValue("1")
+			.build()));
+	builder.attribute((new AttributeNode.Builder("Max in-flight publishes", "maxInFlight", AttributeType.Integer,
+		ConfigurationModelProvider.ATTR_GROUP_PERFORMANCE)
+			.description("Number of publishes per connection that may be awaiting acknowledgement.")
+			.defaultValue("100").build()));
+
 	return builder.build();
     }
 
@@ -7,6 +7,16 @@
  */
 package com.sitewhere.commands.destination;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.sitewhere.commands.spi.ICacheableCommandExecutionEncoder;
 import com.sitewhere.commands.spi.ICommandDeliveryParameterExtractor;
 import com.sitewhere.commands.spi.ICommandDeliveryProvider;
 import com.sitewhere.commands.spi.ICommandDestination;
@@ -41,6 +51,14 @@ public class CommandDestination<T, P> extends TenantEngineLifecycleComponent imp
     /** Configured command delivery provider */
     private ICommandDeliveryProvider<T, P> commandDeliveryProvider;
 
+    /**
+     * Shared payloads indexed by command, parameter values and encoding key.
+     * Entries expire a fixed time after being encoded so changes to a command
+     * definition are picked up even if the command is invoked constantly.
+     */
+    private Cache<List<Object>, T> encodedPayloads = CacheBuilder.newBuilder().maximumSize(1000)
+	    .expireAfterWrite(60, TimeUnit.SECONDS).build();
+
     public CommandDestination() {
 	super(LifecycleComponentType.CommandDestination);
     }
@@ -57,7 +75,7 @@ public class CommandDestination<T, P> extends TenantEngineLifecycleComponent imp
     @Override
     public void deliverCommand(IDeviceCommandExecution execution, IDeviceNestingContext nesting,
 	    IDeviceAssignment assignment) throws SiteWhereException {
-	T encoded = getCommandExecutionEncoder().encode(execution, nesting, assignment);
+	T encoded = encode(execution, nesting, assignment);
 	if (encoded != null) {
 	    P params = getCommandDeliveryParameterExtractor().extractDeliveryParameters(nesting, assignment, execution);
 	    getCommandDeliveryProvider().deliver(nesting, assignment, execution, encoded, params);
@@ -66,6 +84,56 @@ public class CommandDestination<T, P> extends TenantEngineLifecycleComponent imp
 	}
     }
 
+    /**
+     * Encode an execution for a target. If the encoder allows it, the shared part
+     * of the payload is reused for other invocations of the same command with the
+     * same parameter values and encoding key.
+     * 
+     * @param execution
+     * @param nesting
+     * @param assignment
+     * @return
+     * @throws SiteWhereException
+     */
+    protected T encode(IDeviceCommandExecution execution, IDeviceNestingContext nesting,
+	    IDeviceAssignment assignment) throws SiteWhereException {
+	if (!(getCommandExecutionEncoder() instanceof ICacheableCommandExecutionEncoder)
+		|| (execution.getInvocation() == null) || (execution.getCommand() == null)
+		|| (execution.getCommand().getId() == null)) {
+	    return getCommandExecutionEncoder().encode(execution, nesting, assignment);
+	}
+	ICacheableCommandExecutionEncoder<T> encoder = (ICacheableCommandExecutionEncoder<T>) getCommandExecutionEncoder();
+	String encodingKey = encoder.getEncodingKey(execution, nesting, assignment);
+	if (encodingKey == null) {
+	    return encoder.encode(execution, nesting, assignment);
+	}
+	List<Object> key = Arrays.asList(execution.getCommand().getId(),
+		getParameterValues(execution.getInvocation().getParameterValues()), encodingKey);
+	T shared = encodedPayloads.getIfPresent(key);
+	if (shared == null) {
+	    shared = encoder.encodeShared(execution, nesting, assignment);
+	    if (shared == null) {
+		return null;
+	    }
+	    encodedPayloads.put(key, shared);
+	}
+	return encoder.completeShared(shared, execution, nesting, assignment);
+    }
+
+    /**
+     * Get parameter values in a form that compares equal for invocations with the
+     * same values.
+     * 
+     * @param values
+     * @return
+     */
+    protected static Map<String, String> getParameterValues(Map<String, String> values) {
+	if (values == null) {
+	    return Collections.emptyMap();
+	}
+	return new TreeMap<String, String>(values);
+    }
+
     /*
      * (non-Javadoc)
      * 
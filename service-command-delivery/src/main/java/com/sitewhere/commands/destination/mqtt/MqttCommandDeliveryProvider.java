@@ -7,8 +7,19 @@
  */
 package com.sitewhere.commands.destination.mqtt;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.fusesource.hawtdispatch.Dispatch;
+import org.fusesource.hawtdispatch.DispatchQueue;
 import org.fusesource.hawtdispatch.ShutdownException;
+import org.fusesource.mqtt.client.Callback;
+import org.fusesource.mqtt.client.Future;
 import org.fusesource.mqtt.client.FutureConnection;
+import org.fusesource.mqtt.client.MQTT;
 import org.fusesource.mqtt.client.QoS;
 
 import com.sitewhere.commands.spi.ICommandDeliveryProvider;
@@ -23,15 +34,32 @@ import com.sitewhere.spi.server.lifecycle.LifecycleComponentType;
 /**
  * Implementation of {@link ICommandDeliveryProvider} that publishes commands to
  * an MQTT topic so that they can be processed asynchronously by a device
- * listening on the topic.
+ * listening on the topic. Publishes are pipelined over a pool of broker
+ * connections, each of which allows a bounded number of unacknowledged
+ * publishes. Delivery blocks only when all connections are at their limit.
  * 
  * @author Derek
  */
 public class MqttCommandDeliveryProvider extends MqttLifecycleComponent
 	implements ICommandDeliveryProvider<byte[], MqttParameters> {
 
-    /** Shared MQTT connection */
-    private FutureConnection connection;
+    /** Default number of broker connections */
+    private static final int DEFAULT_CONNECTION_POOL_SIZE = 1;
+
+    /** Default number of unacknowledged publishes per connection */
+    private static final int DEFAULT_MAX_IN_FLIGHT = 100;
+
+    /** Number of broker connections */
+    private int connectionPoolSize = DEFAULT_CONNECTION_POOL_SIZE;
+
+    /** Number of unacknowledged publishes allowed per connection */
+    private int maxInFlight = DEFAULT_MAX_IN_FLIGHT;
+
+    /** Pool of broker connections */
+    private List<PublishingConnection> connections = new ArrayList<>();
+
+    /** Index used to choose next connection */
+    private AtomicInteger nextConnection = new AtomicInteger();
 
     public MqttCommandDeliveryProvider() {
 	super(LifecycleComponentType.CommandDeliveryProvider);
@@ -48,8 +76,25 @@ public class MqttCommandDeliveryProvider extends MqttLifecycleComponent
     public void start(ILifecycleProgressMonitor monitor) throws SiteWhereException {
 	super.start(monitor);
 
-	getLogger().info("Connecting to MQTT broker at '" + getHostname() + ":" + getPort() + "'...");
-	connection = getConnection();
+	getLogger().info("Connecting to MQTT broker at '" + getHostname() + ":" + getPort() + "' using "
+		+ getConnectionPoolSize() + " connection(s)...");
+	connections.clear();
+	for (int i = 0; i < getConnectionPoolSize(); i++) {
+	    DispatchQueue queue = Dispatch.createQueue(getComponentId() + "-" + i);
+	    MQTT mqtt = MqttLifecycleComponent.configure(this, queue);
+	    if ((getClientId() != null) && (getConnectionPoolSize() > 1)) {
+		mqtt.setClientId(getClientId() + "-" + i);
+	    }
+
+	    FutureConnection connection = mqtt.futureConnection();
+	    connections.add(new PublishingConnection(connection));
+	    try {
+		Future<Void> future = connection.connect();
+		future.await(MqttLifecycleComponent.DEFAULT_CONNECT_TIMEOUT_SECS, TimeUnit.SECONDS);
+	    } catch (Exception e) {
+		throw new SiteWhereException("Unable to connect to MQTT broker.", e);
+	    }
+	}
 	getLogger().info("Connected to MQTT broker.");
     }
 
@@ -61,16 +106,10 @@ public class MqttCommandDeliveryProvider extends MqttLifecycleComponent
      */
     @Override
     public void stop(ILifecycleProgressMonitor monitor) throws SiteWhereException {
-	if (connection != null) {
-	    try {
-		connection.disconnect().await();
-		connection.kill().await();
-	    } catch (ShutdownException e) {
-		getLogger().info("Dispatcher has already been shut down.");
-	    } catch (Exception e) {
-		getLogger().error("Error shutting down MQTT device event receiver.", e);
-	    }
+	for (PublishingConnection connection : connections) {
+	    connection.close();
 	}
+	connections.clear();
 	super.stop(monitor);
     }
 
@@ -86,13 +125,8 @@ public class MqttCommandDeliveryProvider extends MqttLifecycleComponent
     @Override
     public void deliver(IDeviceNestingContext nested, IDeviceAssignment assignment, IDeviceCommandExecution execution,
 	    byte[] encoded, MqttParameters params) throws SiteWhereException {
-	try {
-	    getLogger().debug("About to publish command message to topic: " + params.getCommandTopic());
-	    connection.publish(params.getCommandTopic(), encoded, QoS.AT_LEAST_ONCE, false);
-	    getLogger().debug("Command published.");
-	} catch (Exception e) {
-	    throw new SiteWhereException("Unable to publish command to MQTT topic.", e);
-	}
+	getLogger().debug("About to publish command message to topic: " + params.getCommandTopic());
+	publish(params.getCommandTopic(), encoded);
     }
 
     /*
@@ -106,12 +140,107 @@ public class MqttCommandDeliveryProvider extends MqttLifecycleComponent
     @Override
     public void deliverSystemCommand(IDeviceNestingContext nested, IDeviceAssignment assignment, byte[] encoded,
 	    MqttParameters params) throws SiteWhereException {
-	try {
-	    getLogger().debug("About to publish system message to topic: " + params.getSystemTopic());
-	    connection.publish(params.getSystemTopic(), encoded, QoS.AT_LEAST_ONCE, false);
-	    getLogger().debug("Command published.");
-	} catch (Exception e) {
-	    throw new SiteWhereException("Unable to publish command to MQTT topic.", e);
+	getLogger().debug("About to publish system message to topic: " + params.getSystemTopic());
+	publish(params.getSystemTopic(), encoded);
+    }
+
+    /**
+     * Publish a payload using the next connection in the pool.
+     * 
+     * @param topic
+     * @param payload
+     * @throws SiteWhereException
+     */
+    protected void publish(String topic, byte[] payload) throws SiteWhereException {
+	if (connections.isEmpty()) {
+	    throw new SiteWhereException("Unable to publish command. MQTT provider is not connected.");
+	}
+	int index = Math.abs(nextConnection.getAndIncrement() % connections.size());
+	connections.get(index).publish(topic, payload);
+    }
+
+    /**
+     * Broker connection that allows a bounded number of publishes to be awaiting
+     * acknowledgement at once.
+     * 
+     * @author Derek
+     */
+    private class PublishingConnection {
+
+	/** Underlying connection */
+	private FutureConnection connection;
+
+	/** Limits unacknowledged publishes */
+	private Semaphore window;
+
+	public PublishingConnection(FutureConnection connection) {
+	    this.connection = connection;
+	    this.window = new Semaphore(getMaxInFlight());
 	}
+
+	/**
+	 * Publish a payload, waiting only if the in-flight limit has been reached.
+	 * 
+	 * @param topic
+	 * @param payload
+	 * @throws SiteWhereException
+	 */
+	public void publish(String topic, byte[] payload) throws SiteWhereException {
+	    try {
+		window.acquire();
+	    } catch (InterruptedException e) {
+		Thread.currentThread().interrupt();
+		throw new SiteWhereException("Interrupted while waiting to publish command.", e);
+	    }
+	    try {
+		connection.publish(topic, payload, QoS.AT_LEAST_ONCE, false).then(new Callback<Void>() {
+
+		    @Override
+		    public void onSuccess(Void value) {
+			window.release();
+			getLogger().debug("Command published.");
+		    }
+
+		    @Override
+		    public void onFailure(Throwable value) {
+			window.release();
+			getLogger().error("Unable to publish command to MQTT topic '" + topic + "'.", value);
+		    }
+		});
+	    } catch (Exception e) {
+		window.release();
+		throw new SiteWhereException("Unable to publish command to MQTT topic.", e);
+	    }
+	}
+
+	/**
+	 * Disconnect from broker.
+	 */
+	public void close() {
+	    try {
+		connection.disconnect().await();
+		connection.kill().await();
+	    } catch (ShutdownException e) {
+		getLogger().info("Dispatcher has already been shut down.");
+	    } catch (Exception e) {
+		getLogger().error("Error shutting down MQTT command delivery connection.", e);
+	    }
+	}
+    }
+
+    public int getConnectionPoolSize() {
+	return connectionPoolSize;
+    }
+
+    public void setConnectionPoolSize(int connectionPoolSize) {
+	this.connectionPoolSize = connectionPoolSize;
+    }
+
+    public int getMaxInFlight() {
+	return maxInFlight;
+    }
+
+    public void setMaxInFlight(int maxInFlight) {
+	this.maxInFlight = maxInFlight;
     }
-}
\ No newline at end of file
+}
@@ -11,6 +11,7 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 
 import com.google.protobuf.ByteString;
+import com.sitewhere.commands.spi.ICacheableCommandExecutionEncoder;
 import com.sitewhere.commands.spi.ICommandExecutionEncoder;
 import com.sitewhere.common.MarshalUtils;
 import com.sitewhere.communication.protobuf.ProtobufMessageBuilder;
@@ -43,7 +44,7 @@ import com.sitewhere.spi.server.lifecycle.LifecycleComponentType;
  * @author Derek
  */
 public class ProtobufExecutionEncoder extends TenantEngineLifecycleComponent
-	implements ICommandExecutionEncoder<byte[]> {
+	implements ICacheableCommandExecutionEncoder<byte[]> {
 
     public ProtobufExecutionEncoder() {
 	super(LifecycleComponentType.CommandExecutionEncoder);
@@ -66,6 +67,56 @@ public class ProtobufExecutionEncoder extends TenantEngineLifecycleComponent
 	return encoded;
     }
 
+    /*
+     * Payload depends only on the execution and, for nested targets, on the
+     * nested device type and path.
+     * 
+     * @see com.sitewhere.commands.spi.ICacheableCommandExecutionEncoder#
+     * getEncodingKey(com.sitewhere.spi.device.command.IDeviceCommandExecution,
+     * com.sitewhere.spi.device.IDeviceNestingContext,
+     * com.sitewhere.spi.device.IDeviceAssignment)
+     */
+    @Override
+    public String getEncodingKey(IDeviceCommandExecution execution, IDeviceNestingContext nested,
+	    IDeviceAssignment assignment) throws SiteWhereException {
+	if ((nested == null) || (nested.getNested() == null)) {
+	    return "gateway";
+	}
+	return nested.getNested().getDeviceTypeId() + ":" + nested.getPath();
+    }
+
+    /*
+     * Header is encoded without the originator.
+     * 
+     * @see com.sitewhere.commands.spi.ICacheableCommandExecutionEncoder#
+     * encodeShared(com.sitewhere.spi.device.command.IDeviceCommandExecution,
+     * com.sitewhere.spi.device.IDeviceNestingContext,
+     * com.sitewhere.spi.device.IDeviceAssignment)
+     */
+    @Override
+    public byte[] encodeShared(IDeviceCommandExecution execution, IDeviceNestingContext nested,
+	    IDeviceAssignment assignment) throws SiteWhereException {
+	return ProtobufMessageBuilder.createMessage(execution, nested, assignment, getTenantEngine().getTenant(), null);
+    }
+
+    /*
+     * Adds the invocation id as originator in the header.
+     * 
+     * @see com.sitewhere.commands.spi.ICacheableCommandExecutionEncoder#
+     * completeShared(java.lang.Object,
+     * com.sitewhere.spi.device.command.IDeviceCommandExecution,
+     * com.sitewhere.spi.device.IDeviceNestingContext,
+     * com.sitewhere.spi.device.IDeviceAssignment)
+     */
+    @Override
+    public byte[] completeShared(byte[] shared, IDeviceCommandExecution execution, IDeviceNestingContext nested,
+	    IDeviceAssignment assignment) throws SiteWhereException {
+	byte[] encoded = ProtobufMessageBuilder.setOriginator(shared,
+		String.valueOf(execution.getInvocation().getId()));
+	getLogger().debug("Protobuf message: 0x" + DataUtils.bytesToHex(encoded));
+	return encoded;
+    }
+
     /*
      * (non-Javadoc)
      * 
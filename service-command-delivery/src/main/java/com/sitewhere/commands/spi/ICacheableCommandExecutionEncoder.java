@@ -0,0 +1,69 @@
+/*
+ * Copyright (c) SiteWhere, LLC. All rights reserved. http://www.sitewhere.com
+ *
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package com.sitewhere.commands.spi;
+
+import com.sitewhere.spi.SiteWhereException;
+import com.sitewhere.spi.device.IDeviceAssignment;
+import com.sitewhere.spi.device.IDeviceNestingContext;
+import com.sitewhere.spi.device.command.IDeviceCommandExecution;
+
+/**
+ * Extends {@link ICommandExecutionEncoder} for encoders whose output does not
+ * depend on every detail of the target device. A fleet-wide command arrives as
+ * many invocations of the same command with the same parameter values. The
+ * invocation-independent part of the payload is encoded once for each command,
+ * set of parameter values and encoding key, and each delivery only completes
+ * the shared payload with data specific to its invocation.
+ * 
+ * @author Derek
+ *
+ * @param <T>
+ */
+public interface ICacheableCommandExecutionEncoder<T> extends ICommandExecutionEncoder<T> {
+
+    /**
+     * Get key that identifies targets which share the same encoded payload for
+     * executions of a command with the same parameter values. Returns null if
+     * the payload for the target may not be shared.
+     * 
+     * @param execution
+     * @param nested
+     * @param assignment
+     * @return
+     * @throws SiteWhereException
+     */
+    public String getEncodingKey(IDeviceCommandExecution execution, IDeviceNestingContext nested,
+	    IDeviceAssignment assignment) throws SiteWhereException;
+
+    /**
+     * Encode the part of the payload that does not depend on the invocation.
+     * 
+     * @param execution
+     * @param nested
+     * @param assignment
+     * @return
+     * @throws SiteWhereException
+     */
+    public T encodeShared(IDeviceCommandExecution execution, IDeviceNestingContext nested,
+	    IDeviceAssignment assignment) throws SiteWhereException;
+
+    /**
+     * Complete a shared payload with data specific to the invocation. The shared
+     * payload may have been encoded for another invocation and must not be
+     * modified.
+     * 
+     * @param shared
+     * @param execution
+     * @param nested
+     * @param assignment
+     * @return
+     * @throws SiteWhereException
+     */
+    public T completeShared(T shared, IDeviceCommandExecution execution, IDeviceNestingContext nested,
+	    IDeviceAssignment assignment) throws SiteWhereException;
+}
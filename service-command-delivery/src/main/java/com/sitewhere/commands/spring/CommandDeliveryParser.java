@@ -214,6 +214,16 @@ public class CommandDeliveryParser extends AbstractBeanDefinitionParser {
 	    mqtt.addPropertyValue("keyStorePassword", trustStorePassword.getValue());
 	}
 
+	Attr connectionPoolSize = element.getAttributeNode("connectionPoolSize");
+	if (connectionPoolSize != null) {
+	    mqtt.addPropertyValue("connectionPoolSize", connectionPoolSize.getValue());
+	}
+
+	Attr maxInFlight = element.getAttributeNode("maxInFlight");
+	if (maxInFlight != null) {
+	    mqtt.addPropertyValue("maxInFlight", maxInFlight.getValue());
+	}
+
 	return mqtt.getBeanDefinition();
     }
 
@@ -170,6 +170,12 @@ public class HBaseDevice {
 			}
 		    }
 
+		    // Filter by device tokens.
+		    if ((criteria.getDeviceTokens() != null)
+			    && (!criteria.getDeviceTokens().contains(device.getToken()))) {
+			continue;
+		    }
+
 		    pager.process(device);
 		}
 	    }
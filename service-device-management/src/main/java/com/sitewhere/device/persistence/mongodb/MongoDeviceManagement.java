@@ -782,6 +782,9 @@ public class MongoDeviceManagement extends TenantEngineLifecycleComponent implem
 	if (criteria.isExcludeAssigned()) {
 	    dbCriteria.put(MongoDevice.PROP_ASSIGNMENT_ID, null);
 	}
+	if (criteria.getDeviceTokens() != null) {
+	    dbCriteria.put(MongoDevice.PROP_TOKEN, new Document("$in", criteria.getDeviceTokens()));
+	}
 	MongoPersistence.addDateSearchCriteria(dbCriteria, MongoSiteWhereEntity.PROP_CREATED_DATE, criteria);
 
 	// Add device type filter if specified.
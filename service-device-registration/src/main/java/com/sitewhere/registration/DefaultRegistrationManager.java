@@ -7,8 +7,22 @@
  */
 package com.sitewhere.registration;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
-
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.sitewhere.microservice.security.SystemUserCallable;
 import com.sitewhere.registration.spi.IRegistrationManager;
 import com.sitewhere.registration.spi.microservice.IDeviceRegistrationMicroservice;
 import com.sitewhere.rest.model.device.DeviceElementMapping;
@@ -16,7 +30,9 @@ import com.sitewhere.rest.model.device.command.DeviceMappingAckCommand;
 import com.sitewhere.rest.model.device.command.RegistrationAckCommand;
 import com.sitewhere.rest.model.device.command.RegistrationFailureCommand;
 import com.sitewhere.rest.model.device.request.DeviceAssignmentCreateRequest;
+import com.sitewhere.rest.model.device.event.request.DeviceRegistrationRequest;
 import com.sitewhere.rest.model.device.request.DeviceCreateRequest;
+import com.sitewhere.rest.model.search.device.DeviceSearchCriteria;
 import com.sitewhere.server.lifecycle.TenantEngineLifecycleComponent;
 import com.sitewhere.spi.SiteWhereException;
 import com.sitewhere.spi.area.IArea;
@@ -33,12 +49,21 @@ import com.sitewhere.spi.server.lifecycle.ILifecycleProgressMonitor;
 import com.sitewhere.spi.server.lifecycle.LifecycleComponentType;
 
 /**
- * Base logic for {@link IRegistrationManager} implementations.
+ * Base logic for {@link IRegistrationManager} implementations. Registrations
+ * are processed in batches. Existing devices for a batch are loaded with one
+ * device search, devices are created and assigned concurrently, and
+ * acknowledgements are sent once the batch completes.
  * 
  * @author Derek
  */
 public class DefaultRegistrationManager extends TenantEngineLifecycleComponent implements IRegistrationManager {
 
+    /** Default number of threads used to process registration batches */
+    private static final int DEFAULT_REGISTRATION_THREADS = 10;
+
+    /** Maximum number of device tokens in a single device search */
+    private static final int LOOKUP_BATCH_SIZE = 500;
+
     /** Indicates if new devices can register with the system */
     private boolean allowNewDevices = true;
 
@@ -54,6 +79,12 @@ public class DefaultRegistrationManager extends TenantEngineLifecycleComponent i
     /** Area used for automatic assignment */
     private IArea autoAssignArea;
 
+    /** Number of threads used to process registration batches */
+    private int registrationThreads = DEFAULT_REGISTRATION_THREADS;
+
+    /** Executor for processing registration batches */
+    private ExecutorService executor;
+
     public DefaultRegistrationManager() {
 	super(LifecycleComponentType.RegistrationManager);
     }
@@ -67,27 +98,97 @@ public class DefaultRegistrationManager extends TenantEngineLifecycleComponent i
      */
     @Override
     public void handleDeviceRegistration(IDeviceRegistrationRequest request) throws SiteWhereException {
-	getLogger().debug("Handling device registration request.");
-	IDevice device = getDeviceManagement().getDeviceByToken(request.getDeviceToken());
-	IDeviceType deviceType = getDeviceTypeFor(request);
+	handleDeviceRegistrations(Collections.singletonList(request));
+    }
 
-	// Create device if it does not already exist.
-	if (device == null) {
-	    if (!isAllowNewDevices()) {
+    /*
+     * @see com.sitewhere.registration.spi.IRegistrationManager#
+     * handleDeviceRegistrations(java.util.List)
+     */
+    @Override
+    public void handleDeviceRegistrations(List<IDeviceRegistrationRequest> requests) throws SiteWhereException {
+	getLogger().debug("Handling batch of " + requests.size() + " device registration requests.");
+
+	// Coalesce repeated requests for the same device.
+	Map<String, IDeviceRegistrationRequest> byToken = new LinkedHashMap<>();
+	for (IDeviceRegistrationRequest request : requests) {
+	    byToken.put(request.getDeviceToken(), request);
+	}
+
+	// Load existing devices for the whole batch.
+	Map<String, IDevice> existing = getDevicesByToken(new ArrayList<>(byToken.keySet()));
+
+	// Resolve each distinct device type once and queue per-device work.
+	Map<String, IDeviceType> deviceTypes = new HashMap<>();
+	List<RegistrationResult> results = new ArrayList<>();
+	List<Future<RegistrationResult>> pending = new ArrayList<>();
+	for (IDeviceRegistrationRequest request : byToken.values()) {
+	    IDeviceType deviceType = deviceTypes.get(request.getDeviceTypeToken());
+	    if (deviceType == null) {
+		try {
+		    deviceType = getDeviceTypeFor(request);
+		} catch (SiteWhereException e) {
+		    getLogger().warn("Unable to resolve device type for registration: " + e.getMessage());
+		    results.add(
+			    new RegistrationResult(request.getDeviceToken(), RegistrationOutcome.InvalidDeviceType));
+		    continue;
+		}
+		deviceTypes.put(request.getDeviceTypeToken(), deviceType);
+	    }
+	    IDevice device = existing.get(request.getDeviceToken());
+	    if ((device == null) && (!isAllowNewDevices())) {
 		getLogger().warn("Ignoring device registration request since new devices are not allowed.");
-		return;
+		results.add(
+			new RegistrationResult(request.getDeviceToken(), RegistrationOutcome.NewDevicesNotAllowed));
+		continue;
+	    }
+	    if ((device != null) && (!device.getDeviceTypeId().equals(deviceType.getId()))) {
+		getLogger().info("Found existing device registration, but device type does not match.");
+		results.add(new RegistrationResult(request.getDeviceToken(), RegistrationOutcome.InvalidDeviceType));
+		continue;
+	    }
+	    pending.add(executor.submit(new RegistrationCallable(request, deviceType, device)));
+	}
+
+	// Collect results and send acknowledgements for the batch.
+	for (Future<RegistrationResult> future : pending) {
+	    try {
+		results.add(future.get());
+	    } catch (InterruptedException e) {
+		Thread.currentThread().interrupt();
+		throw new SiteWhereException("Interrupted while processing device registrations.", e);
+	    } catch (ExecutionException e) {
+		getLogger().error("Unable to process device registration.", e.getCause());
 	    }
+	}
+	sendRegistrationResults(results);
+    }
+
+    /**
+     * Create or update a single device from a batch and make sure it is
+     * assigned.
+     * 
+     * @param request
+     * @param deviceType
+     * @param device
+     *            existing device or null if it should be created
+     * @return
+     * @throws SiteWhereException
+     */
+    protected RegistrationResult register(IDeviceRegistrationRequest request, IDeviceType deviceType, IDevice device)
+	    throws SiteWhereException {
+	boolean isNewRegistration = false;
+
+	// Create device if it does not already exist.
+	if (device == null) {
 	    getLogger().debug("Creating new device as part of registration.");
 	    DeviceCreateRequest deviceCreate = new DeviceCreateRequest();
 	    deviceCreate.setToken(request.getDeviceToken());
-	    deviceCreate.setDeviceTypeToken(request.getDeviceTypeToken());
+	    deviceCreate.setDeviceTypeToken(deviceType.getToken());
 	    deviceCreate.setComments("Device created by on-demand registration.");
 	    deviceCreate.setMetadata(request.getMetadata());
 	    device = getDeviceManagement().createDevice(deviceCreate);
-	} else if (!device.getDeviceTypeId().equals(deviceType.getId())) {
-	    getLogger().info("Found existing device registration, but device type does not match.");
-	    sendInvalidDeviceType(request.getDeviceToken());
-	    return;
+	    isNewRegistration = true;
 	} else {
 	    getLogger().info("Found existing device registration. Updating metadata.");
 	    DeviceCreateRequest deviceUpdate = new DeviceCreateRequest();
@@ -102,8 +203,57 @@ public class DefaultRegistrationManager extends TenantEngineLifecycleComponent i
 	    assnCreate.setDeviceToken(device.getToken());
 	    getDeviceManagement().createDeviceAssignment(assnCreate);
 	}
-	boolean isNewRegistration = (device != null);
-	sendRegistrationAck(request.getDeviceToken(), isNewRegistration);
+	return new RegistrationResult(request.getDeviceToken(),
+		isNewRegistration ? RegistrationOutcome.NewRegistration : RegistrationOutcome.AlreadyRegistered);
+    }
+
+    /**
+     * Load existing devices for a list of tokens, using one device search per
+     * {@link #LOOKUP_BATCH_SIZE} tokens.
+     * 
+     * @param tokens
+     * @return
+     * @throws SiteWhereException
+     */
+    protected Map<String, IDevice> getDevicesByToken(List<String> tokens) throws SiteWhereException {
+	Map<String, IDevice> devices = new HashMap<>();
+	for (int i = 0; i < tokens.size(); i += LOOKUP_BATCH_SIZE) {
+	    DeviceSearchCriteria criteria = new DeviceSearchCriteria(1, 0, null, null);
+	    criteria.setDeviceTokens(tokens.subList(i, Math.min(i + LOOKUP_BATCH_SIZE, tokens.size())));
+	    for (IDevice device : getDeviceManagement().listDevices(true, criteria).getResults()) {
+		devices.put(device.getToken(), device);
+	    }
+	}
+	return devices;
+    }
+
+    /**
+     * Send acknowledgements for a batch of registration results.
+     * 
+     * @param results
+     * @throws SiteWhereException
+     */
+    protected void sendRegistrationResults(List<RegistrationResult> results) throws SiteWhereException {
+	for (RegistrationResult result : results) {
+	    switch (result.getOutcome()) {
+	    case NewRegistration: {
+		sendRegistrationAck(result.getDeviceToken(), true);
+		break;
+	    }
+	    case AlreadyRegistered: {
+		sendRegistrationAck(result.getDeviceToken(), false);
+		break;
+	    }
+	    case InvalidDeviceType: {
+		sendInvalidDeviceType(result.getDeviceToken());
+		break;
+	    }
+	    case NewDevicesNotAllowed: {
+		sendNoNewDevicesAllowed(result.getDeviceToken());
+		break;
+	    }
+	    }
+	}
     }
 
     /*
@@ -113,7 +263,26 @@ public class DefaultRegistrationManager extends TenantEngineLifecycleComponent i
      */
     @Override
     public void handleUnregisteredDeviceEvent(IInboundEventPayload payload) throws SiteWhereException {
-	getLogger().info("Would be handling unregistered device event for " + payload.getDeviceToken());
+	handleUnregisteredDeviceEvents(Collections.singletonList(payload));
+    }
+
+    /*
+     * @see com.sitewhere.registration.spi.IRegistrationManager#
+     * handleUnregisteredDeviceEvents(java.util.List)
+     */
+    @Override
+    public void handleUnregisteredDeviceEvents(List<IInboundEventPayload> payloads) throws SiteWhereException {
+	// Devices that reconnect together usually send many events each, so only
+	// register each device once per batch.
+	Map<String, IDeviceRegistrationRequest> requests = new LinkedHashMap<>();
+	for (IInboundEventPayload payload : payloads) {
+	    if (!requests.containsKey(payload.getDeviceToken())) {
+		DeviceRegistrationRequest request = new DeviceRegistrationRequest();
+		request.setDeviceToken(payload.getDeviceToken());
+		requests.put(payload.getDeviceToken(), request);
+	    }
+	}
+	handleDeviceRegistrations(new ArrayList<>(requests.values()));
     }
 
     /**
@@ -248,6 +417,7 @@ public class DefaultRegistrationManager extends TenantEngineLifecycleComponent i
      */
     @Override
     public void start(ILifecycleProgressMonitor monitor) throws SiteWhereException {
+	this.executor = Executors.newFixedThreadPool(getRegistrationThreads(), new RegistrationThreadFactory());
 	if (getAutoAssignDeviceTypeId() != null) {
 	    IDeviceType deviceType = getDeviceManagement().getDeviceType(getAutoAssignDeviceTypeId());
 	    if (deviceType == null) {
@@ -264,6 +434,103 @@ public class DefaultRegistrationManager extends TenantEngineLifecycleComponent i
 	}
     }
 
+    /*
+     * @see
+     * com.sitewhere.server.lifecycle.LifecycleComponent#stop(com.sitewhere.spi.
+     * server.lifecycle.ILifecycleProgressMonitor)
+     */
+    @Override
+    public void stop(ILifecycleProgressMonitor monitor) throws SiteWhereException {
+	if (executor != null) {
+	    executor.shutdown();
+	    try {
+		executor.awaitTermination(10, TimeUnit.SECONDS);
+	    } catch (InterruptedException e) {
+		getLogger().warn("Registration executor did not terminate within allotted time.");
+	    }
+	}
+    }
+
+    /**
+     * Outcome of processing a registration request.
+     * 
+     * @author Derek
+     */
+    protected static enum RegistrationOutcome {
+	NewRegistration, AlreadyRegistered, InvalidDeviceType, NewDevicesNotAllowed;
+    }
+
+    /**
+     * Result of processing a registration request.
+     * 
+     * @author Derek
+     */
+    protected static class RegistrationResult {
+
+	/** Token for registered device */
+	private String deviceToken;
+
+	/** Registration outcome */
+	private RegistrationOutcome outcome;
+
+	public RegistrationResult(String deviceToken, RegistrationOutcome outcome) {
+	    this.deviceToken = deviceToken;
+	    this.outcome = outcome;
+	}
+
+	public String getDeviceToken() {
+	    return deviceToken;
+	}
+
+	public RegistrationOutcome getOutcome() {
+	    return outcome;
+	}
+    }
+
+    /**
+     * Processes a single registration from a batch as the system user.
+     * 
+     * @author Derek
+     */
+    private class RegistrationCallable extends SystemUserCallable<RegistrationResult> {
+
+	/** Registration request */
+	private IDeviceRegistrationRequest request;
+
+	/** Resolved device type */
+	private IDeviceType deviceType;
+
+	/** Existing device or null if not registered */
+	private IDevice device;
+
+	public RegistrationCallable(IDeviceRegistrationRequest request, IDeviceType deviceType, IDevice device) {
+	    super(getTenantEngine().getMicroservice(), getTenantEngine().getTenant());
+	    this.request = request;
+	    this.deviceType = deviceType;
+	    this.device = device;
+	}
+
+	/*
+	 * @see com.sitewhere.microservice.security.SystemUserCallable#
+	 * runAsSystemUser()
+	 */
+	@Override
+	public RegistrationResult runAsSystemUser() throws SiteWhereException {
+	    return register(request, deviceType, device);
+	}
+    }
+
+    /** Used for naming registration threads */
+    private class RegistrationThreadFactory implements ThreadFactory {
+
+	/** Counts threads */
+	private AtomicInteger counter = new AtomicInteger();
+
+	public Thread newThread(Runnable r) {
+	    return new Thread(r, "Device Registration " + counter.incrementAndGet());
+	}
+    }
+
     public boolean isAllowNewDevices() {
 	return allowNewDevices;
     }
@@ -272,6 +539,14 @@ public class DefaultRegistrationManager extends TenantEngineLifecycleComponent i
 	this.allowNewDevices = allowNewDevices;
     }
 
+    public int getRegistrationThreads() {
+	return registrationThreads;
+    }
+
+    public void setRegistrationThreads(int registrationThreads) {
+	this.registrationThreads = registrationThreads;
+    }
+
     /*
      * @see
      * com.sitewhere.registration.spi.IRegistrationManager#getAutoAssignDeviceTypeId
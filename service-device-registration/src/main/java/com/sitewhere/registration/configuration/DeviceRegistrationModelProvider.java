@@ -102,6 +102,11 @@ public class DeviceRegistrationModelProvider extends ConfigurationModelProvider
 			.description("Site token used for registering new devices if auto-assign is enabled "
 				+ "and no site token is passed.")
 			.build()));
+	builder.attributeGroup(ConfigurationModelProvider.ATTR_GROUP_PERFORMANCE);
+	builder.attribute((new AttributeNode.Builder("Registration threads", "registrationThreads",
+		AttributeType.Integer, ConfigurationModelProvider.ATTR_GROUP_PERFORMANCE)
+			.description("Number of threads used to process batches of registration requests.")
+			.defaultValue("10").build()));
 	return builder.build();
     }
 }
\ No newline at end of file
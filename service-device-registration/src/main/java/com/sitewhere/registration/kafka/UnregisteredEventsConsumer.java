@@ -29,6 +29,7 @@ import com.sitewhere.registration.spi.kafka.IUnregisteredEventsConsumer;
 import com.sitewhere.registration.spi.microservice.IDeviceRegistrationTenantEngine;
 import com.sitewhere.rest.model.microservice.kafka.payload.InboundEventPayload;
 import com.sitewhere.spi.SiteWhereException;
+import com.sitewhere.spi.microservice.kafka.payload.IInboundEventPayload;
 import com.sitewhere.spi.microservice.multitenant.IMicroserviceTenantEngine;
 import com.sitewhere.spi.server.lifecycle.ILifecycleProgressMonitor;
 
@@ -122,27 +123,31 @@ public class UnregisteredEventsConsumer extends DirectKafkaConsumer implements I
     @Override
     public void attemptToProcess(TopicPartition topicPartition, List<ConsumerRecord<String, byte[]>> records)
 	    throws SiteWhereException {
+	List<byte[]> messages = new ArrayList<byte[]>();
 	for (ConsumerRecord<String, byte[]> record : records) {
-	    received(record.key(), record.value());
+	    messages.add(record.value());
 	}
+	executor.execute(new UnregisteredDeviceEventProcessor(getTenantEngine(), messages));
     }
 
     public void received(String key, byte[] message) throws SiteWhereException {
-	executor.execute(new UnregisteredDeviceEventProcessor(getTenantEngine(), message));
+	List<byte[]> messages = new ArrayList<byte[]>();
+	messages.add(message);
+	executor.execute(new UnregisteredDeviceEventProcessor(getTenantEngine(), messages));
     }
 
     /**
-     * Processor that unmarshals a decoded event for an unregistered device and
-     * hands it off to the registration manager.
+     * Processor that unmarshals a batch of decoded events for unregistered
+     * devices and hands them off to the registration manager together.
      * 
      * @author Derek
      */
     protected class UnregisteredDeviceEventProcessor extends SystemUserRunnable {
 
-	/** Encoded payload */
-	private byte[] encoded;
+	/** Encoded payloads */
+	private List<byte[]> encoded;
 
-	public UnregisteredDeviceEventProcessor(IMicroserviceTenantEngine tenantEngine, byte[] encoded) {
+	public UnregisteredDeviceEventProcessor(IMicroserviceTenantEngine tenantEngine, List<byte[]> encoded) {
 	    super(tenantEngine.getMicroservice(), tenantEngine.getTenant());
 	    this.encoded = encoded;
 	}
@@ -154,20 +159,28 @@ public class UnregisteredEventsConsumer extends DirectKafkaConsumer implements I
 	@Override
 	public void runAsSystemUser() throws SiteWhereException {
 	    try {
-		GInboundEventPayload grpc = KafkaModelMarshaler.parseInboundEventPayloadMessage(encoded);
-		InboundEventPayload eventPayload = KafkaModelConverter.asApiInboundEventPayload(grpc);
-		if (getLogger().isDebugEnabled()) {
-		    getLogger().debug("Received event for unregistered device:\n\n"
-			    + MarshalUtils.marshalJsonAsPrettyString(eventPayload));
+		List<IInboundEventPayload> payloads = new ArrayList<IInboundEventPayload>();
+		for (byte[] message : encoded) {
+		    try {
+			GInboundEventPayload grpc = KafkaModelMarshaler.parseInboundEventPayloadMessage(message);
+			InboundEventPayload eventPayload = KafkaModelConverter.asApiInboundEventPayload(grpc);
+			if (getLogger().isDebugEnabled()) {
+			    getLogger().debug("Received event for unregistered device:\n\n"
+				    + MarshalUtils.marshalJsonAsPrettyString(eventPayload));
+			}
+			payloads.add(eventPayload);
+		    } catch (SiteWhereException e) {
+			getLogger().error("Unable to parse unregistered device event payload.", e);
+		    }
 		}
 
-		// Pass payload to registration manager.
+		// Pass payloads to registration manager.
 		((IDeviceRegistrationTenantEngine) getTenantEngine()).getRegistrationManager()
-			.handleUnregisteredDeviceEvent(eventPayload);
+			.handleUnregisteredDeviceEvents(payloads);
 	    } catch (SiteWhereException e) {
-		getLogger().error("Unable to parse unregistered device event payload.", e);
+		getLogger().error("Unable to process unregistered device event payloads.", e);
 	    } catch (Throwable e) {
-		getLogger().error("Unhandled exception parsing unregistered device event payload.", e);
+		getLogger().error("Unhandled exception processing unregistered device event payloads.", e);
 	    }
 	}
     }
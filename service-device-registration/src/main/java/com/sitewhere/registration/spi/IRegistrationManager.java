@@ -7,6 +7,7 @@
  */
 package com.sitewhere.registration.spi;
 
+import java.util.List;
 import java.util.UUID;
 
 import com.sitewhere.spi.SiteWhereException;
@@ -53,6 +54,16 @@ public interface IRegistrationManager extends ITenantEngineLifecycleComponent {
      */
     public void handleDeviceRegistration(IDeviceRegistrationRequest request) throws SiteWhereException;
 
+    /**
+     * Handle a batch of registration requests. Requests for the same device
+     * token are coalesced and acknowledgements are sent once the batch has been
+     * processed.
+     * 
+     * @param requests
+     * @throws SiteWhereException
+     */
+    public void handleDeviceRegistrations(List<IDeviceRegistrationRequest> requests) throws SiteWhereException;
+
     /**
      * Handle event addressed to unknown device.
      * 
@@ -61,6 +72,15 @@ public interface IRegistrationManager extends ITenantEngineLifecycleComponent {
      */
     public void handleUnregisteredDeviceEvent(IInboundEventPayload payload) throws SiteWhereException;
 
+    /**
+     * Handle a batch of events addressed to unknown devices. Each distinct
+     * device in the batch is registered once using the default device type.
+     * 
+     * @param payloads
+     * @throws SiteWhereException
+     */
+    public void handleUnregisteredDeviceEvents(List<IInboundEventPayload> payloads) throws SiteWhereException;
+
     /**
      * Handle mapping of a device to a path on a composite device.
      * 
@@ -87,6 +87,11 @@ public class DeviceRegistrationParser extends AbstractBeanDefinitionParser {
 	    manager.addPropertyValue("autoAssignToken", autoAssignToken.getValue());
 	}
 
+	Attr registrationThreads = element.getAttributeNode("registrationThreads");
+	if (registrationThreads != null) {
+	    manager.addPropertyValue("registrationThreads", registrationThreads.getValue());
+	}
+
 	context.getRegistry().registerBeanDefinition(DeviceRegistrationBeans.BEAN_REGISTRATION_MANAGER,
 		manager.getBeanDefinition());
     }
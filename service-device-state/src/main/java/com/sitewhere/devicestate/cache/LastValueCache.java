@@ -0,0 +1,563 @@
+/*
+ * Copyright (c) SiteWhere, LLC. All rights reserved. http://www.sitewhere.com
+ *
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package com.sitewhere.devicestate.cache;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.sitewhere.devicestate.spi.ILastValueCache;
+import com.sitewhere.devicestate.spi.microservice.IDeviceStateMicroservice;
+import com.sitewhere.devicestate.spi.microservice.IDeviceStateTenantEngine;
+import com.sitewhere.grpc.client.event.BlockingDeviceEventManagement;
+import com.sitewhere.rest.model.device.event.DeviceMeasurement;
+import com.sitewhere.rest.model.device.state.DeviceAssignmentLastValues;
+import com.sitewhere.rest.model.search.device.DeviceStateSearchCriteria;
+import com.sitewhere.server.lifecycle.TenantEngineLifecycleComponent;
+import com.sitewhere.spi.SiteWhereException;
+import com.sitewhere.spi.device.event.DeviceEventType;
+import com.sitewhere.spi.device.event.IDeviceAlert;
+import com.sitewhere.spi.device.event.IDeviceEvent;
+import com.sitewhere.spi.device.event.IDeviceEventManagement;
+import com.sitewhere.spi.device.event.IDeviceLocation;
+import com.sitewhere.spi.device.event.IDeviceMeasurement;
+import com.sitewhere.spi.device.event.IDeviceMeasurements;
+import com.sitewhere.spi.device.state.IDeviceAssignmentLastValues;
+import com.sitewhere.spi.device.state.IDeviceState;
+import com.sitewhere.spi.device.state.IDeviceStateManagement;
+import com.sitewhere.spi.search.ISearchResults;
+import com.sitewhere.spi.server.lifecycle.ILifecycleProgressMonitor;
+import com.sitewhere.spi.server.lifecycle.LifecycleComponentType;
+
+/**
+ * Implementation of {@link ILastValueCache} that keeps an entry per device
+ * assignment, updated from the enriched events stream. Entries created from the
+ * stream only hold values seen since the tenant engine started, so the first
+ * query for an assignment loads the events referenced by its device state
+ * record and merges them with the entry. The number of entries is bounded and
+ * evicted entries are loaded again on the next query.
+ * 
+ * Each replica only receives events for the partitions it consumes, so entries
+ * for other assignments are not kept current by the stream. An entry that has
+ * been neither loaded nor updated from the stream within the refresh interval
+ * is loaded again from device state when queried. Entries are only created for
+ * queried assignments that have a device state record.
+ * 
+ * With several replicas, most assignments in a large query belong to partitions
+ * consumed elsewhere, so most of its entries are reloaded once per refresh
+ * interval. Reloads for a query are batched: device state records are read
+ * with one query per batch of assignments, and the events they reference are
+ * fetched in parallel by a fixed pool of threads. The event store still sees
+ * one lookup per referenced event, so the refresh interval should be tuned to
+ * how often large queries are made.
+ * 
+ * @author Derek
+ */
+public class LastValueCache extends TenantEngineLifecycleComponent implements ILastValueCache {
+
+    /** Default maximum number of assignments held in cache */
+    private static final int DEFAULT_MAXIMUM_SIZE = 100000;
+
+    /** Default number of seconds before an entry is refreshed from device state */
+    private static final int DEFAULT_REFRESH_INTERVAL_SECONDS = 30;
+
+    /** Default number of threads used to load referenced events */
+    private static final int DEFAULT_LOAD_THREAD_COUNT = 8;
+
+    /** Maximum number of device state records read per query */
+    private static final int LOAD_BATCH_SIZE = 500;
+
+    /** Maximum number of assignments held in cache */
+    private int maximumSize = DEFAULT_MAXIMUM_SIZE;
+
+    /** Number of seconds before an entry is refreshed from device state */
+    private int refreshIntervalSeconds = DEFAULT_REFRESH_INTERVAL_SECONDS;
+
+    /** Number of threads used to load referenced events */
+    private int loadThreadCount = DEFAULT_LOAD_THREAD_COUNT;
+
+    /** Entries by device assignment id */
+    private Cache<UUID, Entry> entries;
+
+    /** Executor for loading referenced events */
+    private ExecutorService executor;
+
+    public LastValueCache() {
+	super(LifecycleComponentType.Other);
+    }
+
+    /*
+     * @see
+     * com.sitewhere.server.lifecycle.LifecycleComponent#initialize(com.sitewhere.
+     * spi.server.lifecycle.ILifecycleProgressMonitor)
+     */
+    @Override
+    public void initialize(ILifecycleProgressMonitor monitor) throws SiteWhereException {
+	this.entries = CacheBuilder.newBuilder().maximumSize(getMaximumSize()).build();
+    }
+
+    /*
+     * @see
+     * com.sitewhere.server.lifecycle.LifecycleComponent#start(com.sitewhere.spi.
+     * server.lifecycle.ILifecycleProgressMonitor)
+     */
+    @Override
+    public void start(ILifecycleProgressMonitor monitor) throws SiteWhereException {
+	this.executor = Executors.newFixedThreadPool(getLoadThreadCount(), new LoaderThreadFactory());
+    }
+
+    /*
+     * @see
+     * com.sitewhere.server.lifecycle.LifecycleComponent#stop(com.sitewhere.spi.
+     * server.lifecycle.ILifecycleProgressMonitor)
+     */
+    @Override
+    public void stop(ILifecycleProgressMonitor monitor) throws SiteWhereException {
+	if (executor != null) {
+	    executor.shutdownNow();
+	}
+	if (entries != null) {
+	    entries.invalidateAll();
+	}
+    }
+
+    /*
+     * @see
+     * com.sitewhere.devicestate.spi.ILastValueCache#update(com.sitewhere.spi.device
+     * .event.IDeviceEvent)
+     */
+    @Override
+    public void update(IDeviceEvent event) throws SiteWhereException {
+	switch (event.getEventType()) {
+	case Measurements:
+	case Location:
+	case Alert: {
+	    Entry entry = getEntry(event.getDeviceAssignmentId());
+	    entry.merge(event, null);
+	    entry.setUpdated(System.currentTimeMillis());
+	    break;
+	}
+	default:
+	}
+    }
+
+    /*
+     * @see
+     * com.sitewhere.devicestate.spi.ILastValueCache#getLastValues(java.util.List)
+     */
+    @Override
+    public List<IDeviceAssignmentLastValues> getLastValues(List<UUID> assignmentIds) throws SiteWhereException {
+	long now = System.currentTimeMillis();
+	long refreshMillis = getRefreshIntervalSeconds() * 1000L;
+	Map<UUID, Entry> found = new HashMap<>();
+	Map<UUID, Entry> stale = new LinkedHashMap<>();
+	for (UUID assignmentId : assignmentIds) {
+	    Entry entry = entries.getIfPresent(assignmentId);
+	    if ((entry == null) || (entry.isStale(now, refreshMillis))) {
+		stale.put(assignmentId, entry);
+	    } else {
+		found.put(assignmentId, entry);
+	    }
+	}
+	if (!stale.isEmpty()) {
+	    found.putAll(load(stale));
+	}
+
+	List<IDeviceAssignmentLastValues> results = new ArrayList<>();
+	for (UUID assignmentId : assignmentIds) {
+	    Entry entry = found.get(assignmentId);
+	    if (entry != null) {
+		results.add(entry.snapshot(assignmentId));
+	    } else {
+		DeviceAssignmentLastValues empty = new DeviceAssignmentLastValues();
+		empty.setDeviceAssignmentId(assignmentId);
+		results.add(empty);
+	    }
+	}
+	return results;
+    }
+
+    /**
+     * Get entry for an assignment, creating it if not present.
+     * 
+     * @param assignmentId
+     * @return
+     */
+    protected Entry getEntry(UUID assignmentId) {
+	Entry entry = entries.getIfPresent(assignmentId);
+	if (entry == null) {
+	    Entry created = new Entry();
+	    entry = entries.asMap().putIfAbsent(assignmentId, created);
+	    if (entry == null) {
+		entry = created;
+	    }
+	}
+	return entry;
+    }
+
+    /**
+     * Load events referenced by device state for a group of assignments and merge
+     * them into their entries. Device state records are read in batches and the
+     * referenced events are fetched in parallel. Entries are only created for
+     * assignments that have a device state record.
+     * 
+     * @param assignments
+     *            existing entries by assignment id (null values if not cached)
+     * @return entries by assignment id for cached assignments and those with
+     *         device state
+     * @throws SiteWhereException
+     */
+    protected Map<UUID, Entry> load(Map<UUID, Entry> assignments) throws SiteWhereException {
+	long now = System.currentTimeMillis();
+	Map<UUID, Entry> loaded = new HashMap<>();
+	for (Map.Entry<UUID, Entry> existing : assignments.entrySet()) {
+	    if (existing.getValue() != null) {
+		loaded.put(existing.getKey(), existing.getValue());
+	    }
+	}
+	List<EventLoader> loaders = new ArrayList<>();
+	List<UUID> ids = new ArrayList<>(assignments.keySet());
+	for (int i = 0; i < ids.size(); i += LOAD_BATCH_SIZE) {
+	    DeviceStateSearchCriteria criteria = new DeviceStateSearchCriteria(1, 0);
+	    criteria.setDeviceAssignmentIds(ids.subList(i, Math.min(i + LOAD_BATCH_SIZE, ids.size())));
+	    ISearchResults<IDeviceState> states = getDeviceStateManagement().listDeviceStates(criteria);
+	    for (IDeviceState state : states.getResults()) {
+		Entry entry = assignments.get(state.getDeviceAssignmentId());
+		if (entry == null) {
+		    entry = getEntry(state.getDeviceAssignmentId());
+		}
+		loaded.put(state.getDeviceAssignmentId(), entry);
+		addEventLoaders(state, entry, loaders);
+	    }
+	}
+	loadEvents(loaders);
+	for (Entry entry : loaded.values()) {
+	    entry.setLoaded(now);
+	}
+	return loaded;
+    }
+
+    /**
+     * Add loaders for events referenced by a device state record.
+     * 
+     * @param state
+     * @param entry
+     * @param loaders
+     */
+    protected void addEventLoaders(IDeviceState state, Entry entry, List<EventLoader> loaders) {
+	if (state.getLastLocationEventId() != null) {
+	    loaders.add(new EventLoader(state.getDeviceId(), state.getLastLocationEventId(), entry, null));
+	}
+	if (state.getLastMeasurementEventIds() != null) {
+	    Map<UUID, Set<String>> namesByEventId = new HashMap<>();
+	    for (Map.Entry<String, UUID> mx : state.getLastMeasurementEventIds().entrySet()) {
+		Set<String> names = namesByEventId.get(mx.getValue());
+		if (names == null) {
+		    names = new HashSet<>();
+		    namesByEventId.put(mx.getValue(), names);
+		}
+		names.add(mx.getKey());
+	    }
+	    for (Map.Entry<UUID, Set<String>> mx : namesByEventId.entrySet()) {
+		loaders.add(new EventLoader(state.getDeviceId(), mx.getKey(), entry, mx.getValue()));
+	    }
+	}
+	if (state.getLastAlertEventIds() != null) {
+	    for (UUID alertId : state.getLastAlertEventIds().values()) {
+		loaders.add(new EventLoader(state.getDeviceId(), alertId, entry, null));
+	    }
+	}
+    }
+
+    /**
+     * Run event loaders in parallel and wait for all of them to finish.
+     * 
+     * @param loaders
+     * @throws SiteWhereException
+     */
+    protected void loadEvents(List<EventLoader> loaders) throws SiteWhereException {
+	if (loaders.isEmpty()) {
+	    return;
+	}
+	IDeviceEventManagement events = getDeviceEventManagement();
+	Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+	List<Future<?>> pending = new ArrayList<>();
+	for (EventLoader loader : loaders) {
+	    loader.setEvents(events);
+	    loader.setAuthentication(authentication);
+	    pending.add(executor.submit(loader));
+	}
+	try {
+	    for (Future<?> future : pending) {
+		future.get();
+	    }
+	} catch (InterruptedException e) {
+	    Thread.currentThread().interrupt();
+	    throw new SiteWhereException("Interrupted while loading last values.", e);
+	} catch (ExecutionException e) {
+	    throw new SiteWhereException("Unable to load last values.", e.getCause());
+	} finally {
+	    for (Future<?> future : pending) {
+		future.cancel(true);
+	    }
+	}
+    }
+
+    /**
+     * Indicates whether a candidate event is at least as recent as the current
+     * one.
+     * 
+     * @param current
+     * @param candidate
+     * @return
+     */
+    protected static boolean isNewer(IDeviceEvent current, IDeviceEvent candidate) {
+	if ((current == null) || (current.getEventDate() == null)) {
+	    return true;
+	}
+	return (candidate.getEventDate() != null) && !candidate.getEventDate().before(current.getEventDate());
+    }
+
+    /**
+     * Create a single measurement from a measurements event.
+     * 
+     * @param mxs
+     * @param name
+     * @param value
+     * @return
+     */
+    protected static DeviceMeasurement asMeasurement(IDeviceMeasurements mxs, String name, Double value) {
+	DeviceMeasurement mx = new DeviceMeasurement();
+	mx.setId(mxs.getId());
+	mx.setAlternateId(mxs.getAlternateId());
+	mx.setDeviceId(mxs.getDeviceId());
+	mx.setDeviceAssignmentId(mxs.getDeviceAssignmentId());
+	mx.setCustomerId(mxs.getCustomerId());
+	mx.setAreaId(mxs.getAreaId());
+	mx.setAssetId(mxs.getAssetId());
+	mx.setEventDate(mxs.getEventDate());
+	mx.setReceivedDate(mxs.getReceivedDate());
+	mx.setName(name);
+	mx.setValue(value);
+	return mx;
+    }
+
+    /**
+     * Latest values held for a single assignment.
+     * 
+     * @author Derek
+     */
+    protected static class Entry {
+
+	/** Latest value for each measurement name */
+	private Map<String, IDeviceMeasurement> measurements = new HashMap<>();
+
+	/** Latest location */
+	private IDeviceLocation location;
+
+	/** Latest alert for each alert type */
+	private Map<String, IDeviceAlert> alerts = new HashMap<>();
+
+	/** Time values referenced by device state were last merged (0 if never) */
+	private volatile long loaded = 0;
+
+	/** Time of last update from the events stream */
+	private volatile long updated = 0;
+
+	/**
+	 * Merge an event into the entry.
+	 * 
+	 * @param event
+	 * @param names
+	 *            measurement names to merge or null for all
+	 */
+	public synchronized void merge(IDeviceEvent event, Set<String> names) {
+	    if (event.getEventType() == DeviceEventType.Measurements) {
+		IDeviceMeasurements mxs = (IDeviceMeasurements) event;
+		for (Map.Entry<String, Double> mx : mxs.getMeasurements().entrySet()) {
+		    if (((names == null) || names.contains(mx.getKey()))
+			    && isNewer(measurements.get(mx.getKey()), mxs)) {
+			measurements.put(mx.getKey(), asMeasurement(mxs, mx.getKey(), mx.getValue()));
+		    }
+		}
+	    } else if (event.getEventType() == DeviceEventType.Location) {
+		if (isNewer(location, event)) {
+		    location = (IDeviceLocation) event;
+		}
+	    } else if (event.getEventType() == DeviceEventType.Alert) {
+		IDeviceAlert alert = (IDeviceAlert) event;
+		if (isNewer(alerts.get(alert.getType()), alert)) {
+		    alerts.put(alert.getType(), alert);
+		}
+	    }
+	}
+
+	/**
+	 * Create a copy of the current values.
+	 * 
+	 * @param assignmentId
+	 * @return
+	 */
+	public synchronized DeviceAssignmentLastValues snapshot(UUID assignmentId) {
+	    DeviceAssignmentLastValues values = new DeviceAssignmentLastValues();
+	    values.setDeviceAssignmentId(assignmentId);
+	    values.getLastMeasurements().putAll(measurements);
+	    values.setLastLocation(location);
+	    values.getLastAlerts().putAll(alerts);
+	    return values;
+	}
+
+	/**
+	 * Indicates whether the entry should be loaded from device state before
+	 * being returned.
+	 * 
+	 * @param now
+	 * @param refreshMillis
+	 * @return
+	 */
+	public boolean isStale(long now, long refreshMillis) {
+	    return (loaded == 0) || ((now - Math.max(loaded, updated)) > refreshMillis);
+	}
+
+	public long getLoaded() {
+	    return loaded;
+	}
+
+	public void setLoaded(long loaded) {
+	    this.loaded = loaded;
+	}
+
+	public long getUpdated() {
+	    return updated;
+	}
+
+	public void setUpdated(long updated) {
+	    this.updated = updated;
+	}
+    }
+
+    /**
+     * Loads a single event referenced by device state and merges it into an
+     * entry.
+     * 
+     * @author Derek
+     */
+    protected static class EventLoader implements Callable<Void> {
+
+	/** Device id */
+	private UUID deviceId;
+
+	/** Event id */
+	private UUID eventId;
+
+	/** Entry event is merged into */
+	private Entry entry;
+
+	/** Measurement names to merge or null for all */
+	private Set<String> names;
+
+	/** Event management implementation */
+	private IDeviceEventManagement events;
+
+	/** Authentication of user that made the query */
+	private Authentication authentication;
+
+	public EventLoader(UUID deviceId, UUID eventId, Entry entry, Set<String> names) {
+	    this.deviceId = deviceId;
+	    this.eventId = eventId;
+	    this.entry = entry;
+	    this.names = names;
+	}
+
+	/*
+	 * @see java.util.concurrent.Callable#call()
+	 */
+	@Override
+	public Void call() throws Exception {
+	    SecurityContextHolder.getContext().setAuthentication(authentication);
+	    try {
+		IDeviceEvent event = events.getDeviceEventById(deviceId, eventId);
+		if (event != null) {
+		    entry.merge(event, names);
+		}
+		return null;
+	    } finally {
+		SecurityContextHolder.getContext().setAuthentication(null);
+	    }
+	}
+
+	public void setEvents(IDeviceEventManagement events) {
+	    this.events = events;
+	}
+
+	public void setAuthentication(Authentication authentication) {
+	    this.authentication = authentication;
+	}
+    }
+
+    /** Used for naming event loader threads */
+    private class LoaderThreadFactory implements ThreadFactory {
+
+	/** Counts threads */
+	private AtomicInteger counter = new AtomicInteger();
+
+	public Thread newThread(Runnable r) {
+	    return new Thread(r, "Last Value Loader " + counter.incrementAndGet());
+	}
+    }
+
+    protected IDeviceStateManagement getDeviceStateManagement() {
+	return ((IDeviceStateTenantEngine) getTenantEngine()).getDeviceStateManagement();
+    }
+
+    protected IDeviceEventManagement getDeviceEventManagement() {
+	return new BlockingDeviceEventManagement(
+		((IDeviceStateMicroservice) getMicroservice()).getDeviceEventManagementApiDemux().getApiChannel());
+    }
+
+    public int getMaximumSize() {
+	return maximumSize;
+    }
+
+    public void setMaximumSize(int maximumSize) {
+	this.maximumSize = maximumSize;
+    }
+
+    public int getRefreshIntervalSeconds() {
+	return refreshIntervalSeconds;
+    }
+
+    public void setRefreshIntervalSeconds(int refreshIntervalSeconds) {
+	this.refreshIntervalSeconds = refreshIntervalSeconds;
+    }
+
+    public int getLoadThreadCount() {
+	return loadThreadCount;
+    }
+
+    public void setLoadThreadCount(int loadThreadCount) {
+	this.loadThreadCount = loadThreadCount;
+    }
+}
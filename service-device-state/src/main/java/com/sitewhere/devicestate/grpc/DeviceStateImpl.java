@@ -7,6 +7,9 @@
  */
 package com.sitewhere.devicestate.grpc;
 
+import java.util.List;
+
+import com.sitewhere.devicestate.spi.ILastValueCache;
 import com.sitewhere.devicestate.spi.microservice.IDeviceStateMicroservice;
 import com.sitewhere.grpc.client.GrpcUtils;
 import com.sitewhere.grpc.client.spi.server.IGrpcApiImplementation;
@@ -22,10 +25,13 @@ import com.sitewhere.grpc.service.GGetDeviceStateByDeviceAssignmentIdRequest;
 import com.sitewhere.grpc.service.GGetDeviceStateByDeviceAssignmentIdResponse;
 import com.sitewhere.grpc.service.GGetDeviceStateRequest;
 import com.sitewhere.grpc.service.GGetDeviceStateResponse;
+import com.sitewhere.grpc.service.GGetLastValuesForAssignmentsRequest;
+import com.sitewhere.grpc.service.GGetLastValuesForAssignmentsResponse;
 import com.sitewhere.grpc.service.GListDeviceStatesRequest;
 import com.sitewhere.grpc.service.GListDeviceStatesResponse;
 import com.sitewhere.grpc.service.GUpdateDeviceStateRequest;
 import com.sitewhere.grpc.service.GUpdateDeviceStateResponse;
+import com.sitewhere.spi.device.state.IDeviceAssignmentLastValues;
 import com.sitewhere.spi.device.state.IDeviceState;
 import com.sitewhere.spi.device.state.IDeviceStateManagement;
 import com.sitewhere.spi.device.state.request.IDeviceStateCreateRequest;
@@ -47,9 +53,14 @@ public class DeviceStateImpl extends DeviceStateGrpc.DeviceStateImplBase impleme
     /** Device state management persistence */
     private IDeviceStateManagement deviceStateManagement;
 
-    public DeviceStateImpl(IDeviceStateMicroservice microservice, IDeviceStateManagement deviceStateManagement) {
+    /** Cache of latest values per assignment */
+    private ILastValueCache lastValueCache;
+
+    public DeviceStateImpl(IDeviceStateMicroservice microservice, IDeviceStateManagement deviceStateManagement,
+	    ILastValueCache lastValueCache) {
 	this.microservice = microservice;
 	this.deviceStateManagement = deviceStateManagement;
+	this.lastValueCache = lastValueCache;
     }
 
     /*
@@ -207,6 +218,32 @@ public class DeviceStateImpl extends DeviceStateGrpc.DeviceStateImplBase impleme
 	}
     }
 
+    /*
+     * @see com.sitewhere.grpc.service.DeviceStateGrpc.DeviceStateImplBase#
+     * getLastValuesForAssignments(com.sitewhere.grpc.service.
+     * GGetLastValuesForAssignmentsRequest, io.grpc.stub.StreamObserver)
+     */
+    @Override
+    public void getLastValuesForAssignments(GGetLastValuesForAssignmentsRequest request,
+	    StreamObserver<GGetLastValuesForAssignmentsResponse> responseObserver) {
+	try {
+	    GrpcUtils.handleServerMethodEntry(this, DeviceStateGrpc.getGetLastValuesForAssignmentsMethod());
+	    List<IDeviceAssignmentLastValues> apiResult = getLastValueCache()
+		    .getLastValues(CommonModelConverter.asApiUuids(request.getDeviceAssignmentIdsList()));
+	    GGetLastValuesForAssignmentsResponse.Builder response = GGetLastValuesForAssignmentsResponse.newBuilder();
+	    for (IDeviceAssignmentLastValues values : apiResult) {
+		response.addLastValues(DeviceStateModelConverter.asGrpcDeviceAssignmentLastValues(values));
+	    }
+	    responseObserver.onNext(response.build());
+	    responseObserver.onCompleted();
+	} catch (Throwable e) {
+	    GrpcUtils.handleServerMethodException(DeviceStateGrpc.getGetLastValuesForAssignmentsMethod(), e,
+		    responseObserver);
+	} finally {
+	    GrpcUtils.handleServerMethodExit(DeviceStateGrpc.getGetLastValuesForAssignmentsMethod());
+	}
+    }
+
     /*
      * @see
      * com.sitewhere.grpc.client.spi.server.IGrpcApiImplementation#getMicroservice()
@@ -219,4 +256,8 @@ public class DeviceStateImpl extends DeviceStateGrpc.DeviceStateImplBase impleme
     protected IDeviceStateManagement getDeviceStateManagement() {
 	return deviceStateManagement;
     }
+
+    protected ILastValueCache getLastValueCache() {
+	return lastValueCache;
+    }
 }
\ No newline at end of file
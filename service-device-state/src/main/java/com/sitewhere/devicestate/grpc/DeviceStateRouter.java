@@ -26,6 +26,8 @@ import com.sitewhere.grpc.service.GGetDeviceStateByDeviceAssignmentIdRequest;
 import com.sitewhere.grpc.service.GGetDeviceStateByDeviceAssignmentIdResponse;
 import com.sitewhere.grpc.service.GGetDeviceStateRequest;
 import com.sitewhere.grpc.service.GGetDeviceStateResponse;
+import com.sitewhere.grpc.service.GGetLastValuesForAssignmentsRequest;
+import com.sitewhere.grpc.service.GGetLastValuesForAssignmentsResponse;
 import com.sitewhere.grpc.service.GListDeviceStatesRequest;
 import com.sitewhere.grpc.service.GListDeviceStatesResponse;
 import com.sitewhere.grpc.service.GUpdateDeviceStateRequest;
@@ -156,6 +158,20 @@ public class DeviceStateRouter extends DeviceStateGrpc.DeviceStateImplBase
 	}
     }
 
+    /*
+     * @see com.sitewhere.grpc.service.DeviceStateGrpc.DeviceStateImplBase#
+     * getLastValuesForAssignments(com.sitewhere.grpc.service.
+     * GGetLastValuesForAssignmentsRequest, io.grpc.stub.StreamObserver)
+     */
+    @Override
+    public void getLastValuesForAssignments(GGetLastValuesForAssignmentsRequest request,
+	    StreamObserver<GGetLastValuesForAssignmentsResponse> responseObserver) {
+	DeviceStateGrpc.DeviceStateImplBase engine = getTenantImplementation(responseObserver);
+	if (engine != null) {
+	    engine.getLastValuesForAssignments(request, responseObserver);
+	}
+    }
+
     protected IDeviceStateMicroservice getMicroservice() {
 	return microservice;
     }
@@ -7,9 +7,11 @@
  */
 package com.sitewhere.devicestate.microservice;
 
+import com.sitewhere.devicestate.cache.LastValueCache;
 import com.sitewhere.devicestate.grpc.DeviceStateImpl;
 import com.sitewhere.devicestate.kafka.DeviceStateEnrichedEventsConsumer;
 import com.sitewhere.devicestate.spi.IDevicePresenceManager;
+import com.sitewhere.devicestate.spi.ILastValueCache;
 import com.sitewhere.devicestate.spi.kafka.IDeviceStateEnrichedEventsConsumer;
 import com.sitewhere.devicestate.spi.microservice.IDeviceStateMicroservice;
 import com.sitewhere.devicestate.spi.microservice.IDeviceStateTenantEngine;
@@ -45,6 +47,9 @@ public class DeviceStateTenantEngine extends MicroserviceTenantEngine implements
     /** Presence manager implementation */
     private IDevicePresenceManager devicePresenceManager;
 
+    /** Cache of latest values per assignment */
+    private ILastValueCache lastValueCache;
+
     public DeviceStateTenantEngine(ITenant tenant) {
 	super(tenant);
     }
@@ -60,8 +65,9 @@ public class DeviceStateTenantEngine extends MicroserviceTenantEngine implements
 	IDeviceStateManagement implementation = (IDeviceStateManagement) getModuleContext()
 		.getBean(DeviceStateManagementBeans.BEAN_DEVICE_STATE_MANAGEMENT);
 	this.deviceStateManagement = implementation;
+	this.lastValueCache = new LastValueCache();
 	this.deviceStateImpl = new DeviceStateImpl((IDeviceStateMicroservice) getMicroservice(),
-		getDeviceStateManagement());
+		getDeviceStateManagement(), getLastValueCache());
 
 	// Create enriched events consumer for building device state.
 	this.deviceStateEnrichedEventsConsumer = new DeviceStateEnrichedEventsConsumer();
@@ -79,6 +85,9 @@ public class DeviceStateTenantEngine extends MicroserviceTenantEngine implements
 	// Initialize device state management persistence.
 	init.addInitializeStep(this, getDeviceStateManagement(), true);
 
+	// Initialize last value cache.
+	init.addInitializeStep(this, getLastValueCache(), true);
+
 	// Initialize device state enriched events consumer.
 	init.addInitializeStep(this, getDeviceStateEnrichedEventsConsumer(), true);
 
@@ -104,6 +113,9 @@ public class DeviceStateTenantEngine extends MicroserviceTenantEngine implements
 	// Start device state management persistence.
 	start.addStartStep(this, getDeviceStateManagement(), true);
 
+	// Start last value cache.
+	start.addStartStep(this, getLastValueCache(), true);
+
 	// Start device state enriched events consumer.
 	start.addStartStep(this, getDeviceStateEnrichedEventsConsumer(), true);
 
@@ -139,6 +151,9 @@ public class DeviceStateTenantEngine extends MicroserviceTenantEngine implements
 	// Stop device state enriched events consumer.
 	stop.addStopStep(this, getDeviceStateEnrichedEventsConsumer());
 
+	// Stop last value cache.
+	stop.addStopStep(this, getLastValueCache());
+
 	// Stop device state management persistence.
 	stop.addStopStep(this, getDeviceStateManagement());
 
@@ -201,4 +216,17 @@ public class DeviceStateTenantEngine extends MicroserviceTenantEngine implements
     protected void setDevicePresenceManager(IDevicePresenceManager devicePresenceManager) {
 	this.devicePresenceManager = devicePresenceManager;
     }
+
+    /*
+     * @see com.sitewhere.devicestate.spi.microservice.IDeviceStateTenantEngine#
+     * getLastValueCache()
+     */
+    @Override
+    public ILastValueCache getLastValueCache() {
+	return lastValueCache;
+    }
+
+    protected void setLastValueCache(ILastValueCache lastValueCache) {
+	this.lastValueCache = lastValueCache;
+    }
 }
\ No newline at end of file
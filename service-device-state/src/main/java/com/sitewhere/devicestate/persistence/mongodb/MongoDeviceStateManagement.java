@@ -177,6 +177,10 @@ public class MongoDeviceStateManagement extends TenantEngineLifecycleComponent i
 	    dateClause.append("$lte", criteria.getLastInteractionDateBefore());
 	    dbCriteria.put(MongoDeviceState.PROP_LAST_INTERACTION_DATE, dateClause);
 	}
+	if (criteria.getDeviceAssignmentIds() != null) {
+	    dbCriteria.put(MongoDeviceState.PROP_DEVICE_ASSIGNMENT_ID,
+		    new Document("$in", criteria.getDeviceAssignmentIds()));
+	}
 	Document sort = new Document(MongoDeviceState.PROP_LAST_INTERACTION_DATE, 1);
 	return MongoPersistence.search(IDeviceState.class, states, dbCriteria, sort, criteria, LOOKUP);
     }
@@ -8,15 +8,22 @@
 package com.sitewhere.devicestate.processing;
 
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.UUID;
 
 import org.apache.kafka.clients.consumer.ConsumerRecord;
 
 import com.codahale.metrics.Meter;
 import com.sitewhere.common.MarshalUtils;
+import com.sitewhere.devicestate.spi.ILastValueCache;
+import com.sitewhere.devicestate.spi.microservice.IDeviceStateMicroservice;
 import com.sitewhere.devicestate.spi.microservice.IDeviceStateTenantEngine;
 import com.sitewhere.devicestate.spi.processing.IDeviceStateProcessingLogic;
 import com.sitewhere.grpc.kafka.model.KafkaModel.GEnrichedEventPayload;
+import com.sitewhere.grpc.client.event.BlockingDeviceEventManagement;
+import com.sitewhere.grpc.kafka.model.KafkaModel.GEventReplayStage;
 import com.sitewhere.grpc.model.converter.KafkaModelConverter;
 import com.sitewhere.grpc.model.marshaler.KafkaModelMarshaler;
 import com.sitewhere.rest.model.device.state.request.DeviceStateCreateRequest;
@@ -25,6 +32,7 @@ import com.sitewhere.server.lifecycle.TenantEngineLifecycleComponent;
 import com.sitewhere.spi.SiteWhereException;
 import com.sitewhere.spi.device.event.IDeviceAlert;
 import com.sitewhere.spi.device.event.IDeviceEvent;
+import com.sitewhere.spi.device.event.IDeviceEventManagement;
 import com.sitewhere.spi.device.event.IDeviceLocation;
 import com.sitewhere.spi.device.event.IDeviceMeasurements;
 import com.sitewhere.spi.device.state.IDeviceState;
@@ -33,7 +41,9 @@ import com.sitewhere.spi.server.lifecycle.ILifecycleProgressMonitor;
 
 /**
  * Processing logic applied to enriched inbound event payloads in order to
- * capture device state.
+ * capture device state. Replayed events are historical, so they only replace
+ * event references that point to older events and never change interaction or
+ * presence dates.
  * 
  * @author Derek
  */
@@ -93,12 +103,16 @@ public class DeviceStateProcessingLogic extends TenantEngineLifecycleComponent i
 	getProcessedEvents().mark();
 	try {
 	    GEnrichedEventPayload grpc = KafkaModelMarshaler.parseEnrichedEventPayloadMessage(record.value());
+	    if (!KafkaModelConverter.isProcessedByStage(grpc, GEventReplayStage.REPLAY_STAGE_DEVICE_STATE)) {
+		return;
+	    }
 	    EnrichedEventPayload payload = KafkaModelConverter.asApiEnrichedEventPayload(grpc);
 	    if (getLogger().isDebugEnabled()) {
 		getLogger().debug(
 			"Received enriched event payload:\n\n" + MarshalUtils.marshalJsonAsPrettyString(payload));
 	    }
-	    processDeviceStateEvent(payload);
+	    getLastValueCache().update(payload.getEvent());
+	    processDeviceStateEvent(payload, grpc.hasReplay());
 	} catch (SiteWhereException e) {
 	    getLogger().error("Unable to process outbound connector event payload.", e);
 	} catch (Throwable e) {
@@ -110,9 +124,11 @@ public class DeviceStateProcessingLogic extends TenantEngineLifecycleComponent i
      * Process a single enriched event to capture device state.
      * 
      * @param payload
+     * @param replayed
      * @throws SiteWhereException
      */
-    protected void processDeviceStateEvent(EnrichedEventPayload payload) throws SiteWhereException {
+    protected void processDeviceStateEvent(EnrichedEventPayload payload, boolean replayed)
+	    throws SiteWhereException {
 	// Only process events that affect state.
 	IDeviceEvent event = payload.getEvent();
 	IDeviceState original = getDeviceStateManagement()
@@ -125,7 +141,7 @@ public class DeviceStateProcessingLogic extends TenantEngineLifecycleComponent i
 	}
 	default: {
 	    // Allow other events to trigger presence detected.
-	    if ((original == null) || (original.getPresenceMissingDate() == null)) {
+	    if (replayed || (original == null) || (original.getPresenceMissingDate() == null)) {
 		return;
 	    }
 	}
@@ -133,16 +149,25 @@ public class DeviceStateProcessingLogic extends TenantEngineLifecycleComponent i
 	DeviceStateCreateRequest request = new DeviceStateCreateRequest();
 	request.setDeviceId(event.getDeviceId());
 	request.setDeviceAssignmentId(event.getDeviceAssignmentId());
-	request.setLastInteractionDate(new Date());
-	request.setPresenceMissingDate(null);
+	if (replayed) {
+	    request.setLastInteractionDate((original != null) ? original.getLastInteractionDate() : null);
+	    request.setPresenceMissingDate((original != null) ? original.getPresenceMissingDate() : null);
+	} else {
+	    request.setLastInteractionDate(new Date());
+	    request.setPresenceMissingDate(null);
+	}
 
 	// Merge alert information.
+	boolean changed = true;
 	if (event instanceof IDeviceLocation) {
-	    mergeDeviceLocation((IDeviceLocation) event, original, request);
+	    changed = mergeDeviceLocation((IDeviceLocation) event, original, request, replayed);
 	} else if (event instanceof IDeviceAlert) {
-	    mergeDeviceAlert((IDeviceAlert) event, original, request);
+	    changed = mergeDeviceAlert((IDeviceAlert) event, original, request, replayed);
 	} else if (event instanceof IDeviceMeasurements) {
-	    mergeDeviceMeasurements((IDeviceMeasurements) event, original, request);
+	    changed = mergeDeviceMeasurements((IDeviceMeasurements) event, original, request, replayed);
+	}
+	if (!changed) {
+	    return;
 	}
 
 	// Create or update device state.
@@ -159,10 +184,18 @@ public class DeviceStateProcessingLogic extends TenantEngineLifecycleComponent i
      * @param location
      * @param original
      * @param request
+     * @param replayed
+     * @return true if device state changed
+     * @throws SiteWhereException
      */
-    protected void mergeDeviceLocation(IDeviceLocation location, IDeviceState original,
-	    DeviceStateCreateRequest request) {
+    protected boolean mergeDeviceLocation(IDeviceLocation location, IDeviceState original,
+	    DeviceStateCreateRequest request, boolean replayed) throws SiteWhereException {
+	if (replayed && (original != null)
+		&& isSuperseded(location, original.getLastLocationEventId(), new HashMap<UUID, Date>())) {
+	    return false;
+	}
 	request.setLastLocationEventId(location.getId());
+	return true;
     }
 
     /**
@@ -171,12 +204,21 @@ public class DeviceStateProcessingLogic extends TenantEngineLifecycleComponent i
      * @param alert
      * @param original
      * @param request
+     * @param replayed
+     * @return true if device state changed
+     * @throws SiteWhereException
      */
-    protected void mergeDeviceAlert(IDeviceAlert alert, IDeviceState original, DeviceStateCreateRequest request) {
+    protected boolean mergeDeviceAlert(IDeviceAlert alert, IDeviceState original, DeviceStateCreateRequest request,
+	    boolean replayed) throws SiteWhereException {
 	if (original != null) {
+	    if (replayed && isSuperseded(alert, original.getLastAlertEventIds().get(alert.getType()),
+		    new HashMap<UUID, Date>())) {
+		return false;
+	    }
 	    request.getLastAlertEventIds().putAll(original.getLastAlertEventIds());
 	}
 	request.getLastAlertEventIds().put(alert.getType(), alert.getId());
+	return true;
     }
 
     /**
@@ -185,15 +227,53 @@ public class DeviceStateProcessingLogic extends TenantEngineLifecycleComponent i
      * @param mxs
      * @param original
      * @param request
+     * @param replayed
+     * @return true if device state changed
+     * @throws SiteWhereException
      */
-    protected void mergeDeviceMeasurements(IDeviceMeasurements mxs, IDeviceState original,
-	    DeviceStateCreateRequest request) {
+    protected boolean mergeDeviceMeasurements(IDeviceMeasurements mxs, IDeviceState original,
+	    DeviceStateCreateRequest request, boolean replayed) throws SiteWhereException {
 	if (original != null) {
 	    request.getLastMeasurementEventIds().putAll(original.getLastMeasurementEventIds());
 	}
+	Map<UUID, Date> referencedDates = new HashMap<>();
+	boolean changed = false;
 	for (String mxKey : mxs.getMeasurements().keySet()) {
+	    if (replayed && isSuperseded(mxs, request.getLastMeasurementEventIds().get(mxKey), referencedDates)) {
+		continue;
+	    }
 	    request.getLastMeasurementEventIds().put(mxKey, mxs.getId());
+	    changed = true;
 	}
+	return changed;
+    }
+
+    /**
+     * Indicates whether a replayed event should not replace the event currently
+     * referenced by device state, either because it is the same event or because
+     * the referenced event is newer.
+     * 
+     * @param event
+     * @param referencedId
+     * @param referencedDates
+     *            dates of referenced events already loaded
+     * @return
+     * @throws SiteWhereException
+     */
+    protected boolean isSuperseded(IDeviceEvent event, UUID referencedId, Map<UUID, Date> referencedDates)
+	    throws SiteWhereException {
+	if (referencedId == null) {
+	    return false;
+	}
+	if (referencedId.equals(event.getId())) {
+	    return true;
+	}
+	if (!referencedDates.containsKey(referencedId)) {
+	    IDeviceEvent referenced = getDeviceEventManagement().getDeviceEventById(event.getDeviceId(), referencedId);
+	    referencedDates.put(referencedId, (referenced != null) ? referenced.getEventDate() : null);
+	}
+	Date referencedDate = referencedDates.get(referencedId);
+	return (referencedDate != null) && (event.getEventDate() != null) && event.getEventDate().before(referencedDate);
     }
 
     protected Meter getProcessedEvents() {
@@ -203,4 +283,13 @@ public class DeviceStateProcessingLogic extends TenantEngineLifecycleComponent i
     protected IDeviceStateManagement getDeviceStateManagement() {
 	return ((IDeviceStateTenantEngine) getTenantEngine()).getDeviceStateManagement();
     }
+
+    protected ILastValueCache getLastValueCache() {
+	return ((IDeviceStateTenantEngine) getTenantEngine()).getLastValueCache();
+    }
+
+    protected IDeviceEventManagement getDeviceEventManagement() {
+	return new BlockingDeviceEventManagement(
+		((IDeviceStateMicroservice) getMicroservice()).getDeviceEventManagementApiDemux().getApiChannel());
+    }
 }
\ No newline at end of file
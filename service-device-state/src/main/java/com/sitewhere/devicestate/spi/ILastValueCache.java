@@ -0,0 +1,45 @@
+/*
+ * Copyright (c) SiteWhere, LLC. All rights reserved. http://www.sitewhere.com
+ *
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package com.sitewhere.devicestate.spi;
+
+import java.util.List;
+import java.util.UUID;
+
+import com.sitewhere.spi.SiteWhereException;
+import com.sitewhere.spi.device.event.IDeviceEvent;
+import com.sitewhere.spi.device.state.IDeviceAssignmentLastValues;
+import com.sitewhere.spi.server.lifecycle.ITenantEngineLifecycleComponent;
+
+/**
+ * Keeps the latest measurement values, location and alerts for device
+ * assignments in memory so that current values may be queried without reading
+ * from the event store.
+ * 
+ * @author Derek
+ */
+public interface ILastValueCache extends ITenantEngineLifecycleComponent {
+
+    /**
+     * Update cached values based on an event. Events older than the cached value
+     * are ignored.
+     * 
+     * @param event
+     * @throws SiteWhereException
+     */
+    public void update(IDeviceEvent event) throws SiteWhereException;
+
+    /**
+     * Get latest values for a list of device assignments. Results are returned in
+     * the same order as the ids passed.
+     * 
+     * @param assignmentIds
+     * @return
+     * @throws SiteWhereException
+     */
+    public List<IDeviceAssignmentLastValues> getLastValues(List<UUID> assignmentIds) throws SiteWhereException;
+}
@@ -8,6 +8,7 @@
 package com.sitewhere.devicestate.spi.microservice;
 
 import com.sitewhere.devicestate.spi.IDevicePresenceManager;
+import com.sitewhere.devicestate.spi.ILastValueCache;
 import com.sitewhere.devicestate.spi.kafka.IDeviceStateEnrichedEventsConsumer;
 import com.sitewhere.grpc.service.DeviceStateGrpc;
 import com.sitewhere.spi.device.state.IDeviceStateManagement;
@@ -48,4 +49,11 @@ public interface IDeviceStateTenantEngine extends IMicroserviceTenantEngine {
      * @return
      */
     public IDevicePresenceManager getDevicePresenceManager();
+
+    /**
+     * Get cache of latest values per assignment.
+     * 
+     * @return
+     */
+    public ILastValueCache getLastValueCache();
 }
\ No newline at end of file
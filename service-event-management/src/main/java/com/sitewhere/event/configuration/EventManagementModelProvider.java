@@ -10,7 +10,9 @@ package com.sitewhere.event.configuration;
 import com.sitewhere.configuration.model.CommonDatastoreProvider;
 import com.sitewhere.configuration.model.ConfigurationModelProvider;
 import com.sitewhere.configuration.parser.IEventManagementParser;
+import com.sitewhere.rest.model.configuration.AttributeNode;
 import com.sitewhere.rest.model.configuration.ElementNode;
+import com.sitewhere.spi.microservice.configuration.model.AttributeType;
 import com.sitewhere.spi.microservice.configuration.model.IConfigurationRoleProvider;
 
 /**
@@ -45,6 +47,8 @@ public class EventManagementModelProvider extends ConfigurationModelProvider {
     @Override
     public void initializeElements() {
 	addElement(createEventManagementElement());
+
+	addElement(createEventExportElement());
     }
 
     /**
@@ -61,6 +65,38 @@ public class EventManagementModelProvider extends ConfigurationModelProvider {
 	return builder.build();
     }
 
+    /**
+     * Create element configuration for event export manager.
+     * 
+     * @return
+     */
+    protected ElementNode createEventExportElement() {
+	ElementNode.Builder builder = new ElementNode.Builder("Event Export",
+		IEventManagementParser.Elements.EventExport.getLocalName(), "download",
+		EventManagementRoleKeys.EventExport, this);
+
+	builder.description("Writes device events for a date range to files on the local filesystem.");
+	builder.attributeGroup(ConfigurationModelProvider.ATTR_GROUP_GENERAL);
+
+	builder.attribute((new AttributeNode.Builder("Export directory", "exportDirectory", AttributeType.String,
+		ConfigurationModelProvider.ATTR_GROUP_GENERAL)
+			.description("Base directory for export files. A directory is created for each tenant and job. "
+				+ "Defaults to 'sitewhere/exports' under the system temporary directory.")
+			.build()));
+	builder.attribute((new AttributeNode.Builder("Thread count", "threadCount", AttributeType.Integer,
+		ConfigurationModelProvider.ATTR_GROUP_GENERAL)
+			.description("Number of threads used to write export chunks.").defaultValue("4").build()));
+	builder.attribute((new AttributeNode.Builder("Chunks per type", "chunksPerType", AttributeType.Integer,
+		ConfigurationModelProvider.ATTR_GROUP_GENERAL)
+			.description("Number of chunks the date range is split into for each event type.")
+			.defaultValue("8").build()));
+	builder.attribute((new AttributeNode.Builder("Batch size", "batchSize", AttributeType.Integer,
+		ConfigurationModelProvider.ATTR_GROUP_GENERAL)
+			.description("Number of events read from the datastore per batch.").defaultValue("1000")
+			.build()));
+	return builder.build();
+    }
+
     /*
      * @see com.sitewhere.spi.microservice.configuration.model.
      * IConfigurationModelProvider#initializeRoles()
@@ -12,7 +12,10 @@ import com.sitewhere.spi.microservice.configuration.model.IRoleKey;
 public enum EventManagementRoleKeys implements IRoleKey {
 
     /** Event management */
-    EventManagement("event_mgmt");
+    EventManagement("event_mgmt"),
+
+    /** Event export manager */
+    EventExport("event_export");
 
     private String id;
 
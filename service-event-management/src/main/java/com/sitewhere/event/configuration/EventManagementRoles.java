@@ -22,7 +22,12 @@ public enum EventManagementRoles implements IConfigurationRoleProvider {
 
     /** Root schedule management role. */
     EventManagement(ConfigurationRole.build(EventManagementRoleKeys.EventManagement, "Event Management", false, false,
-	    false, new IRoleKey[] { CommonDatastoreRoleKeys.EventManagementDatastore }, new IRoleKey[0], true));
+	    false, new IRoleKey[] { CommonDatastoreRoleKeys.EventManagementDatastore,
+		    EventManagementRoleKeys.EventExport },
+	    new IRoleKey[0], true)),
+
+    /** Event export manager. */
+    EventExport(ConfigurationRole.build(EventManagementRoleKeys.EventExport, "Event Export", true, false, false));
 
     private ConfigurationRole role;
 
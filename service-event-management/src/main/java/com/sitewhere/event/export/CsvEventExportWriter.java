@@ -0,0 +1,206 @@
+/*
+ * Copyright (c) SiteWhere, LLC. All rights reserved. http://www.sitewhere.com
+ *
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package com.sitewhere.event.export;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import com.sitewhere.common.MarshalUtils;
+import com.sitewhere.event.spi.export.IEventExportWriter;
+import com.sitewhere.spi.SiteWhereException;
+import com.sitewhere.spi.device.event.DeviceEventType;
+import com.sitewhere.spi.device.event.IDeviceAlert;
+import com.sitewhere.spi.device.event.IDeviceCommandInvocation;
+import com.sitewhere.spi.device.event.IDeviceCommandResponse;
+import com.sitewhere.spi.device.event.IDeviceEvent;
+import com.sitewhere.spi.device.event.IDeviceLocation;
+import com.sitewhere.spi.device.event.IDeviceMeasurements;
+import com.sitewhere.spi.device.event.IDeviceStateChange;
+
+/**
+ * Implementation of {@link IEventExportWriter} that writes comma-separated
+ * values. Columns common to all events are followed by columns for the event
+ * type and a JSON metadata column. Measurements are written as one row per
+ * measurement so that every file has a fixed set of columns.
+ * 
+ * @author Derek
+ */
+public class CsvEventExportWriter implements IEventExportWriter {
+
+    /** Columns common to all event types */
+    private static final List<String> COMMON_COLUMNS = Arrays.asList("id", "alternateId", "eventType", "deviceId",
+	    "deviceAssignmentId", "customerId", "areaId", "assetId", "eventDate", "receivedDate");
+
+    /** Underlying writer */
+    private BufferedWriter writer;
+
+    /** Type of events being written */
+    private DeviceEventType eventType;
+
+    public CsvEventExportWriter(Path file, DeviceEventType eventType) throws SiteWhereException {
+	this.eventType = eventType;
+	try {
+	    this.writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8);
+	    List<String> header = new ArrayList<>(COMMON_COLUMNS);
+	    header.addAll(getTypeColumns());
+	    header.add("metadata");
+	    writeRow(header);
+	} catch (IOException e) {
+	    throw new SiteWhereException("Unable to create event export file: " + file, e);
+	}
+    }
+
+    /*
+     * @see
+     * com.sitewhere.event.spi.export.IEventExportWriter#write(com.sitewhere.spi.
+     * device.event.IDeviceEvent)
+     */
+    @Override
+    public void write(IDeviceEvent event) throws SiteWhereException {
+	try {
+	    if (event instanceof IDeviceMeasurements) {
+		for (Map.Entry<String, Double> mx : ((IDeviceMeasurements) event).getMeasurements().entrySet()) {
+		    writeRow(buildRow(event, Arrays.asList(mx.getKey(), mx.getValue())));
+		}
+	    } else if (event instanceof IDeviceLocation) {
+		IDeviceLocation location = (IDeviceLocation) event;
+		writeRow(buildRow(event,
+			Arrays.asList(location.getLatitude(), location.getLongitude(), location.getElevation())));
+	    } else if (event instanceof IDeviceAlert) {
+		IDeviceAlert alert = (IDeviceAlert) event;
+		writeRow(buildRow(event,
+			Arrays.asList(alert.getSource(), alert.getLevel(), alert.getType(), alert.getMessage())));
+	    } else if (event instanceof IDeviceCommandInvocation) {
+		IDeviceCommandInvocation invocation = (IDeviceCommandInvocation) event;
+		writeRow(buildRow(event,
+			Arrays.asList(invocation.getInitiator(), invocation.getInitiatorId(), invocation.getTarget(),
+				invocation.getTargetId(), invocation.getCommandToken(),
+				asJson(invocation.getParameterValues()))));
+	    } else if (event instanceof IDeviceCommandResponse) {
+		IDeviceCommandResponse response = (IDeviceCommandResponse) event;
+		writeRow(buildRow(event, Arrays.asList(response.getOriginatingEventId(), response.getResponseEventId(),
+			response.getResponse())));
+	    } else if (event instanceof IDeviceStateChange) {
+		IDeviceStateChange change = (IDeviceStateChange) event;
+		writeRow(buildRow(event, Arrays.asList(change.getCategory(), change.getType(), change.getPreviousState(),
+			change.getNewState())));
+	    } else {
+		throw new SiteWhereException("Event type not supported for export: " + event.getEventType());
+	    }
+	} catch (IOException e) {
+	    throw new SiteWhereException("Unable to write event to export file.", e);
+	}
+    }
+
+    /*
+     * @see com.sitewhere.event.spi.export.IEventExportWriter#close()
+     */
+    @Override
+    public void close() throws SiteWhereException {
+	try {
+	    writer.close();
+	} catch (IOException e) {
+	    throw new SiteWhereException("Unable to close event export file.", e);
+	}
+    }
+
+    /**
+     * Get names of columns specific to the event type.
+     * 
+     * @return
+     * @throws SiteWhereException
+     */
+    protected List<String> getTypeColumns() throws SiteWhereException {
+	switch (eventType) {
+	case Measurements:
+	case Measurement:
+	    return Arrays.asList("name", "value");
+	case Location:
+	    return Arrays.asList("latitude", "longitude", "elevation");
+	case Alert:
+	    return Arrays.asList("source", "level", "type", "message");
+	case CommandInvocation:
+	    return Arrays.asList("initiator", "initiatorId", "target", "targetId", "commandToken", "parameterValues");
+	case CommandResponse:
+	    return Arrays.asList("originatingEventId", "responseEventId", "response");
+	case StateChange:
+	    return Arrays.asList("category", "type", "previousState", "newState");
+	default:
+	    throw new SiteWhereException("Event type not supported for export: " + eventType.name());
+	}
+    }
+
+    /**
+     * Build row values for an event.
+     * 
+     * @param event
+     * @param typeValues
+     * @return
+     */
+    protected List<Object> buildRow(IDeviceEvent event, List<?> typeValues) {
+	List<Object> row = new ArrayList<>(Arrays.asList(event.getId(), event.getAlternateId(), event.getEventType(),
+		event.getDeviceId(), event.getDeviceAssignmentId(), event.getCustomerId(), event.getAreaId(),
+		event.getAssetId(), event.getEventDate(), event.getReceivedDate()));
+	row.addAll(typeValues);
+	row.add(asJson(event.getMetadata()));
+	return row;
+    }
+
+    /**
+     * Write a row of values.
+     * 
+     * @param values
+     * @throws IOException
+     */
+    protected void writeRow(List<?> values) throws IOException {
+	for (int i = 0; i < values.size(); i++) {
+	    if (i > 0) {
+		writer.write(',');
+	    }
+	    writer.write(escape(values.get(i)));
+	}
+	writer.newLine();
+    }
+
+    /**
+     * Convert a value to an escaped CSV field. Dates are written in ISO-8601 UTC
+     * format and null values as empty fields.
+     * 
+     * @param value
+     * @return
+     */
+    protected static String escape(Object value) {
+	if (value == null) {
+	    return "";
+	}
+	String text = (value instanceof Date) ? ((Date) value).toInstant().toString() : String.valueOf(value);
+	if ((text.indexOf(',') == -1) && (text.indexOf('"') == -1) && (text.indexOf('\n') == -1)
+		&& (text.indexOf('\r') == -1)) {
+	    return text;
+	}
+	return "\"" + text.replace("\"", "\"\"") + "\"";
+    }
+
+    /**
+     * Marshal a map to JSON or null if empty.
+     * 
+     * @param map
+     * @return
+     */
+    protected static String asJson(Map<String, String> map) {
+	return ((map == null) || map.isEmpty()) ? null : MarshalUtils.marshalJsonAsString(map);
+    }
+}
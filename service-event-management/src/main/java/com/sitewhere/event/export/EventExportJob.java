@@ -0,0 +1,170 @@
+/*
+ * Copyright (c) SiteWhere, LLC. All rights reserved. http://www.sitewhere.com
+ *
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package com.sitewhere.event.export;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.sitewhere.event.spi.export.EventExportStatus;
+import com.sitewhere.event.spi.export.IEventExportJob;
+import com.sitewhere.event.spi.export.IEventExportRequest;
+
+/**
+ * Progress information for an event export job. Counters are updated by the
+ * threads writing chunks, so they may be read while the job is running.
+ * 
+ * @author Derek
+ */
+public class EventExportJob implements IEventExportJob {
+
+    /** Unique job id */
+    private UUID id;
+
+    /** Request that started the job */
+    private IEventExportRequest request;
+
+    /** Current status */
+    private volatile EventExportStatus status = EventExportStatus.Queued;
+
+    /** Number of chunks */
+    private int chunkCount;
+
+    /** Number of chunks written */
+    private AtomicInteger chunksCompleted = new AtomicInteger();
+
+    /** Number of events written */
+    private AtomicLong eventsExported = new AtomicLong();
+
+    /** Files written by completed chunks */
+    private List<String> files = new ArrayList<>();
+
+    /** Error message if failed */
+    private volatile String error;
+
+    /** System time when job stopped (0 while active) */
+    private volatile long finished;
+
+    public EventExportJob(UUID id, IEventExportRequest request, int chunkCount) {
+	this.id = id;
+	this.request = request;
+	this.chunkCount = chunkCount;
+    }
+
+    /**
+     * Record a completed chunk.
+     * 
+     * @param file
+     * @return true if all chunks have completed
+     */
+    public boolean chunkCompleted(String file) {
+	synchronized (files) {
+	    files.add(file);
+	}
+	return chunksCompleted.incrementAndGet() == chunkCount;
+    }
+
+    /**
+     * Record an event written.
+     */
+    public void eventExported() {
+	eventsExported.incrementAndGet();
+    }
+
+    /**
+     * Indicates whether chunks should keep writing events.
+     * 
+     * @return
+     */
+    public boolean isActive() {
+	return (status == EventExportStatus.Queued) || (status == EventExportStatus.Running);
+    }
+
+    /*
+     * @see com.sitewhere.event.spi.export.IEventExportJob#getId()
+     */
+    @Override
+    public UUID getId() {
+	return id;
+    }
+
+    /*
+     * @see com.sitewhere.event.spi.export.IEventExportJob#getRequest()
+     */
+    @Override
+    public IEventExportRequest getRequest() {
+	return request;
+    }
+
+    /*
+     * @see com.sitewhere.event.spi.export.IEventExportJob#getStatus()
+     */
+    @Override
+    public EventExportStatus getStatus() {
+	return status;
+    }
+
+    public void setStatus(EventExportStatus status) {
+	if ((status != EventExportStatus.Queued) && (status != EventExportStatus.Running)) {
+	    this.finished = System.currentTimeMillis();
+	}
+	this.status = status;
+    }
+
+    /*
+     * @see com.sitewhere.event.spi.export.IEventExportJob#getChunkCount()
+     */
+    @Override
+    public int getChunkCount() {
+	return chunkCount;
+    }
+
+    /*
+     * @see com.sitewhere.event.spi.export.IEventExportJob#getChunksCompleted()
+     */
+    @Override
+    public int getChunksCompleted() {
+	return chunksCompleted.get();
+    }
+
+    /*
+     * @see com.sitewhere.event.spi.export.IEventExportJob#getEventsExported()
+     */
+    @Override
+    public long getEventsExported() {
+	return eventsExported.get();
+    }
+
+    /*
+     * @see com.sitewhere.event.spi.export.IEventExportJob#getFiles()
+     */
+    @Override
+    public List<String> getFiles() {
+	synchronized (files) {
+	    return new ArrayList<>(files);
+	}
+    }
+
+    /*
+     * @see com.sitewhere.event.spi.export.IEventExportJob#getError()
+     */
+    @Override
+    public String getError() {
+	return error;
+    }
+
+    public void setError(String error) {
+	this.error = error;
+    }
+
+    public long getFinished() {
+	return finished;
+    }
+}
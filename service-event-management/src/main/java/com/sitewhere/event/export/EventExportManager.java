@@ -0,0 +1,375 @@
+/*
+ * Copyright (c) SiteWhere, LLC. All rights reserved. http://www.sitewhere.com
+ *
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package com.sitewhere.event.export;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import com.sitewhere.event.persistence.streaming.DeviceEventReader;
+import com.sitewhere.event.spi.export.EventExportStatus;
+import com.sitewhere.event.spi.export.IEventExportJob;
+import com.sitewhere.event.spi.export.IEventExportManager;
+import com.sitewhere.event.spi.export.IEventExportRequest;
+import com.sitewhere.event.spi.export.IEventExportWriter;
+import com.sitewhere.server.lifecycle.TenantEngineLifecycleComponent;
+import com.sitewhere.spi.SiteWhereException;
+import com.sitewhere.spi.device.event.DeviceEventType;
+import com.sitewhere.spi.device.event.IDeviceEvent;
+import com.sitewhere.spi.device.event.IDeviceEventManagement;
+import com.sitewhere.spi.server.lifecycle.ILifecycleProgressMonitor;
+import com.sitewhere.spi.server.lifecycle.LifecycleComponentType;
+
+/**
+ * Implementation of {@link IEventExportManager} that writes exports to the
+ * local filesystem. Each requested event type is split into chunks covering
+ * equal slices of the date range. Chunks are read in parallel by a fixed pool
+ * of threads, each using a {@link DeviceEventReader} so that memory use does
+ * not depend on the size of the export. Every chunk is written to its own
+ * file in a directory for the job. Finished jobs are kept for a retention
+ * period so their status can be queried, then dropped.
+ * 
+ * @author Derek
+ */
+public class EventExportManager extends TenantEngineLifecycleComponent implements IEventExportManager {
+
+    /** Default number of threads used for writing chunks */
+    private static final int DEFAULT_THREAD_COUNT = 4;
+
+    /** Default number of chunks per event type */
+    private static final int DEFAULT_CHUNKS_PER_TYPE = 8;
+
+    /** Default number of events read per batch */
+    private static final int DEFAULT_BATCH_SIZE = 1000;
+
+    /** Default time finished jobs are kept in milliseconds */
+    private static final long DEFAULT_RETENTION_MILLIS = 60 * 60 * 1000;
+
+    /** Event management implementation */
+    private IDeviceEventManagement deviceEventManagement;
+
+    /** Base directory for export files */
+    private String exportDirectory = Paths.get(System.getProperty("java.io.tmpdir"), "sitewhere", "exports")
+	    .toString();
+
+    /** Number of threads used for writing chunks */
+    private int threadCount = DEFAULT_THREAD_COUNT;
+
+    /** Number of chunks per event type */
+    private int chunksPerType = DEFAULT_CHUNKS_PER_TYPE;
+
+    /** Number of events read per batch */
+    private int batchSize = DEFAULT_BATCH_SIZE;
+
+    /** Time finished jobs are kept in milliseconds */
+    private long retentionMillis = DEFAULT_RETENTION_MILLIS;
+
+    /** Jobs by id */
+    private Map<UUID, EventExportJob> jobs = new ConcurrentHashMap<>();
+
+    /** Executor for writing chunks */
+    private ExecutorService executor;
+
+    public EventExportManager(IDeviceEventManagement deviceEventManagement) {
+	super(LifecycleComponentType.Other);
+	this.deviceEventManagement = deviceEventManagement;
+    }
+
+    /*
+     * @see
+     * com.sitewhere.server.lifecycle.LifecycleComponent#start(com.sitewhere.spi.
+     * server.lifecycle.ILifecycleProgressMonitor)
+     */
+    @Override
+    public void start(ILifecycleProgressMonitor monitor) throws SiteWhereException {
+	this.executor = Executors.newFixedThreadPool(getThreadCount(), new ExportThreadFactory());
+    }
+
+    /*
+     * @see
+     * com.sitewhere.server.lifecycle.LifecycleComponent#stop(com.sitewhere.spi.
+     * server.lifecycle.ILifecycleProgressMonitor)
+     */
+    @Override
+    public void stop(ILifecycleProgressMonitor monitor) throws SiteWhereException {
+	for (EventExportJob job : jobs.values()) {
+	    if (job.isActive()) {
+		job.setStatus(EventExportStatus.Cancelled);
+	    }
+	}
+	if (executor != null) {
+	    executor.shutdownNow();
+	}
+    }
+
+    /*
+     * @see
+     * com.sitewhere.event.spi.export.IEventExportManager#submit(com.sitewhere.event
+     * .spi.export.IEventExportRequest)
+     */
+    @Override
+    public IEventExportJob submit(IEventExportRequest request) throws SiteWhereException {
+	if (request.getIndex() == null) {
+	    throw new SiteWhereException("Event export requires an index.");
+	}
+	if ((request.getEventTypes() == null) || request.getEventTypes().isEmpty()) {
+	    throw new SiteWhereException("Event export requires at least one event type.");
+	}
+	if (request.getStartDate() == null) {
+	    throw new SiteWhereException("Event export requires a start date.");
+	}
+	long start = request.getStartDate().getTime();
+	long end = (request.getEndDate() != null) ? request.getEndDate().getTime() : System.currentTimeMillis();
+	if (end < start) {
+	    throw new SiteWhereException("Event export end date is before start date.");
+	}
+
+	// Split range into windows that do not share a boundary.
+	int windowCount = (int) Math.min(getChunksPerType(), end - start + 1);
+	long windowSize = (end - start + 1) / windowCount;
+	List<long[]> windows = new ArrayList<>();
+	for (int i = 0; i < windowCount; i++) {
+	    long windowStart = start + (i * windowSize);
+	    long windowEnd = (i == windowCount - 1) ? end : windowStart + windowSize - 1;
+	    windows.add(new long[] { windowStart, windowEnd });
+	}
+
+	pruneJobs();
+	UUID id = UUID.randomUUID();
+	Path directory = Paths.get(getExportDirectory(), getTenantEngine().getTenant().getToken(), id.toString());
+	try {
+	    Files.createDirectories(directory);
+	} catch (IOException e) {
+	    throw new SiteWhereException("Unable to create event export directory: " + directory, e);
+	}
+
+	EventExportJob job = new EventExportJob(id, request, request.getEventTypes().size() * windows.size());
+	jobs.put(id, job);
+	Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+	for (DeviceEventType type : request.getEventTypes()) {
+	    for (int i = 0; i < windows.size(); i++) {
+		Path file = directory.resolve(String.format("%s-%04d.%s", type.name(), i,
+			request.getFormat().name().toLowerCase()));
+		executor.execute(new ChunkWriter(job, type, new Date(windows.get(i)[0]), new Date(windows.get(i)[1]),
+			file, authentication));
+	    }
+	}
+	getLogger().info("Started event export " + id + " with " + job.getChunkCount() + " chunks in " + directory);
+	return job;
+    }
+
+    /*
+     * @see com.sitewhere.event.spi.export.IEventExportManager#getJob(java.util.UUID)
+     */
+    @Override
+    public IEventExportJob getJob(UUID id) throws SiteWhereException {
+	pruneJobs();
+	return jobs.get(id);
+    }
+
+    /*
+     * @see com.sitewhere.event.spi.export.IEventExportManager#listJobs()
+     */
+    @Override
+    public List<IEventExportJob> listJobs() throws SiteWhereException {
+	pruneJobs();
+	return new ArrayList<>(jobs.values());
+    }
+
+    /*
+     * @see com.sitewhere.event.spi.export.IEventExportManager#cancel(java.util.UUID)
+     */
+    @Override
+    public IEventExportJob cancel(UUID id) throws SiteWhereException {
+	EventExportJob job = jobs.get(id);
+	if ((job != null) && job.isActive()) {
+	    job.setStatus(EventExportStatus.Cancelled);
+	}
+	return job;
+    }
+
+    /**
+     * Remove jobs that finished longer ago than the retention period. Files
+     * written by the jobs are left in place.
+     */
+    protected void pruneJobs() {
+	long cutoff = System.currentTimeMillis() - getRetentionMillis();
+	for (Iterator<EventExportJob> it = jobs.values().iterator(); it.hasNext();) {
+	    EventExportJob job = it.next();
+	    if (!job.isActive() && (job.getFinished() < cutoff)) {
+		it.remove();
+	    }
+	}
+    }
+
+    /**
+     * Create a writer for the requested format.
+     * 
+     * @param job
+     * @param type
+     * @param file
+     * @return
+     * @throws SiteWhereException
+     */
+    protected IEventExportWriter createWriter(EventExportJob job, DeviceEventType type, Path file)
+	    throws SiteWhereException {
+	switch (job.getRequest().getFormat()) {
+	case Csv:
+	    return new CsvEventExportWriter(file, type);
+	default:
+	    throw new SiteWhereException("Unsupported export format: " + job.getRequest().getFormat());
+	}
+    }
+
+    /**
+     * Writes events of one type for a slice of the date range to a file.
+     * 
+     * @author Derek
+     */
+    private class ChunkWriter implements Runnable {
+
+	/** Parent job */
+	private EventExportJob job;
+
+	/** Event type */
+	private DeviceEventType type;
+
+	/** Start of date range */
+	private Date startDate;
+
+	/** End of date range */
+	private Date endDate;
+
+	/** Output file */
+	private Path file;
+
+	/** Authentication of user that submitted job */
+	private Authentication authentication;
+
+	public ChunkWriter(EventExportJob job, DeviceEventType type, Date startDate, Date endDate, Path file,
+		Authentication authentication) {
+	    this.job = job;
+	    this.type = type;
+	    this.startDate = startDate;
+	    this.endDate = endDate;
+	    this.file = file;
+	    this.authentication = authentication;
+	}
+
+	@Override
+	public void run() {
+	    if (!job.isActive()) {
+		return;
+	    }
+	    if (job.getStatus() == EventExportStatus.Queued) {
+		job.setStatus(EventExportStatus.Running);
+	    }
+	    SecurityContextHolder.getContext().setAuthentication(authentication);
+	    try {
+		IEventExportRequest request = job.getRequest();
+		DeviceEventReader reader = new DeviceEventReader(deviceEventManagement, request.getIndex(),
+			request.getEntityIds(), type, startDate, endDate, null, getBatchSize());
+		IEventExportWriter writer = createWriter(job, type, file);
+		try {
+		    IDeviceEvent event;
+		    while (job.isActive() && ((event = reader.next()) != null)) {
+			writer.write(event);
+			job.eventExported();
+		    }
+		} finally {
+		    writer.close();
+		}
+		if (job.chunkCompleted(file.toString()) && job.isActive()) {
+		    job.setStatus(EventExportStatus.Completed);
+		    getLogger().info("Completed event export " + job.getId() + " with " + job.getEventsExported()
+			    + " events.");
+		}
+	    } catch (Throwable e) {
+		getLogger().error("Event export " + job.getId() + " failed writing " + file + ".", e);
+		job.setError(e.getMessage());
+		job.setStatus(EventExportStatus.Failed);
+	    } finally {
+		SecurityContextHolder.getContext().setAuthentication(null);
+	    }
+	}
+    }
+
+    /** Used for naming export threads */
+    private class ExportThreadFactory implements ThreadFactory {
+
+	/** Counts threads */
+	private AtomicInteger counter = new AtomicInteger();
+
+	public Thread newThread(Runnable r) {
+	    return new Thread(r, "Event Export " + counter.incrementAndGet());
+	}
+    }
+
+    public IDeviceEventManagement getDeviceEventManagement() {
+	return deviceEventManagement;
+    }
+
+    public void setDeviceEventManagement(IDeviceEventManagement deviceEventManagement) {
+	this.deviceEventManagement = deviceEventManagement;
+    }
+
+    public String getExportDirectory() {
+	return exportDirectory;
+    }
+
+    public void setExportDirectory(String exportDirectory) {
+	this.exportDirectory = exportDirectory;
+    }
+
+    public int getThreadCount() {
+	return threadCount;
+    }
+
+    public void setThreadCount(int threadCount) {
+	this.threadCount = threadCount;
+    }
+
+    public int getChunksPerType() {
+	return chunksPerType;
+    }
+
+    public void setChunksPerType(int chunksPerType) {
+	this.chunksPerType = chunksPerType;
+    }
+
+    public int getBatchSize() {
+	return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+	this.batchSize = batchSize;
+    }
+
+    public long getRetentionMillis() {
+	return retentionMillis;
+    }
+
+    public void setRetentionMillis(long retentionMillis) {
+	this.retentionMillis = retentionMillis;
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) SiteWhere, LLC. All rights reserved. http://www.sitewhere.com
+ *
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package com.sitewhere.event.export;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+import com.sitewhere.event.spi.export.EventExportFormat;
+import com.sitewhere.event.spi.export.IEventExportRequest;
+import com.sitewhere.spi.device.event.DeviceEventIndex;
+import com.sitewhere.spi.device.event.DeviceEventType;
+
+/**
+ * Model object for an event export request.
+ * 
+ * @author Derek
+ */
+public class EventExportRequest implements IEventExportRequest {
+
+    /** Index used to select events */
+    private DeviceEventIndex index;
+
+    /** Ids of entities in index */
+    private List<UUID> entityIds = new ArrayList<>();
+
+    /** Types of events to export */
+    private List<DeviceEventType> eventTypes = new ArrayList<>();
+
+    /** Earliest event date */
+    private Date startDate;
+
+    /** Latest event date */
+    private Date endDate;
+
+    /** Format of exported files */
+    private EventExportFormat format = EventExportFormat.Csv;
+
+    /*
+     * @see com.sitewhere.event.spi.export.IEventExportRequest#getIndex()
+     */
+    @Override
+    public DeviceEventIndex getIndex() {
+	return index;
+    }
+
+    public void setIndex(DeviceEventIndex index) {
+	this.index = index;
+    }
+
+    /*
+     * @see com.sitewhere.event.spi.export.IEventExportRequest#getEntityIds()
+     */
+    @Override
+    public List<UUID> getEntityIds() {
+	return entityIds;
+    }
+
+    public void setEntityIds(List<UUID> entityIds) {
+	this.entityIds = entityIds;
+    }
+
+    /*
+     * @see com.sitewhere.event.spi.export.IEventExportRequest#getEventTypes()
+     */
+    @Override
+    public List<DeviceEventType> getEventTypes() {
+	return eventTypes;
+    }
+
+    public void setEventTypes(List<DeviceEventType> eventTypes) {
+	this.eventTypes = eventTypes;
+    }
+
+    /*
+     * @see com.sitewhere.event.spi.export.IEventExportRequest#getStartDate()
+     */
+    @Override
+    public Date getStartDate() {
+	return startDate;
+    }
+
+    public void setStartDate(Date startDate) {
+	this.startDate = startDate;
+    }
+
+    /*
+     * @see com.sitewhere.event.spi.export.IEventExportRequest#getEndDate()
+     */
+    @Override
+    public Date getEndDate() {
+	return endDate;
+    }
+
+    public void setEndDate(Date endDate) {
+	this.endDate = endDate;
+    }
+
+    /*
+     * @see com.sitewhere.event.spi.export.IEventExportRequest#getFormat()
+     */
+    @Override
+    public EventExportFormat getFormat() {
+	return format;
+    }
+
+    public void setFormat(EventExportFormat format) {
+	this.format = format;
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) SiteWhere, LLC. All rights reserved. http://www.sitewhere.com
+ *
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package com.sitewhere.event.grpc;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import com.sitewhere.event.persistence.streaming.DeviceEventReader;
+import com.sitewhere.grpc.client.GrpcUtils;
+import com.sitewhere.grpc.model.converter.CommonModelConverter;
+import com.sitewhere.grpc.model.converter.EventModelConverter;
+import com.sitewhere.grpc.service.DeviceEventManagementGrpc;
+import com.sitewhere.grpc.service.GDeviceEventStreamCursor;
+import com.sitewhere.grpc.service.GStreamEventsForIndexRequest;
+import com.sitewhere.grpc.service.GStreamEventsForIndexResponse;
+import com.sitewhere.spi.SiteWhereException;
+import com.sitewhere.spi.device.event.IDeviceEvent;
+import com.sitewhere.spi.device.event.IDeviceEventManagement;
+
+import io.grpc.stub.ServerCallStreamObserver;
+
+/**
+ * Streams events for an index to a GRPC client. Events are read in batches by
+ * a {@link DeviceEventReader} and a batch is only read when the client is
+ * ready for more data, which keeps memory use constant for slow consumers.
+ * Each response includes a cursor that may be passed in a new request to
+ * resume after that event.
+ * 
+ * @author Derek
+ */
+public class DeviceEventStreamer {
+
+    /** Static logger instance */
+    private static Log LOGGER = LogFactory.getLog(DeviceEventStreamer.class);
+
+    /** Default number of events read per batch */
+    private static final int DEFAULT_BATCH_SIZE = 500;
+
+    /** Observer for sending responses */
+    private ServerCallStreamObserver<GStreamEventsForIndexResponse> observer;
+
+    /** Authentication captured from calling thread */
+    private Authentication authentication;
+
+    /** Reads events in batches */
+    private DeviceEventReader reader;
+
+    /** Indicates stream has finished */
+    private boolean done = false;
+
+    public DeviceEventStreamer(IDeviceEventManagement deviceEventManagement, GStreamEventsForIndexRequest request,
+	    ServerCallStreamObserver<GStreamEventsForIndexResponse> observer) throws SiteWhereException {
+	this.observer = observer;
+	this.authentication = SecurityContextHolder.getContext().getAuthentication();
+	int batchSize = (request.getBatchSize() > 0) ? request.getBatchSize() : DEFAULT_BATCH_SIZE;
+	GDeviceEventStreamCursor cursor = request.hasCursor() ? request.getCursor()
+		: GDeviceEventStreamCursor.newBuilder().setEndDate(request.getEndDate()).build();
+	this.reader = new DeviceEventReader(deviceEventManagement,
+		EventModelConverter.asApiDeviceEventIndex(request.getIndex()),
+		CommonModelConverter.asApiUuids(request.getEntityIdsList()),
+		EventModelConverter.asApiDeviceEventType(request.getEventType()),
+		CommonModelConverter.asApiDate(request.getStartDate()),
+		CommonModelConverter.asApiDate(cursor.getEndDate()),
+		cursor.hasEventId() ? CommonModelConverter.asApiUuid(cursor.getEventId()) : null, batchSize);
+    }
+
+    /**
+     * Start streaming. Events are sent as long as the client is ready to receive
+     * them and sending resumes each time the call becomes ready again.
+     */
+    public void start() {
+	observer.setOnCancelHandler(() -> {
+	    synchronized (this) {
+		done = true;
+	    }
+	});
+	observer.setOnReadyHandler(this::drain);
+	drain();
+    }
+
+    /**
+     * Send events until the client stops being ready or the stream is finished.
+     */
+    protected synchronized void drain() {
+	if (done) {
+	    return;
+	}
+	Authentication previous = SecurityContextHolder.getContext().getAuthentication();
+	SecurityContextHolder.getContext().setAuthentication(authentication);
+	try {
+	    while (!done && observer.isReady()) {
+		IDeviceEvent event = reader.next();
+		if (event == null) {
+		    done = true;
+		    observer.onCompleted();
+		    return;
+		}
+		GStreamEventsForIndexResponse.Builder response = GStreamEventsForIndexResponse.newBuilder();
+		response.setEvent(EventModelConverter.asGrpcGenericDeviceEvent(event));
+		response.setCursor(GDeviceEventStreamCursor.newBuilder()
+			.setEndDate(CommonModelConverter.asGrpcDate(reader.getCursorDate()))
+			.setEventId(CommonModelConverter.asGrpcUuid(reader.getCursorId())));
+		observer.onNext(response.build());
+	    }
+	} catch (Throwable e) {
+	    LOGGER.error("Error streaming device events.", e);
+	    done = true;
+	    GrpcUtils.handleServerMethodException(DeviceEventManagementGrpc.getStreamEventsForIndexMethod(), e,
+		    observer);
+	} finally {
+	    SecurityContextHolder.getContext().setAuthentication(previous);
+	}
+    }
+}
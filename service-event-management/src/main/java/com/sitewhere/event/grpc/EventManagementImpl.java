@@ -7,12 +7,23 @@
  */
 package com.sitewhere.event.grpc;
 
+import java.util.UUID;
+
+import com.sitewhere.event.export.EventExportRequest;
+import com.sitewhere.event.replay.EventReplayManager;
+import com.sitewhere.event.replay.EventReplayRequest;
+import com.sitewhere.event.spi.export.IEventExportJob;
+import com.sitewhere.event.spi.export.IEventExportManager;
 import com.sitewhere.event.spi.microservice.IEventManagementMicroservice;
+import com.sitewhere.event.spi.replay.IEventReplayJob;
+import com.sitewhere.event.spi.replay.IEventReplayManager;
 import com.sitewhere.grpc.client.GrpcUtils;
 import com.sitewhere.grpc.client.spi.server.IGrpcApiImplementation;
+import com.sitewhere.grpc.kafka.model.KafkaModel.GEventReplayStage;
 import com.sitewhere.grpc.model.DeviceEventModel.GDeviceAlertSearchResults;
 import com.sitewhere.grpc.model.DeviceEventModel.GDeviceCommandInvocationSearchResults;
 import com.sitewhere.grpc.model.DeviceEventModel.GDeviceCommandResponseSearchResults;
+import com.sitewhere.grpc.model.DeviceEventModel.GDeviceEventType;
 import com.sitewhere.grpc.model.DeviceEventModel.GDeviceLocationSearchResults;
 import com.sitewhere.grpc.model.DeviceEventModel.GDeviceMeasurementsSearchResults;
 import com.sitewhere.grpc.model.DeviceEventModel.GDeviceStateChangeSearchResults;
@@ -37,10 +48,20 @@ import com.sitewhere.grpc.service.GAddStateChangeRequest;
 import com.sitewhere.grpc.service.GAddStateChangeResponse;
 import com.sitewhere.grpc.service.GAddStreamDataForAssignmentRequest;
 import com.sitewhere.grpc.service.GAddStreamDataForAssignmentResponse;
+import com.sitewhere.grpc.service.GCancelEventExportRequest;
+import com.sitewhere.grpc.service.GCancelEventExportResponse;
+import com.sitewhere.grpc.service.GCancelEventReplayRequest;
+import com.sitewhere.grpc.service.GCancelEventReplayResponse;
+import com.sitewhere.grpc.service.GEventExportJob;
+import com.sitewhere.grpc.service.GEventReplayJob;
 import com.sitewhere.grpc.service.GGetDeviceEventByAlternateIdRequest;
 import com.sitewhere.grpc.service.GGetDeviceEventByAlternateIdResponse;
 import com.sitewhere.grpc.service.GGetDeviceEventByIdRequest;
 import com.sitewhere.grpc.service.GGetDeviceEventByIdResponse;
+import com.sitewhere.grpc.service.GGetEventExportRequest;
+import com.sitewhere.grpc.service.GGetEventExportResponse;
+import com.sitewhere.grpc.service.GGetEventReplayRequest;
+import com.sitewhere.grpc.service.GGetEventReplayResponse;
 import com.sitewhere.grpc.service.GGetStreamDataForAssignmentRequest;
 import com.sitewhere.grpc.service.GGetStreamDataForAssignmentResponse;
 import com.sitewhere.grpc.service.GListAlertsForIndexRequest;
@@ -59,7 +80,14 @@ import com.sitewhere.grpc.service.GListStateChangesForIndexRequest;
 import com.sitewhere.grpc.service.GListStateChangesForIndexResponse;
 import com.sitewhere.grpc.service.GListStreamDataForAssignmentRequest;
 import com.sitewhere.grpc.service.GListStreamDataForAssignmentResponse;
+import com.sitewhere.grpc.service.GStartEventExportRequest;
+import com.sitewhere.grpc.service.GStartEventExportResponse;
+import com.sitewhere.grpc.service.GStartEventReplayRequest;
+import com.sitewhere.grpc.service.GStartEventReplayResponse;
+import com.sitewhere.grpc.service.GStreamEventsForIndexRequest;
+import com.sitewhere.grpc.service.GStreamEventsForIndexResponse;
 import com.sitewhere.rest.model.device.event.DeviceEventBatch;
+import com.sitewhere.spi.SiteWhereException;
 import com.sitewhere.spi.device.event.IDeviceAlert;
 import com.sitewhere.spi.device.event.IDeviceCommandInvocation;
 import com.sitewhere.spi.device.event.IDeviceCommandResponse;
@@ -73,6 +101,7 @@ import com.sitewhere.spi.device.event.IDeviceStreamData;
 import com.sitewhere.spi.microservice.IMicroservice;
 import com.sitewhere.spi.search.ISearchResults;
 
+import io.grpc.stub.ServerCallStreamObserver;
 import io.grpc.stub.StreamObserver;
 
 /**
@@ -89,10 +118,19 @@ public class EventManagementImpl extends DeviceEventManagementGrpc.DeviceEventMa
     /** Device management persistence */
     private IDeviceEventManagement deviceEventManagement;
 
+    /** Runs background event exports */
+    private IEventExportManager eventExportManager;
+
+    /** Runs background event replays */
+    private IEventReplayManager eventReplayManager;
+
     public EventManagementImpl(IEventManagementMicroservice microservice,
-	    IDeviceEventManagement deviceEventManagement) {
+	    IDeviceEventManagement deviceEventManagement, IEventExportManager eventExportManager,
+	    IEventReplayManager eventReplayManager) {
 	this.microservice = microservice;
 	this.deviceEventManagement = deviceEventManagement;
+	this.eventExportManager = eventExportManager;
+	this.eventReplayManager = eventReplayManager;
     }
 
     public IDeviceEventManagement getDeviceEventManagement() {
@@ -659,6 +697,243 @@ public class EventManagementImpl extends DeviceEventManagementGrpc.DeviceEventMa
 	}
     }
 
+    /*
+     * @see com.sitewhere.grpc.service.DeviceEventManagementGrpc.
+     * DeviceEventManagementImplBase#streamEventsForIndex(com.sitewhere.grpc.
+     * service.GStreamEventsForIndexRequest, io.grpc.stub.StreamObserver)
+     */
+    @Override
+    public void streamEventsForIndex(GStreamEventsForIndexRequest request,
+	    StreamObserver<GStreamEventsForIndexResponse> responseObserver) {
+	try {
+	    GrpcUtils.handleServerMethodEntry(this, DeviceEventManagementGrpc.getStreamEventsForIndexMethod());
+	    DeviceEventStreamer streamer = new DeviceEventStreamer(getDeviceEventManagement(), request,
+		    (ServerCallStreamObserver<GStreamEventsForIndexResponse>) responseObserver);
+	    streamer.start();
+	} catch (Throwable e) {
+	    GrpcUtils.handleServerMethodException(DeviceEventManagementGrpc.getStreamEventsForIndexMethod(), e,
+		    responseObserver);
+	} finally {
+	    GrpcUtils.handleServerMethodExit(DeviceEventManagementGrpc.getStreamEventsForIndexMethod());
+	}
+    }
+
+    /*
+     * @see com.sitewhere.grpc.service.DeviceEventManagementGrpc.
+     * DeviceEventManagementImplBase#startEventExport(com.sitewhere.grpc.service.
+     * GStartEventExportRequest, io.grpc.stub.StreamObserver)
+     */
+    @Override
+    public void startEventExport(GStartEventExportRequest request,
+	    StreamObserver<GStartEventExportResponse> responseObserver) {
+	try {
+	    GrpcUtils.handleServerMethodEntry(this, DeviceEventManagementGrpc.getStartEventExportMethod());
+	    EventExportRequest apiRequest = new EventExportRequest();
+	    apiRequest.setIndex(EventModelConverter.asApiDeviceEventIndex(request.getIndex()));
+	    apiRequest.setEntityIds(CommonModelConverter.asApiUuids(request.getEntityIdsList()));
+	    for (GDeviceEventType type : request.getEventTypesList()) {
+		apiRequest.getEventTypes().add(EventModelConverter.asApiDeviceEventType(type));
+	    }
+	    apiRequest.setStartDate(CommonModelConverter.asApiDate(request.getStartDate()));
+	    apiRequest.setEndDate(CommonModelConverter.asApiDate(request.getEndDate()));
+	    IEventExportJob apiResult = getEventExportManager().submit(apiRequest);
+	    GStartEventExportResponse.Builder response = GStartEventExportResponse.newBuilder();
+	    response.setJob(asGrpcEventExportJob(apiResult));
+	    responseObserver.onNext(response.build());
+	    responseObserver.onCompleted();
+	} catch (Throwable e) {
+	    GrpcUtils.handleServerMethodException(DeviceEventManagementGrpc.getStartEventExportMethod(), e,
+		    responseObserver);
+	} finally {
+	    GrpcUtils.handleServerMethodExit(DeviceEventManagementGrpc.getStartEventExportMethod());
+	}
+    }
+
+    /*
+     * @see com.sitewhere.grpc.service.DeviceEventManagementGrpc.
+     * DeviceEventManagementImplBase#getEventExport(com.sitewhere.grpc.service.
+     * GGetEventExportRequest, io.grpc.stub.StreamObserver)
+     */
+    @Override
+    public void getEventExport(GGetEventExportRequest request,
+	    StreamObserver<GGetEventExportResponse> responseObserver) {
+	try {
+	    GrpcUtils.handleServerMethodEntry(this, DeviceEventManagementGrpc.getGetEventExportMethod());
+	    UUID id = CommonModelConverter.asApiUuid(request.getId());
+	    IEventExportJob apiResult = getEventExportManager().getJob(id);
+	    if (apiResult == null) {
+		throw new SiteWhereException("Event export not found: " + id);
+	    }
+	    GGetEventExportResponse.Builder response = GGetEventExportResponse.newBuilder();
+	    response.setJob(asGrpcEventExportJob(apiResult));
+	    responseObserver.onNext(response.build());
+	    responseObserver.onCompleted();
+	} catch (Throwable e) {
+	    GrpcUtils.handleServerMethodException(DeviceEventManagementGrpc.getGetEventExportMethod(), e,
+		    responseObserver);
+	} finally {
+	    GrpcUtils.handleServerMethodExit(DeviceEventManagementGrpc.getGetEventExportMethod());
+	}
+    }
+
+    /*
+     * @see com.sitewhere.grpc.service.DeviceEventManagementGrpc.
+     * DeviceEventManagementImplBase#cancelEventExport(com.sitewhere.grpc.service.
+     * GCancelEventExportRequest, io.grpc.stub.StreamObserver)
+     */
+    @Override
+    public void cancelEventExport(GCancelEventExportRequest request,
+	    StreamObserver<GCancelEventExportResponse> responseObserver) {
+	try {
+	    GrpcUtils.handleServerMethodEntry(this, DeviceEventManagementGrpc.getCancelEventExportMethod());
+	    UUID id = CommonModelConverter.asApiUuid(request.getId());
+	    IEventExportJob apiResult = getEventExportManager().cancel(id);
+	    if (apiResult == null) {
+		throw new SiteWhereException("Event export not found: " + id);
+	    }
+	    GCancelEventExportResponse.Builder response = GCancelEventExportResponse.newBuilder();
+	    response.setJob(asGrpcEventExportJob(apiResult));
+	    responseObserver.onNext(response.build());
+	    responseObserver.onCompleted();
+	} catch (Throwable e) {
+	    GrpcUtils.handleServerMethodException(DeviceEventManagementGrpc.getCancelEventExportMethod(), e,
+		    responseObserver);
+	} finally {
+	    GrpcUtils.handleServerMethodExit(DeviceEventManagementGrpc.getCancelEventExportMethod());
+	}
+    }
+
+    /**
+     * Convert event export job progress to GRPC.
+     * 
+     * @param api
+     * @return
+     * @throws SiteWhereException
+     */
+    protected static GEventExportJob asGrpcEventExportJob(IEventExportJob api) throws SiteWhereException {
+	GEventExportJob.Builder grpc = GEventExportJob.newBuilder();
+	grpc.setId(CommonModelConverter.asGrpcUuid(api.getId()));
+	grpc.setStatus(api.getStatus().name());
+	grpc.setChunkCount(api.getChunkCount());
+	grpc.setChunksCompleted(api.getChunksCompleted());
+	grpc.setEventsExported(api.getEventsExported());
+	grpc.addAllFiles(api.getFiles());
+	if (api.getError() != null) {
+	    grpc.setError(api.getError());
+	}
+	return grpc.build();
+    }
+
+    /*
+     * @see com.sitewhere.grpc.service.DeviceEventManagementGrpc.
+     * DeviceEventManagementImplBase#startEventReplay(com.sitewhere.grpc.service.
+     * GStartEventReplayRequest, io.grpc.stub.StreamObserver)
+     */
+    @Override
+    public void startEventReplay(GStartEventReplayRequest request,
+	    StreamObserver<GStartEventReplayResponse> responseObserver) {
+	try {
+	    GrpcUtils.handleServerMethodEntry(this, DeviceEventManagementGrpc.getStartEventReplayMethod());
+	    EventReplayRequest apiRequest = new EventReplayRequest();
+	    apiRequest.setIndex(EventModelConverter.asApiDeviceEventIndex(request.getIndex()));
+	    apiRequest.setEntityIds(CommonModelConverter.asApiUuids(request.getEntityIdsList()));
+	    for (GDeviceEventType type : request.getEventTypesList()) {
+		apiRequest.getEventTypes().add(EventModelConverter.asApiDeviceEventType(type));
+	    }
+	    apiRequest.setStartDate(CommonModelConverter.asApiDate(request.getStartDate()));
+	    apiRequest.setEndDate(CommonModelConverter.asApiDate(request.getEndDate()));
+	    for (GEventReplayStage stage : request.getStagesList()) {
+		apiRequest.getStages().add(EventReplayManager.asApiEventReplayStage(stage));
+	    }
+	    apiRequest.setEventsPerSecond(request.getEventsPerSecond());
+	    IEventReplayJob apiResult = getEventReplayManager().submit(apiRequest);
+	    GStartEventReplayResponse.Builder response = GStartEventReplayResponse.newBuilder();
+	    response.setJob(asGrpcEventReplayJob(apiResult));
+	    responseObserver.onNext(response.build());
+	    responseObserver.onCompleted();
+	} catch (Throwable e) {
+	    GrpcUtils.handleServerMethodException(DeviceEventManagementGrpc.getStartEventReplayMethod(), e,
+		    responseObserver);
+	} finally {
+	    GrpcUtils.handleServerMethodExit(DeviceEventManagementGrpc.getStartEventReplayMethod());
+	}
+    }
+
+    /*
+     * @see com.sitewhere.grpc.service.DeviceEventManagementGrpc.
+     * DeviceEventManagementImplBase#getEventReplay(com.sitewhere.grpc.service.
+     * GGetEventReplayRequest, io.grpc.stub.StreamObserver)
+     */
+    @Override
+    public void getEventReplay(GGetEventReplayRequest request,
+	    StreamObserver<GGetEventReplayResponse> responseObserver) {
+	try {
+	    GrpcUtils.handleServerMethodEntry(this, DeviceEventManagementGrpc.getGetEventReplayMethod());
+	    UUID id = CommonModelConverter.asApiUuid(request.getId());
+	    IEventReplayJob apiResult = getEventReplayManager().getJob(id);
+	    if (apiResult == null) {
+		throw new SiteWhereException("Event replay not found: " + id);
+	    }
+	    GGetEventReplayResponse.Builder response = GGetEventReplayResponse.newBuilder();
+	    response.setJob(asGrpcEventReplayJob(apiResult));
+	    responseObserver.onNext(response.build());
+	    responseObserver.onCompleted();
+	} catch (Throwable e) {
+	    GrpcUtils.handleServerMethodException(DeviceEventManagementGrpc.getGetEventReplayMethod(), e,
+		    responseObserver);
+	} finally {
+	    GrpcUtils.handleServerMethodExit(DeviceEventManagementGrpc.getGetEventReplayMethod());
+	}
+    }
+
+    /*
+     * @see com.sitewhere.grpc.service.DeviceEventManagementGrpc.
+     * DeviceEventManagementImplBase#cancelEventReplay(com.sitewhere.grpc.service.
+     * GCancelEventReplayRequest, io.grpc.stub.StreamObserver)
+     */
+    @Override
+    public void cancelEventReplay(GCancelEventReplayRequest request,
+	    StreamObserver<GCancelEventReplayResponse> responseObserver) {
+	try {
+	    GrpcUtils.handleServerMethodEntry(this, DeviceEventManagementGrpc.getCancelEventReplayMethod());
+	    UUID id = CommonModelConverter.asApiUuid(request.getId());
+	    IEventReplayJob apiResult = getEventReplayManager().cancel(id);
+	    if (apiResult == null) {
+		throw new SiteWhereException("Event replay not found: " + id);
+	    }
+	    GCancelEventReplayResponse.Builder response = GCancelEventReplayResponse.newBuilder();
+	    response.setJob(asGrpcEventReplayJob(apiResult));
+	    responseObserver.onNext(response.build());
+	    responseObserver.onCompleted();
+	} catch (Throwable e) {
+	    GrpcUtils.handleServerMethodException(DeviceEventManagementGrpc.getCancelEventReplayMethod(), e,
+		    responseObserver);
+	} finally {
+	    GrpcUtils.handleServerMethodExit(DeviceEventManagementGrpc.getCancelEventReplayMethod());
+	}
+    }
+
+    /**
+     * Convert event replay job progress to GRPC.
+     * 
+     * @param api
+     * @return
+     * @throws SiteWhereException
+     */
+    protected static GEventReplayJob asGrpcEventReplayJob(IEventReplayJob api) throws SiteWhereException {
+	GEventReplayJob.Builder grpc = GEventReplayJob.newBuilder();
+	grpc.setId(CommonModelConverter.asGrpcUuid(api.getId()));
+	grpc.setStatus(api.getStatus().name());
+	grpc.setEventsReplayed(api.getEventsReplayed());
+	if (api.getReplayedThrough() != null) {
+	    grpc.setReplayedThrough(api.getReplayedThrough().getTime());
+	}
+	if (api.getError() != null) {
+	    grpc.setError(api.getError());
+	}
+	return grpc.build();
+    }
+
     /*
      * @see
      * com.sitewhere.grpc.client.spi.server.IGrpcApiImplementation#getMicroservice()
@@ -671,4 +946,20 @@ public class EventManagementImpl extends DeviceEventManagementGrpc.DeviceEventMa
     public void setDeviceEventManagement(IDeviceEventManagement deviceEventManagement) {
 	this.deviceEventManagement = deviceEventManagement;
     }
+
+    public IEventExportManager getEventExportManager() {
+	return eventExportManager;
+    }
+
+    public void setEventExportManager(IEventExportManager eventExportManager) {
+	this.eventExportManager = eventExportManager;
+    }
+
+    public IEventReplayManager getEventReplayManager() {
+	return eventReplayManager;
+    }
+
+    public void setEventReplayManager(IEventReplayManager eventReplayManager) {
+	this.eventReplayManager = eventReplayManager;
+    }
 }
\ No newline at end of file
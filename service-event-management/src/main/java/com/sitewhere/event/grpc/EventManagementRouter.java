@@ -34,10 +34,18 @@ import com.sitewhere.grpc.service.GAddStateChangeRequest;
 import com.sitewhere.grpc.service.GAddStateChangeResponse;
 import com.sitewhere.grpc.service.GAddStreamDataForAssignmentRequest;
 import com.sitewhere.grpc.service.GAddStreamDataForAssignmentResponse;
+import com.sitewhere.grpc.service.GCancelEventExportRequest;
+import com.sitewhere.grpc.service.GCancelEventExportResponse;
+import com.sitewhere.grpc.service.GCancelEventReplayRequest;
+import com.sitewhere.grpc.service.GCancelEventReplayResponse;
 import com.sitewhere.grpc.service.GGetDeviceEventByAlternateIdRequest;
 import com.sitewhere.grpc.service.GGetDeviceEventByAlternateIdResponse;
 import com.sitewhere.grpc.service.GGetDeviceEventByIdRequest;
 import com.sitewhere.grpc.service.GGetDeviceEventByIdResponse;
+import com.sitewhere.grpc.service.GGetEventExportRequest;
+import com.sitewhere.grpc.service.GGetEventExportResponse;
+import com.sitewhere.grpc.service.GGetEventReplayRequest;
+import com.sitewhere.grpc.service.GGetEventReplayResponse;
 import com.sitewhere.grpc.service.GGetStreamDataForAssignmentRequest;
 import com.sitewhere.grpc.service.GGetStreamDataForAssignmentResponse;
 import com.sitewhere.grpc.service.GListAlertsForIndexRequest;
@@ -56,6 +64,12 @@ import com.sitewhere.grpc.service.GListStateChangesForIndexRequest;
 import com.sitewhere.grpc.service.GListStateChangesForIndexResponse;
 import com.sitewhere.grpc.service.GListStreamDataForAssignmentRequest;
 import com.sitewhere.grpc.service.GListStreamDataForAssignmentResponse;
+import com.sitewhere.grpc.service.GStartEventExportRequest;
+import com.sitewhere.grpc.service.GStartEventExportResponse;
+import com.sitewhere.grpc.service.GStartEventReplayRequest;
+import com.sitewhere.grpc.service.GStartEventReplayResponse;
+import com.sitewhere.grpc.service.GStreamEventsForIndexRequest;
+import com.sitewhere.grpc.service.GStreamEventsForIndexResponse;
 import com.sitewhere.spi.microservice.multitenant.TenantEngineNotAvailableException;
 
 import io.grpc.stub.StreamObserver;
@@ -380,6 +394,98 @@ public class EventManagementRouter extends DeviceEventManagementGrpc.DeviceEvent
 	}
     }
 
+    /*
+     * @see com.sitewhere.grpc.service.DeviceEventManagementGrpc.
+     * DeviceEventManagementImplBase#streamEventsForIndex(com.sitewhere.grpc.
+     * service.GStreamEventsForIndexRequest, io.grpc.stub.StreamObserver)
+     */
+    @Override
+    public void streamEventsForIndex(GStreamEventsForIndexRequest request,
+	    StreamObserver<GStreamEventsForIndexResponse> responseObserver) {
+	DeviceEventManagementGrpc.DeviceEventManagementImplBase engine = getTenantImplementation(responseObserver);
+	if (engine != null) {
+	    engine.streamEventsForIndex(request, responseObserver);
+	}
+    }
+
+    /*
+     * @see com.sitewhere.grpc.service.DeviceEventManagementGrpc.
+     * DeviceEventManagementImplBase#startEventExport(com.sitewhere.grpc.service.
+     * GStartEventExportRequest, io.grpc.stub.StreamObserver)
+     */
+    @Override
+    public void startEventExport(GStartEventExportRequest request, StreamObserver<GStartEventExportResponse> responseObserver) {
+	DeviceEventManagementGrpc.DeviceEventManagementImplBase engine = getTenantImplementation(responseObserver);
+	if (engine != null) {
+	    engine.startEventExport(request, responseObserver);
+	}
+    }
+
+    /*
+     * @see com.sitewhere.grpc.service.DeviceEventManagementGrpc.
+     * DeviceEventManagementImplBase#getEventExport(com.sitewhere.grpc.service.
+     * GGetEventExportRequest, io.grpc.stub.StreamObserver)
+     */
+    @Override
+    public void getEventExport(GGetEventExportRequest request, StreamObserver<GGetEventExportResponse> responseObserver) {
+	DeviceEventManagementGrpc.DeviceEventManagementImplBase engine = getTenantImplementation(responseObserver);
+	if (engine != null) {
+	    engine.getEventExport(request, responseObserver);
+	}
+    }
+
+    /*
+     * @see com.sitewhere.grpc.service.DeviceEventManagementGrpc.
+     * DeviceEventManagementImplBase#cancelEventExport(com.sitewhere.grpc.service.
+     * GCancelEventExportRequest, io.grpc.stub.StreamObserver)
+     */
+    @Override
+    public void cancelEventExport(GCancelEventExportRequest request, StreamObserver<GCancelEventExportResponse> responseObserver) {
+	DeviceEventManagementGrpc.DeviceEventManagementImplBase engine = getTenantImplementation(responseObserver);
+	if (engine != null) {
+	    engine.cancelEventExport(request, responseObserver);
+	}
+    }
+
+    /*
+     * @see com.sitewhere.grpc.service.DeviceEventManagementGrpc.
+     * DeviceEventManagementImplBase#startEventReplay(com.sitewhere.grpc.service.
+     * GStartEventReplayRequest, io.grpc.stub.StreamObserver)
+     */
+    @Override
+    public void startEventReplay(GStartEventReplayRequest request, StreamObserver<GStartEventReplayResponse> responseObserver) {
+	DeviceEventManagementGrpc.DeviceEventManagementImplBase engine = getTenantImplementation(responseObserver);
+	if (engine != null) {
+	    engine.startEventReplay(request, responseObserver);
+	}
+    }
+
+    /*
+     * @see com.sitewhere.grpc.service.DeviceEventManagementGrpc.
+     * DeviceEventManagementImplBase#getEventReplay(com.sitewhere.grpc.service.
+     * GGetEventReplayRequest, io.grpc.stub.StreamObserver)
+     */
+    @Override
+    public void getEventReplay(GGetEventReplayRequest request, StreamObserver<GGetEventReplayResponse> responseObserver) {
+	DeviceEventManagementGrpc.DeviceEventManagementImplBase engine = getTenantImplementation(responseObserver);
+	if (engine != null) {
+	    engine.getEventReplay(request, responseObserver);
+	}
+    }
+
+    /*
+     * @see com.sitewhere.grpc.service.DeviceEventManagementGrpc.
+     * DeviceEventManagementImplBase#cancelEventReplay(com.sitewhere.grpc.service.
+     * GCancelEventReplayRequest, io.grpc.stub.StreamObserver)
+     */
+    @Override
+    public void cancelEventReplay(GCancelEventReplayRequest request, StreamObserver<GCancelEventReplayResponse> responseObserver) {
+	DeviceEventManagementGrpc.DeviceEventManagementImplBase engine = getTenantImplementation(responseObserver);
+	if (engine != null) {
+	    engine.cancelEventReplay(request, responseObserver);
+	}
+    }
+
     public IEventManagementMicroservice getMicroservice() {
 	return microservice;
     }
@@ -0,0 +1,30 @@
+/*
+ * Copyright (c) SiteWhere, LLC. All rights reserved. http://www.sitewhere.com
+ *
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package com.sitewhere.event.kafka;
+
+import com.sitewhere.event.spi.kafka.IInboundReplayEventsProducer;
+import com.sitewhere.microservice.kafka.MicroserviceKafkaProducer;
+import com.sitewhere.spi.SiteWhereException;
+
+/**
+ * Kafka producer for persisted events that are being replayed through the
+ * processing pipeline.
+ * 
+ * @author Derek
+ */
+public class InboundReplayEventsProducer extends MicroserviceKafkaProducer implements IInboundReplayEventsProducer {
+
+    /*
+     * @see com.sitewhere.spi.microservice.kafka.IMicroserviceKafkaProducer#
+     * getTargetTopicName()
+     */
+    @Override
+    public String getTargetTopicName() throws SiteWhereException {
+	return getMicroservice().getKafkaTopicNaming().getInboundReplayEventsTopic(getTenantEngine().getTenant());
+    }
+}
@@ -7,12 +7,18 @@
  */
 package com.sitewhere.event.microservice;
 
+import com.sitewhere.event.export.EventExportManager;
 import com.sitewhere.event.grpc.EventManagementImpl;
 import com.sitewhere.event.kafka.InboundPersistedEventsProducer;
+import com.sitewhere.event.kafka.InboundReplayEventsProducer;
 import com.sitewhere.event.kafka.KafkaEventPersistenceTriggers;
+import com.sitewhere.event.replay.EventReplayManager;
+import com.sitewhere.event.spi.export.IEventExportManager;
 import com.sitewhere.event.spi.kafka.IInboundPersistedEventsProducer;
+import com.sitewhere.event.spi.kafka.IInboundReplayEventsProducer;
 import com.sitewhere.event.spi.microservice.IEventManagementMicroservice;
 import com.sitewhere.event.spi.microservice.IEventManagementTenantEngine;
+import com.sitewhere.event.spi.replay.IEventReplayManager;
 import com.sitewhere.grpc.service.DeviceEventManagementGrpc;
 import com.sitewhere.microservice.multitenant.MicroserviceTenantEngine;
 import com.sitewhere.server.lifecycle.CompositeLifecycleStep;
@@ -42,6 +48,15 @@ public class EventManagementTenantEngine extends MicroserviceTenantEngine implem
     /** Kafka producer for pushing persisted events to a topic */
     private IInboundPersistedEventsProducer inboundPersistedEventsProducer;
 
+    /** Runs background event exports */
+    private IEventExportManager eventExportManager;
+
+    /** Kafka producer for pushing replayed events to a topic */
+    private IInboundReplayEventsProducer inboundReplayEventsProducer;
+
+    /** Runs background event replays */
+    private IEventReplayManager eventReplayManager;
+
     public EventManagementTenantEngine(ITenant tenant) {
 	super(tenant);
     }
@@ -70,6 +85,15 @@ public class EventManagementTenantEngine extends MicroserviceTenantEngine implem
 	// Initialize inbound persisted events producer.
 	init.addInitializeStep(this, getInboundPersistedEventsProducer(), true);
 
+	// Initialize event export manager.
+	init.addInitializeStep(this, getEventExportManager(), true);
+
+	// Initialize inbound replay events producer.
+	init.addInitializeStep(this, getInboundReplayEventsProducer(), true);
+
+	// Initialize event replay manager.
+	init.addInitializeStep(this, getEventReplayManager(), true);
+
 	// Execute initialization steps.
 	init.execute(monitor);
     }
@@ -84,9 +108,17 @@ public class EventManagementTenantEngine extends MicroserviceTenantEngine implem
 	IDeviceEventManagement impl = (IDeviceEventManagement) getModuleContext()
 		.getBean(EventManagementBeans.BEAN_EVENT_MANAGEMENT);
 	this.eventManagement = new KafkaEventPersistenceTriggers(this, impl);
+	if (getModuleContext().containsBean(EventManagementBeans.BEAN_EVENT_EXPORT_MANAGER)) {
+	    this.eventExportManager = (IEventExportManager) getModuleContext()
+		    .getBean(EventManagementBeans.BEAN_EVENT_EXPORT_MANAGER);
+	} else {
+	    this.eventExportManager = new EventExportManager(impl);
+	}
+	this.inboundReplayEventsProducer = new InboundReplayEventsProducer();
+	this.eventReplayManager = new EventReplayManager(impl, getInboundReplayEventsProducer());
 
 	this.eventManagementImpl = new EventManagementImpl((IEventManagementMicroservice) getMicroservice(),
-		getEventManagement());
+		getEventManagement(), getEventExportManager(), getEventReplayManager());
 	this.inboundPersistedEventsProducer = new InboundPersistedEventsProducer();
     }
 
@@ -110,6 +142,15 @@ public class EventManagementTenantEngine extends MicroserviceTenantEngine implem
 	// Start inbound persisted events producer.
 	start.addStartStep(this, getInboundPersistedEventsProducer(), true);
 
+	// Start event export manager.
+	start.addStartStep(this, getEventExportManager(), true);
+
+	// Start inbound replay events producer.
+	start.addStartStep(this, getInboundReplayEventsProducer(), true);
+
+	// Start event replay manager.
+	start.addStartStep(this, getEventReplayManager(), true);
+
 	// Execute startup steps.
 	start.execute(monitor);
     }
@@ -135,6 +176,15 @@ public class EventManagementTenantEngine extends MicroserviceTenantEngine implem
 	// Create step that will stop components.
 	ICompositeLifecycleStep stop = new CompositeLifecycleStep("Stop " + getComponentName());
 
+	// Stop event replay manager.
+	stop.addStopStep(this, getEventReplayManager());
+
+	// Stop inbound replay events producer.
+	stop.addStopStep(this, getInboundReplayEventsProducer());
+
+	// Stop event export manager.
+	stop.addStopStep(this, getEventExportManager());
+
 	// Stop event management persistence.
 	stop.addStopStep(this, getEventManagement());
 
@@ -190,4 +240,43 @@ public class EventManagementTenantEngine extends MicroserviceTenantEngine implem
     public void setInboundPersistedEventsProducer(IInboundPersistedEventsProducer inboundPersistedEventsProducer) {
 	this.inboundPersistedEventsProducer = inboundPersistedEventsProducer;
     }
+
+    /*
+     * @see com.sitewhere.event.spi.microservice.IEventManagementTenantEngine#
+     * getEventExportManager()
+     */
+    @Override
+    public IEventExportManager getEventExportManager() {
+	return eventExportManager;
+    }
+
+    public void setEventExportManager(IEventExportManager eventExportManager) {
+	this.eventExportManager = eventExportManager;
+    }
+
+    /*
+     * @see com.sitewhere.event.spi.microservice.IEventManagementTenantEngine#
+     * getInboundReplayEventsProducer()
+     */
+    @Override
+    public IInboundReplayEventsProducer getInboundReplayEventsProducer() {
+	return inboundReplayEventsProducer;
+    }
+
+    public void setInboundReplayEventsProducer(IInboundReplayEventsProducer inboundReplayEventsProducer) {
+	this.inboundReplayEventsProducer = inboundReplayEventsProducer;
+    }
+
+    /*
+     * @see com.sitewhere.event.spi.microservice.IEventManagementTenantEngine#
+     * getEventReplayManager()
+     */
+    @Override
+    public IEventReplayManager getEventReplayManager() {
+	return eventReplayManager;
+    }
+
+    public void setEventReplayManager(IEventReplayManager eventReplayManager) {
+	this.eventReplayManager = eventReplayManager;
+    }
 }
\ No newline at end of file
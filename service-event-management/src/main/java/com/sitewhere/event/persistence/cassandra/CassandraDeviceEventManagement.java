@@ -13,12 +13,17 @@ import java.util.Comparator;
 import java.util.Date;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
+import com.datastax.driver.core.BatchStatement;
 import com.datastax.driver.core.BoundStatement;
 import com.datastax.driver.core.PreparedStatement;
 import com.datastax.driver.core.ResultSet;
 import com.datastax.driver.core.ResultSetFuture;
 import com.datastax.driver.core.Row;
+import com.datastax.driver.core.Statement;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.util.concurrent.FutureCallback;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.MoreExecutors;
@@ -77,6 +82,15 @@ public class CassandraDeviceEventManagement extends TenantEngineLifecycleCompone
     /** Configured Cassandra client */
     private CassandraClient client;
 
+    /** Maximum number of device assignments to cache */
+    private int assignmentCacheSize = 10000;
+
+    /** Number of seconds before a cached device assignment is reloaded */
+    private int assignmentCacheTtlSeconds = 30;
+
+    /** Local cache of device assignments by id */
+    private Cache<UUID, IDeviceAssignment> assignmentsById;
+
     public CassandraDeviceEventManagement() {
 	super(LifecycleComponentType.DataStore);
     }
@@ -92,6 +106,21 @@ public class CassandraDeviceEventManagement extends TenantEngineLifecycleCompone
 	    throw new SiteWhereException("No Cassandra client configured.");
 	}
 	getClient().start(monitor);
+
+	this.assignmentsById = CacheBuilder.newBuilder().maximumSize(getAssignmentCacheSize())
+		.expireAfterWrite(getAssignmentCacheTtlSeconds(), TimeUnit.SECONDS).build();
+    }
+
+    /*
+     * @see
+     * com.sitewhere.server.lifecycle.LifecycleComponent#stop(com.sitewhere.spi.
+     * server.lifecycle.ILifecycleProgressMonitor)
+     */
+    @Override
+    public void stop(ILifecycleProgressMonitor monitor) throws SiteWhereException {
+	if (assignmentsById != null) {
+	    assignmentsById.invalidateAll();
+	}
     }
 
     /*
@@ -137,32 +166,9 @@ public class CassandraDeviceEventManagement extends TenantEngineLifecycleCompone
 	IDeviceAssignment assignment = assertDeviceAssignmentById(deviceAssignmentId);
 	DeviceMeasurements mxs = DeviceEventManagementPersistence.deviceMeasurementsCreateLogic(request, assignment);
 
-	// Build insert for event by id.
-	BoundStatement eventById = getClient().getInsertDeviceEventById().bind();
-	CassandraDeviceMeasurements.bindFields(getClient(), eventById, mxs);
-	process(eventById, mxs);
-
-	// Build insert for event by assignment.
-	BoundStatement eventByAssn = getClient().getInsertDeviceEventByAssignment().bind();
-	CassandraDeviceMeasurements.bindFields(getClient(), eventByAssn, mxs);
-	eventByAssn.setInt("bucket", getClient().getBucketValue(mxs.getEventDate().getTime()));
-	process(eventByAssn, mxs);
-
-	// Build insert for event by area.
-	if (assignment.getAreaId() != null) {
-	    BoundStatement eventByArea = getClient().getInsertDeviceEventByArea().bind();
-	    CassandraDeviceMeasurements.bindFields(getClient(), eventByArea, mxs);
-	    eventByArea.setInt("bucket", getClient().getBucketValue(mxs.getEventDate().getTime()));
-	    process(eventByArea, mxs);
-	}
-
-	// Build insert for event by asset.
-	if (assignment.getAssetId() != null) {
-	    BoundStatement eventByAsset = getClient().getInsertDeviceEventByAsset().bind();
-	    CassandraDeviceMeasurements.bindFields(getClient(), eventByAsset, mxs);
-	    eventByAsset.setInt("bucket", getClient().getBucketValue(mxs.getEventDate().getTime()));
-	    process(eventByAsset, mxs);
-	}
+	// Write event and index rows as a single batch.
+	persistEvent(mxs, assignment,
+		(bound, event) -> CassandraDeviceMeasurements.bindFields(getClient(), bound, event));
 
 	return mxs;
     }
@@ -208,32 +214,9 @@ public class CassandraDeviceEventManagement extends TenantEngineLifecycleCompone
 	IDeviceAssignment assignment = assertDeviceAssignmentById(deviceAssignmentId);
 	DeviceLocation location = DeviceEventManagementPersistence.deviceLocationCreateLogic(assignment, request);
 
-	// Build insert for event by id.
-	BoundStatement eventById = getClient().getInsertDeviceEventById().bind();
-	CassandraDeviceLocation.bindFields(getClient(), eventById, location);
-	process(eventById, location);
-
-	// Build insert for event by assignment.
-	BoundStatement eventByAssn = getClient().getInsertDeviceEventByAssignment().bind();
-	CassandraDeviceLocation.bindFields(getClient(), eventByAssn, location);
-	eventByAssn.setInt("bucket", getClient().getBucketValue(location.getEventDate().getTime()));
-	process(eventByAssn, location);
-
-	// Build insert for event by area.
-	if (assignment.getAreaId() != null) {
-	    BoundStatement eventByArea = getClient().getInsertDeviceEventByArea().bind();
-	    CassandraDeviceLocation.bindFields(getClient(), eventByArea, location);
-	    eventByArea.setInt("bucket", getClient().getBucketValue(location.getEventDate().getTime()));
-	    process(eventByArea, location);
-	}
-
-	// Build insert for event by asset.
-	if (assignment.getAssetId() != null) {
-	    BoundStatement eventByAsset = getClient().getInsertDeviceEventByAsset().bind();
-	    CassandraDeviceLocation.bindFields(getClient(), eventByAsset, location);
-	    eventByAsset.setInt("bucket", getClient().getBucketValue(location.getEventDate().getTime()));
-	    process(eventByAsset, location);
-	}
+	// Write event and index rows as a single batch.
+	persistEvent(location, assignment,
+		(bound, event) -> CassandraDeviceLocation.bindFields(getClient(), bound, event));
 
 	return location;
     }
@@ -277,32 +260,9 @@ public class CassandraDeviceEventManagement extends TenantEngineLifecycleCompone
 	IDeviceAssignment assignment = assertDeviceAssignmentById(deviceAssignmentId);
 	DeviceAlert alert = DeviceEventManagementPersistence.deviceAlertCreateLogic(assignment, request);
 
-	// Build insert for event by id.
-	BoundStatement eventById = getClient().getInsertDeviceEventById().bind();
-	CassandraDeviceAlert.bindFields(getClient(), eventById, alert);
-	process(eventById, alert);
-
-	// Build insert for event by assignment.
-	BoundStatement eventByAssn = getClient().getInsertDeviceEventByAssignment().bind();
-	CassandraDeviceAlert.bindFields(getClient(), eventByAssn, alert);
-	eventByAssn.setInt("bucket", getClient().getBucketValue(alert.getEventDate().getTime()));
-	process(eventByAssn, alert);
-
-	// Build insert for event by area.
-	if (assignment.getAreaId() != null) {
-	    BoundStatement eventByArea = getClient().getInsertDeviceEventByArea().bind();
-	    CassandraDeviceAlert.bindFields(getClient(), eventByArea, alert);
-	    eventByArea.setInt("bucket", getClient().getBucketValue(alert.getEventDate().getTime()));
-	    process(eventByArea, alert);
-	}
-
-	// Build insert for event by asset.
-	if (assignment.getAssetId() != null) {
-	    BoundStatement eventByAsset = getClient().getInsertDeviceEventByAsset().bind();
-	    CassandraDeviceAlert.bindFields(getClient(), eventByAsset, alert);
-	    eventByAsset.setInt("bucket", getClient().getBucketValue(alert.getEventDate().getTime()));
-	    process(eventByAsset, alert);
-	}
+	// Write event and index rows as a single batch.
+	persistEvent(alert, assignment,
+		(bound, event) -> CassandraDeviceAlert.bindFields(getClient(), bound, event));
 
 	return alert;
     }
@@ -381,32 +341,9 @@ public class CassandraDeviceEventManagement extends TenantEngineLifecycleCompone
 	DeviceCommandInvocation invocation = DeviceEventManagementPersistence
 		.deviceCommandInvocationCreateLogic(assignment, request);
 
-	// Build insert for event by id.
-	BoundStatement eventById = getClient().getInsertDeviceEventById().bind();
-	CassandraDeviceCommandInvocation.bindFields(getClient(), eventById, invocation);
-	process(eventById, invocation);
-
-	// Build insert for event by assignment.
-	BoundStatement eventByAssn = getClient().getInsertDeviceEventByAssignment().bind();
-	CassandraDeviceCommandInvocation.bindFields(getClient(), eventByAssn, invocation);
-	eventByAssn.setInt("bucket", getClient().getBucketValue(invocation.getEventDate().getTime()));
-	process(eventByAssn, invocation);
-
-	// Build insert for event by area.
-	if (assignment.getAreaId() != null) {
-	    BoundStatement eventByArea = getClient().getInsertDeviceEventByArea().bind();
-	    CassandraDeviceCommandInvocation.bindFields(getClient(), eventByArea, invocation);
-	    eventByArea.setInt("bucket", getClient().getBucketValue(invocation.getEventDate().getTime()));
-	    process(eventByArea, invocation);
-	}
-
-	// Build insert for event by asset.
-	if (assignment.getAssetId() != null) {
-	    BoundStatement eventByAsset = getClient().getInsertDeviceEventByAsset().bind();
-	    CassandraDeviceCommandInvocation.bindFields(getClient(), eventByAsset, invocation);
-	    eventByAsset.setInt("bucket", getClient().getBucketValue(invocation.getEventDate().getTime()));
-	    process(eventByAsset, invocation);
-	}
+	// Write event and index rows as a single batch.
+	persistEvent(invocation, assignment,
+		(bound, event) -> CassandraDeviceCommandInvocation.bindFields(getClient(), bound, event));
 
 	return invocation;
     }
@@ -462,32 +399,9 @@ public class CassandraDeviceEventManagement extends TenantEngineLifecycleCompone
 	DeviceCommandResponse response = DeviceEventManagementPersistence.deviceCommandResponseCreateLogic(assignment,
 		request);
 
-	// Build insert for event by id.
-	BoundStatement eventById = getClient().getInsertDeviceEventById().bind();
-	CassandraDeviceCommandResponse.bindFields(getClient(), eventById, response);
-	process(eventById, response);
-
-	// Build insert for event by assignment.
-	BoundStatement eventByAssn = getClient().getInsertDeviceEventByAssignment().bind();
-	CassandraDeviceCommandResponse.bindFields(getClient(), eventByAssn, response);
-	eventByAssn.setInt("bucket", getClient().getBucketValue(response.getEventDate().getTime()));
-	process(eventByAssn, response);
-
-	// Build insert for event by area.
-	if (assignment.getAreaId() != null) {
-	    BoundStatement eventByArea = getClient().getInsertDeviceEventByArea().bind();
-	    CassandraDeviceCommandResponse.bindFields(getClient(), eventByArea, response);
-	    eventByArea.setInt("bucket", getClient().getBucketValue(response.getEventDate().getTime()));
-	    process(eventByArea, response);
-	}
-
-	// Build insert for event by asset.
-	if (assignment.getAssetId() != null) {
-	    BoundStatement eventByAsset = getClient().getInsertDeviceEventByAsset().bind();
-	    CassandraDeviceCommandResponse.bindFields(getClient(), eventByAsset, response);
-	    eventByAsset.setInt("bucket", getClient().getBucketValue(response.getEventDate().getTime()));
-	    process(eventByAsset, response);
-	}
+	// Write event and index rows as a single batch.
+	persistEvent(response, assignment,
+		(bound, event) -> CassandraDeviceCommandResponse.bindFields(getClient(), bound, event));
 
 	return response;
     }
@@ -533,32 +447,9 @@ public class CassandraDeviceEventManagement extends TenantEngineLifecycleCompone
 	IDeviceAssignment assignment = assertDeviceAssignmentById(deviceAssignmentId);
 	DeviceStateChange state = DeviceEventManagementPersistence.deviceStateChangeCreateLogic(assignment, request);
 
-	// Build insert for event by id.
-	BoundStatement eventById = getClient().getInsertDeviceEventById().bind();
-	CassandraDeviceStateChange.bindFields(getClient(), eventById, state);
-	process(eventById, state);
-
-	// Build insert for event by assignment.
-	BoundStatement eventByAssn = getClient().getInsertDeviceEventByAssignment().bind();
-	CassandraDeviceStateChange.bindFields(getClient(), eventByAssn, state);
-	eventByAssn.setInt("bucket", getClient().getBucketValue(state.getEventDate().getTime()));
-	process(eventByAssn, state);
-
-	// Build insert for event by area.
-	if (assignment.getAreaId() != null) {
-	    BoundStatement eventByArea = getClient().getInsertDeviceEventByArea().bind();
-	    CassandraDeviceStateChange.bindFields(getClient(), eventByArea, state);
-	    eventByArea.setInt("bucket", getClient().getBucketValue(state.getEventDate().getTime()));
-	    process(eventByArea, state);
-	}
-
-	// Build insert for event by asset.
-	if (assignment.getAssetId() != null) {
-	    BoundStatement eventByAsset = getClient().getInsertDeviceEventByAsset().bind();
-	    CassandraDeviceStateChange.bindFields(getClient(), eventByAsset, state);
-	    eventByAsset.setInt("bucket", getClient().getBucketValue(state.getEventDate().getTime()));
-	    process(eventByAsset, state);
-	}
+	// Write event and index rows as a single batch.
+	persistEvent(state, assignment,
+		(bound, event) -> CassandraDeviceStateChange.bindFields(getClient(), bound, event));
 
 	return state;
     }
@@ -592,6 +483,51 @@ public class CassandraDeviceEventManagement extends TenantEngineLifecycleCompone
 	return new SearchResults<IDeviceStateChange>(pager.getResults(), pager.getTotal());
     }
 
+    /**
+     * Write an event along with its by-assignment, by-area and by-asset index
+     * rows as a single logged batch so that index tables are updated atomically
+     * with the event itself.
+     * 
+     * @param event
+     * @param assignment
+     * @param binder
+     * @throws SiteWhereException
+     */
+    protected <T extends IDeviceEvent> void persistEvent(T event, IDeviceAssignment assignment,
+	    IEventBinder<T> binder) throws SiteWhereException {
+	int bucket = getClient().getBucketValue(event.getEventDate().getTime());
+	BatchStatement batch = new BatchStatement(BatchStatement.Type.LOGGED);
+
+	// Build insert for event by id.
+	BoundStatement eventById = getClient().getInsertDeviceEventById().bind();
+	binder.bind(eventById, event);
+	batch.add(eventById);
+
+	// Build insert for event by assignment.
+	BoundStatement eventByAssn = getClient().getInsertDeviceEventByAssignment().bind();
+	binder.bind(eventByAssn, event);
+	eventByAssn.setInt("bucket", bucket);
+	batch.add(eventByAssn);
+
+	// Build insert for event by area.
+	if (assignment.getAreaId() != null) {
+	    BoundStatement eventByArea = getClient().getInsertDeviceEventByArea().bind();
+	    binder.bind(eventByArea, event);
+	    eventByArea.setInt("bucket", bucket);
+	    batch.add(eventByArea);
+	}
+
+	// Build insert for event by asset.
+	if (assignment.getAssetId() != null) {
+	    BoundStatement eventByAsset = getClient().getInsertDeviceEventByAsset().bind();
+	    binder.bind(eventByAsset, event);
+	    eventByAsset.setInt("bucket", bucket);
+	    batch.add(eventByAsset);
+	}
+
+	process(batch, event);
+    }
+
     /**
      * Process a Cassandra query and handle failures.
      * 
@@ -599,7 +535,7 @@ public class CassandraDeviceEventManagement extends TenantEngineLifecycleCompone
      * @param event
      * @throws SiteWhereException
      */
-    protected void process(BoundStatement statement, IDeviceEvent event) throws SiteWhereException {
+    protected void process(Statement statement, IDeviceEvent event) throws SiteWhereException {
 	ResultSetFuture future = getClient().getSession().executeAsync(statement);
 	Futures.addCallback(future, new FutureCallback<ResultSet>() {
 	    /*
@@ -751,9 +687,15 @@ public class CassandraDeviceEventManagement extends TenantEngineLifecycleCompone
      * @throws SiteWhereException
      */
     protected IDeviceAssignment assertDeviceAssignmentById(UUID id) throws SiteWhereException {
-	IDeviceAssignment assignment = getDeviceManagement().getDeviceAssignment(id);
+	IDeviceAssignment assignment = (assignmentsById != null) ? assignmentsById.getIfPresent(id) : null;
 	if (assignment == null) {
-	    throw new SiteWhereSystemException(ErrorCode.InvalidDeviceAssignmentId, ErrorLevel.ERROR);
+	    assignment = getDeviceManagement().getDeviceAssignment(id);
+	    if (assignment == null) {
+		throw new SiteWhereSystemException(ErrorCode.InvalidDeviceAssignmentId, ErrorLevel.ERROR);
+	    }
+	    if (assignmentsById != null) {
+		assignmentsById.put(id, assignment);
+	    }
 	}
 	return assignment;
     }
@@ -763,6 +705,24 @@ public class CassandraDeviceEventManagement extends TenantEngineLifecycleCompone
 		.getApiChannel();
     }
 
+    /**
+     * Binds fields for a specific event type to a statement.
+     * 
+     * @param <T>
+     */
+    @FunctionalInterface
+    protected static interface IEventBinder<T extends IDeviceEvent> {
+
+	/**
+	 * Bind event fields to the given statement.
+	 * 
+	 * @param bound
+	 * @param event
+	 * @throws SiteWhereException
+	 */
+	public void bind(BoundStatement bound, T event) throws SiteWhereException;
+    }
+
     public CassandraClient getClient() {
 	return client;
     }
@@ -770,4 +730,20 @@ public class CassandraDeviceEventManagement extends TenantEngineLifecycleCompone
     public void setClient(CassandraClient client) {
 	this.client = client;
     }
+
+    public int getAssignmentCacheSize() {
+	return assignmentCacheSize;
+    }
+
+    public void setAssignmentCacheSize(int assignmentCacheSize) {
+	this.assignmentCacheSize = assignmentCacheSize;
+    }
+
+    public int getAssignmentCacheTtlSeconds() {
+	return assignmentCacheTtlSeconds;
+    }
+
+    public void setAssignmentCacheTtlSeconds(int assignmentCacheTtlSeconds) {
+	this.assignmentCacheTtlSeconds = assignmentCacheTtlSeconds;
+    }
 }
\ No newline at end of file
@@ -893,10 +893,8 @@ public class HBaseDeviceEvent {
 	    Pager<EventMatch> matches) throws SiteWhereException {
 	List<I> results = new ArrayList<I>();
 	for (EventMatch match : matches.getResults()) {
-	    Class<? extends IDeviceEvent> type = getEventClassForIndicator(match.getType().getType());
 	    try {
-		results.add((I) PayloadMarshalerResolver.getInstance().getMarshaler(match.getEncoding())
-			.decode(match.getPayload(), type));
+		results.add((I) decodePayload(match.getType().getType(), match.getEncoding(), match.getPayload()));
 	    } catch (Throwable e) {
 		LOGGER.error("Unable to read payload value into event object.", e);
 	    }
@@ -1054,13 +1052,10 @@ public class HBaseDeviceEvent {
 	    Get get = new Get(row);
 	    get.addColumn(ISiteWhereHBase.FAMILY_ID, qual);
 	    Result result = events.get(get);
-	    byte type = qual[3];
-	    Class<? extends IDeviceEvent> eventClass = getEventClassForIndicator(type);
-
 	    if (result != null) {
 		byte[] payload = result.getValue(ISiteWhereHBase.FAMILY_ID, qual);
 		if (payload != null) {
-		    return context.getPayloadMarshaler().decode(payload, eventClass);
+		    return decodePayload(qual, payload);
 		}
 	    }
 	    throw new SiteWhereSystemException(ErrorCode.InvalidDeviceEventId, ErrorLevel.ERROR);
@@ -1071,6 +1066,36 @@ public class HBaseDeviceEvent {
 	}
     }
 
+    /**
+     * Decode an event payload using the event type and encoding stored in its
+     * column qualifier. Payloads are always read with the marshaler that wrote
+     * them, so rows written before the configured encoding changed remain
+     * readable.
+     * 
+     * @param qualifier
+     * @param payload
+     * @return
+     * @throws SiteWhereException
+     */
+    public static IDeviceEvent decodePayload(byte[] qualifier, byte[] payload) throws SiteWhereException {
+	return decodePayload(qualifier[3], getEncodingFromQualifier(qualifier), payload);
+    }
+
+    /**
+     * Decode an event payload for the given event type and encoding indicators.
+     * 
+     * @param type
+     * @param encoding
+     * @param payload
+     * @return
+     * @throws SiteWhereException
+     */
+    protected static IDeviceEvent decodePayload(byte type, byte[] encoding, byte[] payload)
+	    throws SiteWhereException {
+	Class<? extends IDeviceEvent> eventClass = getEventClassForIndicator(type);
+	return PayloadMarshalerResolver.getInstance().getMarshaler(encoding).decode(payload, eventClass);
+    }
+
     /**
      * Get the REST wrapper class that can be used to unmarshal JSON.
      * 
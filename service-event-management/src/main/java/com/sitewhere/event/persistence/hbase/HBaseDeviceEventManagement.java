@@ -19,6 +19,8 @@ import com.sitewhere.hbase.ISiteWhereHBase;
 import com.sitewhere.hbase.ISiteWhereHBaseClient;
 import com.sitewhere.hbase.common.SiteWhereTables;
 import com.sitewhere.hbase.encoder.IPayloadMarshaler;
+import com.sitewhere.hbase.encoder.PayloadEncoding;
+import com.sitewhere.hbase.encoder.PayloadMarshalerResolver;
 import com.sitewhere.rest.model.search.SearchResults;
 import com.sitewhere.server.lifecycle.TenantEngineLifecycleComponent;
 import com.sitewhere.spi.SiteWhereException;
@@ -69,6 +71,9 @@ public class HBaseDeviceEventManagement extends TenantEngineLifecycleComponent i
     /** Injected payload encoder */
     private IPayloadMarshaler payloadMarshaler;
 
+    /** Encoding used for new events if no payload encoder is injected */
+    private String payloadEncoding = PayloadEncoding.Json.name();
+
     /** Supplies context to implementation methods */
     private HBaseContext context;
 
@@ -94,6 +99,11 @@ public class HBaseDeviceEventManagement extends TenantEngineLifecycleComponent i
 	this.context = new HBaseContext();
 	context.setTenant(getTenantEngine().getTenant());
 	context.setClient(getClient());
+	if (getPayloadMarshaler() == null) {
+	    PayloadEncoding encoding = PayloadEncoding.valueOf(getPayloadEncoding());
+	    setPayloadMarshaler(PayloadMarshalerResolver.getInstance().getMarshaler(encoding));
+	}
+	getLogger().info("Storing new events with " + getPayloadMarshaler().getEncoding().name() + " encoding.");
 	context.setPayloadMarshaler(getPayloadMarshaler());
 
 	ensureTablesExist();
@@ -397,4 +407,12 @@ public class HBaseDeviceEventManagement extends TenantEngineLifecycleComponent i
     public void setPayloadMarshaler(IPayloadMarshaler payloadMarshaler) {
 	this.payloadMarshaler = payloadMarshaler;
     }
+
+    public String getPayloadEncoding() {
+	return payloadEncoding;
+    }
+
+    public void setPayloadEncoding(String payloadEncoding) {
+	this.payloadEncoding = payloadEncoding;
+    }
 }
\ No newline at end of file
@@ -138,6 +138,37 @@ public class InfluxDbDeviceEvent {
 	return new SearchResults<T>(results, count);
     }
 
+    /**
+     * Search for downsampled measurements associated with one or more entities for
+     * a given index.
+     * 
+     * @param index
+     * @param entityIds
+     * @param criteria
+     * @param client
+     * @param tier
+     * @return
+     * @throws SiteWhereException
+     */
+    public static <T> SearchResults<T> searchMeasurementsInTier(DeviceEventIndex index, List<UUID> entityIds,
+	    ISearchCriteria criteria, InfluxDbClient client, InfluxDbMeasurementTier tier, Class<T> clazz)
+	    throws SiteWhereException {
+	String from = " FROM \"" + tier.getRetentionPolicyName() + "\".\"" + tier.getMeasurementName() + "\" where "
+		+ EVENT_TYPE + "='" + DeviceEventType.Measurements.name() + "' and (" + buildInClause(index, entityIds)
+		+ ")" + buildDateRangeCriteria(criteria);
+	Query query = new Query("SELECT *" + from + " ORDER BY time DESC" + buildPagingCriteria(criteria),
+		client.getDatabase().getValue());
+	LOGGER.debug("Query: " + query.getCommand());
+	QueryResult response = client.getInflux().query(query, TimeUnit.MILLISECONDS);
+	List<T> results = InfluxDbDeviceEvent.eventsOfType(response, clazz);
+
+	Query countQuery = new Query("SELECT count(/^mean_/)" + from, client.getDatabase().getValue());
+	LOGGER.debug("Count: " + countQuery.getCommand());
+	QueryResult countResponse = client.getInflux().query(countQuery);
+	long count = parseMaxCount(countResponse);
+	return new SearchResults<T>(results, count);
+    }
+
     /**
      * Get a query for events of a given type associated with one or more entities
      * for a given index and that meet the search criteria.
@@ -326,6 +357,35 @@ public class InfluxDbDeviceEvent {
 	return 0;
     }
 
+    /**
+     * Parse response from a count query over multiple fields, returning the
+     * largest count.
+     * 
+     * @param response
+     * @return
+     * @throws SiteWhereException
+     */
+    protected static long parseMaxCount(QueryResult response) throws SiteWhereException {
+	handleError(response);
+
+	long max = 0;
+	for (Result result : response.getResults()) {
+	    if (result.getSeries() != null) {
+		for (Series series : result.getSeries()) {
+		    for (List<Object> values : series.getValues()) {
+			Map<String, Object> valueMap = getValueMap(series, values);
+			for (String key : valueMap.keySet()) {
+			    if (key.startsWith("count") && (valueMap.get(key) instanceof Number)) {
+				max = Math.max(max, ((Number) valueMap.get(key)).longValue());
+			    }
+			}
+		    }
+		}
+	    }
+	}
+	return max;
+    }
+
     /**
      * Finds String value and throws exception if null.
      * 
@@ -13,6 +13,8 @@ import java.util.Map;
 import java.util.UUID;
 
 import org.influxdb.dto.Point;
+import org.influxdb.dto.Query;
+import org.influxdb.dto.QueryResult;
 
 import com.sitewhere.event.persistence.DeviceEventManagementPersistence;
 import com.sitewhere.event.spi.microservice.IEventManagementMicroservice;
@@ -77,6 +79,15 @@ public class InfluxDbDeviceEventManagement extends TenantEngineLifecycleComponen
     /** Assignment meta data tag to check for user defined retention policy */
     private final String ASSIGNMENT_META_DATA_RETENTION_POLICY = "INFLUX_RETENTION_POLICY";
 
+    /** Indicates whether downsampled measurement tiers are maintained */
+    private boolean useDownsampling = false;
+
+    /** Downsampling tiers as interval=retention pairs */
+    private String downsamplingTiers = "1m=30d,1h=INF";
+
+    /** Parsed downsampling tiers ordered from finest to coarsest */
+    private List<InfluxDbMeasurementTier> tiers = new ArrayList<>();
+
     public InfluxDbDeviceEventManagement() {
 	super(LifecycleComponentType.DataStore);
     }
@@ -94,6 +105,74 @@ public class InfluxDbDeviceEventManagement extends TenantEngineLifecycleComponen
 	    throw new SiteWhereException("No InfluxDB client configured.");
 	}
 	getClient().start(monitor);
+
+	// Provision downsampled measurement tiers.
+	if (isUseDownsampling()) {
+	    this.tiers = InfluxDbMeasurementTier.parse(getDownsamplingTiers());
+	    provisionMeasurementTiers();
+	} else {
+	    this.tiers = new ArrayList<>();
+	}
+    }
+
+    /**
+     * Create retention policies and continuous queries that maintain downsampled
+     * measurement tiers. Existing policies and queries with matching definitions
+     * are left unchanged.
+     * 
+     * @throws SiteWhereException
+     */
+    protected void provisionMeasurementTiers() throws SiteWhereException {
+	String database = getClient().getDatabase().getValue();
+	String source = getClient().getConfiguration().getRetention();
+	for (InfluxDbMeasurementTier tier : tiers) {
+	    executeProvisioningCommand(tier.getCreateRetentionPolicyCommand(database), database);
+	    executeProvisioningCommand(tier.getCreateContinuousQueryCommand(database, source), database);
+	    getLogger().info("Using downsampled measurement tier '" + tier.getName() + "' with retention "
+		    + tier.getRetention() + ".");
+	}
+    }
+
+    /**
+     * Execute a provisioning command, logging rather than failing on errors so
+     * that tiers provisioned with different settings do not prevent startup.
+     * 
+     * @param command
+     * @param database
+     */
+    protected void executeProvisioningCommand(String command, String database) {
+	QueryResult result = getClient().getInflux().query(new Query(command, database));
+	if (result.getError() != null) {
+	    getLogger().warn("Unable to provision downsampling tier (" + result.getError() + "): " + command);
+	}
+    }
+
+    /**
+     * Choose the coarsest downsampled tier whose interval still yields at least a
+     * page of points across the requested range and whose retention covers the
+     * range start. Returns null if raw data should be used.
+     * 
+     * @param criteria
+     * @return
+     * @throws SiteWhereException
+     */
+    protected InfluxDbMeasurementTier selectMeasurementTier(IDateRangeSearchCriteria criteria)
+	    throws SiteWhereException {
+	if (tiers.isEmpty() || (criteria.getStartDate() == null) || (criteria.getPageSize() == null)
+		|| (criteria.getPageSize() <= 0)) {
+	    return null;
+	}
+	long now = System.currentTimeMillis();
+	long start = criteria.getStartDate().getTime();
+	long end = (criteria.getEndDate() != null) ? criteria.getEndDate().getTime() : now;
+	long resolution = (end - start) / criteria.getPageSize();
+	InfluxDbMeasurementTier selected = null;
+	for (InfluxDbMeasurementTier tier : tiers) {
+	    if ((tier.getIntervalMs() <= resolution) && (tier.covers(start, now))) {
+		selected = tier;
+	    }
+	}
+	return selected;
     }
 
     /*
@@ -207,6 +286,12 @@ public class InfluxDbDeviceEventManagement extends TenantEngineLifecycleComponen
     @Override
     public ISearchResults<IDeviceMeasurements> listDeviceMeasurementsForIndex(DeviceEventIndex index,
 	    List<UUID> entityIds, IDateRangeSearchCriteria criteria) throws SiteWhereException {
+	InfluxDbMeasurementTier tier = selectMeasurementTier(criteria);
+	if (tier != null) {
+	    getLogger().debug("Using downsampled tier '" + tier.getName() + "' for measurements query.");
+	    return InfluxDbDeviceEvent.searchMeasurementsInTier(index, entityIds, criteria, getClient(), tier,
+		    IDeviceMeasurements.class);
+	}
 	return InfluxDbDeviceEvent.searchByIndex(index, entityIds, DeviceEventType.Measurements, criteria, getClient(),
 		IDeviceMeasurements.class);
     }
@@ -441,4 +526,20 @@ public class InfluxDbDeviceEventManagement extends TenantEngineLifecycleComponen
     public void setClient(InfluxDbClient client) {
 	this.client = client;
     }
+
+    public boolean isUseDownsampling() {
+	return useDownsampling;
+    }
+
+    public void setUseDownsampling(boolean useDownsampling) {
+	this.useDownsampling = useDownsampling;
+    }
+
+    public String getDownsamplingTiers() {
+	return downsamplingTiers;
+    }
+
+    public void setDownsamplingTiers(String downsamplingTiers) {
+	this.downsamplingTiers = downsamplingTiers;
+    }
 }
\ No newline at end of file
@@ -24,6 +24,21 @@ public class InfluxDbDeviceMeasurements {
     /** Measurement name tag prefix */
     public static final String MEASUREMENT_PREFIX = "mx:";
 
+    /** Prefix for mean values in downsampled tiers */
+    public static final String ROLLUP_MEAN_PREFIX = "mean_" + MEASUREMENT_PREFIX;
+
+    /** Prefix for minimum values in downsampled tiers */
+    public static final String ROLLUP_MIN_PREFIX = "min_" + MEASUREMENT_PREFIX;
+
+    /** Prefix for maximum values in downsampled tiers */
+    public static final String ROLLUP_MAX_PREFIX = "max_" + MEASUREMENT_PREFIX;
+
+    /** Suffix added to measurement name for downsampled minimum values */
+    public static final String ROLLUP_MIN_SUFFIX = ".min";
+
+    /** Suffix added to measurement name for downsampled maximum values */
+    public static final String ROLLUP_MAX_SUFFIX = ".max";
+
     /**
      * Parse domain object from a value map.
      * 
@@ -38,7 +53,9 @@ public class InfluxDbDeviceMeasurements {
     }
 
     /**
-     * Load fields from value map.
+     * Load fields from value map. Values from downsampled tiers are loaded with
+     * the mean under the measurement name and the minimum and maximum under
+     * suffixed names.
      * 
      * @param event
      * @param values
@@ -50,6 +67,15 @@ public class InfluxDbDeviceMeasurements {
 		String name = key.substring(MEASUREMENT_PREFIX.length());
 		Double value = (Double) values.get(key);
 		event.addOrReplaceMeasurement(name, value);
+	    } else if (key.startsWith(ROLLUP_MEAN_PREFIX)) {
+		String name = key.substring(ROLLUP_MEAN_PREFIX.length());
+		event.addOrReplaceMeasurement(name, (Double) values.get(key));
+	    } else if (key.startsWith(ROLLUP_MIN_PREFIX)) {
+		String name = key.substring(ROLLUP_MIN_PREFIX.length());
+		event.addOrReplaceMeasurement(name + ROLLUP_MIN_SUFFIX, (Double) values.get(key));
+	    } else if (key.startsWith(ROLLUP_MAX_PREFIX)) {
+		String name = key.substring(ROLLUP_MAX_PREFIX.length());
+		event.addOrReplaceMeasurement(name + ROLLUP_MAX_SUFFIX, (Double) values.get(key));
 	    }
 	}
 	InfluxDbDeviceEvent.loadFromMap(event, values);
@@ -0,0 +1,203 @@
+/*
+ * Copyright (c) SiteWhere, LLC. All rights reserved. http://www.sitewhere.com
+ *
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package com.sitewhere.event.persistence.influxdb;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import com.sitewhere.spi.SiteWhereException;
+
+/**
+ * Describes a downsampled measurements tier maintained in InfluxDB by a
+ * continuous query. Each tier stores the mean, minimum and maximum of every
+ * measurement per series for a fixed interval in its own retention policy.
+ * 
+ * @author Derek
+ */
+public class InfluxDbMeasurementTier {
+
+    /** Value used to indicate infinite retention */
+    public static final String INFINITE_RETENTION = "INF";
+
+    /** Prefix for tier retention policy names */
+    private static final String RETENTION_POLICY_PREFIX = "sw_tier_";
+
+    /** Prefix for tier continuous query names */
+    private static final String CONTINUOUS_QUERY_PREFIX = "sw_rollup_";
+
+    /** Tier name which is also the InfluxDB duration for the interval */
+    private String name;
+
+    /** Interval covered by each rolled-up point in milliseconds */
+    private long intervalMs;
+
+    /** InfluxDB retention duration for tier data */
+    private String retention;
+
+    public InfluxDbMeasurementTier(String name, String retention) throws SiteWhereException {
+	this.name = name;
+	this.intervalMs = parseDuration(name);
+	this.retention = retention;
+	if (!INFINITE_RETENTION.equalsIgnoreCase(retention)) {
+	    parseDuration(retention);
+	}
+    }
+
+    /**
+     * Parse a list of tiers from a specification such as "1m=30d,1h=INF". Tiers
+     * are returned ordered from finest to coarsest interval.
+     * 
+     * @param spec
+     * @return
+     * @throws SiteWhereException
+     */
+    public static List<InfluxDbMeasurementTier> parse(String spec) throws SiteWhereException {
+	List<InfluxDbMeasurementTier> tiers = new ArrayList<>();
+	if (spec == null) {
+	    return tiers;
+	}
+	for (String part : spec.split(",")) {
+	    part = part.trim();
+	    if (part.length() == 0) {
+		continue;
+	    }
+	    String[] values = part.split("=");
+	    if (values.length != 2) {
+		throw new SiteWhereException("Invalid downsampling tier: " + part);
+	    }
+	    tiers.add(new InfluxDbMeasurementTier(values[0].trim(), values[1].trim()));
+	}
+	Collections.sort(tiers, new Comparator<InfluxDbMeasurementTier>() {
+
+	    @Override
+	    public int compare(InfluxDbMeasurementTier o1, InfluxDbMeasurementTier o2) {
+		return Long.compare(o1.getIntervalMs(), o2.getIntervalMs());
+	    }
+	});
+	return tiers;
+    }
+
+    /**
+     * Parse an InfluxDB duration with a single unit (e.g. "30s", "1m", "1h",
+     * "7d", "2w") into milliseconds.
+     * 
+     * @param duration
+     * @return
+     * @throws SiteWhereException
+     */
+    public static long parseDuration(String duration) throws SiteWhereException {
+	if ((duration == null) || (duration.length() < 2)) {
+	    throw new SiteWhereException("Invalid duration: " + duration);
+	}
+	long unit;
+	switch (duration.charAt(duration.length() - 1)) {
+	case 's': {
+	    unit = 1000L;
+	    break;
+	}
+	case 'm': {
+	    unit = 60 * 1000L;
+	    break;
+	}
+	case 'h': {
+	    unit = 60 * 60 * 1000L;
+	    break;
+	}
+	case 'd': {
+	    unit = 24 * 60 * 60 * 1000L;
+	    break;
+	}
+	case 'w': {
+	    unit = 7 * 24 * 60 * 60 * 1000L;
+	    break;
+	}
+	default: {
+	    throw new SiteWhereException("Invalid duration unit: " + duration);
+	}
+	}
+	try {
+	    long value = Long.parseLong(duration.substring(0, duration.length() - 1));
+	    if (value <= 0) {
+		throw new SiteWhereException("Duration must be positive: " + duration);
+	    }
+	    return value * unit;
+	} catch (NumberFormatException e) {
+	    throw new SiteWhereException("Invalid duration: " + duration, e);
+	}
+    }
+
+    /**
+     * Get command that creates the retention policy for the tier.
+     * 
+     * @param database
+     * @return
+     */
+    public String getCreateRetentionPolicyCommand(String database) {
+	return "CREATE RETENTION POLICY \"" + getRetentionPolicyName() + "\" ON \"" + database + "\" DURATION "
+		+ getRetention() + " REPLICATION 1";
+    }
+
+    /**
+     * Get command that creates the continuous query which populates the tier from
+     * raw measurements. Grouping by all tags keeps index values and user defined
+     * tags on rolled-up points.
+     * 
+     * @param database
+     * @param sourceRetentionPolicy
+     * @return
+     */
+    public String getCreateContinuousQueryCommand(String database, String sourceRetentionPolicy) {
+	String fields = "/^" + InfluxDbDeviceMeasurements.MEASUREMENT_PREFIX + "/";
+	return "CREATE CONTINUOUS QUERY \"" + getContinuousQueryName() + "\" ON \"" + database + "\" BEGIN SELECT mean("
+		+ fields + "), min(" + fields + "), max(" + fields + ") INTO \"" + database + "\".\""
+		+ getRetentionPolicyName() + "\".\"" + getMeasurementName() + "\" FROM \"" + database + "\".\""
+		+ sourceRetentionPolicy + "\".\"" + InfluxDbDeviceEvent.COLLECTION_EVENTS + "\" WHERE "
+		+ InfluxDbDeviceEvent.EVENT_TYPE + "='Measurements' GROUP BY time(" + getName() + "), * END";
+    }
+
+    /**
+     * Indicates whether tier data is available for the given start time.
+     * 
+     * @param start
+     * @param now
+     * @return
+     * @throws SiteWhereException
+     */
+    public boolean covers(long start, long now) throws SiteWhereException {
+	if (INFINITE_RETENTION.equalsIgnoreCase(getRetention())) {
+	    return true;
+	}
+	return start >= (now - parseDuration(getRetention()));
+    }
+
+    public String getRetentionPolicyName() {
+	return RETENTION_POLICY_PREFIX + getName();
+    }
+
+    public String getContinuousQueryName() {
+	return CONTINUOUS_QUERY_PREFIX + getName();
+    }
+
+    public String getMeasurementName() {
+	return InfluxDbDeviceEvent.COLLECTION_EVENTS + "_" + getName();
+    }
+
+    public String getName() {
+	return name;
+    }
+
+    public long getIntervalMs() {
+	return intervalMs;
+    }
+
+    public String getRetention() {
+	return retention;
+    }
+}
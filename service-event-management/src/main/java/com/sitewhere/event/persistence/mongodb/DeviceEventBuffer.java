@@ -91,6 +91,25 @@ public class DeviceEventBuffer implements IDeviceEventBuffer {
 	}
     }
 
+    /**
+     * Execute a chunk of buffered writes.
+     * 
+     * @param writes
+     */
+    protected void write(List<WriteModel<Document>> writes) {
+	getEvents().bulkWrite(writes);
+    }
+
+    /**
+     * Create the write operation used to persist a buffered {@link Document}.
+     * 
+     * @param record
+     * @return
+     */
+    protected WriteModel<Document> createWriteModel(Document record) {
+	return new InsertOneModel<Document>(record);
+    }
+
     /**
      * Thread that sends {@link Document} inserts to MongoDB in batches.
      * 
@@ -110,7 +129,7 @@ public class DeviceEventBuffer implements IDeviceEventBuffer {
 		    try {
 			Document record = buffer.poll(MAX_TIME_BEFORE_WRITE, TimeUnit.MILLISECONDS);
 			if (record != null) {
-			    writes.add(new InsertOneModel<Document>(record));
+			    writes.add(createWriteModel(record));
 			    count++;
 			}
 		    } catch (InterruptedException e) {
@@ -121,7 +140,7 @@ public class DeviceEventBuffer implements IDeviceEventBuffer {
 			if (count > 0) {
 			    try {
 				LOGGER.debug("Executing bulk insert of " + count + " event records.");
-				events.bulkWrite(writes);
+				write(writes);
 			    } catch (MongoBulkWriteException e) {
 				LOGGER.error("Error during MongoDB bulk write.", e);
 			    } catch (MongoTimeoutException e) {
@@ -138,4 +157,8 @@ public class DeviceEventBuffer implements IDeviceEventBuffer {
 	    }
 	}
     }
+
+    protected MongoCollection<Document> getEvents() {
+	return events;
+    }
 }
\ No newline at end of file
@@ -24,6 +24,9 @@ public class DeviceEventManagementMongoClient extends MongoDbClient implements I
     /** Injected name used for events collection */
     private String eventsCollectionName = IDeviceEventManagementMongoClient.DEFAULT_EVENTS_COLLECTION_NAME;
 
+    /** Injected name used for measurement buckets collection */
+    private String measurementBucketsCollectionName = IDeviceEventManagementMongoClient.DEFAULT_MEASUREMENT_BUCKETS_COLLECTION_NAME;
+
     public DeviceEventManagementMongoClient(MongoConfiguration configuration) {
 	super(configuration);
     }
@@ -37,6 +40,15 @@ public class DeviceEventManagementMongoClient extends MongoDbClient implements I
 	return getDatabase().getCollection(getEventsCollectionName());
     }
 
+    /*
+     * @see
+     * com.sitewhere.event.persistence.mongodb.IDeviceEventManagementMongoClient#
+     * getMeasurementBucketsCollection()
+     */
+    public MongoCollection<Document> getMeasurementBucketsCollection() throws SiteWhereException {
+	return getDatabase().getCollection(getMeasurementBucketsCollectionName());
+    }
+
     public String getEventsCollectionName() {
 	return eventsCollectionName;
     }
@@ -44,4 +56,12 @@ public class DeviceEventManagementMongoClient extends MongoDbClient implements I
     public void setEventsCollectionName(String eventsCollectionName) {
 	this.eventsCollectionName = eventsCollectionName;
     }
+
+    public String getMeasurementBucketsCollectionName() {
+	return measurementBucketsCollectionName;
+    }
+
+    public void setMeasurementBucketsCollectionName(String measurementBucketsCollectionName) {
+	this.measurementBucketsCollectionName = measurementBucketsCollectionName;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) SiteWhere, LLC. All rights reserved. http://www.sitewhere.com
+ *
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package com.sitewhere.event.persistence.mongodb;
+
+import java.util.List;
+
+import org.bson.Document;
+
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.WriteModel;
+
+/**
+ * Extends {@link DeviceEventBuffer} to write buffered measurements into
+ * time-bucketed documents using upserts rather than inserting one document per
+ * event.
+ * 
+ * @author Derek
+ */
+public class MeasurementBucketBuffer extends DeviceEventBuffer {
+
+    /** Bucket width in milliseconds */
+    private long bucketMillis;
+
+    public MeasurementBucketBuffer(MongoCollection<Document> buckets, int maxChunkSize, long bucketMillis) {
+	super(buckets, maxChunkSize);
+	this.bucketMillis = bucketMillis;
+    }
+
+    /*
+     * @see com.sitewhere.event.persistence.mongodb.DeviceEventBuffer#
+     * createWriteModel(org.bson.Document)
+     */
+    @Override
+    protected WriteModel<Document> createWriteModel(Document record) {
+	return MongoMeasurementBucket.createBucketUpsert(record, bucketMillis);
+    }
+
+    /*
+     * Ordered bulk writes stop at the first error. If an upsert lost the race to
+     * open a bucket, the chunk is resumed from that upsert so that it updates the
+     * bucket created by the other writer.
+     * 
+     * @see
+     * com.sitewhere.event.persistence.mongodb.DeviceEventBuffer#write(java.util.
+     * List)
+     */
+    @Override
+    protected void write(List<WriteModel<Document>> writes) {
+	List<WriteModel<Document>> remaining = writes;
+	for (int attempt = 1;; attempt++) {
+	    try {
+		getEvents().bulkWrite(remaining);
+		return;
+	    } catch (MongoBulkWriteException e) {
+		BulkWriteError error = e.getWriteErrors().isEmpty() ? null : e.getWriteErrors().get(0);
+		if ((error == null) || (attempt >= MongoMeasurementBucket.MAX_UPSERT_ATTEMPTS)
+			|| (!MongoMeasurementBucket.isDuplicateBucket(error))) {
+		    throw e;
+		}
+		remaining = remaining.subList(error.getIndex(), remaining.size());
+	    }
+	}
+    }
+}
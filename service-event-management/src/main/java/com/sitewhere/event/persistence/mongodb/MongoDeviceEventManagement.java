@@ -7,14 +7,22 @@
  */
 package com.sitewhere.event.persistence.mongodb;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
 import java.util.List;
 import java.util.UUID;
 
 import org.bson.Document;
 
 import com.mongodb.BasicDBObject;
+import com.mongodb.MongoClientException;
 import com.mongodb.MongoTimeoutException;
+import com.mongodb.client.FindIterable;
 import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoCursor;
 import com.mongodb.client.model.IndexOptions;
 import com.sitewhere.event.persistence.DeviceEventManagementPersistence;
 import com.sitewhere.event.spi.microservice.IEventManagementMicroservice;
@@ -83,6 +91,19 @@ public class MongoDeviceEventManagement extends TenantEngineLifecycleComponent i
     /** Maximum number of records to write in a chunk */
     private int bulkInsertMaxChunkSize = 200;
 
+    /**
+     * Indicates whether measurements are stored in time-bucketed documents.
+     * Measurements stored before buckets were enabled stay in the events
+     * collection and are still included in measurement searches.
+     */
+    private boolean useMeasurementBuckets = false;
+
+    /** Width of each measurement bucket in seconds */
+    private int measurementBucketSeconds = 3600;
+
+    /** Buffer used for bulk writes to measurement buckets */
+    private IDeviceEventBuffer bucketBuffer;
+
     public MongoDeviceEventManagement() {
 	super(LifecycleComponentType.DataStore);
     }
@@ -98,16 +119,28 @@ public class MongoDeviceEventManagement extends TenantEngineLifecycleComponent i
     public void start(ILifecycleProgressMonitor monitor) throws SiteWhereException {
 	// Ensure that collection indexes exist.
 	ensureIndexes();
+	if (isUseMeasurementBuckets()) {
+	    ensureMeasurementBucketIndexes();
+	}
 
 	// Support bulk inserts for events.
 	if (isUseBulkEventInserts()) {
 	    this.eventBuffer = new DeviceEventBuffer(getMongoClient().getEventsCollection(),
 		    getBulkInsertMaxChunkSize());
 	    getEventBuffer().start();
+	    if (isUseMeasurementBuckets()) {
+		this.bucketBuffer = new MeasurementBucketBuffer(getMongoClient().getMeasurementBucketsCollection(),
+			getBulkInsertMaxChunkSize(), getMeasurementBucketMillis());
+		getBucketBuffer().start();
+	    }
 	    getLogger().info("MongoDB device event management is using bulk inserts for events.");
 	} else {
 	    getLogger().info("MongoDB device event management is not using bulk inserts for events.");
 	}
+	if (isUseMeasurementBuckets()) {
+	    getLogger().info("MongoDB device event management is storing measurements in buckets of "
+		    + getMeasurementBucketSeconds() + " seconds.");
+	}
     }
 
     /*
@@ -123,6 +156,9 @@ public class MongoDeviceEventManagement extends TenantEngineLifecycleComponent i
 	if (getEventBuffer() != null) {
 	    getEventBuffer().stop();
 	}
+	if (getBucketBuffer() != null) {
+	    getBucketBuffer().stop();
+	}
     }
 
     /**
@@ -144,6 +180,32 @@ public class MongoDeviceEventManagement extends TenantEngineLifecycleComponent i
 		.append(MongoDeviceEvent.PROP_EVENT_TYPE, 1).append(MongoDeviceEvent.PROP_EVENT_DATE, -1));
     }
 
+    /**
+     * Ensure that measurement bucket collection indexes exist. Indexes are kept
+     * at bucket granularity so that their size does not grow with each sample.
+     * The unique index only covers open buckets, so full buckets for a window
+     * may coexist with the one currently being filled.
+     * 
+     * @throws SiteWhereException
+     */
+    protected void ensureMeasurementBucketIndexes() throws SiteWhereException {
+	MongoCollection<Document> buckets = getMongoClient().getMeasurementBucketsCollection();
+	buckets.createIndex(
+		new BasicDBObject(MongoDeviceEvent.PROP_DEVICE_ASSIGNMENT_ID, 1)
+			.append(MongoMeasurementBucket.PROP_BUCKET_START, 1),
+		new IndexOptions().unique(true).partialFilterExpression(MongoMeasurementBucket.createOpenBucketFilter()));
+	buckets.createIndex(new BasicDBObject(MongoDeviceEvent.PROP_DEVICE_ASSIGNMENT_ID, 1)
+		.append(MongoMeasurementBucket.PROP_BUCKET_START, -1));
+	buckets.createIndex(new BasicDBObject(MongoDeviceEvent.PROP_DEVICE_ID, 1)
+		.append(MongoMeasurementBucket.PROP_BUCKET_START, -1));
+	buckets.createIndex(new BasicDBObject(MongoDeviceEvent.PROP_CUSTOMER_ID, 1)
+		.append(MongoMeasurementBucket.PROP_BUCKET_START, -1));
+	buckets.createIndex(new BasicDBObject(MongoDeviceEvent.PROP_AREA_ID, 1)
+		.append(MongoMeasurementBucket.PROP_BUCKET_START, -1));
+	buckets.createIndex(new BasicDBObject(MongoDeviceEvent.PROP_ASSET_ID, 1)
+		.append(MongoMeasurementBucket.PROP_BUCKET_START, -1));
+    }
+
     /*
      * @see
      * com.sitewhere.spi.device.event.IDeviceEventManagement#addDeviceEventBatch(
@@ -167,7 +229,7 @@ public class MongoDeviceEventManagement extends TenantEngineLifecycleComponent i
 		eventId);
 	Document found = getMongoClient().getEventsCollection().find(query).first();
 	if (found == null) {
-	    return null;
+	    return getBucketedMeasurements(deviceId, MongoDeviceEvent.PROP_ID, eventId);
 	}
 	return MongoDeviceEventManagementPersistence.unmarshalEvent(found);
     }
@@ -182,7 +244,7 @@ public class MongoDeviceEventManagement extends TenantEngineLifecycleComponent i
 		.append(MongoDeviceEvent.PROP_ALTERNATE_ID, alternateId);
 	Document found = getMongoClient().getEventsCollection().find(query).first();
 	if (found == null) {
-	    return null;
+	    return getBucketedMeasurements(deviceId, MongoDeviceEvent.PROP_ALTERNATE_ID, alternateId);
 	}
 	return MongoDeviceEventManagementPersistence.unmarshalEvent(found);
     }
@@ -200,9 +262,16 @@ public class MongoDeviceEventManagement extends TenantEngineLifecycleComponent i
 	DeviceMeasurements measurements = DeviceEventManagementPersistence.deviceMeasurementsCreateLogic(request,
 		assignment);
 
-	MongoCollection<Document> events = getMongoClient().getEventsCollection();
 	Document mObject = MongoDeviceMeasurements.toDocument(measurements, false);
-	MongoDeviceEventManagementPersistence.insertEvent(events, mObject, isUseBulkEventInserts(), getEventBuffer());
+	if (isUseMeasurementBuckets()) {
+	    MongoCollection<Document> buckets = getMongoClient().getMeasurementBucketsCollection();
+	    MongoDeviceEventManagementPersistence.insertBucketedMeasurements(buckets, mObject,
+		    getMeasurementBucketMillis(), isUseBulkEventInserts(), getBucketBuffer());
+	} else {
+	    MongoCollection<Document> events = getMongoClient().getEventsCollection();
+	    MongoDeviceEventManagementPersistence.insertEvent(events, mObject, isUseBulkEventInserts(),
+		    getEventBuffer());
+	}
 	return MongoDeviceMeasurements.fromDocument(mObject, false);
     }
 
@@ -215,6 +284,9 @@ public class MongoDeviceEventManagement extends TenantEngineLifecycleComponent i
     @Override
     public SearchResults<IDeviceMeasurements> listDeviceMeasurementsForIndex(DeviceEventIndex index,
 	    List<UUID> entityIds, IDateRangeSearchCriteria criteria) throws SiteWhereException {
+	if (isUseMeasurementBuckets()) {
+	    return searchMeasurementBuckets(index, entityIds, criteria);
+	}
 	MongoCollection<Document> events = getMongoClient().getEventsCollection();
 	Document query = new Document(getFieldForIndex(index), new Document("$in", entityIds))
 		.append(MongoDeviceEvent.PROP_EVENT_TYPE, DeviceEventType.Measurements.name());
@@ -490,6 +562,213 @@ public class MongoDeviceEventManagement extends TenantEngineLifecycleComponent i
 	}
     }
 
+    /**
+     * Search measurements when bucketed storage is enabled. Measurements stored
+     * in the events collection before buckets were enabled are still returned,
+     * so both sources are read newest first up to the end of the requested page
+     * and merged before the page is taken.
+     * 
+     * @param index
+     * @param entityIds
+     * @param criteria
+     * @return
+     * @throws SiteWhereException
+     */
+    protected SearchResults<IDeviceMeasurements> searchMeasurementBuckets(DeviceEventIndex index,
+	    List<UUID> entityIds, IDateRangeSearchCriteria criteria) throws SiteWhereException {
+	boolean paged = (criteria.getPageSize() != null) && (criteria.getPageSize() > 0);
+	int offset = paged ? Math.max(0, criteria.getPageNumber() - 1) * criteria.getPageSize() : 0;
+	int limit = paged ? offset + criteria.getPageSize() : Integer.MAX_VALUE;
+
+	Document eventQuery = new Document(getFieldForIndex(index), new Document("$in", entityIds))
+		.append(MongoDeviceEvent.PROP_EVENT_TYPE, DeviceEventType.Measurements.name());
+	MongoPersistence.addDateSearchCriteria(eventQuery, MongoDeviceEvent.PROP_EVENT_DATE, criteria);
+	Document bucketQuery = new Document(getFieldForIndex(index), new Document("$in", entityIds));
+	if ((criteria.getStartDate() != null) || (criteria.getEndDate() != null)) {
+	    Document range = new Document();
+	    if (criteria.getStartDate() != null) {
+		range.append("$gte",
+			MongoMeasurementBucket.getBucketStart(criteria.getStartDate(), getMeasurementBucketMillis()));
+	    }
+	    if (criteria.getEndDate() != null) {
+		range.append("$lte", criteria.getEndDate());
+	    }
+	    bucketQuery.append(MongoMeasurementBucket.PROP_BUCKET_START, range);
+	}
+
+	try {
+	    List<IDeviceMeasurements> all = new ArrayList<IDeviceMeasurements>();
+	    all.addAll(listEventMeasurements(eventQuery, limit));
+	    all.addAll(listBucketedMeasurements(bucketQuery, criteria, limit));
+	    Collections.sort(all, new Comparator<IDeviceMeasurements>() {
+
+		@Override
+		public int compare(IDeviceMeasurements o1, IDeviceMeasurements o2) {
+		    return o2.getEventDate().compareTo(o1.getEventDate());
+		}
+	    });
+	    List<IDeviceMeasurements> matches = new ArrayList<IDeviceMeasurements>(
+		    all.subList(Math.min(offset, all.size()), Math.min(limit, all.size())));
+	    SearchResults<IDeviceMeasurements> results = new SearchResults<IDeviceMeasurements>(matches);
+	    if (paged) {
+		long total = getMongoClient().getEventsCollection().count(eventQuery)
+			+ countBucketedMeasurements(bucketQuery, criteria);
+		results.setNumResults(total);
+	    } else {
+		results.setNumResults(matches.size());
+	    }
+	    return results;
+	} catch (MongoClientException e) {
+	    throw MongoPersistence.handleClientException(e);
+	}
+    }
+
+    /**
+     * List the newest measurements stored as individual documents in the events
+     * collection. These were written before measurement buckets were enabled.
+     * 
+     * @param query
+     * @param limit
+     * @return
+     * @throws SiteWhereException
+     */
+    protected List<IDeviceMeasurements> listEventMeasurements(Document query, int limit) throws SiteWhereException {
+	List<IDeviceMeasurements> matches = new ArrayList<IDeviceMeasurements>();
+	FindIterable<Document> found = getMongoClient().getEventsCollection().find(query)
+		.sort(new Document(MongoDeviceEvent.PROP_EVENT_DATE, -1));
+	if (limit < Integer.MAX_VALUE) {
+	    found = found.limit(limit);
+	}
+	MongoCursor<Document> cursor = found.iterator();
+	try {
+	    while (cursor.hasNext()) {
+		matches.add(MongoDeviceMeasurements.fromDocument(cursor.next(), false));
+	    }
+	} finally {
+	    cursor.close();
+	}
+	return matches;
+    }
+
+    /**
+     * List the newest bucketed samples matching the criteria. Buckets are read
+     * newest first by bucket start using the bucket-level indexes, so buckets
+     * older than the requested page are never read. Buckets with the same start
+     * may overlap in time, so reading only stops at the end of a window.
+     * 
+     * @param bucketQuery
+     * @param criteria
+     * @param limit
+     * @return
+     * @throws SiteWhereException
+     */
+    @SuppressWarnings("unchecked")
+    protected List<IDeviceMeasurements> listBucketedMeasurements(Document bucketQuery,
+	    IDateRangeSearchCriteria criteria, int limit) throws SiteWhereException {
+	List<IDeviceMeasurements> matches = new ArrayList<IDeviceMeasurements>();
+	MongoCursor<Document> cursor = getMongoClient().getMeasurementBucketsCollection().find(bucketQuery)
+		.sort(new Document(MongoMeasurementBucket.PROP_BUCKET_START, -1)).iterator();
+	try {
+	    Date windowStart = null;
+	    while (cursor.hasNext()) {
+		Document bucket = cursor.next();
+		Date bucketStart = (Date) bucket.get(MongoMeasurementBucket.PROP_BUCKET_START);
+		if (!bucketStart.equals(windowStart)) {
+		    if (matches.size() >= limit) {
+			break;
+		    }
+		    windowStart = bucketStart;
+		}
+		List<Document> samples = (List<Document>) bucket.get(MongoMeasurementBucket.PROP_SAMPLES);
+		if (samples == null) {
+		    continue;
+		}
+		for (Document sample : samples) {
+		    if (isInDateRange((Date) sample.get(MongoDeviceEvent.PROP_EVENT_DATE), criteria)) {
+			matches.add(MongoMeasurementBucket.fromSample(bucket, sample));
+		    }
+		}
+	    }
+	} finally {
+	    cursor.close();
+	}
+	return matches;
+    }
+
+    /**
+     * Count bucketed samples matching the criteria without unwinding them.
+     * 
+     * @param bucketQuery
+     * @param criteria
+     * @return
+     * @throws SiteWhereException
+     */
+    protected long countBucketedMeasurements(Document bucketQuery, IDateRangeSearchCriteria criteria)
+	    throws SiteWhereException {
+	String sampleDate = "$$sample." + MongoDeviceEvent.PROP_EVENT_DATE;
+	List<Document> conditions = new ArrayList<Document>();
+	if (criteria.getStartDate() != null) {
+	    conditions.add(new Document("$gte", Arrays.asList(sampleDate, criteria.getStartDate())));
+	}
+	if (criteria.getEndDate() != null) {
+	    conditions.add(new Document("$lte", Arrays.asList(sampleDate, criteria.getEndDate())));
+	}
+	Object perBucket = "$" + MongoMeasurementBucket.PROP_SAMPLE_COUNT;
+	if (!conditions.isEmpty()) {
+	    Document filter = new Document("input", "$" + MongoMeasurementBucket.PROP_SAMPLES).append("as", "sample")
+		    .append("cond", new Document("$and", conditions));
+	    perBucket = new Document("$size", new Document("$filter", filter));
+	}
+	List<Document> pipeline = new ArrayList<Document>();
+	pipeline.add(new Document("$match", bucketQuery));
+	pipeline.add(
+		new Document("$group", new Document("_id", null).append("count", new Document("$sum", perBucket))));
+	Document count = getMongoClient().getMeasurementBucketsCollection().aggregate(pipeline).first();
+	return (count != null) ? ((Number) count.get("count")).longValue() : 0;
+    }
+
+    /**
+     * Indicates whether a date falls within the criteria date range.
+     * 
+     * @param date
+     * @param criteria
+     * @return
+     */
+    protected static boolean isInDateRange(Date date, IDateRangeSearchCriteria criteria) {
+	if ((criteria.getStartDate() != null) && date.before(criteria.getStartDate())) {
+	    return false;
+	}
+	if ((criteria.getEndDate() != null) && date.after(criteria.getEndDate())) {
+	    return false;
+	}
+	return true;
+    }
+
+    /**
+     * Look up a bucketed measurements sample for a device based on a sample
+     * field. Returns null if measurement buckets are not in use.
+     * 
+     * @param deviceId
+     * @param field
+     * @param value
+     * @return
+     * @throws SiteWhereException
+     */
+    protected IDeviceEvent getBucketedMeasurements(UUID deviceId, String field, Object value)
+	    throws SiteWhereException {
+	if (!isUseMeasurementBuckets()) {
+	    return null;
+	}
+	Document query = new Document(MongoDeviceEvent.PROP_DEVICE_ID, deviceId)
+		.append(MongoMeasurementBucket.PROP_SAMPLES + "." + field, value);
+	Document found = getMongoClient().getMeasurementBucketsCollection().find(query)
+		.projection(MongoMeasurementBucket.createSampleProjection(field, value)).first();
+	if (found == null) {
+	    return null;
+	}
+	return MongoMeasurementBucket.fromFirstSample(found);
+    }
+
     /**
      * Assert that a device assignment exists and throw an exception if not.
      * 
@@ -561,6 +840,34 @@ public class MongoDeviceEventManagement extends TenantEngineLifecycleComponent i
 	this.useBulkEventInserts = useBulkEventInserts;
     }
 
+    public IDeviceEventBuffer getBucketBuffer() {
+	return bucketBuffer;
+    }
+
+    public void setBucketBuffer(IDeviceEventBuffer bucketBuffer) {
+	this.bucketBuffer = bucketBuffer;
+    }
+
+    public boolean isUseMeasurementBuckets() {
+	return useMeasurementBuckets;
+    }
+
+    public void setUseMeasurementBuckets(boolean useMeasurementBuckets) {
+	this.useMeasurementBuckets = useMeasurementBuckets;
+    }
+
+    public int getMeasurementBucketSeconds() {
+	return measurementBucketSeconds;
+    }
+
+    public void setMeasurementBucketSeconds(int measurementBucketSeconds) {
+	this.measurementBucketSeconds = measurementBucketSeconds;
+    }
+
+    protected long getMeasurementBucketMillis() {
+	return getMeasurementBucketSeconds() * 1000L;
+    }
+
     public int getBulkInsertMaxChunkSize() {
 	return bulkInsertMaxChunkSize;
     }
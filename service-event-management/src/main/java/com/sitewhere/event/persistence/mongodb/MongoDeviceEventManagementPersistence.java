@@ -11,7 +11,9 @@ import org.bson.Document;
 
 import com.mongodb.MongoCommandException;
 import com.mongodb.MongoTimeoutException;
+import com.mongodb.MongoWriteException;
 import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.UpdateOptions;
 import com.sitewhere.mongodb.MongoPersistence;
 import com.sitewhere.spi.SiteWhereException;
 import com.sitewhere.spi.device.event.DeviceEventType;
@@ -52,6 +54,45 @@ public class MongoDeviceEventManagementPersistence extends MongoPersistence {
 	}
     }
 
+    /**
+     * Add a measurements event to its time bucket, taking into account whether
+     * the device management implementation in configured for bulk operations.
+     * An upsert that loses the race to open a bucket is retried so that it
+     * updates the bucket created by the other writer.
+     * 
+     * @param buckets
+     * @param object
+     * @param bucketMillis
+     * @param bulk
+     * @param buffer
+     * @throws SiteWhereException
+     */
+    public static void insertBucketedMeasurements(MongoCollection<Document> buckets, Document object,
+	    long bucketMillis, boolean bulk, IDeviceEventBuffer buffer) throws SiteWhereException {
+	try {
+	    if (bulk) {
+		buffer.add(object);
+	    } else {
+		for (int attempt = 1;; attempt++) {
+		    try {
+			buckets.updateOne(MongoMeasurementBucket.createBucketQuery(object, bucketMillis),
+				MongoMeasurementBucket.createBucketUpdate(object), new UpdateOptions().upsert(true));
+			break;
+		    } catch (MongoWriteException e) {
+			if ((attempt >= MongoMeasurementBucket.MAX_UPSERT_ATTEMPTS)
+				|| (!MongoMeasurementBucket.isDuplicateBucket(e.getError()))) {
+			    throw new SiteWhereException("Error during MongoDB bucket upsert.", e);
+			}
+		    }
+		}
+	    }
+	} catch (MongoCommandException e) {
+	    throw new SiteWhereException("Error during MongoDB insert.", e);
+	} catch (MongoTimeoutException e) {
+	    throw new SiteWhereException("Connection to MongoDB lost.", e);
+	}
+    }
+
     /**
      * Marshal an {@link IDeviceEvent} into a {@link Document}.
      * 
@@ -0,0 +1,215 @@
+/*
+ * Copyright (c) SiteWhere, LLC. All rights reserved. http://www.sitewhere.com
+ *
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package com.sitewhere.event.persistence.mongodb;
+
+import java.util.Date;
+import java.util.List;
+
+import org.bson.Document;
+
+import com.mongodb.ErrorCategory;
+import com.mongodb.WriteError;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.UpdateOptions;
+import com.sitewhere.rest.model.device.event.DeviceMeasurements;
+
+/**
+ * Used to load or save time-bucketed device measurements to MongoDB. Each
+ * bucket document holds all measurements for a single device assignment
+ * within a fixed time window. Values shared by every sample (device,
+ * assignment, customer, area and asset ids) are stored once on the bucket
+ * and only per-event values are stored in the samples array. A window may span
+ * several buckets, since a bucket is closed once it holds
+ * {@link #MAX_SAMPLES} samples and the next upsert opens a new one.
+ * 
+ * @author Derek
+ */
+public class MongoMeasurementBucket {
+
+    /** Property for bucket start date */
+    public static final String PROP_BUCKET_START = "bkst";
+
+    /** Property for number of samples in bucket */
+    public static final String PROP_SAMPLE_COUNT = "scnt";
+
+    /** Property for array of samples */
+    public static final String PROP_SAMPLES = "smpl";
+
+    /** Maximum number of samples stored in a single bucket */
+    public static final int MAX_SAMPLES = 1000;
+
+    /** Number of attempts for an upsert that collides with a concurrent one */
+    public static final int MAX_UPSERT_ATTEMPTS = 3;
+
+    /** Fields stored once per bucket rather than once per sample */
+    private static final String[] BUCKET_FIELDS = { MongoDeviceEvent.PROP_EVENT_TYPE, MongoDeviceEvent.PROP_DEVICE_ID,
+	    MongoDeviceEvent.PROP_DEVICE_ASSIGNMENT_ID, MongoDeviceEvent.PROP_CUSTOMER_ID,
+	    MongoDeviceEvent.PROP_AREA_ID, MongoDeviceEvent.PROP_ASSET_ID };
+
+    /**
+     * Get start date of the bucket that contains the given date.
+     * 
+     * @param date
+     * @param bucketMillis
+     * @return
+     */
+    public static Date getBucketStart(Date date, long bucketMillis) {
+	long time = date.getTime();
+	return new Date(time - Math.floorMod(time, bucketMillis));
+    }
+
+    /**
+     * Create query that matches the open bucket a measurements {@link Document}
+     * belongs in. Buckets that are full do not match, so an upsert with this
+     * query opens a new bucket for the same window.
+     * 
+     * @param measurements
+     * @param bucketMillis
+     * @return
+     */
+    public static Document createBucketQuery(Document measurements, long bucketMillis) {
+	Date eventDate = (Date) measurements.get(MongoDeviceEvent.PROP_EVENT_DATE);
+	return new Document(MongoDeviceEvent.PROP_DEVICE_ASSIGNMENT_ID,
+		measurements.get(MongoDeviceEvent.PROP_DEVICE_ASSIGNMENT_ID))
+			.append(PROP_BUCKET_START, getBucketStart(eventDate, bucketMillis))
+			.append(PROP_SAMPLE_COUNT, new Document("$lt", MAX_SAMPLES));
+    }
+
+    /**
+     * Create filter that matches buckets which can accept more samples. Used as
+     * the partial filter of the unique index on assignment and bucket start, so
+     * that each window has at most one open bucket.
+     * 
+     * @return
+     */
+    public static Document createOpenBucketFilter() {
+	return new Document(PROP_SAMPLE_COUNT, new Document("$lt", MAX_SAMPLES));
+    }
+
+    /**
+     * Indicates whether a write failed because a concurrent upsert opened the
+     * bucket first. The write may be retried and will then update that bucket.
+     * 
+     * @param error
+     * @return
+     */
+    public static boolean isDuplicateBucket(WriteError error) {
+	return error.getCategory() == ErrorCategory.DUPLICATE_KEY;
+    }
+
+    /**
+     * Create update that appends a measurements {@link Document} to its bucket,
+     * creating the bucket if it does not already exist.
+     * 
+     * @param measurements
+     * @return
+     */
+    public static Document createBucketUpdate(Document measurements) {
+	Document common = new Document();
+	Document sample = new Document();
+	for (String key : measurements.keySet()) {
+	    if (isBucketField(key)) {
+		if (!MongoDeviceEvent.PROP_DEVICE_ASSIGNMENT_ID.equals(key)) {
+		    common.append(key, measurements.get(key));
+		}
+	    } else {
+		sample.append(key, measurements.get(key));
+	    }
+	}
+	return new Document("$setOnInsert", common).append("$push", new Document(PROP_SAMPLES, sample))
+		.append("$inc", new Document(PROP_SAMPLE_COUNT, 1));
+    }
+
+    /**
+     * Create an upsert write model for adding a measurements {@link Document} to
+     * its bucket.
+     * 
+     * @param measurements
+     * @param bucketMillis
+     * @return
+     */
+    public static UpdateOneModel<Document> createBucketUpsert(Document measurements, long bucketMillis) {
+	return new UpdateOneModel<Document>(createBucketQuery(measurements, bucketMillis),
+		createBucketUpdate(measurements), new UpdateOptions().upsert(true));
+    }
+
+    /**
+     * Create a projection that returns the bucket-level fields along with only
+     * the sample matching the given criteria.
+     * 
+     * @param field
+     * @param value
+     * @return
+     */
+    public static Document createSampleProjection(String field, Object value) {
+	Document projection = new Document(PROP_SAMPLES, new Document("$elemMatch", new Document(field, value)));
+	for (String bucketField : BUCKET_FIELDS) {
+	    projection.append(bucketField, 1);
+	}
+	return projection;
+    }
+
+    /**
+     * Convert one sample from a bucket {@link Document} into the SPI equivalent.
+     * 
+     * @param bucket
+     * @param sample
+     * @return
+     */
+    public static DeviceMeasurements fromSample(Document bucket, Document sample) {
+	return MongoDeviceMeasurements.fromDocument(toEventDocument(bucket, sample), false);
+    }
+
+    /**
+     * Convert a bucket {@link Document} into the SPI equivalent of the first
+     * sample it contains. Used along with projections that only return the
+     * matching sample.
+     * 
+     * @param bucket
+     * @return
+     */
+    @SuppressWarnings("unchecked")
+    public static DeviceMeasurements fromFirstSample(Document bucket) {
+	List<Document> samples = (List<Document>) bucket.get(PROP_SAMPLES);
+	if ((samples == null) || (samples.isEmpty())) {
+	    return null;
+	}
+	return MongoDeviceMeasurements.fromDocument(toEventDocument(bucket, samples.get(0)), false);
+    }
+
+    /**
+     * Rebuild a standalone measurements event {@link Document} from a bucket and
+     * one of its samples.
+     * 
+     * @param bucket
+     * @param sample
+     * @return
+     */
+    protected static Document toEventDocument(Document bucket, Document sample) {
+	Document event = new Document(sample);
+	for (String field : BUCKET_FIELDS) {
+	    event.append(field, bucket.get(field));
+	}
+	return event;
+    }
+
+    /**
+     * Indicates whether a field is stored at the bucket level.
+     * 
+     * @param key
+     * @return
+     */
+    protected static boolean isBucketField(String key) {
+	for (String field : BUCKET_FIELDS) {
+	    if (field.equals(key)) {
+		return true;
+	    }
+	}
+	return false;
+    }
+}
@@ -0,0 +1,213 @@
+/*
+ * Copyright (c) SiteWhere, LLC. All rights reserved. http://www.sitewhere.com
+ *
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package com.sitewhere.event.persistence.streaming;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.Deque;
+import java.util.List;
+import java.util.UUID;
+
+import com.sitewhere.rest.model.search.DateRangeSearchCriteria;
+import com.sitewhere.spi.SiteWhereException;
+import com.sitewhere.spi.device.event.DeviceEventIndex;
+import com.sitewhere.spi.device.event.DeviceEventType;
+import com.sitewhere.spi.device.event.IDeviceEvent;
+import com.sitewhere.spi.device.event.IDeviceEventManagement;
+import com.sitewhere.spi.search.IDateRangeSearchCriteria;
+import com.sitewhere.spi.search.ISearchResults;
+
+/**
+ * Reads events of a single type for an index in batches using the paged list
+ * calls on {@link IDeviceEventManagement}. Events are returned newest first,
+ * with events that share a date ordered by descending event id so that the
+ * order is the same on every read. Each batch is keyed on the date and id of
+ * the last event returned rather than a page number. The position is exposed
+ * as that date and id, which allows reading to be resumed in a new reader.
+ * <p>
+ * A batch never ends partway through a group of events with the same date. If
+ * a page is filled by a single date, it is read again with a larger page size
+ * until the whole group fits.
+ * <p>
+ * Limitation: each batch is a new list call bounded by the cursor date. The
+ * MongoDB implementation answers it with a sorted query limited to the page
+ * size. The Cassandra
+ * and HBase implementations read every bucket between the start date and the
+ * cursor date and page the results in memory. On those stores, reading N
+ * events costs O(N<sup>2</sup>/batch size). Large exports on those stores
+ * should use narrow date ranges or a large batch size until they support
+ * native paging.
+ * 
+ * @author Derek
+ */
+public class DeviceEventReader {
+
+    /** Orders events newest first with event id breaking ties */
+    private static final Comparator<IDeviceEvent> ORDER = new Comparator<IDeviceEvent>() {
+
+	@Override
+	public int compare(IDeviceEvent o1, IDeviceEvent o2) {
+	    int result = o2.getEventDate().compareTo(o1.getEventDate());
+	    return (result != 0) ? result : o2.getId().compareTo(o1.getId());
+	}
+    };
+
+    /** Event management implementation */
+    private IDeviceEventManagement deviceEventManagement;
+
+    /** Index being read */
+    private DeviceEventIndex index;
+
+    /** Ids of entities in index */
+    private List<UUID> entityIds;
+
+    /** Type of events being read */
+    private DeviceEventType eventType;
+
+    /** Earliest event date included */
+    private Date startDate;
+
+    /** Number of events read per batch */
+    private int batchSize;
+
+    /** Date of last event returned (null if unbounded) */
+    private Date cursorDate;
+
+    /** Id of last event returned (null if no events at cursor date returned) */
+    private UUID cursorId;
+
+    /** Events read but not yet returned */
+    private Deque<IDeviceEvent> pending = new ArrayDeque<>();
+
+    /** Indicates last batch has been read */
+    private boolean exhausted = false;
+
+    public DeviceEventReader(IDeviceEventManagement deviceEventManagement, DeviceEventIndex index,
+	    List<UUID> entityIds, DeviceEventType eventType, Date startDate, Date cursorDate, UUID cursorId,
+	    int batchSize) {
+	this.deviceEventManagement = deviceEventManagement;
+	this.index = index;
+	this.entityIds = entityIds;
+	this.eventType = eventType;
+	this.startDate = startDate;
+	this.cursorDate = cursorDate;
+	this.cursorId = cursorId;
+	this.batchSize = batchSize;
+    }
+
+    /**
+     * Get the next event or null if no events remain.
+     * 
+     * @return
+     * @throws SiteWhereException
+     */
+    public IDeviceEvent next() throws SiteWhereException {
+	if (pending.isEmpty()) {
+	    if (exhausted) {
+		return null;
+	    }
+	    readBatch();
+	    if (pending.isEmpty()) {
+		return null;
+	    }
+	}
+	IDeviceEvent event = pending.removeFirst();
+	cursorDate = event.getEventDate();
+	cursorId = event.getId();
+	return event;
+    }
+
+    /**
+     * Read the next batch of events after the cursor. Events with the cursor
+     * date that were already returned are dropped. Unless the results are the
+     * last page, events sharing the oldest date in the page are also dropped,
+     * because more of them may be on the next page. They are read in full by
+     * the next batch.
+     * 
+     * @throws SiteWhereException
+     */
+    protected void readBatch() throws SiteWhereException {
+	int pageSize = batchSize;
+	while (true) {
+	    IDateRangeSearchCriteria criteria = new DateRangeSearchCriteria(1, pageSize, startDate, cursorDate);
+	    List<? extends IDeviceEvent> results = listEvents(criteria).getResults();
+	    boolean lastPage = results.size() < pageSize;
+	    Date partialDate = lastPage ? null : results.get(results.size() - 1).getEventDate();
+	    List<IDeviceEvent> batch = new ArrayList<>();
+	    for (IDeviceEvent event : results) {
+		if (isAfterCursor(event) && !event.getEventDate().equals(partialDate)) {
+		    batch.add(event);
+		}
+	    }
+	    if (batch.isEmpty() && !lastPage) {
+		pageSize = (pageSize > Integer.MAX_VALUE / 2) ? Integer.MAX_VALUE : pageSize * 2;
+		continue;
+	    }
+	    Collections.sort(batch, ORDER);
+	    pending.addAll(batch);
+	    exhausted = lastPage;
+	    return;
+	}
+    }
+
+    /**
+     * Indicates whether an event comes after the cursor in read order.
+     * 
+     * @param event
+     * @return
+     */
+    protected boolean isAfterCursor(IDeviceEvent event) {
+	if (cursorDate == null) {
+	    return true;
+	}
+	int result = cursorDate.compareTo(event.getEventDate());
+	if (result != 0) {
+	    return result > 0;
+	}
+	return (cursorId == null) || (cursorId.compareTo(event.getId()) > 0);
+    }
+
+    /**
+     * List events of the requested type for the index.
+     * 
+     * @param criteria
+     * @return
+     * @throws SiteWhereException
+     */
+    protected ISearchResults<? extends IDeviceEvent> listEvents(IDateRangeSearchCriteria criteria)
+	    throws SiteWhereException {
+	switch (eventType) {
+	case Measurements:
+	case Measurement:
+	    return deviceEventManagement.listDeviceMeasurementsForIndex(index, entityIds, criteria);
+	case Location:
+	    return deviceEventManagement.listDeviceLocationsForIndex(index, entityIds, criteria);
+	case Alert:
+	    return deviceEventManagement.listDeviceAlertsForIndex(index, entityIds, criteria);
+	case CommandInvocation:
+	    return deviceEventManagement.listDeviceCommandInvocationsForIndex(index, entityIds, criteria);
+	case CommandResponse:
+	    return deviceEventManagement.listDeviceCommandResponsesForIndex(index, entityIds, criteria);
+	case StateChange:
+	    return deviceEventManagement.listDeviceStateChangesForIndex(index, entityIds, criteria);
+	default:
+	    throw new SiteWhereException("Event type not supported for reading by index: " + eventType.name());
+	}
+    }
+
+    public Date getCursorDate() {
+	return cursorDate;
+    }
+
+    public UUID getCursorId() {
+	return cursorId;
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) SiteWhere, LLC. All rights reserved. http://www.sitewhere.com
+ *
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package com.sitewhere.event.replay;
+
+import java.util.Date;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.sitewhere.event.spi.replay.EventReplayStatus;
+import com.sitewhere.event.spi.replay.IEventReplayJob;
+import com.sitewhere.event.spi.replay.IEventReplayRequest;
+
+/**
+ * Tracks progress of an event replay.
+ * 
+ * @author Derek
+ */
+public class EventReplayJob implements IEventReplayJob {
+
+    /** Unique job id */
+    private UUID id;
+
+    /** Request that started the job */
+    private IEventReplayRequest request;
+
+    /** Current status */
+    private volatile EventReplayStatus status = EventReplayStatus.Queued;
+
+    /** Number of events sent */
+    private AtomicLong eventsReplayed = new AtomicLong();
+
+    /** Date up to which all events have been sent */
+    private volatile Date replayedThrough;
+
+    /** Error message if failed */
+    private volatile String error;
+
+    /** System time when job stopped (0 while active) */
+    private volatile long finished;
+
+    public EventReplayJob(UUID id, IEventReplayRequest request) {
+	this.id = id;
+	this.request = request;
+    }
+
+    /**
+     * Record an event sent.
+     */
+    public void eventReplayed() {
+	eventsReplayed.incrementAndGet();
+    }
+
+    /**
+     * Indicates whether the job should keep sending events.
+     * 
+     * @return
+     */
+    public boolean isActive() {
+	return (status == EventReplayStatus.Queued) || (status == EventReplayStatus.Running);
+    }
+
+    /*
+     * @see com.sitewhere.event.spi.replay.IEventReplayJob#getId()
+     */
+    @Override
+    public UUID getId() {
+	return id;
+    }
+
+    /*
+     * @see com.sitewhere.event.spi.replay.IEventReplayJob#getRequest()
+     */
+    @Override
+    public IEventReplayRequest getRequest() {
+	return request;
+    }
+
+    /*
+     * @see com.sitewhere.event.spi.replay.IEventReplayJob#getStatus()
+     */
+    @Override
+    public EventReplayStatus getStatus() {
+	return status;
+    }
+
+    public void setStatus(EventReplayStatus status) {
+	if ((status != EventReplayStatus.Queued) && (status != EventReplayStatus.Running)) {
+	    this.finished = System.currentTimeMillis();
+	}
+	this.status = status;
+    }
+
+    /*
+     * @see com.sitewhere.event.spi.replay.IEventReplayJob#getEventsReplayed()
+     */
+    @Override
+    public long getEventsReplayed() {
+	return eventsReplayed.get();
+    }
+
+    /*
+     * @see com.sitewhere.event.spi.replay.IEventReplayJob#getReplayedThrough()
+     */
+    @Override
+    public Date getReplayedThrough() {
+	return replayedThrough;
+    }
+
+    public void setReplayedThrough(Date replayedThrough) {
+	this.replayedThrough = replayedThrough;
+    }
+
+    /*
+     * @see com.sitewhere.event.spi.replay.IEventReplayJob#getError()
+     */
+    @Override
+    public String getError() {
+	return error;
+    }
+
+    public void setError(String error) {
+	this.error = error;
+    }
+
+    public long getFinished() {
+	return finished;
+    }
+}
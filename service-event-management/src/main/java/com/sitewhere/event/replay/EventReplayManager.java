@@ -0,0 +1,456 @@
+/*
+ * Copyright (c) SiteWhere, LLC. All rights reserved. http://www.sitewhere.com
+ *
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package com.sitewhere.event.replay;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import com.google.common.util.concurrent.RateLimiter;
+import com.sitewhere.event.persistence.streaming.DeviceEventReader;
+import com.sitewhere.event.spi.kafka.IInboundReplayEventsProducer;
+import com.sitewhere.event.spi.replay.EventReplayStage;
+import com.sitewhere.event.spi.replay.EventReplayStatus;
+import com.sitewhere.event.spi.replay.IEventReplayJob;
+import com.sitewhere.event.spi.replay.IEventReplayManager;
+import com.sitewhere.event.spi.replay.IEventReplayRequest;
+import com.sitewhere.grpc.kafka.model.KafkaModel.GEventReplay;
+import com.sitewhere.grpc.kafka.model.KafkaModel.GEventReplayStage;
+import com.sitewhere.grpc.kafka.model.KafkaModel.GPersistedEventPayload;
+import com.sitewhere.grpc.model.converter.CommonModelConverter;
+import com.sitewhere.grpc.model.converter.KafkaModelConverter;
+import com.sitewhere.grpc.model.marshaler.KafkaModelMarshaler;
+import com.sitewhere.rest.model.microservice.kafka.payload.PersistedEventPayload;
+import com.sitewhere.server.lifecycle.TenantEngineLifecycleComponent;
+import com.sitewhere.spi.SiteWhereException;
+import com.sitewhere.spi.device.event.DeviceEventType;
+import com.sitewhere.spi.device.event.IDeviceEvent;
+import com.sitewhere.spi.device.event.IDeviceEventManagement;
+import com.sitewhere.spi.server.lifecycle.ILifecycleProgressMonitor;
+import com.sitewhere.spi.server.lifecycle.LifecycleComponentType;
+
+/**
+ * Implementation of {@link IEventReplayManager} that sends persisted events to
+ * the inbound replay events topic, where they are picked up by inbound
+ * processing and follow the same path as newly persisted events. Each event is
+ * tagged with the replay id and the selected stages so that stages which were
+ * not selected can ignore it.
+ * 
+ * The date range is replayed oldest first in fixed-length windows. Events of
+ * all requested types in a window are read with {@link DeviceEventReader},
+ * sorted by event date and sent at a rate limited by a {@link RateLimiter}, so
+ * only one window of events is held in memory at a time.
+ * 
+ * @author Derek
+ */
+public class EventReplayManager extends TenantEngineLifecycleComponent implements IEventReplayManager {
+
+    /** Default number of jobs that may run at the same time */
+    private static final int DEFAULT_THREAD_COUNT = 2;
+
+    /** Default length of a replay window in milliseconds */
+    private static final long DEFAULT_WINDOW_MILLIS = 60 * 1000;
+
+    /** Default number of events read per batch */
+    private static final int DEFAULT_BATCH_SIZE = 1000;
+
+    /** Default maximum events sent per second */
+    private static final double DEFAULT_EVENTS_PER_SECOND = 500;
+
+    /** Default time finished jobs are kept in milliseconds */
+    private static final long DEFAULT_RETENTION_MILLIS = 60 * 60 * 1000;
+
+    /** Event management implementation */
+    private IDeviceEventManagement deviceEventManagement;
+
+    /** Producer for inbound replay events topic */
+    private IInboundReplayEventsProducer inboundReplayEventsProducer;
+
+    /** Number of jobs that may run at the same time */
+    private int threadCount = DEFAULT_THREAD_COUNT;
+
+    /** Length of a replay window in milliseconds */
+    private long windowMillis = DEFAULT_WINDOW_MILLIS;
+
+    /** Number of events read per batch */
+    private int batchSize = DEFAULT_BATCH_SIZE;
+
+    /** Maximum events sent per second if not set in request */
+    private double eventsPerSecond = DEFAULT_EVENTS_PER_SECOND;
+
+    /** Time finished jobs are kept in milliseconds */
+    private long retentionMillis = DEFAULT_RETENTION_MILLIS;
+
+    /** Jobs by id */
+    private Map<UUID, EventReplayJob> jobs = new ConcurrentHashMap<>();
+
+    /** Executor for running jobs */
+    private ExecutorService executor;
+
+    public EventReplayManager(IDeviceEventManagement deviceEventManagement,
+	    IInboundReplayEventsProducer inboundReplayEventsProducer) {
+	super(LifecycleComponentType.Other);
+	this.deviceEventManagement = deviceEventManagement;
+	this.inboundReplayEventsProducer = inboundReplayEventsProducer;
+    }
+
+    /*
+     * @see
+     * com.sitewhere.server.lifecycle.LifecycleComponent#start(com.sitewhere.spi.
+     * server.lifecycle.ILifecycleProgressMonitor)
+     */
+    @Override
+    public void start(ILifecycleProgressMonitor monitor) throws SiteWhereException {
+	this.executor = Executors.newFixedThreadPool(getThreadCount(), new ReplayThreadFactory());
+    }
+
+    /*
+     * @see
+     * com.sitewhere.server.lifecycle.LifecycleComponent#stop(com.sitewhere.spi.
+     * server.lifecycle.ILifecycleProgressMonitor)
+     */
+    @Override
+    public void stop(ILifecycleProgressMonitor monitor) throws SiteWhereException {
+	for (EventReplayJob job : jobs.values()) {
+	    if (job.isActive()) {
+		job.setStatus(EventReplayStatus.Cancelled);
+	    }
+	}
+	if (executor != null) {
+	    executor.shutdownNow();
+	}
+    }
+
+    /*
+     * @see
+     * com.sitewhere.event.spi.replay.IEventReplayManager#submit(com.sitewhere.event
+     * .spi.replay.IEventReplayRequest)
+     */
+    @Override
+    public IEventReplayJob submit(IEventReplayRequest request) throws SiteWhereException {
+	if (request.getIndex() == null) {
+	    throw new SiteWhereException("Event replay requires an index.");
+	}
+	if ((request.getEventTypes() == null) || request.getEventTypes().isEmpty()) {
+	    throw new SiteWhereException("Event replay requires at least one event type.");
+	}
+	if ((request.getStages() == null) || request.getStages().isEmpty()) {
+	    throw new SiteWhereException("Event replay requires at least one processing stage.");
+	}
+	if (request.getStartDate() == null) {
+	    throw new SiteWhereException("Event replay requires a start date.");
+	}
+	long start = request.getStartDate().getTime();
+	long end = (request.getEndDate() != null) ? request.getEndDate().getTime() : System.currentTimeMillis();
+	if (end < start) {
+	    throw new SiteWhereException("Event replay end date is before start date.");
+	}
+
+	pruneJobs();
+	EventReplayJob job = new EventReplayJob(UUID.randomUUID(), request);
+	jobs.put(job.getId(), job);
+	executor.execute(
+		new ReplayRunner(job, start, end, SecurityContextHolder.getContext().getAuthentication()));
+	getLogger().info("Started event replay " + job.getId() + " from " + request.getStartDate() + " to "
+		+ new Date(end) + ".");
+	return job;
+    }
+
+    /*
+     * @see com.sitewhere.event.spi.replay.IEventReplayManager#getJob(java.util.UUID)
+     */
+    @Override
+    public IEventReplayJob getJob(UUID id) throws SiteWhereException {
+	pruneJobs();
+	return jobs.get(id);
+    }
+
+    /*
+     * @see com.sitewhere.event.spi.replay.IEventReplayManager#listJobs()
+     */
+    @Override
+    public List<IEventReplayJob> listJobs() throws SiteWhereException {
+	pruneJobs();
+	return new ArrayList<>(jobs.values());
+    }
+
+    /*
+     * @see com.sitewhere.event.spi.replay.IEventReplayManager#cancel(java.util.UUID)
+     */
+    @Override
+    public IEventReplayJob cancel(UUID id) throws SiteWhereException {
+	EventReplayJob job = jobs.get(id);
+	if ((job != null) && job.isActive()) {
+	    job.setStatus(EventReplayStatus.Cancelled);
+	}
+	return job;
+    }
+
+    /**
+     * Remove jobs that finished longer ago than the retention period.
+     */
+    protected void pruneJobs() {
+	long cutoff = System.currentTimeMillis() - getRetentionMillis();
+	for (Iterator<EventReplayJob> it = jobs.values().iterator(); it.hasNext();) {
+	    EventReplayJob job = it.next();
+	    if (!job.isActive() && (job.getFinished() < cutoff)) {
+		it.remove();
+	    }
+	}
+    }
+
+    /**
+     * Build replay marker included with each event sent for a job.
+     * 
+     * @param job
+     * @return
+     * @throws SiteWhereException
+     */
+    protected static GEventReplay buildReplay(EventReplayJob job) throws SiteWhereException {
+	GEventReplay.Builder grpc = GEventReplay.newBuilder();
+	grpc.setReplayId(CommonModelConverter.asGrpcUuid(job.getId()));
+	for (EventReplayStage stage : job.getRequest().getStages()) {
+	    grpc.addStages(asGrpcEventReplayStage(stage));
+	}
+	return grpc.build();
+    }
+
+    /**
+     * Convert replay stage from API to GRPC.
+     * 
+     * @param api
+     * @return
+     * @throws SiteWhereException
+     */
+    public static GEventReplayStage asGrpcEventReplayStage(EventReplayStage api) throws SiteWhereException {
+	switch (api) {
+	case Rules:
+	    return GEventReplayStage.REPLAY_STAGE_RULES;
+	case OutboundConnectors:
+	    return GEventReplayStage.REPLAY_STAGE_OUTBOUND_CONNECTORS;
+	case DeviceState:
+	    return GEventReplayStage.REPLAY_STAGE_DEVICE_STATE;
+	}
+	throw new SiteWhereException("Unknown event replay stage: " + api);
+    }
+
+    /**
+     * Convert replay stage from GRPC to API.
+     * 
+     * @param grpc
+     * @return
+     * @throws SiteWhereException
+     */
+    public static EventReplayStage asApiEventReplayStage(GEventReplayStage grpc) throws SiteWhereException {
+	switch (grpc) {
+	case REPLAY_STAGE_RULES:
+	    return EventReplayStage.Rules;
+	case REPLAY_STAGE_OUTBOUND_CONNECTORS:
+	    return EventReplayStage.OutboundConnectors;
+	case REPLAY_STAGE_DEVICE_STATE:
+	    return EventReplayStage.DeviceState;
+	case UNRECOGNIZED:
+	    throw new SiteWhereException("Unknown event replay stage: " + grpc);
+	}
+	return null;
+    }
+
+    /**
+     * Sends events for a job one window at a time.
+     * 
+     * @author Derek
+     */
+    private class ReplayRunner implements Runnable {
+
+	/** Job being run */
+	private EventReplayJob job;
+
+	/** Start of date range */
+	private long start;
+
+	/** End of date range */
+	private long end;
+
+	/** Authentication of user that submitted job */
+	private Authentication authentication;
+
+	public ReplayRunner(EventReplayJob job, long start, long end, Authentication authentication) {
+	    this.job = job;
+	    this.start = start;
+	    this.end = end;
+	    this.authentication = authentication;
+	}
+
+	@Override
+	public void run() {
+	    if (!job.isActive()) {
+		return;
+	    }
+	    job.setStatus(EventReplayStatus.Running);
+	    SecurityContextHolder.getContext().setAuthentication(authentication);
+	    try {
+		IEventReplayRequest request = job.getRequest();
+		RateLimiter limiter = RateLimiter.create(
+			(request.getEventsPerSecond() > 0) ? request.getEventsPerSecond() : getEventsPerSecond());
+		GEventReplay replay = buildReplay(job);
+		long windowStart = start;
+		while (job.isActive() && (windowStart <= end)) {
+		    long windowEnd = Math.min(end, windowStart + getWindowMillis() - 1);
+		    for (IDeviceEvent event : readWindow(request, windowStart, windowEnd)) {
+			if (!job.isActive()) {
+			    break;
+			}
+			limiter.acquire();
+			send(event, replay);
+			job.eventReplayed();
+		    }
+		    job.setReplayedThrough(new Date(windowEnd));
+		    windowStart = windowEnd + 1;
+		}
+		if (job.isActive()) {
+		    job.setStatus(EventReplayStatus.Completed);
+		    getLogger().info(
+			    "Completed event replay " + job.getId() + " with " + job.getEventsReplayed() + " events.");
+		}
+	    } catch (Throwable e) {
+		getLogger().error("Event replay " + job.getId() + " failed.", e);
+		job.setError(e.getMessage());
+		job.setStatus(EventReplayStatus.Failed);
+	    } finally {
+		SecurityContextHolder.getContext().setAuthentication(null);
+	    }
+	}
+
+	/**
+	 * Read events of all requested types in a window, oldest first.
+	 * 
+	 * @param request
+	 * @param windowStart
+	 * @param windowEnd
+	 * @return
+	 * @throws SiteWhereException
+	 */
+	protected List<IDeviceEvent> readWindow(IEventReplayRequest request, long windowStart, long windowEnd)
+		throws SiteWhereException {
+	    List<IDeviceEvent> events = new ArrayList<>();
+	    for (DeviceEventType type : request.getEventTypes()) {
+		DeviceEventReader reader = new DeviceEventReader(getDeviceEventManagement(), request.getIndex(),
+			request.getEntityIds(), type, new Date(windowStart), new Date(windowEnd), null, getBatchSize());
+		IDeviceEvent event;
+		while ((event = reader.next()) != null) {
+		    events.add(event);
+		}
+	    }
+	    Collections.sort(events, new Comparator<IDeviceEvent>() {
+
+		@Override
+		public int compare(IDeviceEvent o1, IDeviceEvent o2) {
+		    return o1.getEventDate().compareTo(o2.getEventDate());
+		}
+	    });
+	    return events;
+	}
+
+	/**
+	 * Send an event to the replay topic.
+	 * 
+	 * @param event
+	 * @param replay
+	 * @throws SiteWhereException
+	 */
+	protected void send(IDeviceEvent event, GEventReplay replay) throws SiteWhereException {
+	    PersistedEventPayload api = new PersistedEventPayload();
+	    api.setDeviceId(event.getDeviceId());
+	    api.setEvent(event);
+	    GPersistedEventPayload payload = KafkaModelConverter.asGrpcPersistedEventPayload(api).toBuilder()
+		    .setReplay(replay).build();
+	    getInboundReplayEventsProducer().send(event.getDeviceAssignmentId().toString(),
+		    KafkaModelMarshaler.buildPersistedEventPayloadMessage(payload));
+	}
+    }
+
+    /** Used for naming replay threads */
+    private class ReplayThreadFactory implements ThreadFactory {
+
+	/** Counts threads */
+	private AtomicInteger counter = new AtomicInteger();
+
+	public Thread newThread(Runnable r) {
+	    return new Thread(r, "Event Replay " + counter.incrementAndGet());
+	}
+    }
+
+    public IDeviceEventManagement getDeviceEventManagement() {
+	return deviceEventManagement;
+    }
+
+    public void setDeviceEventManagement(IDeviceEventManagement deviceEventManagement) {
+	this.deviceEventManagement = deviceEventManagement;
+    }
+
+    public IInboundReplayEventsProducer getInboundReplayEventsProducer() {
+	return inboundReplayEventsProducer;
+    }
+
+    public void setInboundReplayEventsProducer(IInboundReplayEventsProducer inboundReplayEventsProducer) {
+	this.inboundReplayEventsProducer = inboundReplayEventsProducer;
+    }
+
+    public int getThreadCount() {
+	return threadCount;
+    }
+
+    public void setThreadCount(int threadCount) {
+	this.threadCount = threadCount;
+    }
+
+    public long getWindowMillis() {
+	return windowMillis;
+    }
+
+    public void setWindowMillis(long windowMillis) {
+	this.windowMillis = windowMillis;
+    }
+
+    public int getBatchSize() {
+	return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+	this.batchSize = batchSize;
+    }
+
+    public double getEventsPerSecond() {
+	return eventsPerSecond;
+    }
+
+    public void setEventsPerSecond(double eventsPerSecond) {
+	this.eventsPerSecond = eventsPerSecond;
+    }
+
+    public long getRetentionMillis() {
+	return retentionMillis;
+    }
+
+    public void setRetentionMillis(long retentionMillis) {
+	this.retentionMillis = retentionMillis;
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright (c) SiteWhere, LLC. All rights reserved. http://www.sitewhere.com
+ *
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package com.sitewhere.event.replay;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+import com.sitewhere.event.spi.replay.EventReplayStage;
+import com.sitewhere.event.spi.replay.IEventReplayRequest;
+import com.sitewhere.spi.device.event.DeviceEventIndex;
+import com.sitewhere.spi.device.event.DeviceEventType;
+
+/**
+ * Model object for an event replay request.
+ * 
+ * @author Derek
+ */
+public class EventReplayRequest implements IEventReplayRequest {
+
+    /** Index used to select events */
+    private DeviceEventIndex index;
+
+    /** Ids of entities in index */
+    private List<UUID> entityIds = new ArrayList<>();
+
+    /** Types of events to replay */
+    private List<DeviceEventType> eventTypes = new ArrayList<>();
+
+    /** Earliest event date */
+    private Date startDate;
+
+    /** Latest event date */
+    private Date endDate;
+
+    /** Stages that should process replayed events */
+    private List<EventReplayStage> stages = new ArrayList<>();
+
+    /** Maximum events sent per second */
+    private double eventsPerSecond;
+
+    /*
+     * @see com.sitewhere.event.spi.replay.IEventReplayRequest#getIndex()
+     */
+    @Override
+    public DeviceEventIndex getIndex() {
+	return index;
+    }
+
+    public void setIndex(DeviceEventIndex index) {
+	this.index = index;
+    }
+
+    /*
+     * @see com.sitewhere.event.spi.replay.IEventReplayRequest#getEntityIds()
+     */
+    @Override
+    public List<UUID> getEntityIds() {
+	return entityIds;
+    }
+
+    public void setEntityIds(List<UUID> entityIds) {
+	this.entityIds = entityIds;
+    }
+
+    /*
+     * @see com.sitewhere.event.spi.replay.IEventReplayRequest#getEventTypes()
+     */
+    @Override
+    public List<DeviceEventType> getEventTypes() {
+	return eventTypes;
+    }
+
+    public void setEventTypes(List<DeviceEventType> eventTypes) {
+	this.eventTypes = eventTypes;
+    }
+
+    /*
+     * @see com.sitewhere.event.spi.replay.IEventReplayRequest#getStartDate()
+     */
+    @Override
+    public Date getStartDate() {
+	return startDate;
+    }
+
+    public void setStartDate(Date startDate) {
+	this.startDate = startDate;
+    }
+
+    /*
+     * @see com.sitewhere.event.spi.replay.IEventReplayRequest#getEndDate()
+     */
+    @Override
+    public Date getEndDate() {
+	return endDate;
+    }
+
+    public void setEndDate(Date endDate) {
+	this.endDate = endDate;
+    }
+
+    /*
+     * @see com.sitewhere.event.spi.replay.IEventReplayRequest#getStages()
+     */
+    @Override
+    public List<EventReplayStage> getStages() {
+	return stages;
+    }
+
+    public void setStages(List<EventReplayStage> stages) {
+	this.stages = stages;
+    }
+
+    /*
+     * @see com.sitewhere.event.spi.replay.IEventReplayRequest#getEventsPerSecond()
+     */
+    @Override
+    public double getEventsPerSecond() {
+	return eventsPerSecond;
+    }
+
+    public void setEventsPerSecond(double eventsPerSecond) {
+	this.eventsPerSecond = eventsPerSecond;
+    }
+}
@@ -0,0 +1,19 @@
+/*
+ * Copyright (c) SiteWhere, LLC. All rights reserved. http://www.sitewhere.com
+ *
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package com.sitewhere.event.spi.export;
+
+/**
+ * Enumerates file formats supported for event exports.
+ * 
+ * @author Derek
+ */
+public enum EventExportFormat {
+
+    /** Comma-separated values with a header row */
+    Csv;
+}
@@ -0,0 +1,31 @@
+/*
+ * Copyright (c) SiteWhere, LLC. All rights reserved. http://www.sitewhere.com
+ *
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package com.sitewhere.event.spi.export;
+
+/**
+ * Enumerates states of an event export job.
+ * 
+ * @author Derek
+ */
+public enum EventExportStatus {
+
+    /** Job is waiting for export threads */
+    Queued,
+
+    /** Job is writing events */
+    Running,
+
+    /** All events have been written */
+    Completed,
+
+    /** Job stopped because of an error */
+    Failed,
+
+    /** Job was cancelled before completing */
+    Cancelled;
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright (c) SiteWhere, LLC. All rights reserved. http://www.sitewhere.com
+ *
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package com.sitewhere.event.spi.export;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Tracks progress of an event export running in the background.
+ * 
+ * @author Derek
+ */
+public interface IEventExportJob {
+
+    /**
+     * Get unique job id.
+     * 
+     * @return
+     */
+    public UUID getId();
+
+    /**
+     * Get request that started the job.
+     * 
+     * @return
+     */
+    public IEventExportRequest getRequest();
+
+    /**
+     * Get current job status.
+     * 
+     * @return
+     */
+    public EventExportStatus getStatus();
+
+    /**
+     * Get number of chunks the export was split into.
+     * 
+     * @return
+     */
+    public int getChunkCount();
+
+    /**
+     * Get number of chunks that have been written.
+     * 
+     * @return
+     */
+    public int getChunksCompleted();
+
+    /**
+     * Get number of events written so far.
+     * 
+     * @return
+     */
+    public long getEventsExported();
+
+    /**
+     * Get paths of files written by completed chunks.
+     * 
+     * @return
+     */
+    public List<String> getFiles();
+
+    /**
+     * Get error message if the job failed.
+     * 
+     * @return
+     */
+    public String getError();
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright (c) SiteWhere, LLC. All rights reserved. http://www.sitewhere.com
+ *
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package com.sitewhere.event.spi.export;
+
+import java.util.List;
+import java.util.UUID;
+
+import com.sitewhere.spi.SiteWhereException;
+import com.sitewhere.spi.server.lifecycle.ITenantEngineLifecycleComponent;
+
+/**
+ * Runs background jobs that export ranges of events for a tenant to local
+ * files.
+ * 
+ * @author Derek
+ */
+public interface IEventExportManager extends ITenantEngineLifecycleComponent {
+
+    /**
+     * Submit a request for a new export job.
+     * 
+     * @param request
+     * @return
+     * @throws SiteWhereException
+     */
+    public IEventExportJob submit(IEventExportRequest request) throws SiteWhereException;
+
+    /**
+     * Get an export job by id.
+     * 
+     * @param id
+     * @return
+     * @throws SiteWhereException
+     */
+    public IEventExportJob getJob(UUID id) throws SiteWhereException;
+
+    /**
+     * List export jobs that have been submitted since the tenant engine started.
+     * 
+     * @return
+     * @throws SiteWhereException
+     */
+    public List<IEventExportJob> listJobs() throws SiteWhereException;
+
+    /**
+     * Cancel an export job. Files already written are kept.
+     * 
+     * @param id
+     * @return
+     * @throws SiteWhereException
+     */
+    public IEventExportJob cancel(UUID id) throws SiteWhereException;
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright (c) SiteWhere, LLC. All rights reserved. http://www.sitewhere.com
+ *
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package com.sitewhere.event.spi.export;
+
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+import com.sitewhere.spi.device.event.DeviceEventIndex;
+import com.sitewhere.spi.device.event.DeviceEventType;
+
+/**
+ * Describes the events to be written by an export job.
+ * 
+ * @author Derek
+ */
+public interface IEventExportRequest {
+
+    /**
+     * Get index used to select events.
+     * 
+     * @return
+     */
+    public DeviceEventIndex getIndex();
+
+    /**
+     * Get ids of entities in the index.
+     * 
+     * @return
+     */
+    public List<UUID> getEntityIds();
+
+    /**
+     * Get types of events to export. Each type is written to separate files.
+     * 
+     * @return
+     */
+    public List<DeviceEventType> getEventTypes();
+
+    /**
+     * Get earliest event date included in export.
+     * 
+     * @return
+     */
+    public Date getStartDate();
+
+    /**
+     * Get latest event date included in export. If not set, the time the job is
+     * submitted is used.
+     * 
+     * @return
+     */
+    public Date getEndDate();
+
+    /**
+     * Get format of exported files.
+     * 
+     * @return
+     */
+    public EventExportFormat getFormat();
+}
@@ -0,0 +1,34 @@
+/*
+ * Copyright (c) SiteWhere, LLC. All rights reserved. http://www.sitewhere.com
+ *
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package com.sitewhere.event.spi.export;
+
+import com.sitewhere.spi.SiteWhereException;
+import com.sitewhere.spi.device.event.IDeviceEvent;
+
+/**
+ * Writes events of a single type to an export file.
+ * 
+ * @author Derek
+ */
+public interface IEventExportWriter {
+
+    /**
+     * Write an event.
+     * 
+     * @param event
+     * @throws SiteWhereException
+     */
+    public void write(IDeviceEvent event) throws SiteWhereException;
+
+    /**
+     * Flush and close the underlying file.
+     * 
+     * @throws SiteWhereException
+     */
+    public void close() throws SiteWhereException;
+}
@@ -7,7 +7,10 @@
  */
 package com.sitewhere.event.spi.microservice;
 
+import com.sitewhere.event.spi.export.IEventExportManager;
 import com.sitewhere.event.spi.kafka.IInboundPersistedEventsProducer;
+import com.sitewhere.event.spi.kafka.IInboundReplayEventsProducer;
+import com.sitewhere.event.spi.replay.IEventReplayManager;
 import com.sitewhere.grpc.service.DeviceEventManagementGrpc;
 import com.sitewhere.spi.device.event.IDeviceEventManagement;
 import com.sitewhere.spi.microservice.multitenant.IMicroserviceTenantEngine;
@@ -41,4 +44,25 @@ public interface IEventManagementTenantEngine extends IMicroserviceTenantEngine
      * @return
      */
     public IInboundPersistedEventsProducer getInboundPersistedEventsProducer();
+
+    /**
+     * Get manager for background event exports.
+     * 
+     * @return
+     */
+    public IEventExportManager getEventExportManager();
+
+    /**
+     * Get Kafka producer that sends replayed events to a topic.
+     * 
+     * @return
+     */
+    public IInboundReplayEventsProducer getInboundReplayEventsProducer();
+
+    /**
+     * Get manager for background event replays.
+     * 
+     * @return
+     */
+    public IEventReplayManager getEventReplayManager();
 }
\ No newline at end of file
@@ -0,0 +1,26 @@
+/*
+ * Copyright (c) SiteWhere, LLC. All rights reserved. http://www.sitewhere.com
+ *
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package com.sitewhere.event.spi.replay;
+
+/**
+ * Processing stages downstream of event persistence that replayed events may
+ * be delivered to.
+ * 
+ * @author Derek
+ */
+public enum EventReplayStage {
+
+    /** Rule processing */
+    Rules,
+
+    /** Outbound connectors */
+    OutboundConnectors,
+
+    /** Device state updates */
+    DeviceState;
+}
@@ -0,0 +1,31 @@
+/*
+ * Copyright (c) SiteWhere, LLC. All rights reserved. http://www.sitewhere.com
+ *
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package com.sitewhere.event.spi.replay;
+
+/**
+ * Status of an event replay job.
+ * 
+ * @author Derek
+ */
+public enum EventReplayStatus {
+
+    /** Job is waiting for a replay thread */
+    Queued,
+
+    /** Job is sending events */
+    Running,
+
+    /** All events have been sent */
+    Completed,
+
+    /** Job stopped because of an error */
+    Failed,
+
+    /** Job was cancelled before completing */
+    Cancelled;
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright (c) SiteWhere, LLC. All rights reserved. http://www.sitewhere.com
+ *
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package com.sitewhere.event.spi.replay;
+
+import java.util.Date;
+import java.util.UUID;
+
+/**
+ * Progress of an event replay.
+ * 
+ * @author Derek
+ */
+public interface IEventReplayJob {
+
+    /**
+     * Get unique job id. The id is included with each replayed event.
+     * 
+     * @return
+     */
+    public UUID getId();
+
+    /**
+     * Get request that started the job.
+     * 
+     * @return
+     */
+    public IEventReplayRequest getRequest();
+
+    /**
+     * Get current job status.
+     * 
+     * @return
+     */
+    public EventReplayStatus getStatus();
+
+    /**
+     * Get number of events sent so far.
+     * 
+     * @return
+     */
+    public long getEventsReplayed();
+
+    /**
+     * Get date up to which all events have been sent.
+     * 
+     * @return
+     */
+    public Date getReplayedThrough();
+
+    /**
+     * Get error message if the job failed.
+     * 
+     * @return
+     */
+    public String getError();
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright (c) SiteWhere, LLC. All rights reserved. http://www.sitewhere.com
+ *
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package com.sitewhere.event.spi.replay;
+
+import java.util.List;
+import java.util.UUID;
+
+import com.sitewhere.spi.SiteWhereException;
+import com.sitewhere.spi.server.lifecycle.ITenantEngineLifecycleComponent;
+
+/**
+ * Runs background jobs that send previously persisted events back through the
+ * processing pipeline for a tenant.
+ * 
+ * @author Derek
+ */
+public interface IEventReplayManager extends ITenantEngineLifecycleComponent {
+
+    /**
+     * Submit a request for a new replay job.
+     * 
+     * @param request
+     * @return
+     * @throws SiteWhereException
+     */
+    public IEventReplayJob submit(IEventReplayRequest request) throws SiteWhereException;
+
+    /**
+     * Get a replay job by id.
+     * 
+     * @param id
+     * @return
+     * @throws SiteWhereException
+     */
+    public IEventReplayJob getJob(UUID id) throws SiteWhereException;
+
+    /**
+     * List replay jobs that have been submitted since the tenant engine started.
+     * 
+     * @return
+     * @throws SiteWhereException
+     */
+    public List<IEventReplayJob> listJobs() throws SiteWhereException;
+
+    /**
+     * Cancel a replay job. Events already sent are not recalled.
+     * 
+     * @param id
+     * @return
+     * @throws SiteWhereException
+     */
+    public IEventReplayJob cancel(UUID id) throws SiteWhereException;
+}
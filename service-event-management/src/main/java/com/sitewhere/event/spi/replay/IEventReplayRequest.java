@@ -0,0 +1,75 @@
+/*
+ * Copyright (c) SiteWhere, LLC. All rights reserved. http://www.sitewhere.com
+ *
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package com.sitewhere.event.spi.replay;
+
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+import com.sitewhere.spi.device.event.DeviceEventIndex;
+import com.sitewhere.spi.device.event.DeviceEventType;
+
+/**
+ * Describes the events to be sent back through the processing pipeline by a
+ * replay job.
+ * 
+ * @author Derek
+ */
+public interface IEventReplayRequest {
+
+    /**
+     * Get index used to select events.
+     * 
+     * @return
+     */
+    public DeviceEventIndex getIndex();
+
+    /**
+     * Get ids of entities in the index.
+     * 
+     * @return
+     */
+    public List<UUID> getEntityIds();
+
+    /**
+     * Get types of events to replay.
+     * 
+     * @return
+     */
+    public List<DeviceEventType> getEventTypes();
+
+    /**
+     * Get earliest event date included in replay.
+     * 
+     * @return
+     */
+    public Date getStartDate();
+
+    /**
+     * Get latest event date included in replay. If not set, the time the job is
+     * submitted is used.
+     * 
+     * @return
+     */
+    public Date getEndDate();
+
+    /**
+     * Get downstream stages that should process replayed events.
+     * 
+     * @return
+     */
+    public List<EventReplayStage> getStages();
+
+    /**
+     * Get maximum number of events sent per second. If zero or less, the default
+     * rate of the replay manager is used.
+     * 
+     * @return
+     */
+    public double getEventsPerSecond();
+}
@@ -14,12 +14,14 @@ import org.springframework.beans.factory.support.BeanDefinitionBuilder;
 import org.springframework.beans.factory.xml.AbstractBeanDefinitionParser;
 import org.springframework.beans.factory.xml.ParserContext;
 import org.springframework.util.xml.DomUtils;
+import org.w3c.dom.Attr;
 import org.w3c.dom.Element;
 
 import com.sitewhere.cassandra.CassandraClient;
 import com.sitewhere.configuration.datastore.DatastoreConfigurationChoice;
 import com.sitewhere.configuration.datastore.DatastoreConfigurationParser;
 import com.sitewhere.configuration.parser.IEventManagementParser.Elements;
+import com.sitewhere.event.export.EventExportManager;
 import com.sitewhere.event.persistence.cassandra.CassandraDeviceEventManagement;
 import com.sitewhere.event.persistence.influxdb.InfluxDbDeviceEventManagement;
 import com.sitewhere.event.persistence.mongodb.DeviceEventManagementMongoClient;
@@ -54,6 +56,10 @@ public class EventManagementParser extends AbstractBeanDefinitionParser {
 		parseEventManagementDatastore(child, context);
 		break;
 	    }
+	    case EventExport: {
+		parseEventExport(child, context);
+		break;
+	    }
 	    }
 	}
 	return null;
@@ -79,6 +85,7 @@ public class EventManagementParser extends AbstractBeanDefinitionParser {
 	    BeanDefinitionBuilder management = BeanDefinitionBuilder
 		    .rootBeanDefinition(MongoDeviceEventManagement.class);
 	    management.addPropertyReference("mongoClient", EventManagementBeans.BEAN_MONGODB_CLIENT);
+	    parseMongoMeasurementBuckets(element, management);
 
 	    context.getRegistry().registerBeanDefinition(EventManagementBeans.BEAN_EVENT_MANAGEMENT,
 		    management.getBeanDefinition());
@@ -94,6 +101,7 @@ public class EventManagementParser extends AbstractBeanDefinitionParser {
 	    BeanDefinitionBuilder management = BeanDefinitionBuilder
 		    .rootBeanDefinition(MongoDeviceEventManagement.class);
 	    management.addPropertyReference("mongoClient", EventManagementBeans.BEAN_MONGODB_CLIENT);
+	    parseMongoMeasurementBuckets(element, management);
 
 	    context.getRegistry().registerBeanDefinition(EventManagementBeans.BEAN_EVENT_MANAGEMENT,
 		    management.getBeanDefinition());
@@ -108,6 +116,7 @@ public class EventManagementParser extends AbstractBeanDefinitionParser {
 	    BeanDefinitionBuilder management = BeanDefinitionBuilder
 		    .rootBeanDefinition(InfluxDbDeviceEventManagement.class);
 	    management.addPropertyReference("client", EventManagementBeans.BEAN_INFLUXDB_CLIENT);
+	    parseInfluxDbDownsampling(element, management);
 
 	    context.getRegistry().registerBeanDefinition(EventManagementBeans.BEAN_EVENT_MANAGEMENT,
 		    management.getBeanDefinition());
@@ -122,6 +131,7 @@ public class EventManagementParser extends AbstractBeanDefinitionParser {
 	    BeanDefinitionBuilder management = BeanDefinitionBuilder
 		    .rootBeanDefinition(InfluxDbDeviceEventManagement.class);
 	    management.addPropertyReference("client", EventManagementBeans.BEAN_INFLUXDB_CLIENT);
+	    parseInfluxDbDownsampling(element, management);
 
 	    context.getRegistry().registerBeanDefinition(EventManagementBeans.BEAN_EVENT_MANAGEMENT,
 		    management.getBeanDefinition());
@@ -160,4 +170,75 @@ public class EventManagementParser extends AbstractBeanDefinitionParser {
 	}
 	}
     }
+
+    /**
+     * Parse configuration for event export manager.
+     * 
+     * @param element
+     * @param context
+     */
+    protected void parseEventExport(Element element, ParserContext context) {
+	BeanDefinitionBuilder export = BeanDefinitionBuilder.rootBeanDefinition(EventExportManager.class);
+	export.addConstructorArgReference(EventManagementBeans.BEAN_EVENT_MANAGEMENT);
+
+	Attr exportDirectory = element.getAttributeNode("exportDirectory");
+	if (exportDirectory != null) {
+	    export.addPropertyValue("exportDirectory", exportDirectory.getValue());
+	}
+
+	Attr threadCount = element.getAttributeNode("threadCount");
+	if (threadCount != null) {
+	    export.addPropertyValue("threadCount", threadCount.getValue());
+	}
+
+	Attr chunksPerType = element.getAttributeNode("chunksPerType");
+	if (chunksPerType != null) {
+	    export.addPropertyValue("chunksPerType", chunksPerType.getValue());
+	}
+
+	Attr batchSize = element.getAttributeNode("batchSize");
+	if (batchSize != null) {
+	    export.addPropertyValue("batchSize", batchSize.getValue());
+	}
+
+	context.getRegistry().registerBeanDefinition(EventManagementBeans.BEAN_EVENT_EXPORT_MANAGER,
+		export.getBeanDefinition());
+    }
+
+    /**
+     * Parse attributes that control downsampled measurement tiers for InfluxDB.
+     * 
+     * @param element
+     * @param management
+     */
+    protected void parseInfluxDbDownsampling(Element element, BeanDefinitionBuilder management) {
+	Attr useDownsampling = element.getAttributeNode("useDownsampling");
+	if (useDownsampling != null) {
+	    management.addPropertyValue("useDownsampling", useDownsampling.getValue());
+	}
+
+	Attr downsamplingTiers = element.getAttributeNode("downsamplingTiers");
+	if (downsamplingTiers != null) {
+	    management.addPropertyValue("downsamplingTiers", downsamplingTiers.getValue());
+	}
+    }
+
+    /**
+     * Parse attributes that control time-bucketed measurement storage for
+     * MongoDB.
+     * 
+     * @param element
+     * @param management
+     */
+    protected void parseMongoMeasurementBuckets(Element element, BeanDefinitionBuilder management) {
+	Attr useMeasurementBuckets = element.getAttributeNode("useMeasurementBuckets");
+	if (useMeasurementBuckets != null) {
+	    management.addPropertyValue("useMeasurementBuckets", useMeasurementBuckets.getValue());
+	}
+
+	Attr measurementBucketSeconds = element.getAttributeNode("measurementBucketSeconds");
+	if (measurementBucketSeconds != null) {
+	    management.addPropertyValue("measurementBucketSeconds", measurementBucketSeconds.getValue());
+	}
+    }
 }
\ No newline at end of file
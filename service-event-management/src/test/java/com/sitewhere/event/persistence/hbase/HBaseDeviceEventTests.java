@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) SiteWhere, LLC. All rights reserved. http://www.sitewhere.com
+ *
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package com.sitewhere.event.persistence.hbase;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Date;
+import java.util.UUID;
+
+import org.junit.Test;
+
+import com.sitewhere.hbase.encoder.JsonPayloadMarshaler;
+import com.sitewhere.hbase.encoder.PayloadEncoding;
+import com.sitewhere.hbase.encoder.ProtobufPayloadMarshaler;
+import com.sitewhere.rest.model.device.event.DeviceAlert;
+import com.sitewhere.rest.model.device.event.DeviceEvent;
+import com.sitewhere.rest.model.device.event.DeviceMeasurements;
+import com.sitewhere.spi.SiteWhereException;
+import com.sitewhere.spi.device.event.AlertLevel;
+import com.sitewhere.spi.device.event.AlertSource;
+import com.sitewhere.spi.device.event.IDeviceEvent;
+
+/**
+ * Tests for decoding event payloads based on the encoding recorded in the
+ * column qualifier.
+ * 
+ * @author Derek
+ */
+public class HBaseDeviceEventTests {
+
+    @Test
+    public void testJsonRowReadableAfterSwitchToProtobuf() throws SiteWhereException {
+	// Row written while the tenant was configured for JSON.
+	DeviceMeasurements original = createMeasurements();
+	byte[] qualifier = HBaseDeviceEvent.getQualifier(EventRecordType.Measurement,
+		original.getEventDate().getTime(), PayloadEncoding.Json);
+	byte[] payload = new JsonPayloadMarshaler().encodeDeviceMeasurements(original);
+
+	// Read after the configured encoding was switched to protocol buffers.
+	IDeviceEvent decoded = HBaseDeviceEvent.decodePayload(qualifier, payload);
+	assertTrue(decoded instanceof DeviceMeasurements);
+	assertEquals(original.getId(), decoded.getId());
+	assertEquals(original.getEventDate(), decoded.getEventDate());
+	assertEquals(original.getMeasurements(), ((DeviceMeasurements) decoded).getMeasurements());
+    }
+
+    @Test
+    public void testProtobufRowReadable() throws SiteWhereException {
+	DeviceAlert original = new DeviceAlert();
+	populateEvent(original);
+	original.setSource(AlertSource.System);
+	original.setLevel(AlertLevel.Warning);
+	original.setType("battery.low");
+	original.setMessage("Battery below 10%.");
+	byte[] qualifier = HBaseDeviceEvent.getQualifier(EventRecordType.Alert, original.getEventDate().getTime(),
+		PayloadEncoding.ProtocolBuffers);
+	byte[] payload = new ProtobufPayloadMarshaler().encodeDeviceAlert(original);
+
+	IDeviceEvent decoded = HBaseDeviceEvent.decodePayload(qualifier, payload);
+	assertTrue(decoded instanceof DeviceAlert);
+	assertEquals(original.getId(), decoded.getId());
+	assertEquals(original.getType(), ((DeviceAlert) decoded).getType());
+	assertEquals(original.getMessage(), ((DeviceAlert) decoded).getMessage());
+    }
+
+    @Test
+    public void testQualifierRecordsEncoding() {
+	byte[] json = HBaseDeviceEvent.getQualifier(EventRecordType.Location, 1000L, PayloadEncoding.Json);
+	byte[] protobuf = HBaseDeviceEvent.getQualifier(EventRecordType.Location, 1000L,
+		PayloadEncoding.ProtocolBuffers);
+	assertEquals(PayloadEncoding.Json,
+		PayloadEncoding.getEncoding(HBaseDeviceEvent.getEncodingFromQualifier(json)));
+	assertEquals(PayloadEncoding.ProtocolBuffers,
+		PayloadEncoding.getEncoding(HBaseDeviceEvent.getEncodingFromQualifier(protobuf)));
+    }
+
+    /**
+     * Create a measurements event for encoding.
+     * 
+     * @return
+     */
+    protected DeviceMeasurements createMeasurements() {
+	DeviceMeasurements measurements = new DeviceMeasurements();
+	populateEvent(measurements);
+	measurements.addOrReplaceMeasurement("engine.temp", 98.6);
+	return measurements;
+    }
+
+    /**
+     * Populate fields common to all events.
+     * 
+     * @param event
+     */
+    protected void populateEvent(DeviceEvent event) {
+	event.setId(UUID.randomUUID());
+	event.setDeviceId(UUID.randomUUID());
+	event.setDeviceAssignmentId(UUID.randomUUID());
+	event.setAreaId(UUID.randomUUID());
+	event.setAssetId(UUID.randomUUID());
+	event.setEventDate(new Date(1500000000000L));
+	event.setReceivedDate(new Date(1500000001000L));
+    }
+}
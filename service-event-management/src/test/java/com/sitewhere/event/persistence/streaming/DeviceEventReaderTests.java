@@ -0,0 +1,176 @@
+/*
+ * Copyright (c) SiteWhere, LLC. All rights reserved. http://www.sitewhere.com
+ *
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package com.sitewhere.event.persistence.streaming;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import org.junit.Test;
+
+import com.sitewhere.rest.model.device.event.DeviceLocation;
+import com.sitewhere.rest.model.search.SearchResults;
+import com.sitewhere.spi.SiteWhereException;
+import com.sitewhere.spi.device.event.DeviceEventIndex;
+import com.sitewhere.spi.device.event.DeviceEventType;
+import com.sitewhere.spi.device.event.IDeviceEvent;
+import com.sitewhere.spi.search.IDateRangeSearchCriteria;
+import com.sitewhere.spi.search.ISearchResults;
+
+/**
+ * Tests for {@link DeviceEventReader} against a store that returns events with
+ * equal dates in a different order on every query.
+ * 
+ * @author Derek
+ */
+public class DeviceEventReaderTests {
+
+    /** Events in store */
+    private List<IDeviceEvent> events = new ArrayList<>();
+
+    /** Shuffles results for each query */
+    private Random random = new Random(42);
+
+    @Test
+    public void testReadsEveryEventOnce() throws SiteWhereException {
+	addEvents(1000L, 7);
+	addEvents(2000L, 1);
+	addEvents(3000L, 12);
+	addEvents(4000L, 3);
+
+	List<IDeviceEvent> read = readAll(createReader(null, null, 5));
+	assertEquals(events.size(), read.size());
+	assertEquals(events.size(), new HashSet<>(ids(read)).size());
+	for (int i = 1; i < read.size(); i++) {
+	    IDeviceEvent previous = read.get(i - 1);
+	    IDeviceEvent current = read.get(i);
+	    int order = previous.getEventDate().compareTo(current.getEventDate());
+	    assertEquals(true, (order > 0) || ((order == 0) && (previous.getId().compareTo(current.getId()) > 0)));
+	}
+    }
+
+    @Test
+    public void testResumeWithinEqualDates() throws SiteWhereException {
+	addEvents(1000L, 4);
+	addEvents(2000L, 9);
+	addEvents(3000L, 2);
+
+	List<IDeviceEvent> expected = readAll(createReader(null, null, 3));
+	for (int stop = 1; stop < expected.size(); stop++) {
+	    DeviceEventReader first = createReader(null, null, 3);
+	    List<IDeviceEvent> read = new ArrayList<>();
+	    for (int i = 0; i < stop; i++) {
+		read.add(first.next());
+	    }
+	    DeviceEventReader resumed = createReader(first.getCursorDate(), first.getCursorId(), 3);
+	    read.addAll(readAll(resumed));
+	    assertEquals(ids(expected), ids(read));
+	}
+    }
+
+    @Test
+    public void testEmpty() throws SiteWhereException {
+	assertNull(createReader(null, null, 10).next());
+    }
+
+    /**
+     * Create a reader backed by the test events.
+     * 
+     * @param cursorDate
+     * @param cursorId
+     * @param batchSize
+     * @return
+     */
+    protected DeviceEventReader createReader(Date cursorDate, UUID cursorId, int batchSize) {
+	return new DeviceEventReader(null, DeviceEventIndex.Assignment, Collections.emptyList(),
+		DeviceEventType.Location, null, cursorDate, cursorId, batchSize) {
+
+	    /*
+	     * @see com.sitewhere.event.persistence.streaming.DeviceEventReader#
+	     * listEvents(com.sitewhere.spi.search.IDateRangeSearchCriteria)
+	     */
+	    @Override
+	    protected ISearchResults<? extends IDeviceEvent> listEvents(IDateRangeSearchCriteria criteria)
+		    throws SiteWhereException {
+		return query(criteria);
+	    }
+	};
+    }
+
+    /**
+     * Return events in the date range newest first. Events with equal dates are
+     * returned in random order.
+     * 
+     * @param criteria
+     * @return
+     */
+    protected ISearchResults<IDeviceEvent> query(IDateRangeSearchCriteria criteria) {
+	List<IDeviceEvent> matches = new ArrayList<>();
+	for (IDeviceEvent event : events) {
+	    if ((criteria.getEndDate() == null) || !event.getEventDate().after(criteria.getEndDate())) {
+		matches.add(event);
+	    }
+	}
+	Collections.shuffle(matches, random);
+	Collections.sort(matches, (o1, o2) -> o2.getEventDate().compareTo(o1.getEventDate()));
+	List<IDeviceEvent> page = matches.subList(0, Math.min(criteria.getPageSize(), matches.size()));
+	return new SearchResults<IDeviceEvent>(new ArrayList<>(page), matches.size());
+    }
+
+    /**
+     * Add events that share an event date.
+     * 
+     * @param time
+     * @param count
+     */
+    protected void addEvents(long time, int count) {
+	for (int i = 0; i < count; i++) {
+	    DeviceLocation location = new DeviceLocation();
+	    location.setId(UUID.randomUUID());
+	    location.setEventDate(new Date(time));
+	    events.add(location);
+	}
+    }
+
+    /**
+     * Read all remaining events from a reader.
+     * 
+     * @param reader
+     * @return
+     * @throws SiteWhereException
+     */
+    protected List<IDeviceEvent> readAll(DeviceEventReader reader) throws SiteWhereException {
+	List<IDeviceEvent> read = new ArrayList<>();
+	IDeviceEvent event;
+	while ((event = reader.next()) != null) {
+	    read.add(event);
+	}
+	return read;
+    }
+
+    /**
+     * Get ids for a list of events.
+     * 
+     * @param events
+     * @return
+     */
+    protected List<UUID> ids(List<IDeviceEvent> events) {
+	List<UUID> ids = new ArrayList<>();
+	for (IDeviceEvent event : events) {
+	    ids.add(event.getId());
+	}
+	return ids;
+    }
+}
@@ -7,13 +7,18 @@
  */
 package com.sitewhere.sources;
 
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import com.sitewhere.grpc.kafka.model.KafkaModel.GInboundEventPayload;
+import com.sitewhere.grpc.model.DeviceEventModel.GAnyDeviceEventCreateRequest;
 import com.sitewhere.grpc.model.marshaler.KafkaModelMarshaler;
 import com.sitewhere.rest.model.microservice.kafka.payload.InboundEventPayload;
 import com.sitewhere.server.lifecycle.TenantEngineLifecycleComponent;
 import com.sitewhere.server.lifecycle.TracerUtils;
+import com.sitewhere.sources.decoder.protobuf.ProtobufKafkaTranscoder;
+import com.sitewhere.sources.kafka.DecodedEventSendCallback;
 import com.sitewhere.sources.kafka.DecodedEventsProducer;
 import com.sitewhere.sources.kafka.FailedDecodeEventsProducer;
 import com.sitewhere.sources.spi.IDecodedDeviceRequest;
@@ -36,6 +41,21 @@ public class EventSourcesManager extends TenantEngineLifecycleComponent implemen
     /** List of event sources */
     private List<IInboundEventSource<?>> eventSources;
 
+    /** Event sources indexed by source id */
+    private Map<String, IInboundEventSource<?>> eventSourcesById = new HashMap<>();
+
+    /** Time in milliseconds decoded events are held to fill a batch */
+    private int producerLingerMs = DecodedEventsProducer.DEFAULT_LINGER_MS;
+
+    /** Maximum batch size in bytes for decoded events producer */
+    private int producerBatchSize = DecodedEventsProducer.DEFAULT_BATCH_SIZE;
+
+    /** Compression applied to decoded event batches */
+    private String producerCompressionType = DecodedEventsProducer.DEFAULT_COMPRESSION_TYPE;
+
+    /** Indicates whether decoded events producer is idempotent */
+    private boolean producerIdempotent = true;
+
     /** Kafka producer for decoded events form event sources */
     private DecodedEventsProducer decodedEventsProducer;
 
@@ -52,7 +72,9 @@ public class EventSourcesManager extends TenantEngineLifecycleComponent implemen
 	initializeDecodedEventsProducer(monitor);
 
 	ActiveSpan span = null;
+	getEventSourcesById().clear();
 	for (IInboundEventSource<?> source : getEventSources()) {
+	    getEventSourcesById().put(source.getSourceId(), source);
 	    try {
 		span = monitor.getMicroservice().getTracer().buildSpan("Initialize event source").startActive();
 		span.log("Initializing '" + source.getComponentName() + "' event source.");
@@ -81,6 +103,10 @@ public class EventSourcesManager extends TenantEngineLifecycleComponent implemen
 	try {
 	    span = monitor.getMicroservice().getTracer().buildSpan("Initialize decoded events producer").startActive();
 	    decodedEventsProducer = new DecodedEventsProducer();
+	    decodedEventsProducer.setLingerMs(getProducerLingerMs());
+	    decodedEventsProducer.setBatchSize(getProducerBatchSize());
+	    decodedEventsProducer.setCompressionType(getProducerCompressionType());
+	    decodedEventsProducer.setIdempotent(isProducerIdempotent());
 	    initializeNestedComponent(getDecodedEventsProducer(), monitor, true);
 	} catch (SiteWhereException e) {
 	    TracerUtils.handleErrorInTracerSpan(span, e);
@@ -202,7 +228,16 @@ public class EventSourcesManager extends TenantEngineLifecycleComponent implemen
     public void handleDecodedEvent(String sourceId, byte[] encoded, Map<String, Object> metadata,
 	    IDecodedDeviceRequest<?> decoded) throws SiteWhereException {
 	if (getDecodedEventsProducer().getLifecycleStatus() == LifecycleStatus.Started) {
-	    if (decoded.getRequest() instanceof IDeviceEventCreateRequest) {
+	    if (decoded.getRequest() instanceof GAnyDeviceEventCreateRequest) {
+		// Request was transcoded directly to GRPC model by decoder.
+		@SuppressWarnings("unchecked")
+		IDecodedDeviceRequest<GAnyDeviceEventCreateRequest> transcoded = (IDecodedDeviceRequest<GAnyDeviceEventCreateRequest>) decoded;
+		GInboundEventPayload payload = ProtobufKafkaTranscoder.asGrpcInboundEventPayload(sourceId, transcoded);
+
+		// Send payload to Kafka topic.
+		sendDecodedEvent(sourceId, decoded.getDeviceToken(),
+			KafkaModelMarshaler.buildInboundEventPayloadMessage(payload));
+	    } else if (decoded.getRequest() instanceof IDeviceEventCreateRequest) {
 		// Build payload message.
 		InboundEventPayload payload = new InboundEventPayload();
 		payload.setSourceId(sourceId);
@@ -211,7 +246,7 @@ public class EventSourcesManager extends TenantEngineLifecycleComponent implemen
 		payload.setEventCreateRequest((IDeviceEventCreateRequest) decoded.getRequest());
 
 		// Send payload to Kafka topic.
-		getDecodedEventsProducer().send(decoded.getDeviceToken(),
+		sendDecodedEvent(sourceId, decoded.getDeviceToken(),
 			KafkaModelMarshaler.buildInboundEventPayloadMessage(payload));
 	    }
 	} else if (getLogger().isWarnEnabled()) {
@@ -219,6 +254,24 @@ public class EventSourcesManager extends TenantEngineLifecycleComponent implemen
 	}
     }
 
+    /**
+     * Send a decoded event to Kafka, tracking delivery against the event source
+     * that produced it.
+     * 
+     * @param sourceId
+     * @param key
+     * @param message
+     * @throws SiteWhereException
+     */
+    protected void sendDecodedEvent(String sourceId, String key, byte[] message) throws SiteWhereException {
+	IInboundEventSource<?> source = getEventSourcesById().get(sourceId);
+	if (source != null) {
+	    getDecodedEventsProducer().send(key, message, new DecodedEventSendCallback(source));
+	} else {
+	    getDecodedEventsProducer().send(key, message);
+	}
+    }
+
     /*
      * @see com.sitewhere.sources.spi.IEventSourcesManager#handleFailedDecode(java.
      * lang.String, byte[], java.util.Map, java.lang.Throwable)
@@ -246,6 +299,42 @@ public class EventSourcesManager extends TenantEngineLifecycleComponent implemen
 	this.eventSources = eventSources;
     }
 
+    protected Map<String, IInboundEventSource<?>> getEventSourcesById() {
+	return eventSourcesById;
+    }
+
+    public int getProducerLingerMs() {
+	return producerLingerMs;
+    }
+
+    public void setProducerLingerMs(int producerLingerMs) {
+	this.producerLingerMs = producerLingerMs;
+    }
+
+    public int getProducerBatchSize() {
+	return producerBatchSize;
+    }
+
+    public void setProducerBatchSize(int producerBatchSize) {
+	this.producerBatchSize = producerBatchSize;
+    }
+
+    public String getProducerCompressionType() {
+	return producerCompressionType;
+    }
+
+    public void setProducerCompressionType(String producerCompressionType) {
+	this.producerCompressionType = producerCompressionType;
+    }
+
+    public boolean isProducerIdempotent() {
+	return producerIdempotent;
+    }
+
+    public void setProducerIdempotent(boolean producerIdempotent) {
+	this.producerIdempotent = producerIdempotent;
+    }
+
     public DecodedEventsProducer getDecodedEventsProducer() {
 	return decodedEventsProducer;
     }
@@ -11,7 +11,9 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
+import com.codahale.metrics.Counter;
 import com.codahale.metrics.Meter;
+import com.codahale.metrics.Timer;
 import com.sitewhere.server.lifecycle.TenantEngineLifecycleComponent;
 import com.sitewhere.sources.spi.EventDecodeException;
 import com.sitewhere.sources.spi.IDecodedDeviceRequest;
@@ -57,6 +59,15 @@ public abstract class InboundEventSource<T> extends TenantEngineLifecycleCompone
     /** Meter for counting duplicate events */
     private Meter duplicates;
 
+    /** Timer for Kafka send latency */
+    private Timer sendLatency;
+
+    /** Meter for counting failed Kafka sends */
+    private Meter sendFailures;
+
+    /** Counter for Kafka sends not yet acknowledged */
+    private Counter inFlightSends;
+
     public InboundEventSource() {
 	super(LifecycleComponentType.InboundEventSource);
     }
@@ -81,6 +92,10 @@ public abstract class InboundEventSource<T> extends TenantEngineLifecycleCompone
 	this.decodedEvents = createMeterMetric(getMetricPrefix() + "decodedEvents");
 	this.decodeFailures = createMeterMetric(getMetricPrefix() + "decodeFailures");
 	this.duplicates = createMeterMetric(getMetricPrefix() + "duplicates");
+	this.sendLatency = createTimerMetric(getMetricPrefix() + "sendLatency");
+	this.sendFailures = createMeterMetric(getMetricPrefix() + "sendFailures");
+	this.inFlightSends = getTenantEngine().getMicroservice().getMetricRegistry()
+		.counter(getTenentMetricPrefix() + getMetricPrefix() + "inFlightSends");
 
 	// Initialize device event decoder.
 	initializeNestedComponent(getDeviceEventDecoder(), monitor, true);
@@ -381,4 +396,28 @@ public abstract class InboundEventSource<T> extends TenantEngineLifecycleCompone
     protected Meter getDuplicates() {
 	return duplicates;
     }
+
+    /*
+     * @see com.sitewhere.sources.spi.IInboundEventSource#getSendLatency()
+     */
+    @Override
+    public Timer getSendLatency() {
+	return sendLatency;
+    }
+
+    /*
+     * @see com.sitewhere.sources.spi.IInboundEventSource#getSendFailures()
+     */
+    @Override
+    public Meter getSendFailures() {
+	return sendFailures;
+    }
+
+    /*
+     * @see com.sitewhere.sources.spi.IInboundEventSource#getInFlightSends()
+     */
+    @Override
+    public Counter getInFlightSends() {
+	return inFlightSends;
+    }
 }
\ No newline at end of file
@@ -61,6 +61,7 @@ public class EventSourcesModelProvider extends ConfigurationModelProvider {
 	addElement(createReadAllSocketInteractionHandlerElement());
 	addElement(createHttpSocketInteractionHandlerElement());
 	addElement(createGroovySocketInteractionHandlerElement());
+	addElement(createLengthPrefixedSocketInteractionHandlerElement());
 	addElement(createSocketEventSourceElement());
 
 	// WebSocket event source.
@@ -108,6 +109,22 @@ public class EventSourcesModelProvider extends ConfigurationModelProvider {
 
 	builder.description(
 		"Event sources are responsible for acquiring device event data from external devices or systems.");
+	builder.attribute((new AttributeNode.Builder("Producer linger (ms)", "producerLingerMs", AttributeType.Integer,
+		ConfigurationModelProvider.ATTR_GROUP_PERFORMANCE)
+			.description("Time in milliseconds decoded events are held so they can be sent to Kafka in batches.")
+			.defaultValue("5").build()));
+	builder.attribute((new AttributeNode.Builder("Producer batch size", "producerBatchSize", AttributeType.Integer,
+		ConfigurationModelProvider.ATTR_GROUP_PERFORMANCE)
+			.description("Maximum size in bytes of a batch of decoded events sent to a Kafka partition.")
+			.defaultValue("65536").build()));
+	builder.attribute((new AttributeNode.Builder("Producer compression", "producerCompressionType",
+		AttributeType.String, ConfigurationModelProvider.ATTR_GROUP_PERFORMANCE)
+			.description("Compression applied to decoded event batches (none, gzip, snappy or lz4).")
+			.defaultValue("lz4").build()));
+	builder.attribute((new AttributeNode.Builder("Idempotent producer", "producerIdempotent", AttributeType.Boolean,
+		ConfigurationModelProvider.ATTR_GROUP_PERFORMANCE)
+			.description("Indicates whether Kafka retries should avoid writing duplicate decoded events.")
+			.defaultValue("true").build()));
 
 	return builder.build();
     }
@@ -150,6 +167,14 @@ public class EventSourcesModelProvider extends ConfigurationModelProvider {
 	builder.attribute((new AttributeNode.Builder("Processing threads", "numThreads", AttributeType.Integer,
 		ATTR_GROUP_PERFORMANCE).defaultValue("5")
 			.description("Number of threads used for processing MQTT payloads.").build()));
+	builder.attribute((new AttributeNode.Builder("Queue size", "queueSize", AttributeType.Integer,
+		ATTR_GROUP_PERFORMANCE).defaultValue("1000")
+			.description("Maximum number of messages waiting for processing before reads are paused.")
+			.build()));
+	builder.attribute((new AttributeNode.Builder("Shared subscription group", "sharedSubscriptionGroup",
+		AttributeType.String, ATTR_GROUP_PERFORMANCE)
+			.description("Group name used for a shared subscription so that replicas split the topic.")
+			.build()));
 
 	return builder.build();
     }
@@ -307,6 +332,30 @@ public class EventSourcesModelProvider extends ConfigurationModelProvider {
 	return builder.build();
     }
 
+    /**
+     * Create length-prefixed socket interaction handler factory.
+     * 
+     * @return
+     */
+    protected ElementNode createLengthPrefixedSocketInteractionHandlerElement() {
+	ElementNode.Builder builder = new ElementNode.Builder("Length-Prefixed Socket Interaction Handler Factory",
+		IEventSourcesParser.BinarySocketInteractionHandlers.LengthPrefixedInteractionHandlerFactory
+			.getLocalName(),
+		"cog", EventSourcesRoleKeys.SocketInteractionHandlerFactory, this);
+
+	builder.description("Interaction handler for persistent connections that reads payloads preceded by a "
+		+ "four byte length header and delivers each to the decoder as a byte array.");
+	builder.attributeGroup(ConfigurationModelProvider.ATTR_GROUP_GENERAL);
+
+	builder.attribute((new AttributeNode.Builder("Maximum frame length", "maxFrameLength", AttributeType.Integer,
+		ConfigurationModelProvider.ATTR_GROUP_GENERAL)
+			.description("Maximum payload length in bytes. Connections that send a larger length header "
+				+ "are closed.")
+			.defaultValue("1048576").build()));
+
+	return builder.build();
+    }
+
     /**
      * Create HTTP socket interaction handler factory.
      * 
@@ -369,8 +418,19 @@ public class EventSourcesModelProvider extends ConfigurationModelProvider {
 			.build()));
 	builder.attribute((new AttributeNode.Builder("Number of threads", "numThreads", AttributeType.Integer,
 		ConfigurationModelProvider.ATTR_GROUP_CONNECTIVITY)
-			.description("Number of threads used to handle client connections to the server socket.")
+			.description("Number of threads used to handle client connections to the server socket. "
+				+ "In non-blocking mode, this is the number of selector threads.")
 			.defaultValue("5").build()));
+	builder.attribute((new AttributeNode.Builder("Non-blocking", "nonBlocking", AttributeType.Boolean,
+		ConfigurationModelProvider.ATTR_GROUP_CONNECTIVITY)
+			.description("Service connections using non-blocking I/O rather than a thread per "
+				+ "connection. Requires an interaction handler that supports non-blocking mode.")
+			.defaultValue("false").build()));
+	builder.attribute((new AttributeNode.Builder("Read buffer size", "readBufferSize", AttributeType.Integer,
+		ConfigurationModelProvider.ATTR_GROUP_CONNECTIVITY)
+			.description("Size in bytes of the per-connection read buffer used in non-blocking mode. "
+				+ "Payloads larger than the buffer cause the connection to be closed.")
+			.defaultValue("65536").build()));
 
 	return builder.build();
     }
@@ -503,6 +563,13 @@ public class EventSourcesModelProvider extends ConfigurationModelProvider {
 	builder.description("Event decoder that takes binary messages from an underlying transport "
 		+ "and decodes them using the standard SiteWhere Google Protocol Buffers format. This is "
 		+ "the default binary format used by the various SDKs.");
+	builder.attributeGroup(ConfigurationModelProvider.ATTR_GROUP_GENERAL);
+
+	builder.attribute((new AttributeNode.Builder("Transcode to Kafka model", "transcodeToKafkaModel",
+		AttributeType.Boolean, ConfigurationModelProvider.ATTR_GROUP_GENERAL)
+			.description("Convert device events directly into the format sent to Kafka rather than "
+				+ "building intermediate API objects. Deduplicators will not see transcoded events.")
+			.defaultValue("false").build()));
 	return builder.build();
     }
 
@@ -603,6 +670,18 @@ public class EventSourcesModelProvider extends ConfigurationModelProvider {
 
 	builder.description("Decoder that extracts device metadata from the binary payload, then delegates "
 		+ "further decoding to a list of sub-decoders, which may be invoked if criteria are met.");
+	builder.attribute((new AttributeNode.Builder("Device cache size", "deviceCacheSize", AttributeType.Integer,
+		ConfigurationModelProvider.ATTR_GROUP_PERFORMANCE)
+			.description("Maximum number of devices cached for building decoder context.")
+			.defaultValue("5000").build()));
+	builder.attribute((new AttributeNode.Builder("Device type cache size", "deviceTypeCacheSize",
+		AttributeType.Integer, ConfigurationModelProvider.ATTR_GROUP_PERFORMANCE)
+			.description("Maximum number of device types cached for building decoder context.")
+			.defaultValue("100").build()));
+	builder.attribute((new AttributeNode.Builder("Cache TTL (seconds)", "cacheTtlSeconds", AttributeType.Integer,
+		ConfigurationModelProvider.ATTR_GROUP_PERFORMANCE)
+			.description("Number of seconds a cached device or device type is used before it is reloaded.")
+			.defaultValue("60").build()));
 	return builder.build();
     }
 
@@ -676,6 +755,21 @@ public class EventSourcesModelProvider extends ConfigurationModelProvider {
 		EventSourcesRoleKeys.EventDeduplicator, this);
 
 	builder.description("Deduplicator that uses the event alternate id to test for duplicates.");
+	builder.attributeGroup(ConfigurationModelProvider.ATTR_GROUP_GENERAL);
+
+	builder.attribute((new AttributeNode.Builder("Expected insertions", "expectedInsertions", AttributeType.Integer,
+		ConfigurationModelProvider.ATTR_GROUP_GENERAL)
+			.description("Number of alternate ids expected per window. Used to size the filter.")
+			.build()));
+	builder.attribute((new AttributeNode.Builder("False positive probability", "falsePositiveProbability",
+		AttributeType.Decimal, ConfigurationModelProvider.ATTR_GROUP_GENERAL)
+			.description("Probability that the filter reports an unseen alternate id as seen.").build()));
+	builder.attribute((new AttributeNode.Builder("Window (seconds)", "windowSeconds", AttributeType.Integer,
+		ConfigurationModelProvider.ATTR_GROUP_GENERAL)
+			.description("Length of time alternate ids are tracked before the filter is rotated.").build()));
+	builder.attribute((new AttributeNode.Builder("Recent cache size", "recentCacheSize", AttributeType.Integer,
+		ConfigurationModelProvider.ATTR_GROUP_GENERAL)
+			.description("Maximum number of recently seen alternate ids held in memory.").build()));
 	return builder.build();
     }
 
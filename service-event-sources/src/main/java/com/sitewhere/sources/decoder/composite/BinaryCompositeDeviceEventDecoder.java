@@ -9,20 +9,60 @@ package com.sitewhere.sources.decoder.composite;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
+import com.codahale.metrics.Meter;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.sitewhere.sources.spi.ICompositeDeviceEventDecoder;
+import com.sitewhere.sources.spi.microservice.IEventSourcesMicroservice;
 import com.sitewhere.spi.SiteWhereException;
+import com.sitewhere.spi.device.IDevice;
 import com.sitewhere.spi.device.IDeviceManagement;
-import com.sitewhere.spi.tenant.ITenant;
+import com.sitewhere.spi.device.IDeviceType;
+import com.sitewhere.spi.server.lifecycle.ILifecycleProgressMonitor;
 
 /**
  * Concrete implementation of {@link ICompositeDeviceEventDecoder} for binary
- * data.
+ * data. Devices and device types used to build the context are held in a local
+ * cache for a bounded time so that frequent messages from the same device do
+ * not require remote lookups for each payload.
  * 
  * @author Derek
  */
 public class BinaryCompositeDeviceEventDecoder extends CompositeDeviceEventDecoder<byte[]> {
 
+    /** Default maximum number of devices held in cache */
+    private static final int DEFAULT_DEVICE_CACHE_SIZE = 5000;
+
+    /** Default maximum number of device types held in cache */
+    private static final int DEFAULT_DEVICE_TYPE_CACHE_SIZE = 100;
+
+    /** Default number of seconds cached entries are retained */
+    private static final int DEFAULT_CACHE_TTL_SECONDS = 60;
+
+    /** Maximum number of devices held in cache */
+    private int deviceCacheSize = DEFAULT_DEVICE_CACHE_SIZE;
+
+    /** Maximum number of device types held in cache */
+    private int deviceTypeCacheSize = DEFAULT_DEVICE_TYPE_CACHE_SIZE;
+
+    /** Number of seconds cached entries are retained */
+    private int cacheTtlSeconds = DEFAULT_CACHE_TTL_SECONDS;
+
+    /** Devices by token */
+    private Cache<String, IDevice> deviceCache;
+
+    /** Device types by id */
+    private Cache<UUID, IDeviceType> deviceTypeCache;
+
+    /** Meter for context lookups resolved from cache */
+    private Meter cacheHits;
+
+    /** Meter for context lookups requiring remote calls */
+    private Meter cacheMisses;
+
     /** Metadata extractor implementation */
     private IMessageMetadataExtractor<byte[]> metadataExtractor;
 
@@ -40,19 +80,92 @@ public class BinaryCompositeDeviceEventDecoder extends CompositeDeviceEventDecod
     public IDeviceContext<byte[]> buildContext(IMessageMetadata<byte[]> metadata) throws SiteWhereException {
 	BinaryDeviceContext context = new BinaryDeviceContext();
 
-	IDeviceManagement devices = getDeviceManagement(getTenantEngine().getTenant());
-	context.setDevice(devices.getDeviceByToken(metadata.getDeviceToken()));
+	context.setDevice(getDevice(metadata.getDeviceToken()));
 	if (context.getDevice() == null) {
 	    throw new SiteWhereException(
 		    "Unable to build device context. Device not found for token: " + metadata.getDeviceToken());
 	}
 
-	context.setDeviceType(devices.getDeviceType(context.getDevice().getDeviceTypeId()));
+	context.setDeviceType(getDeviceType(context.getDevice().getDeviceTypeId()));
 
 	context.setPayload(metadata.getPayload());
 	return context;
     }
 
+    /**
+     * Get device by token, using cached value if available.
+     * 
+     * @param token
+     * @return
+     * @throws SiteWhereException
+     */
+    protected IDevice getDevice(String token) throws SiteWhereException {
+	IDevice device = getDeviceCache().getIfPresent(token);
+	if (device != null) {
+	    getCacheHits().mark();
+	    return device;
+	}
+	getCacheMisses().mark();
+	device = getDeviceManagement().getDeviceByToken(token);
+	if (device != null) {
+	    getDeviceCache().put(token, device);
+	}
+	return device;
+    }
+
+    /**
+     * Get device type by id, using cached value if available.
+     * 
+     * @param id
+     * @return
+     * @throws SiteWhereException
+     */
+    protected IDeviceType getDeviceType(UUID id) throws SiteWhereException {
+	IDeviceType deviceType = getDeviceTypeCache().getIfPresent(id);
+	if (deviceType != null) {
+	    getCacheHits().mark();
+	    return deviceType;
+	}
+	getCacheMisses().mark();
+	deviceType = getDeviceManagement().getDeviceType(id);
+	if (deviceType != null) {
+	    getDeviceTypeCache().put(id, deviceType);
+	}
+	return deviceType;
+    }
+
+    /*
+     * @see
+     * com.sitewhere.server.lifecycle.LifecycleComponent#initialize(com.sitewhere.
+     * spi.server.lifecycle.ILifecycleProgressMonitor)
+     */
+    @Override
+    public void initialize(ILifecycleProgressMonitor monitor) throws SiteWhereException {
+	super.initialize(monitor);
+	this.deviceCache = CacheBuilder.newBuilder().maximumSize(getDeviceCacheSize())
+		.expireAfterWrite(getCacheTtlSeconds(), TimeUnit.SECONDS).build();
+	this.deviceTypeCache = CacheBuilder.newBuilder().maximumSize(getDeviceTypeCacheSize())
+		.expireAfterWrite(getCacheTtlSeconds(), TimeUnit.SECONDS).build();
+	this.cacheHits = createMeterMetric("compositeDecoder.contextCacheHits");
+	this.cacheMisses = createMeterMetric("compositeDecoder.contextCacheMisses");
+    }
+
+    /*
+     * @see
+     * com.sitewhere.sources.decoder.composite.CompositeDeviceEventDecoder#stop(com.
+     * sitewhere.spi.server.lifecycle.ILifecycleProgressMonitor)
+     */
+    @Override
+    public void stop(ILifecycleProgressMonitor monitor) throws SiteWhereException {
+	super.stop(monitor);
+	if (getDeviceCache() != null) {
+	    getDeviceCache().invalidateAll();
+	}
+	if (getDeviceTypeCache() != null) {
+	    getDeviceTypeCache().invalidateAll();
+	}
+    }
+
     /*
      * (non-Javadoc)
      * 
@@ -81,7 +194,48 @@ public class BinaryCompositeDeviceEventDecoder extends CompositeDeviceEventDecod
 	this.decoderChoices = decoderChoices;
     }
 
-    private IDeviceManagement getDeviceManagement(ITenant tenant) {
-	return null;
+    public int getDeviceCacheSize() {
+	return deviceCacheSize;
+    }
+
+    public void setDeviceCacheSize(int deviceCacheSize) {
+	this.deviceCacheSize = deviceCacheSize;
+    }
+
+    public int getDeviceTypeCacheSize() {
+	return deviceTypeCacheSize;
+    }
+
+    public void setDeviceTypeCacheSize(int deviceTypeCacheSize) {
+	this.deviceTypeCacheSize = deviceTypeCacheSize;
+    }
+
+    public int getCacheTtlSeconds() {
+	return cacheTtlSeconds;
+    }
+
+    public void setCacheTtlSeconds(int cacheTtlSeconds) {
+	this.cacheTtlSeconds = cacheTtlSeconds;
+    }
+
+    protected Cache<String, IDevice> getDeviceCache() {
+	return deviceCache;
+    }
+
+    protected Cache<UUID, IDeviceType> getDeviceTypeCache() {
+	return deviceTypeCache;
+    }
+
+    protected Meter getCacheHits() {
+	return cacheHits;
+    }
+
+    protected Meter getCacheMisses() {
+	return cacheMisses;
+    }
+
+    protected IDeviceManagement getDeviceManagement() {
+	return ((IEventSourcesMicroservice) getTenantEngine().getMicroservice()).getDeviceManagementApiDemux()
+		.getApiChannel();
     }
 }
\ No newline at end of file
@@ -25,6 +25,9 @@ import com.sitewhere.spi.server.lifecycle.LifecycleComponentType;
  * Basic logic for a composite decoder. Extracts metadata from initial payload,
  * looks up device management data to build a context, then loops through a list
  * of potential decoders, returning the first one that applies to the context.
+ * Choices based on device type are resolved into a dispatch table when the
+ * decoder starts so that only choices which can apply to the device type are
+ * evaluated for each message.
  * 
  * @author Derek
  *
@@ -33,6 +36,12 @@ import com.sitewhere.spi.server.lifecycle.LifecycleComponentType;
 public abstract class CompositeDeviceEventDecoder<T> extends TenantEngineLifecycleComponent
 	implements ICompositeDeviceEventDecoder<T> {
 
+    /** Decoder choices that may apply for each configured device type token */
+    private Map<String, List<ICompositeDeviceEventDecoder.IDecoderChoice<T>>> dispatchTable = new HashMap<>();
+
+    /** Decoder choices that may apply to device types not in dispatch table */
+    private List<ICompositeDeviceEventDecoder.IDecoderChoice<T>> defaultChoices = new ArrayList<>();
+
     public CompositeDeviceEventDecoder() {
 	super(LifecycleComponentType.DeviceEventDecoder);
     }
@@ -75,8 +84,8 @@ public abstract class CompositeDeviceEventDecoder<T> extends TenantEngineLifecyc
 	    combined.put(IDeviceEventDecoder.META_DEVICE, context.getDevice());
 	    combined.put(IDeviceEventDecoder.META_DEVICE_TYPE, context.getDeviceType());
 
-	    // Loop through choices and use first one that applies.
-	    for (ICompositeDeviceEventDecoder.IDecoderChoice<T> choice : getDecoderChoices()) {
+	    // Loop through choices for device type and use first one that applies.
+	    for (ICompositeDeviceEventDecoder.IDecoderChoice<T> choice : getDecoderChoicesFor(context)) {
 
 		if (choice.appliesTo(context)) {
 		    return choice.getDeviceEventDecoder().decode(context.getPayload(), combined);
@@ -112,6 +121,50 @@ public abstract class CompositeDeviceEventDecoder<T> extends TenantEngineLifecyc
 	for (ICompositeDeviceEventDecoder.IDecoderChoice<T> choice : getDecoderChoices()) {
 	    startNestedComponent(choice, monitor, true);
 	}
+	buildDispatchTable();
+    }
+
+    /**
+     * Build table of decoder choices indexed by device type token. Each entry
+     * contains the choices for that device type plus any choices not based on
+     * device type, in their configured order.
+     */
+    protected void buildDispatchTable() {
+	Map<String, List<ICompositeDeviceEventDecoder.IDecoderChoice<T>>> table = new HashMap<>();
+	for (ICompositeDeviceEventDecoder.IDecoderChoice<T> choice : getDecoderChoices()) {
+	    if (choice instanceof DeviceTypeDecoderChoice) {
+		table.put(((DeviceTypeDecoderChoice<T>) choice).getDeviceTypeToken(), new ArrayList<>());
+	    }
+	}
+	List<ICompositeDeviceEventDecoder.IDecoderChoice<T>> defaults = new ArrayList<>();
+	for (ICompositeDeviceEventDecoder.IDecoderChoice<T> choice : getDecoderChoices()) {
+	    if (choice instanceof DeviceTypeDecoderChoice) {
+		table.get(((DeviceTypeDecoderChoice<T>) choice).getDeviceTypeToken()).add(choice);
+	    } else {
+		defaults.add(choice);
+		for (List<ICompositeDeviceEventDecoder.IDecoderChoice<T>> chain : table.values()) {
+		    chain.add(choice);
+		}
+	    }
+	}
+	this.dispatchTable = table;
+	this.defaultChoices = defaults;
+	getLogger().debug("Built composite decoder dispatch table for " + table.size() + " device types.");
+    }
+
+    /**
+     * Get decoder choices that may apply to the given context.
+     * 
+     * @param context
+     * @return
+     */
+    protected List<ICompositeDeviceEventDecoder.IDecoderChoice<T>> getDecoderChoicesFor(IDeviceContext<T> context) {
+	if (context.getDeviceType() == null) {
+	    return getDecoderChoices();
+	}
+	List<ICompositeDeviceEventDecoder.IDecoderChoice<T>> chain = dispatchTable
+		.get(context.getDeviceType().getToken());
+	return (chain != null) ? chain : defaultChoices;
     }
 
     /*
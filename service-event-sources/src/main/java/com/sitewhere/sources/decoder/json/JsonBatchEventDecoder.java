@@ -8,22 +8,16 @@
 package com.sitewhere.sources.decoder.json;
 
 import java.io.IOException;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
 import com.fasterxml.jackson.core.JsonParseException;
 import com.fasterxml.jackson.databind.JsonMappingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.sitewhere.rest.model.device.event.DeviceEventBatch;
 import com.sitewhere.server.lifecycle.TenantEngineLifecycleComponent;
-import com.sitewhere.sources.DecodedDeviceRequest;
 import com.sitewhere.sources.spi.EventDecodeException;
 import com.sitewhere.sources.spi.IDecodedDeviceRequest;
 import com.sitewhere.sources.spi.IDeviceEventDecoder;
-import com.sitewhere.spi.device.event.request.IDeviceAlertCreateRequest;
-import com.sitewhere.spi.device.event.request.IDeviceLocationCreateRequest;
-import com.sitewhere.spi.device.event.request.IDeviceMeasurementsCreateRequest;
 import com.sitewhere.spi.server.lifecycle.LifecycleComponentType;
 
 /**
@@ -32,15 +26,13 @@ import com.sitewhere.spi.server.lifecycle.LifecycleComponentType;
  * 
  * DEPRECATED: This only supports events that can be wrapped in a
  * {@link DeviceEventBatch} object and does not offer full-featured support. Use
- * {@link JsonDeviceRequestDecoder} instead.
+ * {@link JsonDeviceRequestDecoder} instead, which also supports
+ * batches of requests.
  * 
  * @author Derek
  */
 public class JsonBatchEventDecoder extends TenantEngineLifecycleComponent implements IDeviceEventDecoder<byte[]> {
 
-    /** Used to map data into an object based on JSON parsing */
-    private ObjectMapper mapper = new ObjectMapper();
-
     public JsonBatchEventDecoder() {
 	super(LifecycleComponentType.DeviceEventDecoder);
     }
@@ -55,27 +47,7 @@ public class JsonBatchEventDecoder extends TenantEngineLifecycleComponent implem
     public List<IDecodedDeviceRequest<?>> decode(byte[] payload, Map<String, Object> metadata)
 	    throws EventDecodeException {
 	try {
-	    List<IDecodedDeviceRequest<?>> events = new ArrayList<IDecodedDeviceRequest<?>>();
-	    DeviceEventBatch batch = mapper.readValue(payload, DeviceEventBatch.class);
-	    for (IDeviceLocationCreateRequest lc : batch.getLocations()) {
-		DecodedDeviceRequest<IDeviceLocationCreateRequest> decoded = new DecodedDeviceRequest<IDeviceLocationCreateRequest>();
-		decoded.setDeviceToken(batch.getHardwareId());
-		decoded.setRequest(lc);
-		events.add(decoded);
-	    }
-	    for (IDeviceMeasurementsCreateRequest mc : batch.getMeasurements()) {
-		DecodedDeviceRequest<IDeviceMeasurementsCreateRequest> decoded = new DecodedDeviceRequest<IDeviceMeasurementsCreateRequest>();
-		decoded.setDeviceToken(batch.getHardwareId());
-		decoded.setRequest(mc);
-		events.add(decoded);
-	    }
-	    for (IDeviceAlertCreateRequest ac : batch.getAlerts()) {
-		DecodedDeviceRequest<IDeviceAlertCreateRequest> decoded = new DecodedDeviceRequest<IDeviceAlertCreateRequest>();
-		decoded.setDeviceToken(batch.getHardwareId());
-		decoded.setRequest(ac);
-		events.add(decoded);
-	    }
-	    return events;
+	    return JsonDeviceRequestParser.parseEventBatch(payload);
 	} catch (JsonParseException e) {
 	    throw new EventDecodeException(e);
 	} catch (JsonMappingException e) {
@@ -8,16 +8,12 @@
 package com.sitewhere.sources.decoder.json;
 
 import java.io.IOException;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
 import com.fasterxml.jackson.core.JsonParseException;
 import com.fasterxml.jackson.databind.JsonMappingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.module.SimpleModule;
 import com.sitewhere.server.lifecycle.TenantEngineLifecycleComponent;
-import com.sitewhere.sources.DecodedDeviceRequest;
 import com.sitewhere.sources.spi.EventDecodeException;
 import com.sitewhere.sources.spi.IDecodedDeviceRequest;
 import com.sitewhere.sources.spi.IDeviceEventDecoder;
@@ -25,15 +21,13 @@ import com.sitewhere.spi.server.lifecycle.LifecycleComponentType;
 
 /**
  * Decodes binary device messages in JSON format into device requests for
- * processing.
+ * processing. A payload may hold a single request or a batch of requests. See
+ * {@link JsonDeviceRequestParser} for the supported formats.
  * 
  * @author Derek
  */
 public class JsonDeviceRequestDecoder extends TenantEngineLifecycleComponent implements IDeviceEventDecoder<byte[]> {
 
-    /** Used to map data into an object based on JSON parsing */
-    private static ObjectMapper MAPPER = getObjectMapper();
-
     public JsonDeviceRequestDecoder() {
 	super(LifecycleComponentType.DeviceEventDecoder);
     }
@@ -48,10 +42,7 @@ public class JsonDeviceRequestDecoder extends TenantEngineLifecycleComponent imp
     public List<IDecodedDeviceRequest<?>> decode(byte[] payload, Map<String, Object> metadata)
 	    throws EventDecodeException {
 	try {
-	    List<IDecodedDeviceRequest<?>> events = new ArrayList<IDecodedDeviceRequest<?>>();
-	    DecodedDeviceRequest<?> decoded = MAPPER.readValue(payload, DecodedDeviceRequest.class);
-	    events.add(decoded);
-	    return events;
+	    return JsonDeviceRequestParser.parseRequests(payload);
 	} catch (JsonParseException e) {
 	    throw new EventDecodeException(e);
 	} catch (JsonMappingException e) {
@@ -60,19 +51,4 @@ public class JsonDeviceRequestDecoder extends TenantEngineLifecycleComponent imp
 	    throw new EventDecodeException(e);
 	}
     }
-
-    /**
-     * Get configured {@link ObjectMapper}.
-     * 
-     * @return
-     */
-    public static ObjectMapper getObjectMapper() {
-	if (MAPPER == null) {
-	    MAPPER = new ObjectMapper();
-	    SimpleModule module = new SimpleModule();
-	    module.addDeserializer(DecodedDeviceRequest.class, new JsonDeviceRequestMarshaler());
-	    MAPPER.registerModule(module);
-	}
-	return MAPPER;
-    }
 }
\ No newline at end of file
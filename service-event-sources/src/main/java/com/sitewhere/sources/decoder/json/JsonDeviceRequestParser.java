@@ -0,0 +1,584 @@
+/*
+ * Copyright (c) SiteWhere, LLC. All rights reserved. http://www.sitewhere.com
+ *
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package com.sitewhere.sources.decoder.json;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import com.sitewhere.rest.model.device.communication.DeviceRequest.Type;
+import com.sitewhere.rest.model.device.event.request.DeviceAlertCreateRequest;
+import com.sitewhere.rest.model.device.event.request.DeviceCommandResponseCreateRequest;
+import com.sitewhere.rest.model.device.event.request.DeviceEventCreateRequest;
+import com.sitewhere.rest.model.device.event.request.DeviceLocationCreateRequest;
+import com.sitewhere.rest.model.device.event.request.DeviceMeasurementsCreateRequest;
+import com.sitewhere.rest.model.device.event.request.DeviceRegistrationRequest;
+import com.sitewhere.rest.model.device.event.request.DeviceStreamDataCreateRequest;
+import com.sitewhere.rest.model.device.request.DeviceMappingCreateRequest;
+import com.sitewhere.rest.model.device.request.DeviceStreamCreateRequest;
+import com.sitewhere.sources.DecodedDeviceRequest;
+import com.sitewhere.sources.spi.IDecodedDeviceRequest;
+import com.sitewhere.spi.device.event.AlertLevel;
+import com.sitewhere.spi.device.event.AlertSource;
+
+/**
+ * Decodes JSON device requests with the Jackson streaming parser, building
+ * create requests directly rather than binding to an intermediate tree. The
+ * common event types (measurements, locations and alerts) are parsed field by
+ * field. Less frequent request types are bound directly from the parser.
+ *
+ * Three payload layouts are accepted:
+ *
+ * <pre>
+ * // Single request.
+ * { "deviceToken": "123", "originator": "abc", "type": "DeviceMeasurements",
+ *   "request": { "measurements": { "temp": 20.1 } } }
+ *
+ * // Batch envelope. Each entry may override deviceToken and originator.
+ * { "deviceToken": "123",
+ *   "requests": [
+ *     { "type": "DeviceMeasurements", "request": { ... } },
+ *     { "type": "DeviceLocation", "deviceToken": "456", "request": { ... } } ] }
+ *
+ * // Array of single requests.
+ * [ { "deviceToken": "123", "type": "DeviceAlert", "request": { ... } }, ... ]
+ * </pre>
+ *
+ * "hardwareId" is accepted in place of "deviceToken" for compatibility.
+ * Unknown fields are skipped.
+ *
+ * @author Derek
+ */
+public class JsonDeviceRequestParser {
+
+    /** Mapper used for request types not parsed field by field */
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    /** Factory for streaming parsers */
+    private static final JsonFactory FACTORY = MAPPER.getFactory();
+
+    /**
+     * Parse a payload containing a single request, a batch envelope or an array
+     * of requests.
+     *
+     * @param payload
+     * @return
+     * @throws IOException
+     */
+    public static List<IDecodedDeviceRequest<?>> parseRequests(byte[] payload) throws IOException {
+	List<IDecodedDeviceRequest<?>> results = new ArrayList<IDecodedDeviceRequest<?>>();
+	try (JsonParser parser = FACTORY.createParser(payload)) {
+	    JsonToken token = parser.nextToken();
+	    if (token == JsonToken.START_ARRAY) {
+		parseRequestArray(parser, true, results);
+	    } else if (token == JsonToken.START_OBJECT) {
+		parseRequestObject(parser, true, true, results);
+	    } else {
+		throw JsonMappingException.from(parser, "Expected JSON object or array.");
+	    }
+	}
+	return results;
+    }
+
+    /**
+     * Parse a payload in the DeviceEventBatch format. Requests are returned with
+     * locations first, then measurements, then alerts.
+     *
+     * @param payload
+     * @return
+     * @throws IOException
+     */
+    public static List<IDecodedDeviceRequest<?>> parseEventBatch(byte[] payload) throws IOException {
+	String deviceToken = null;
+	List<DecodedDeviceRequest<?>> locations = new ArrayList<DecodedDeviceRequest<?>>();
+	List<DecodedDeviceRequest<?>> measurements = new ArrayList<DecodedDeviceRequest<?>>();
+	List<DecodedDeviceRequest<?>> alerts = new ArrayList<DecodedDeviceRequest<?>>();
+	try (JsonParser parser = FACTORY.createParser(payload)) {
+	    expect(parser, parser.nextToken(), JsonToken.START_OBJECT);
+	    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+		String field = parser.getCurrentName();
+		JsonToken token = parser.nextToken();
+		switch (field) {
+		case "hardwareId":
+		case "deviceToken": {
+		    deviceToken = parser.getValueAsString();
+		    break;
+		}
+		case "locations":
+		case "measurements":
+		case "alerts": {
+		    if (token == JsonToken.VALUE_NULL) {
+			break;
+		    }
+		    expect(parser, token, JsonToken.START_ARRAY);
+		    while (parser.nextToken() == JsonToken.START_OBJECT) {
+			DecodedDeviceRequest<Object> decoded = new DecodedDeviceRequest<Object>();
+			if ("locations".equals(field)) {
+			    decoded.setRequest(parseLocation(parser));
+			    locations.add(decoded);
+			} else if ("measurements".equals(field)) {
+			    decoded.setRequest(parseMeasurements(parser));
+			    measurements.add(decoded);
+			} else {
+			    decoded.setRequest(parseAlert(parser));
+			    alerts.add(decoded);
+			}
+		    }
+		    break;
+		}
+		default: {
+		    parser.skipChildren();
+		}
+		}
+	    }
+	}
+	List<IDecodedDeviceRequest<?>> results = new ArrayList<IDecodedDeviceRequest<?>>(
+		locations.size() + measurements.size() + alerts.size());
+	results.addAll(locations);
+	results.addAll(measurements);
+	results.addAll(alerts);
+	for (IDecodedDeviceRequest<?> result : results) {
+	    ((DecodedDeviceRequest<?>) result).setDeviceToken(deviceToken);
+	}
+	return results;
+    }
+
+    /**
+     * Parse an array of request objects. Parser is positioned at the start of the
+     * array.
+     *
+     * @param parser
+     * @param requireToken
+     * @param results
+     * @throws IOException
+     */
+    protected static void parseRequestArray(JsonParser parser, boolean requireToken,
+	    List<IDecodedDeviceRequest<?>> results) throws IOException {
+	JsonToken token;
+	while ((token = parser.nextToken()) == JsonToken.START_OBJECT) {
+	    parseRequestObject(parser, false, requireToken, results);
+	}
+	expect(parser, token, JsonToken.END_ARRAY);
+    }
+
+    /**
+     * Parse a request object. If nested requests are allowed, the object may be a
+     * batch envelope, in which case its device token and originator are used as
+     * defaults for the nested requests. Parser is positioned at the start of the
+     * object.
+     *
+     * @param parser
+     * @param allowNested
+     * @param requireToken
+     * @param results
+     * @throws IOException
+     */
+    protected static void parseRequestObject(JsonParser parser, boolean allowNested, boolean requireToken,
+	    List<IDecodedDeviceRequest<?>> results) throws IOException {
+	String deviceToken = null;
+	String originator = null;
+	Type type = null;
+	Object request = null;
+	TokenBuffer buffered = null;
+	List<IDecodedDeviceRequest<?>> nested = null;
+
+	while (parser.nextToken() == JsonToken.FIELD_NAME) {
+	    String field = parser.getCurrentName();
+	    JsonToken token = parser.nextToken();
+	    switch (field) {
+	    case "hardwareId":
+	    case "deviceToken": {
+		deviceToken = parser.getValueAsString();
+		break;
+	    }
+	    case "originator": {
+		originator = parser.getValueAsString();
+		break;
+	    }
+	    case "type": {
+		type = parseType(parser);
+		if (buffered != null) {
+		    JsonParser replay = buffered.asParser(parser.getCodec());
+		    replay.nextToken();
+		    request = parseRequest(replay, type);
+		    buffered = null;
+		}
+		break;
+	    }
+	    case "request": {
+		if (token == JsonToken.VALUE_NULL) {
+		    break;
+		}
+		expect(parser, token, JsonToken.START_OBJECT);
+		if (type != null) {
+		    request = parseRequest(parser, type);
+		} else {
+		    // Type not seen yet, so hold tokens until it is.
+		    buffered = new TokenBuffer(parser);
+		    buffered.copyCurrentStructure(parser);
+		}
+		break;
+	    }
+	    case "requests": {
+		if (!allowNested) {
+		    throw JsonMappingException.from(parser, "Nested batch requests are not supported.");
+		}
+		expect(parser, token, JsonToken.START_ARRAY);
+		nested = new ArrayList<IDecodedDeviceRequest<?>>();
+		parseRequestArray(parser, false, nested);
+		break;
+	    }
+	    default: {
+		parser.skipChildren();
+	    }
+	    }
+	}
+
+	// Batch envelope.
+	if (nested != null) {
+	    for (IDecodedDeviceRequest<?> current : nested) {
+		DecodedDeviceRequest<?> decoded = (DecodedDeviceRequest<?>) current;
+		if (decoded.getDeviceToken() == null) {
+		    decoded.setDeviceToken(deviceToken);
+		}
+		if (decoded.getOriginator() == null) {
+		    decoded.setOriginator(originator);
+		}
+		if (decoded.getDeviceToken() == null) {
+		    throw JsonMappingException.from(parser, "Hardware id is missing.");
+		}
+	    }
+	    results.addAll(nested);
+	    return;
+	}
+
+	// Single request.
+	if (type == null) {
+	    throw JsonMappingException.from(parser, "Event type is required.");
+	}
+	if (request == null) {
+	    throw JsonMappingException.from(parser, "Request is missing.");
+	}
+	if ((deviceToken == null) && (requireToken)) {
+	    throw JsonMappingException.from(parser, "Hardware id is missing.");
+	}
+	results.add(new DecodedDeviceRequest<Object>(deviceToken, originator, request));
+    }
+
+    /**
+     * Parse request type indicator.
+     *
+     * @param parser
+     * @return
+     * @throws IOException
+     */
+    protected static Type parseType(JsonParser parser) throws IOException {
+	String value = parser.getValueAsString();
+	if (value == null) {
+	    throw JsonMappingException.from(parser, "Event type is required.");
+	}
+	try {
+	    return Type.valueOf(value);
+	} catch (IllegalArgumentException e) {
+	    throw JsonMappingException.from(parser, "Event type is not valid.");
+	}
+    }
+
+    /**
+     * Parse request body based on type indicator. Parser is positioned at the
+     * start of the request object.
+     *
+     * @param parser
+     * @param type
+     * @return
+     * @throws IOException
+     */
+    protected static Object parseRequest(JsonParser parser, Type type) throws IOException {
+	switch (type) {
+	case DeviceMeasurements:
+	    return parseMeasurements(parser);
+	case DeviceLocation:
+	    return parseLocation(parser);
+	case DeviceAlert:
+	    return parseAlert(parser);
+	case RegisterDevice:
+	    return MAPPER.readValue(parser, DeviceRegistrationRequest.class);
+	case DeviceStream:
+	    return MAPPER.readValue(parser, DeviceStreamCreateRequest.class);
+	case DeviceStreamData:
+	    return MAPPER.readValue(parser, DeviceStreamDataCreateRequest.class);
+	case Acknowledge:
+	    return MAPPER.readValue(parser, DeviceCommandResponseCreateRequest.class);
+	case MapDevice:
+	    return MAPPER.readValue(parser, DeviceMappingCreateRequest.class);
+	default:
+	    throw JsonMappingException.from(parser, "Unhandled event type: " + type.name());
+	}
+    }
+
+    /**
+     * Parse a measurements request. Numeric values (or strings containing
+     * numbers) are added as measurements, booleans are converted to 1.0 or 0.0
+     * and other strings are added as metadata.
+     *
+     * @param parser
+     * @return
+     * @throws IOException
+     */
+    protected static DeviceMeasurementsCreateRequest parseMeasurements(JsonParser parser) throws IOException {
+	DeviceMeasurementsCreateRequest request = new DeviceMeasurementsCreateRequest();
+	Map<String, String> textual = null;
+	while (parser.nextToken() == JsonToken.FIELD_NAME) {
+	    String field = parser.getCurrentName();
+	    JsonToken token = parser.nextToken();
+	    if (parseEventField(parser, field, request)) {
+		continue;
+	    }
+	    if ("measurements".equals(field) && (token == JsonToken.START_OBJECT)) {
+		while (parser.nextToken() == JsonToken.FIELD_NAME) {
+		    String name = parser.getCurrentName();
+		    JsonToken value = parser.nextToken();
+		    switch (value) {
+		    case VALUE_NUMBER_INT:
+		    case VALUE_NUMBER_FLOAT: {
+			request.addOrReplaceMeasurement(name, parser.getDoubleValue());
+			break;
+		    }
+		    case VALUE_TRUE: {
+			request.addOrReplaceMeasurement(name, 1.0);
+			break;
+		    }
+		    case VALUE_FALSE: {
+			request.addOrReplaceMeasurement(name, 0.0);
+			break;
+		    }
+		    case VALUE_STRING: {
+			String text = parser.getText();
+			try {
+			    request.addOrReplaceMeasurement(name, Double.parseDouble(text));
+			} catch (NumberFormatException e) {
+			    if (textual == null) {
+				textual = new HashMap<String, String>();
+			    }
+			    textual.put(name, text);
+			}
+			break;
+		    }
+		    default: {
+			parser.skipChildren();
+		    }
+		    }
+		}
+	    } else {
+		parser.skipChildren();
+	    }
+	}
+	if (textual != null) {
+	    if (request.getMetadata() == null) {
+		request.setMetadata(textual);
+	    } else {
+		request.getMetadata().putAll(textual);
+	    }
+	}
+	return request;
+    }
+
+    /**
+     * Parse a location request.
+     *
+     * @param parser
+     * @return
+     * @throws IOException
+     */
+    protected static DeviceLocationCreateRequest parseLocation(JsonParser parser) throws IOException {
+	DeviceLocationCreateRequest request = new DeviceLocationCreateRequest();
+	while (parser.nextToken() == JsonToken.FIELD_NAME) {
+	    String field = parser.getCurrentName();
+	    parser.nextToken();
+	    if (parseEventField(parser, field, request)) {
+		continue;
+	    }
+	    switch (field) {
+	    case "latitude": {
+		request.setLatitude(parseDouble(parser));
+		break;
+	    }
+	    case "longitude": {
+		request.setLongitude(parseDouble(parser));
+		break;
+	    }
+	    case "elevation": {
+		request.setElevation(parseDouble(parser));
+		break;
+	    }
+	    default: {
+		parser.skipChildren();
+	    }
+	    }
+	}
+	return request;
+    }
+
+    /**
+     * Parse an alert request.
+     *
+     * @param parser
+     * @return
+     * @throws IOException
+     */
+    protected static DeviceAlertCreateRequest parseAlert(JsonParser parser) throws IOException {
+	DeviceAlertCreateRequest request = new DeviceAlertCreateRequest();
+	while (parser.nextToken() == JsonToken.FIELD_NAME) {
+	    String field = parser.getCurrentName();
+	    parser.nextToken();
+	    if (parseEventField(parser, field, request)) {
+		continue;
+	    }
+	    try {
+		switch (field) {
+		case "source": {
+		    String value = parser.getValueAsString();
+		    request.setSource((value != null) ? AlertSource.valueOf(value) : null);
+		    break;
+		}
+		case "level": {
+		    String value = parser.getValueAsString();
+		    request.setLevel((value != null) ? AlertLevel.valueOf(value) : null);
+		    break;
+		}
+		case "type": {
+		    request.setType(parser.getValueAsString());
+		    break;
+		}
+		case "message": {
+		    request.setMessage(parser.getValueAsString());
+		    break;
+		}
+		default: {
+		    parser.skipChildren();
+		}
+		}
+	    } catch (IllegalArgumentException e) {
+		throw JsonMappingException.from(parser, "Invalid value for alert field '" + field + "'.", e);
+	    }
+	}
+	return request;
+    }
+
+    /**
+     * Parse a field common to all event create requests. Returns false if the
+     * field is not a common field.
+     *
+     * @param parser
+     * @param field
+     * @param request
+     * @return
+     * @throws IOException
+     */
+    protected static boolean parseEventField(JsonParser parser, String field, DeviceEventCreateRequest request)
+	    throws IOException {
+	switch (field) {
+	case "alternateId": {
+	    request.setAlternateId(parser.getValueAsString());
+	    return true;
+	}
+	case "eventDate": {
+	    request.setEventDate(MAPPER.readValue(parser, Date.class));
+	    return true;
+	}
+	case "updateState": {
+	    request.setUpdateState(parser.getValueAsBoolean());
+	    return true;
+	}
+	case "metadata": {
+	    request.setMetadata(parseStringMap(parser));
+	    return true;
+	}
+	case "eventType": {
+	    parser.skipChildren();
+	    return true;
+	}
+	default:
+	    return false;
+	}
+    }
+
+    /**
+     * Parse an object with string values.
+     *
+     * @param parser
+     * @return
+     * @throws IOException
+     */
+    protected static Map<String, String> parseStringMap(JsonParser parser) throws IOException {
+	if (parser.getCurrentToken() == JsonToken.VALUE_NULL) {
+	    return null;
+	}
+	expect(parser, parser.getCurrentToken(), JsonToken.START_OBJECT);
+	Map<String, String> values = new HashMap<String, String>();
+	while (parser.nextToken() == JsonToken.FIELD_NAME) {
+	    String name = parser.getCurrentName();
+	    JsonToken token = parser.nextToken();
+	    if (token.isScalarValue()) {
+		values.put(name, (token == JsonToken.VALUE_NULL) ? null : parser.getText());
+	    } else {
+		parser.skipChildren();
+	    }
+	}
+	return values;
+    }
+
+    /**
+     * Parse a double value which may be passed as a number or string.
+     *
+     * @param parser
+     * @return
+     * @throws IOException
+     */
+    protected static Double parseDouble(JsonParser parser) throws IOException {
+	switch (parser.getCurrentToken()) {
+	case VALUE_NULL:
+	    return null;
+	case VALUE_NUMBER_INT:
+	case VALUE_NUMBER_FLOAT:
+	    return parser.getDoubleValue();
+	case VALUE_STRING: {
+	    try {
+		return Double.parseDouble(parser.getText());
+	    } catch (NumberFormatException e) {
+		throw JsonMappingException.from(parser, "Invalid numeric value: " + parser.getText(), e);
+	    }
+	}
+	default:
+	    throw JsonMappingException.from(parser, "Expected numeric value.");
+	}
+    }
+
+    /**
+     * Verify that the current token is the one expected.
+     *
+     * @param parser
+     * @param actual
+     * @param expected
+     * @throws IOException
+     */
+    protected static void expect(JsonParser parser, JsonToken actual, JsonToken expected) throws IOException {
+	if (actual != expected) {
+	    throw JsonMappingException.from(parser, "Expected " + expected + " but found " + actual + ".");
+	}
+    }
+}
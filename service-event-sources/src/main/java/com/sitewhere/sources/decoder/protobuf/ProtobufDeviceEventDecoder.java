@@ -28,6 +28,7 @@ import com.sitewhere.communication.protobuf.proto.Sitewhere.SiteWhere.Acknowledg
 import com.sitewhere.communication.protobuf.proto.Sitewhere.SiteWhere.DeviceStreamDataRequest;
 import com.sitewhere.communication.protobuf.proto.Sitewhere.SiteWhere.Header;
 import com.sitewhere.communication.protobuf.proto.Sitewhere.SiteWhere.RegisterDevice;
+import com.sitewhere.grpc.model.DeviceEventModel.GAnyDeviceEventCreateRequest;
 import com.sitewhere.rest.model.device.event.request.DeviceAlertCreateRequest;
 import com.sitewhere.rest.model.device.event.request.DeviceCommandResponseCreateRequest;
 import com.sitewhere.rest.model.device.event.request.DeviceLocationCreateRequest;
@@ -57,10 +58,18 @@ import com.sitewhere.spi.server.lifecycle.LifecycleComponentType;
  * Decodes a message payload that was previously encoded using the Google
  * Protocol Buffers with the SiteWhere proto.
  * 
+ * If transcoding to the Kafka model is enabled, device events are converted
+ * directly into the GRPC create requests sent on the decoded events topic
+ * rather than into API create requests. Deduplicators that inspect API create
+ * requests will not see these events.
+ * 
  * @author Derek
  */
 public class ProtobufDeviceEventDecoder extends TenantEngineLifecycleComponent implements IDeviceEventDecoder<byte[]> {
 
+    /** Indicates if events are transcoded directly to the Kafka model */
+    private boolean transcodeToKafkaModel = false;
+
     public ProtobufDeviceEventDecoder() {
 	super(LifecycleComponentType.DeviceEventDecoder);
     }
@@ -108,6 +117,11 @@ public class ProtobufDeviceEventDecoder extends TenantEngineLifecycleComponent i
 	    case SEND_ACKNOWLEDGEMENT: {
 		Acknowledge ack = Acknowledge.parseDelimitedFrom(stream);
 		getLogger().debug("Decoded acknowledge for: " + ack.getHardwareId());
+		if (isTranscodeToKafkaModel()) {
+		    results.add(new DecodedDeviceRequest<GAnyDeviceEventCreateRequest>(ack.getHardwareId(),
+			    getOriginator(header), ProtobufKafkaTranscoder.asGrpcCommandResponse(ack, header.getOriginator())));
+		    return results;
+		}
 		DeviceCommandResponseCreateRequest request = new DeviceCommandResponseCreateRequest();
 		request.setOriginatingEventId(UUID.fromString(header.getOriginator()));
 		request.setResponse(ack.getMessage());
@@ -124,6 +138,11 @@ public class ProtobufDeviceEventDecoder extends TenantEngineLifecycleComponent i
 	    case SEND_DEVICE_MEASUREMENTS: {
 		DeviceMeasurements dm = DeviceMeasurements.parseDelimitedFrom(stream);
 		getLogger().debug("Decoded measurement for: " + dm.getHardwareId());
+		if (isTranscodeToKafkaModel()) {
+		    results.add(new DecodedDeviceRequest<GAnyDeviceEventCreateRequest>(dm.getHardwareId(),
+			    getOriginator(header), ProtobufKafkaTranscoder.asGrpcMeasurements(dm)));
+		    return results;
+		}
 		DeviceMeasurementsCreateRequest request = new DeviceMeasurementsCreateRequest();
 		List<Measurement> measurements = dm.getMeasurementList();
 		for (Measurement current : measurements) {
@@ -159,6 +178,11 @@ public class ProtobufDeviceEventDecoder extends TenantEngineLifecycleComponent i
 	    case SEND_DEVICE_LOCATION: {
 		DeviceLocation location = DeviceLocation.parseDelimitedFrom(stream);
 		getLogger().debug("Decoded location for: " + location.getHardwareId());
+		if (isTranscodeToKafkaModel()) {
+		    results.add(new DecodedDeviceRequest<GAnyDeviceEventCreateRequest>(location.getHardwareId(),
+			    getOriginator(header), ProtobufKafkaTranscoder.asGrpcLocation(location)));
+		    return results;
+		}
 		DeviceLocationCreateRequest request = new DeviceLocationCreateRequest();
 		request.setLatitude(location.getLatitude());
 		request.setLongitude(location.getLongitude());
@@ -193,6 +217,11 @@ public class ProtobufDeviceEventDecoder extends TenantEngineLifecycleComponent i
 	    case SEND_DEVICE_ALERT: {
 		DeviceAlert alert = DeviceAlert.parseDelimitedFrom(stream);
 		getLogger().debug("Decoded alert for: " + alert.getHardwareId());
+		if (isTranscodeToKafkaModel()) {
+		    results.add(new DecodedDeviceRequest<GAnyDeviceEventCreateRequest>(alert.getHardwareId(),
+			    getOriginator(header), ProtobufKafkaTranscoder.asGrpcAlert(alert)));
+		    return results;
+		}
 		DeviceAlertCreateRequest request = new DeviceAlertCreateRequest();
 		request.setType(alert.getAlertType());
 		request.setMessage(alert.getAlertMessage());
@@ -250,6 +279,11 @@ public class ProtobufDeviceEventDecoder extends TenantEngineLifecycleComponent i
 	    case SEND_DEVICE_STREAM_DATA: {
 		DeviceStreamData streamData = DeviceStreamData.parseDelimitedFrom(stream);
 		getLogger().debug("Decoded stream data for: " + streamData.getHardwareId());
+		if (isTranscodeToKafkaModel()) {
+		    results.add(new DecodedDeviceRequest<GAnyDeviceEventCreateRequest>(streamData.getHardwareId(),
+			    getOriginator(header), ProtobufKafkaTranscoder.asGrpcStreamData(streamData)));
+		    return results;
+		}
 		DeviceStreamDataCreateRequest request = new DeviceStreamDataCreateRequest();
 		request.setStreamId(streamData.getStreamId());
 		request.setSequenceNumber(streamData.getSequenceNumber());
@@ -302,4 +336,22 @@ public class ProtobufDeviceEventDecoder extends TenantEngineLifecycleComponent i
 	    throw new EventDecodeException("Unable to decode protobuf message.", e);
 	}
     }
+
+    /**
+     * Get originator from header if present.
+     * 
+     * @param header
+     * @return
+     */
+    protected String getOriginator(Header header) {
+	return header.hasOriginator() ? header.getOriginator() : null;
+    }
+
+    public boolean isTranscodeToKafkaModel() {
+	return transcodeToKafkaModel;
+    }
+
+    public void setTranscodeToKafkaModel(boolean transcodeToKafkaModel) {
+	this.transcodeToKafkaModel = transcodeToKafkaModel;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,174 @@
+/*
+ * Copyright (c) SiteWhere, LLC. All rights reserved. http://www.sitewhere.com
+ *
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package com.sitewhere.sources.decoder.protobuf;
+
+import java.util.List;
+import java.util.UUID;
+
+import com.sitewhere.communication.protobuf.proto.Sitewhere.Model.DeviceAlert;
+import com.sitewhere.communication.protobuf.proto.Sitewhere.Model.DeviceLocation;
+import com.sitewhere.communication.protobuf.proto.Sitewhere.Model.DeviceMeasurements;
+import com.sitewhere.communication.protobuf.proto.Sitewhere.Model.DeviceStreamData;
+import com.sitewhere.communication.protobuf.proto.Sitewhere.Model.Measurement;
+import com.sitewhere.communication.protobuf.proto.Sitewhere.Model.Metadata;
+import com.sitewhere.communication.protobuf.proto.Sitewhere.SiteWhere.Acknowledge;
+import com.sitewhere.grpc.kafka.model.KafkaModel.GInboundEventPayload;
+import com.sitewhere.grpc.model.CommonModel.GOptionalBoolean;
+import com.sitewhere.grpc.model.CommonModel.GOptionalDouble;
+import com.sitewhere.grpc.model.CommonModel.GOptionalString;
+import com.sitewhere.grpc.model.DeviceEventModel.GAlertLevel;
+import com.sitewhere.grpc.model.DeviceEventModel.GAlertSource;
+import com.sitewhere.grpc.model.DeviceEventModel.GAnyDeviceEventCreateRequest;
+import com.sitewhere.grpc.model.DeviceEventModel.GDeviceAlertCreateRequest;
+import com.sitewhere.grpc.model.DeviceEventModel.GDeviceCommandResponseCreateRequest;
+import com.sitewhere.grpc.model.DeviceEventModel.GDeviceEventCreateRequest;
+import com.sitewhere.grpc.model.DeviceEventModel.GDeviceLocationCreateRequest;
+import com.sitewhere.grpc.model.DeviceEventModel.GDeviceMeasurementsCreateRequest;
+import com.sitewhere.grpc.model.DeviceEventModel.GDeviceStreamDataCreateRequest;
+import com.sitewhere.grpc.model.converter.CommonModelConverter;
+import com.sitewhere.sources.spi.IDecodedDeviceRequest;
+import com.sitewhere.spi.SiteWhereException;
+
+/**
+ * Transcodes SiteWhere device protobuf messages directly into the GRPC model
+ * used for Kafka payloads, bypassing the intermediate API create requests.
+ * Values are populated the same way as the API-based path in
+ * {@link ProtobufDeviceEventDecoder} followed by conversion in
+ * EventModelConverter.
+ *
+ * @author Derek
+ */
+public class ProtobufKafkaTranscoder {
+
+    /**
+     * Transcode device measurements.
+     *
+     * @param dm
+     * @return
+     */
+    public static GAnyDeviceEventCreateRequest asGrpcMeasurements(DeviceMeasurements dm) {
+	GDeviceMeasurementsCreateRequest.Builder grpc = GDeviceMeasurementsCreateRequest.newBuilder();
+	for (Measurement current : dm.getMeasurementList()) {
+	    grpc.putMeasurements(current.getMeasurementId(), current.getMeasurementValue());
+	}
+	grpc.setEvent(buildEvent(dm.hasEventDate() ? dm.getEventDate() : null, dm.hasUpdateState() && dm.getUpdateState(),
+		dm.getMetadataList()));
+	return GAnyDeviceEventCreateRequest.newBuilder().setMeasurements(grpc).build();
+    }
+
+    /**
+     * Transcode device location.
+     *
+     * @param location
+     * @return
+     */
+    public static GAnyDeviceEventCreateRequest asGrpcLocation(DeviceLocation location) {
+	GDeviceLocationCreateRequest.Builder grpc = GDeviceLocationCreateRequest.newBuilder();
+	grpc.setLatitude(GOptionalDouble.newBuilder().setValue(location.getLatitude()));
+	grpc.setLongitude(GOptionalDouble.newBuilder().setValue(location.getLongitude()));
+	grpc.setElevation(GOptionalDouble.newBuilder().setValue(location.getElevation()));
+	grpc.setEvent(buildEvent(location.hasEventDate() ? location.getEventDate() : null,
+		location.hasUpdateState() && location.getUpdateState(), location.getMetadataList()));
+	return GAnyDeviceEventCreateRequest.newBuilder().setLocation(grpc).build();
+    }
+
+    /**
+     * Transcode device alert.
+     *
+     * @param alert
+     * @return
+     */
+    public static GAnyDeviceEventCreateRequest asGrpcAlert(DeviceAlert alert) {
+	GDeviceAlertCreateRequest.Builder grpc = GDeviceAlertCreateRequest.newBuilder();
+	grpc.setSource(GAlertSource.ALERT_SOURCE_DEVICE);
+	grpc.setLevel(GAlertLevel.ALERT_LEVEL_INFO);
+	grpc.setType(alert.getAlertType());
+	grpc.setAlertMessage(alert.getAlertMessage());
+	grpc.setEvent(buildEvent(alert.hasEventDate() ? alert.getEventDate() : null,
+		alert.hasUpdateState() && alert.getUpdateState(), alert.getMetadataList()));
+	return GAnyDeviceEventCreateRequest.newBuilder().setAlert(grpc).build();
+    }
+
+    /**
+     * Transcode device stream data.
+     *
+     * @param streamData
+     * @return
+     */
+    public static GAnyDeviceEventCreateRequest asGrpcStreamData(DeviceStreamData streamData) {
+	GDeviceStreamDataCreateRequest.Builder grpc = GDeviceStreamDataCreateRequest.newBuilder();
+	grpc.setStreamId(streamData.getStreamId());
+	grpc.setSequenceNumber(streamData.getSequenceNumber());
+	grpc.setData(streamData.getData());
+	grpc.setEvent(buildEvent(streamData.hasEventDate() ? streamData.getEventDate() : null, false,
+		streamData.getMetadataList()));
+	return GAnyDeviceEventCreateRequest.newBuilder().setStreamData(grpc).build();
+    }
+
+    /**
+     * Transcode command acknowledgement into a command response.
+     *
+     * @param ack
+     * @param originator
+     * @return
+     * @throws SiteWhereException
+     */
+    public static GAnyDeviceEventCreateRequest asGrpcCommandResponse(Acknowledge ack, String originator)
+	    throws SiteWhereException {
+	GDeviceCommandResponseCreateRequest.Builder grpc = GDeviceCommandResponseCreateRequest.newBuilder();
+	grpc.setOriginatingEventId(CommonModelConverter.asGrpcUuid(UUID.fromString(originator)));
+	if (ack.hasMessage()) {
+	    grpc.setResponse(GOptionalString.newBuilder().setValue(ack.getMessage()));
+	}
+	grpc.setEvent(buildEvent(null, false, null));
+	return GAnyDeviceEventCreateRequest.newBuilder().setCommandResponse(grpc).build();
+    }
+
+    /**
+     * Build inbound event payload for a transcoded request.
+     *
+     * @param sourceId
+     * @param decoded
+     * @return
+     */
+    public static GInboundEventPayload asGrpcInboundEventPayload(String sourceId,
+	    IDecodedDeviceRequest<GAnyDeviceEventCreateRequest> decoded) {
+	GInboundEventPayload.Builder grpc = GInboundEventPayload.newBuilder();
+	grpc.setSourceId(sourceId);
+	grpc.setDeviceToken(decoded.getDeviceToken());
+	if (decoded.getOriginator() != null) {
+	    grpc.setOriginator(GOptionalString.newBuilder().setValue(decoded.getOriginator()));
+	}
+	grpc.setEvent(decoded.getRequest());
+	return grpc.build();
+    }
+
+    /**
+     * Build common event create request values. Event date defaults to current
+     * time if not specified.
+     *
+     * @param eventDate
+     * @param updateState
+     * @param metadata
+     * @return
+     */
+    protected static GDeviceEventCreateRequest buildEvent(Long eventDate, boolean updateState,
+	    List<Metadata> metadata) {
+	GDeviceEventCreateRequest.Builder grpc = GDeviceEventCreateRequest.newBuilder();
+	grpc.setEventDate((eventDate != null) ? eventDate : System.currentTimeMillis());
+	if (updateState) {
+	    grpc.setUpdateState(GOptionalBoolean.newBuilder().setValue(true));
+	}
+	if (metadata != null) {
+	    for (Metadata meta : metadata) {
+		grpc.putMetadata(meta.getName(), meta.getValue());
+	    }
+	}
+	return grpc.build();
+    }
+}
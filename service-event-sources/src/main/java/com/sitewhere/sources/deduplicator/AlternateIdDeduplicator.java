@@ -7,15 +7,26 @@
  */
 package com.sitewhere.sources.deduplicator;
 
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import com.codahale.metrics.Meter;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.BloomFilter;
+import com.google.common.hash.Funnels;
+import com.sitewhere.grpc.client.event.BlockingDeviceEventManagement;
 import com.sitewhere.server.lifecycle.TenantEngineLifecycleComponent;
 import com.sitewhere.sources.spi.IDecodedDeviceRequest;
 import com.sitewhere.sources.spi.IDeviceEventDeduplicator;
+import com.sitewhere.sources.spi.microservice.IEventSourcesMicroservice;
 import com.sitewhere.spi.SiteWhereException;
 import com.sitewhere.spi.device.IDevice;
 import com.sitewhere.spi.device.IDeviceManagement;
 import com.sitewhere.spi.device.event.IDeviceEvent;
 import com.sitewhere.spi.device.event.IDeviceEventManagement;
 import com.sitewhere.spi.device.event.request.IDeviceEventCreateRequest;
+import com.sitewhere.spi.server.lifecycle.ILifecycleProgressMonitor;
 import com.sitewhere.spi.server.lifecycle.LifecycleComponentType;
 
 /**
@@ -24,14 +35,91 @@ import com.sitewhere.spi.server.lifecycle.LifecycleComponentType;
  * datastore. If the alternate id is already present, the event is considered a
  * duplicate.
  * 
+ * To avoid a datastore lookup for every event, alternate ids seen within a
+ * time window are tracked in-process. An LRU of recent ids answers repeats
+ * directly and a Bloom filter answers ids that have definitely not been seen.
+ * Only possible hits in the Bloom filter fall through to the datastore. The
+ * filter is rotated every window so memory stays bounded, which means only
+ * duplicates arriving within roughly one to two windows of the original (and
+ * at the same event source instance) are detected.
+ * 
  * @author Derek
  */
 public class AlternateIdDeduplicator extends TenantEngineLifecycleComponent implements IDeviceEventDeduplicator {
 
+    /** Default number of alternate ids expected per window */
+    private static final int DEFAULT_EXPECTED_INSERTIONS = 1000000;
+
+    /** Default Bloom filter false positive probability */
+    private static final double DEFAULT_FALSE_POSITIVE_PROBABILITY = 0.01;
+
+    /** Default window length in seconds */
+    private static final int DEFAULT_WINDOW_SECONDS = 60 * 60;
+
+    /** Default maximum number of recent ids held in LRU */
+    private static final int DEFAULT_RECENT_CACHE_SIZE = 10000;
+
+    /** Number of alternate ids expected per window */
+    private int expectedInsertions = DEFAULT_EXPECTED_INSERTIONS;
+
+    /** Bloom filter false positive probability */
+    private double falsePositiveProbability = DEFAULT_FALSE_POSITIVE_PROBABILITY;
+
+    /** Window length in seconds */
+    private int windowSeconds = DEFAULT_WINDOW_SECONDS;
+
+    /** Maximum number of recent ids held in LRU */
+    private int recentCacheSize = DEFAULT_RECENT_CACHE_SIZE;
+
+    /** Bloom filter for current window */
+    private BloomFilter<CharSequence> currentFilter;
+
+    /** Bloom filter for previous window */
+    private BloomFilter<CharSequence> previousFilter;
+
+    /** Time current window started */
+    private long windowStart;
+
+    /** LRU of recently seen ids */
+    private Cache<String, Boolean> recent;
+
+    /** Meter for checks answered by LRU */
+    private Meter recentHits;
+
+    /** Meter for checks answered by Bloom filter */
+    private Meter filterMisses;
+
+    /** Meter for checks that required a datastore lookup */
+    private Meter storeLookups;
+
+    /** Meter for Bloom filter hits not confirmed by datastore */
+    private Meter falsePositives;
+
     public AlternateIdDeduplicator() {
 	super(LifecycleComponentType.DeviceEventDeduplicator);
     }
 
+    /*
+     * @see
+     * com.sitewhere.server.lifecycle.LifecycleComponent#initialize(com.sitewhere.
+     * spi.server.lifecycle.ILifecycleProgressMonitor)
+     */
+    @Override
+    public void initialize(ILifecycleProgressMonitor monitor) throws SiteWhereException {
+	super.initialize(monitor);
+	this.recentHits = createMeterMetric("alternateIdDeduplicator.recentHits");
+	this.filterMisses = createMeterMetric("alternateIdDeduplicator.filterMisses");
+	this.storeLookups = createMeterMetric("alternateIdDeduplicator.storeLookups");
+	this.falsePositives = createMeterMetric("alternateIdDeduplicator.falsePositives");
+	this.recent = CacheBuilder.newBuilder().maximumSize(getRecentCacheSize())
+		.expireAfterWrite(getWindowSeconds(), TimeUnit.SECONDS).build();
+	synchronized (this) {
+	    this.currentFilter = createFilter();
+	    this.previousFilter = null;
+	    this.windowStart = System.currentTimeMillis();
+	}
+    }
+
     /*
      * (non-Javadoc)
      * 
@@ -44,24 +132,105 @@ public class AlternateIdDeduplicator extends TenantEngineLifecycleComponent impl
 	    IDeviceEventCreateRequest createRequest = (IDeviceEventCreateRequest) request.getRequest();
 	    String alternateId = createRequest.getAlternateId();
 	    if (alternateId != null) {
+		String key = request.getDeviceToken() + ":" + alternateId;
+		if (recent.getIfPresent(key) != null) {
+		    recentHits.mark();
+		    getLogger().info("Found recent event with same alternate id. Will be treated as duplicate.");
+		    return true;
+		}
+		if (!checkAndRecord(key)) {
+		    filterMisses.mark();
+		    recent.put(key, Boolean.TRUE);
+		    return false;
+		}
+
+		// Possible hit in filter, so confirm against datastore.
+		storeLookups.mark();
 		IDevice device = getDeviceManagement().getDeviceByToken(request.getDeviceToken());
 		IDeviceEvent existing = getDeviceEventManagement().getDeviceEventByAlternateId(device.getId(),
 			alternateId);
+		recent.put(key, Boolean.TRUE);
 		if (existing != null) {
 		    getLogger().info("Found event with same alternate id. Will be treated as duplicate.");
 		    return true;
 		}
+		falsePositives.mark();
 		return false;
 	    }
 	}
 	return false;
     }
 
+    /**
+     * Check whether key may have been seen in the current or previous window,
+     * then record it in the current window.
+     * 
+     * @param key
+     * @return
+     */
+    protected synchronized boolean checkAndRecord(String key) {
+	long now = System.currentTimeMillis();
+	if ((now - windowStart) >= TimeUnit.SECONDS.toMillis(getWindowSeconds())) {
+	    previousFilter = currentFilter;
+	    currentFilter = createFilter();
+	    windowStart = now;
+	}
+	boolean possible = currentFilter.mightContain(key)
+		|| ((previousFilter != null) && (previousFilter.mightContain(key)));
+	currentFilter.put(key);
+	return possible;
+    }
+
+    /**
+     * Create a Bloom filter sized for a single window.
+     * 
+     * @return
+     */
+    protected BloomFilter<CharSequence> createFilter() {
+	return BloomFilter.create(Funnels.stringFunnel(StandardCharsets.UTF_8), getExpectedInsertions(),
+		getFalsePositiveProbability());
+    }
+
     private IDeviceManagement getDeviceManagement() {
-	return null;
+	return ((IEventSourcesMicroservice) getTenantEngine().getMicroservice()).getDeviceManagementApiDemux()
+		.getApiChannel();
     }
 
     private IDeviceEventManagement getDeviceEventManagement() {
-	return null;
+	return new BlockingDeviceEventManagement(
+		((IEventSourcesMicroservice) getTenantEngine().getMicroservice()).getDeviceEventManagementApiDemux()
+			.getApiChannel());
+    }
+
+    public int getExpectedInsertions() {
+	return expectedInsertions;
+    }
+
+    public void setExpectedInsertions(int expectedInsertions) {
+	this.expectedInsertions = expectedInsertions;
+    }
+
+    public double getFalsePositiveProbability() {
+	return falsePositiveProbability;
+    }
+
+    public void setFalsePositiveProbability(double falsePositiveProbability) {
+	this.falsePositiveProbability = falsePositiveProbability;
+    }
+
+    public int getWindowSeconds() {
+	return windowSeconds;
+    }
+
+    public void setWindowSeconds(int windowSeconds) {
+	this.windowSeconds = windowSeconds;
+    }
+
+    public int getRecentCacheSize() {
+	return recentCacheSize;
+    }
+
+    public void setRecentCacheSize(int recentCacheSize) {
+	this.recentCacheSize = recentCacheSize;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright (c) SiteWhere, LLC. All rights reserved. http://www.sitewhere.com
+ *
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package com.sitewhere.sources.kafka;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.kafka.clients.producer.Callback;
+import org.apache.kafka.clients.producer.RecordMetadata;
+
+import com.sitewhere.sources.spi.IInboundEventSource;
+
+/**
+ * Tracks delivery of a decoded event sent to Kafka on behalf of an
+ * {@link IInboundEventSource}. The send is counted as in flight from creation
+ * until the producer reports completion, at which point latency or failure is
+ * recorded against the source.
+ * 
+ * @author Derek
+ */
+public class DecodedEventSendCallback implements Callback {
+
+    /** Event source that produced the event */
+    private IInboundEventSource<?> eventSource;
+
+    /** Time send was started */
+    private long startTime;
+
+    public DecodedEventSendCallback(IInboundEventSource<?> eventSource) {
+	this.eventSource = eventSource;
+	this.startTime = System.nanoTime();
+	eventSource.getInFlightSends().inc();
+    }
+
+    /*
+     * @see
+     * org.apache.kafka.clients.producer.Callback#onCompletion(org.apache.kafka.
+     * clients.producer.RecordMetadata, java.lang.Exception)
+     */
+    @Override
+    public void onCompletion(RecordMetadata metadata, Exception e) {
+	eventSource.getInFlightSends().dec();
+	if (e != null) {
+	    eventSource.getSendFailures().mark();
+	    eventSource.getLogger().error("Unable to deliver decoded event from source '" + eventSource.getSourceId()
+		    + "' to Kafka.", e);
+	} else {
+	    eventSource.getSendLatency().update(System.nanoTime() - startTime, TimeUnit.NANOSECONDS);
+	}
+    }
+}
@@ -7,17 +7,44 @@
  */
 package com.sitewhere.sources.kafka;
 
+import java.util.Properties;
+
+import org.apache.kafka.clients.producer.ProducerConfig;
+
 import com.sitewhere.microservice.kafka.MicroserviceKafkaProducer;
 import com.sitewhere.spi.SiteWhereException;
 
 /**
  * Kafka producer for a stream of decoded events produced by all event sources
- * for a tenant.
+ * for a tenant. Unlike most producers, this one is tuned for throughput since
+ * it carries every event received by the system. Records are held briefly so
+ * they can be sent in larger, compressed batches.
  * 
  * @author Derek
  */
 public class DecodedEventsProducer extends MicroserviceKafkaProducer {
 
+    /** Default time in milliseconds records are held to fill a batch */
+    public static final int DEFAULT_LINGER_MS = 5;
+
+    /** Default maximum batch size in bytes per partition */
+    public static final int DEFAULT_BATCH_SIZE = 64 * 1024;
+
+    /** Default compression applied to batches */
+    public static final String DEFAULT_COMPRESSION_TYPE = "lz4";
+
+    /** Time in milliseconds records are held to fill a batch */
+    private int lingerMs = DEFAULT_LINGER_MS;
+
+    /** Maximum batch size in bytes per partition */
+    private int batchSize = DEFAULT_BATCH_SIZE;
+
+    /** Compression applied to batches */
+    private String compressionType = DEFAULT_COMPRESSION_TYPE;
+
+    /** Indicates whether retries should avoid duplicating records */
+    private boolean idempotent = true;
+
     /*
      * @see com.sitewhere.spi.microservice.kafka.IMicroserviceKafkaProducer#
      * getTargetTopicName()
@@ -26,4 +53,57 @@ public class DecodedEventsProducer extends MicroserviceKafkaProducer {
     public String getTargetTopicName() throws SiteWhereException {
 	return getMicroservice().getKafkaTopicNaming().getEventSourceDecodedEventsTopic(getTenantEngine().getTenant());
     }
-}
\ No newline at end of file
+
+    /*
+     * @see
+     * com.sitewhere.microservice.kafka.MicroserviceKafkaProducer#buildConfiguration
+     * ()
+     */
+    @Override
+    protected Properties buildConfiguration() throws SiteWhereException {
+	Properties config = super.buildConfiguration();
+	config.put(ProducerConfig.LINGER_MS_CONFIG, getLingerMs());
+	config.put(ProducerConfig.BATCH_SIZE_CONFIG, getBatchSize());
+	config.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, getCompressionType());
+	if (isIdempotent()) {
+	    // Kafka 0.11 requires a single in-flight request for idempotence.
+	    config.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+	    config.put(ProducerConfig.ACKS_CONFIG, "all");
+	    config.put(ProducerConfig.RETRIES_CONFIG, Integer.MAX_VALUE);
+	    config.put(ProducerConfig.MAX_IN_FLIGHT_REQUESTS_PER_CONNECTION, 1);
+	}
+	return config;
+    }
+
+    public int getLingerMs() {
+	return lingerMs;
+    }
+
+    public void setLingerMs(int lingerMs) {
+	this.lingerMs = lingerMs;
+    }
+
+    public int getBatchSize() {
+	return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+	this.batchSize = batchSize;
+    }
+
+    public String getCompressionType() {
+	return compressionType;
+    }
+
+    public void setCompressionType(String compressionType) {
+	this.compressionType = compressionType;
+    }
+
+    public boolean isIdempotent() {
+	return idempotent;
+    }
+
+    public void setIdempotent(boolean idempotent) {
+	this.idempotent = idempotent;
+    }
+}
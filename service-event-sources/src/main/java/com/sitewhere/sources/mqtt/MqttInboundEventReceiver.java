@@ -9,6 +9,8 @@ package com.sitewhere.sources.mqtt;
 
 import java.io.EOFException;
 import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ThreadFactory;
@@ -34,6 +36,18 @@ import com.sitewhere.spi.server.lifecycle.LifecycleComponentType;
  * Implementation of {@link IInboundEventReceiver} that subscribes to an MQTT
  * topic and pulls the message contents into SiteWhere for processing.
  * 
+ * Received messages are held in a bounded queue until a processing thread is
+ * available. When the queue is full, the subscription thread stops receiving
+ * from the broker connection until space is available, so a slow downstream
+ * stage pushes back on the broker rather than growing the heap. Messages are
+ * acknowledged after processing, which also limits unacknowledged messages
+ * in flight for QoS 1 and 2.
+ * 
+ * If a shared subscription group is configured, the receiver subscribes to
+ * '$share/{group}/{topic}' so that replicas using the same group split the
+ * messages for the topic rather than each receiving a copy. This requires a
+ * broker with shared subscription support.
+ * 
  * @author Derek
  */
 public class MqttInboundEventReceiver extends MqttLifecycleComponent implements IInboundEventReceiver<byte[]> {
@@ -44,6 +58,12 @@ public class MqttInboundEventReceiver extends MqttLifecycleComponent implements
     /** Number of threads used for processing events */
     public static final int DEFAULT_NUM_THREADS = 5;
 
+    /** Default number of messages queued for processing */
+    public static final int DEFAULT_QUEUE_SIZE = 1000;
+
+    /** Prefix used for shared subscription topics */
+    private static final String SHARED_SUBSCRIPTION_PREFIX = "$share/";
+
     /** MQTT Topic Quality of Service */
     public static final QoS DEFAULT_QoS = QoS.AT_LEAST_ONCE;
 
@@ -56,6 +76,15 @@ public class MqttInboundEventReceiver extends MqttLifecycleComponent implements
     /** Number of threads used for processing */
     private int numThreads = DEFAULT_NUM_THREADS;
 
+    /** Number of messages queued for processing */
+    private int queueSize = DEFAULT_QUEUE_SIZE;
+
+    /** Group used for shared subscription (null if not shared) */
+    private String sharedSubscriptionGroup;
+
+    /** Messages waiting to be processed */
+    private BlockingQueue<Message> messages;
+
     /** Shared MQTT connection */
     private FutureConnection connection;
 
@@ -68,6 +97,9 @@ public class MqttInboundEventReceiver extends MqttLifecycleComponent implements
     /** Meter for counting received events */
     private Meter receivedEvents;
 
+    /** Meter for counting messages that had to wait for queue space */
+    private Meter queueFullEvents;
+
     public MqttInboundEventReceiver() {
 	super(LifecycleComponentType.InboundEventReceiver);
     }
@@ -83,11 +115,13 @@ public class MqttInboundEventReceiver extends MqttLifecycleComponent implements
     public void start(ILifecycleProgressMonitor monitor) throws SiteWhereException {
 	super.start(monitor);
 
+	this.messages = new ArrayBlockingQueue<Message>(getQueueSize());
 	this.subscriptionExecutor = Executors.newSingleThreadExecutor(new SubscribersThreadFactory());
 	this.processorsExecutor = Executors.newFixedThreadPool(getNumThreads(), new ProcessorsThreadFactory());
 
 	// Set up metrics.
 	this.receivedEvents = createMeterMetric(getMetricPrefix() + "receivedEvents");
+	this.queueFullEvents = createMeterMetric(getMetricPrefix() + "queueFullEvents");
 
 	getLogger().info("Receiver connecting to MQTT broker at '" + getBrokerInfo() + "'...");
 	connection = getConnection();
@@ -97,20 +131,37 @@ public class MqttInboundEventReceiver extends MqttLifecycleComponent implements
 	QoS qos = qosFromConfig(getQos());
 
 	// Subscribe to chosen topic.
-	Topic[] topics = { new Topic(getTopic(), qos) };
+	String subscription = getSubscriptionTopic();
+	Topic[] topics = { new Topic(subscription, qos) };
 	try {
 	    Future<byte[]> future = connection.subscribe(topics);
 	    future.await();
 
-	    getLogger().info(EventSourcesMessages.SUBSCRIBED_TO_EVENTS_MQTT, getTopic(), getNumThreads());
+	    getLogger().info(EventSourcesMessages.SUBSCRIBED_TO_EVENTS_MQTT, subscription, getNumThreads());
 	} catch (Exception e) {
-	    throw new SiteWhereException("Exception while attempting to subscribe to MQTT topic: " + getTopic(), e);
+	    throw new SiteWhereException("Exception while attempting to subscribe to MQTT topic: " + subscription, e);
 	}
 
-	// Handle message processing in separate thread.
+	// Start processors, then handle message receipt in separate thread.
+	for (int i = 0; i < getNumThreads(); i++) {
+	    processorsExecutor.execute(new MqttPayloadProcessor());
+	}
 	subscriptionExecutor.execute(new MqttSubscriptionProcessor());
     }
 
+    /**
+     * Get topic used for subscription, taking shared subscription group into
+     * account.
+     * 
+     * @return
+     */
+    protected String getSubscriptionTopic() {
+	if ((getSharedSubscriptionGroup() == null) || (getSharedSubscriptionGroup().trim().length() == 0)) {
+	    return getTopic();
+	}
+	return SHARED_SUBSCRIPTION_PREFIX + getSharedSubscriptionGroup().trim() + "/" + getTopic();
+    }
+
     /**
      * Transform configuration to MQTT QoS
      * 
@@ -159,7 +210,8 @@ public class MqttInboundEventReceiver extends MqttLifecycleComponent implements
 
     /**
      * Pulls messages from the MQTT topic and puts them on the queue for this
-     * receiver.
+     * receiver. Blocks while the queue is full, which stops reads from the broker
+     * connection until processors catch up.
      * 
      * @author Derek
      */
@@ -172,7 +224,10 @@ public class MqttInboundEventReceiver extends MqttLifecycleComponent implements
 		try {
 		    Future<Message> future = connection.receive();
 		    Message message = future.await();
-		    processorsExecutor.execute(new MqttPayloadProcessor(message));
+		    if (!messages.offer(message)) {
+			queueFullEvents.mark();
+			messages.put(message);
+		    }
 		} catch (EOFException e) {
 		    getLogger().error("Connection terminated by remote. Subscription processor terminating.", e);
 		    return;
@@ -187,28 +242,29 @@ public class MqttInboundEventReceiver extends MqttLifecycleComponent implements
     }
 
     /**
-     * Processes MQTT message payloads in a separate thread.
+     * Takes MQTT messages from the queue and processes their payloads.
      * 
      * @author Derek
      */
     private class MqttPayloadProcessor implements Runnable {
 
-	/** MQTT message */
-	private Message message;
-
-	public MqttPayloadProcessor(Message message) {
-	    this.message = message;
-	}
-
 	@Override
 	public void run() {
-	    try {
-		getReceivedEvents().mark();
-		byte[] payload = message.getPayload();
-		getEventSource().onEncodedEventReceived(MqttInboundEventReceiver.this, payload, null);
-		message.ack();
-	    } catch (Throwable e) {
-		getLogger().error("Error in MQTT processing.", e);
+	    while (true) {
+		Message message;
+		try {
+		    message = messages.take();
+		} catch (InterruptedException e) {
+		    return;
+		}
+		try {
+		    getReceivedEvents().mark();
+		    byte[] payload = message.getPayload();
+		    getEventSource().onEncodedEventReceived(MqttInboundEventReceiver.this, payload, null);
+		    message.ack();
+		} catch (Throwable e) {
+		    getLogger().error("Error in MQTT processing.", e);
+		}
 	    }
 	}
     }
@@ -276,6 +332,22 @@ public class MqttInboundEventReceiver extends MqttLifecycleComponent implements
 	this.numThreads = numThreads;
     }
 
+    public int getQueueSize() {
+	return queueSize;
+    }
+
+    public void setQueueSize(int queueSize) {
+	this.queueSize = queueSize;
+    }
+
+    public String getSharedSubscriptionGroup() {
+	return sharedSubscriptionGroup;
+    }
+
+    public void setSharedSubscriptionGroup(String sharedSubscriptionGroup) {
+	this.sharedSubscriptionGroup = sharedSubscriptionGroup;
+    }
+
     protected Meter getReceivedEvents() {
 	return receivedEvents;
     }
@@ -0,0 +1,21 @@
+/*
+ * Copyright (c) SiteWhere, LLC. All rights reserved. http://www.sitewhere.com
+ *
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package com.sitewhere.sources.socket;
+
+/**
+ * Implementation of {@link NioSocketInboundEventReceiver} that produces binary
+ * data.
+ * 
+ * @author Derek
+ */
+public class BinaryNioSocketInboundEventReceiver extends NioSocketInboundEventReceiver<byte[]> {
+
+    public BinaryNioSocketInboundEventReceiver() {
+	setHandlerFactory(new ReadAllInteractionHandler.Factory());
+    }
+}
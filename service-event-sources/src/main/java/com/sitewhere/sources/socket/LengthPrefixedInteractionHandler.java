@@ -0,0 +1,151 @@
+/*
+ * Copyright (c) SiteWhere, LLC. All rights reserved. http://www.sitewhere.com
+ *
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package com.sitewhere.sources.socket;
+
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+
+import com.sitewhere.server.lifecycle.LifecycleComponent;
+import com.sitewhere.server.lifecycle.TenantEngineLifecycleComponent;
+import com.sitewhere.sources.spi.IInboundEventReceiver;
+import com.sitewhere.sources.spi.socket.INonBlockingSocketInteractionHandler;
+import com.sitewhere.sources.spi.socket.ISocketInteractionHandler;
+import com.sitewhere.sources.spi.socket.ISocketInteractionHandlerFactory;
+import com.sitewhere.spi.SiteWhereException;
+import com.sitewhere.spi.server.lifecycle.LifecycleComponentType;
+
+/**
+ * Implementation of {@link ISocketInteractionHandler} for persistent
+ * connections where each payload is preceded by a four byte, big-endian length
+ * header. Each payload is sent to the parent event source as it is received.
+ * Frames with a declared length above the configured maximum are rejected and
+ * the connection is closed.
+ *
+ * @author Derek
+ */
+public class LengthPrefixedInteractionHandler extends TenantEngineLifecycleComponent
+	implements INonBlockingSocketInteractionHandler<byte[]> {
+
+    /** Size of length header in bytes */
+    private static final int HEADER_SIZE = 4;
+
+    /** Default maximum payload length in bytes */
+    public static final int DEFAULT_MAX_FRAME_LENGTH = 1024 * 1024;
+
+    /** Maximum payload length in bytes */
+    private int maxFrameLength = DEFAULT_MAX_FRAME_LENGTH;
+
+    /*
+     * @see
+     * com.sitewhere.sources.spi.socket.ISocketInteractionHandler#process(java.net.
+     * Socket, com.sitewhere.sources.spi.IInboundEventReceiver)
+     */
+    @Override
+    public void process(Socket socket, IInboundEventReceiver<byte[]> receiver) throws SiteWhereException {
+	try (DataInputStream input = new DataInputStream(socket.getInputStream())) {
+	    while (true) {
+		int length;
+		try {
+		    length = input.readInt();
+		} catch (EOFException e) {
+		    return;
+		}
+		assertValidLength(length);
+		byte[] payload = new byte[length];
+		input.readFully(payload);
+		receiver.onEventPayloadReceived(payload, null);
+	    }
+	} catch (IOException e) {
+	    throw new SiteWhereException("Exception processing request in socket interaction handler.", e);
+	}
+    }
+
+    /*
+     * @see com.sitewhere.sources.spi.socket.INonBlockingSocketInteractionHandler#
+     * processData(java.nio.ByteBuffer, boolean,
+     * com.sitewhere.sources.spi.IInboundEventReceiver)
+     */
+    @Override
+    public void processData(ByteBuffer buffer, boolean endOfStream, IInboundEventReceiver<byte[]> receiver)
+	    throws SiteWhereException {
+	while (buffer.remaining() >= HEADER_SIZE) {
+	    int length = buffer.getInt(buffer.position());
+	    assertValidLength(length);
+	    if (buffer.remaining() < HEADER_SIZE + length) {
+		return;
+	    }
+	    buffer.position(buffer.position() + HEADER_SIZE);
+	    byte[] payload = new byte[length];
+	    buffer.get(payload);
+	    receiver.onEventPayloadReceived(payload, null);
+	}
+    }
+
+    /**
+     * Verify that a length read from a frame header is usable before allocating
+     * space for the payload.
+     * 
+     * @param length
+     * @throws SiteWhereException
+     */
+    protected void assertValidLength(int length) throws SiteWhereException {
+	if (length < 0) {
+	    throw new SiteWhereException("Invalid payload length received on socket: " + length);
+	}
+	if (length > getMaxFrameLength()) {
+	    throw new SiteWhereException("Payload length " + length + " received on socket exceeds maximum of "
+		    + getMaxFrameLength() + " bytes.");
+	}
+    }
+
+    public int getMaxFrameLength() {
+	return maxFrameLength;
+    }
+
+    public void setMaxFrameLength(int maxFrameLength) {
+	this.maxFrameLength = maxFrameLength;
+    }
+
+    /**
+     * Factory class that produces {@link LengthPrefixedInteractionHandler}
+     * instances.
+     *
+     * @author Derek
+     */
+    public static class Factory extends LifecycleComponent implements ISocketInteractionHandlerFactory<byte[]> {
+
+	/** Maximum payload length in bytes */
+	private int maxFrameLength = DEFAULT_MAX_FRAME_LENGTH;
+
+	public Factory() {
+	    super(LifecycleComponentType.Other);
+	}
+
+	/*
+	 * @see com.sitewhere.sources.spi.socket.ISocketInteractionHandlerFactory#
+	 * newInstance()
+	 */
+	@Override
+	public ISocketInteractionHandler<byte[]> newInstance() {
+	    LengthPrefixedInteractionHandler handler = new LengthPrefixedInteractionHandler();
+	    handler.setMaxFrameLength(getMaxFrameLength());
+	    return handler;
+	}
+
+	public int getMaxFrameLength() {
+	    return maxFrameLength;
+	}
+
+	public void setMaxFrameLength(int maxFrameLength) {
+	    this.maxFrameLength = maxFrameLength;
+	}
+    }
+}
@@ -0,0 +1,399 @@
+/*
+ * Copyright (c) SiteWhere, LLC. All rights reserved. http://www.sitewhere.com
+ *
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package com.sitewhere.sources.socket;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.sitewhere.sources.InboundEventReceiver;
+import com.sitewhere.sources.spi.IInboundEventReceiver;
+import com.sitewhere.sources.spi.socket.INonBlockingSocketInteractionHandler;
+import com.sitewhere.sources.spi.socket.ISocketInteractionHandler;
+import com.sitewhere.sources.spi.socket.ISocketInteractionHandlerFactory;
+import com.sitewhere.spi.SiteWhereException;
+import com.sitewhere.spi.server.lifecycle.ILifecycleProgressMonitor;
+
+/**
+ * Implementation of {@link IInboundEventReceiver} that accepts connections on a
+ * non-blocking server socket and services them from a small number of selector
+ * threads rather than a thread per connection. Framing is delegated to
+ * {@link INonBlockingSocketInteractionHandler} instances created per
+ * connection. Each connection has a fixed-size read buffer, so a frame larger
+ * than the buffer causes the connection to be closed.
+ *
+ * @author Derek
+ */
+public class NioSocketInboundEventReceiver<T> extends InboundEventReceiver<T> {
+
+    /** Default number of selector threads used to service connections */
+    private static final int DEFAULT_NUM_THREADS = 2;
+
+    /** Default port for server socket */
+    private static final int DEFAULT_PORT = 8484;
+
+    /** Default size of per-connection read buffer */
+    private static final int DEFAULT_READ_BUFFER_SIZE = 64 * 1024;
+
+    /** Number of selector threads used to service connections */
+    private int numThreads = DEFAULT_NUM_THREADS;
+
+    /** Port used for server socket */
+    private int port = DEFAULT_PORT;
+
+    /** Size of per-connection read buffer */
+    private int readBufferSize = DEFAULT_READ_BUFFER_SIZE;
+
+    /** Factory that produces {@link ISocketInteractionHandler} instances */
+    private ISocketInteractionHandlerFactory<T> handlerFactory;
+
+    /** Server socket channel */
+    private ServerSocketChannel server;
+
+    /** Selector used for accepting connections */
+    private Selector acceptSelector;
+
+    /** Loops that service accepted connections */
+    private List<ConnectionLoop> loops = new ArrayList<>();
+
+    /** Pool of selector threads */
+    private ExecutorService pool;
+
+    /*
+     * @see
+     * com.sitewhere.server.lifecycle.LifecycleComponent#start(com.sitewhere.spi.
+     * server.lifecycle.ILifecycleProgressMonitor)
+     */
+    @Override
+    public void start(ILifecycleProgressMonitor monitor) throws SiteWhereException {
+	// Verify handler factory is set and supports non-blocking mode.
+	if (getHandlerFactory() == null) {
+	    throw new SiteWhereException("No socket interaction handler factory configured for socket event source.");
+	}
+	startNestedComponent(getHandlerFactory(), monitor, true);
+	if (!(getHandlerFactory().newInstance() instanceof INonBlockingSocketInteractionHandler)) {
+	    throw new SiteWhereException(
+		    "Socket interaction handler does not support non-blocking processing. Disable non-blocking mode.");
+	}
+
+	try {
+	    getLogger().info("Receiver creating non-blocking server socket on port " + getPort() + ".");
+	    this.acceptSelector = Selector.open();
+	    this.server = ServerSocketChannel.open();
+	    server.configureBlocking(false);
+	    server.bind(new InetSocketAddress(getPort()));
+	    server.register(acceptSelector, SelectionKey.OP_ACCEPT);
+
+	    this.pool = Executors.newFixedThreadPool(getNumThreads() + 1, new SelectorsThreadFactory());
+	    loops.clear();
+	    for (int i = 0; i < getNumThreads(); i++) {
+		ConnectionLoop loop = new ConnectionLoop(Selector.open());
+		loops.add(loop);
+		pool.execute(loop);
+	    }
+	    pool.execute(new AcceptLoop());
+	    getLogger().info("Socket receiver started with " + getNumThreads() + " selector threads.");
+	} catch (IOException e) {
+	    throw new SiteWhereException("Unable to bind server socket for event receiver.", e);
+	}
+    }
+
+    /*
+     * @see com.sitewhere.sources.InboundEventReceiver#getDisplayName()
+     */
+    @Override
+    public String getDisplayName() {
+	return "nio:" + getPort();
+    }
+
+    /*
+     * @see
+     * com.sitewhere.server.lifecycle.LifecycleComponent#stop(com.sitewhere.spi.
+     * server.lifecycle.ILifecycleProgressMonitor)
+     */
+    @Override
+    public void stop(ILifecycleProgressMonitor monitor) throws SiteWhereException {
+	try {
+	    if (server != null) {
+		server.close();
+	    }
+	    if (acceptSelector != null) {
+		acceptSelector.close();
+	    }
+	    for (ConnectionLoop loop : loops) {
+		loop.close();
+	    }
+	    loops.clear();
+	} catch (IOException e) {
+	    throw new SiteWhereException("Error shutting down server socket for event receiver.", e);
+	} finally {
+	    if (pool != null) {
+		pool.shutdownNow();
+	    }
+	}
+	if (getHandlerFactory() != null) {
+	    getHandlerFactory().stop(monitor);
+	}
+
+	getLogger().info("Socket receiver processing stopped.");
+    }
+
+    /**
+     * Accepts new connections and distributes them across connection loops.
+     *
+     * @author Derek
+     */
+    private class AcceptLoop implements Runnable {
+
+	@Override
+	public void run() {
+	    int next = 0;
+	    while (acceptSelector.isOpen()) {
+		try {
+		    acceptSelector.select();
+		    Iterator<SelectionKey> keys = acceptSelector.selectedKeys().iterator();
+		    while (keys.hasNext()) {
+			SelectionKey key = keys.next();
+			keys.remove();
+			if (key.isValid() && key.isAcceptable()) {
+			    SocketChannel channel = server.accept();
+			    if (channel != null) {
+				channel.configureBlocking(false);
+				loops.get(next).register(channel);
+				next = (next + 1) % loops.size();
+			    }
+			}
+		    }
+		} catch (ClosedSelectorException e) {
+		    return;
+		} catch (IOException e) {
+		    if (server.isOpen()) {
+			getLogger().error("Exception while accepting connection in event receiver server socket.", e);
+		    }
+		}
+	    }
+	}
+    }
+
+    /**
+     * Services reads for a subset of connections using a single selector.
+     *
+     * @author Derek
+     */
+    private class ConnectionLoop implements Runnable {
+
+	/** Selector for connections handled by this loop */
+	private Selector selector;
+
+	/** Channels waiting to be registered with the selector */
+	private Queue<SocketChannel> pending = new ConcurrentLinkedQueue<>();
+
+	public ConnectionLoop(Selector selector) {
+	    this.selector = selector;
+	}
+
+	/**
+	 * Queue a channel for registration and wake selector so it is picked up.
+	 *
+	 * @param channel
+	 */
+	public void register(SocketChannel channel) {
+	    pending.add(channel);
+	    selector.wakeup();
+	}
+
+	@Override
+	public void run() {
+	    while (selector.isOpen()) {
+		try {
+		    selector.select();
+		    registerPending();
+		    Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+		    while (keys.hasNext()) {
+			SelectionKey key = keys.next();
+			keys.remove();
+			if (key.isValid() && key.isReadable()) {
+			    read(key);
+			}
+		    }
+		} catch (ClosedSelectorException e) {
+		    return;
+		} catch (IOException e) {
+		    getLogger().error("Exception in socket receiver selector loop.", e);
+		}
+	    }
+	}
+
+	/**
+	 * Register channels accepted since last select.
+	 *
+	 * @throws IOException
+	 */
+	@SuppressWarnings("unchecked")
+	protected void registerPending() throws IOException {
+	    SocketChannel channel;
+	    while ((channel = pending.poll()) != null) {
+		Connection connection = new Connection(channel,
+			(INonBlockingSocketInteractionHandler<T>) getHandlerFactory().newInstance());
+		channel.register(selector, SelectionKey.OP_READ, connection);
+	    }
+	}
+
+	/**
+	 * Read available data for a connection and pass it to the handler.
+	 *
+	 * @param key
+	 */
+	protected void read(SelectionKey key) {
+	    Connection connection = (Connection) key.attachment();
+	    ByteBuffer buffer = connection.getBuffer();
+	    try {
+		int count = connection.getChannel().read(buffer);
+		boolean eos = (count == -1);
+		buffer.flip();
+		int before = buffer.remaining();
+		connection.getHandler().processData(buffer, eos, NioSocketInboundEventReceiver.this);
+		boolean full = (before == buffer.capacity()) && (buffer.remaining() == before);
+		buffer.compact();
+		if (eos) {
+		    close(key);
+		} else if (full) {
+		    getLogger().warn("Frame exceeded read buffer size of " + getReadBufferSize()
+			    + " bytes. Closing connection.");
+		    close(key);
+		}
+	    } catch (IOException e) {
+		getLogger().debug("Socket connection closed with error: " + e.getMessage());
+		close(key);
+	    } catch (SiteWhereException e) {
+		getLogger().error("Exception processing data in event receiver socket.", e);
+		close(key);
+	    }
+	}
+
+	/**
+	 * Close connection associated with a key.
+	 *
+	 * @param key
+	 */
+	protected void close(SelectionKey key) {
+	    key.cancel();
+	    try {
+		key.channel().close();
+	    } catch (IOException e) {
+		getLogger().debug("Error closing socket connection: " + e.getMessage());
+	    }
+	}
+
+	/**
+	 * Close selector and all connections.
+	 *
+	 * @throws IOException
+	 */
+	public void close() throws IOException {
+	    if (selector.isOpen()) {
+		for (SelectionKey key : selector.keys()) {
+		    key.channel().close();
+		}
+		selector.close();
+	    }
+	}
+    }
+
+    /**
+     * Per-connection state.
+     *
+     * @author Derek
+     */
+    private class Connection {
+
+	/** Socket channel */
+	private SocketChannel channel;
+
+	/** Handler used for framing */
+	private INonBlockingSocketInteractionHandler<T> handler;
+
+	/** Bounded read buffer */
+	private ByteBuffer buffer;
+
+	public Connection(SocketChannel channel, INonBlockingSocketInteractionHandler<T> handler) {
+	    this.channel = channel;
+	    this.handler = handler;
+	    this.buffer = ByteBuffer.allocate(getReadBufferSize());
+	}
+
+	public SocketChannel getChannel() {
+	    return channel;
+	}
+
+	public INonBlockingSocketInteractionHandler<T> getHandler() {
+	    return handler;
+	}
+
+	public ByteBuffer getBuffer() {
+	    return buffer;
+	}
+    }
+
+    /** Used for naming selector threads */
+    private class SelectorsThreadFactory implements ThreadFactory {
+
+	/** Counts threads */
+	private AtomicInteger counter = new AtomicInteger();
+
+	public Thread newThread(Runnable r) {
+	    return new Thread(r, "SiteWhere Socket(" + getPort() + ") Selector " + counter.incrementAndGet());
+	}
+    }
+
+    public int getNumThreads() {
+	return numThreads;
+    }
+
+    public void setNumThreads(int numThreads) {
+	this.numThreads = numThreads;
+    }
+
+    public int getPort() {
+	return port;
+    }
+
+    public void setPort(int port) {
+	this.port = port;
+    }
+
+    public int getReadBufferSize() {
+	return readBufferSize;
+    }
+
+    public void setReadBufferSize(int readBufferSize) {
+	this.readBufferSize = readBufferSize;
+    }
+
+    public ISocketInteractionHandlerFactory<T> getHandlerFactory() {
+	return handlerFactory;
+    }
+
+    public void setHandlerFactory(ISocketInteractionHandlerFactory<T> handlerFactory) {
+	this.handlerFactory = handlerFactory;
+    }
+}
@@ -11,10 +11,12 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.Socket;
+import java.nio.ByteBuffer;
 
 import com.sitewhere.server.lifecycle.LifecycleComponent;
 import com.sitewhere.server.lifecycle.TenantEngineLifecycleComponent;
 import com.sitewhere.sources.spi.IInboundEventReceiver;
+import com.sitewhere.sources.spi.socket.INonBlockingSocketInteractionHandler;
 import com.sitewhere.sources.spi.socket.ISocketInteractionHandler;
 import com.sitewhere.sources.spi.socket.ISocketInteractionHandlerFactory;
 import com.sitewhere.spi.SiteWhereException;
@@ -23,12 +25,13 @@ import com.sitewhere.spi.server.lifecycle.LifecycleComponentType;
 /**
  * Implementation of {@link ISocketInteractionHandler} that reads everything
  * from the socket and sends the resulting byte array to the parent event
- * source.
+ * source. In non-blocking mode, data is left in the connection buffer until the
+ * client closes the connection.
  * 
  * @author Derek
  */
 public class ReadAllInteractionHandler extends TenantEngineLifecycleComponent
-	implements ISocketInteractionHandler<byte[]> {
+	implements INonBlockingSocketInteractionHandler<byte[]> {
 
     /*
      * (non-Javadoc)
@@ -53,6 +56,21 @@ public class ReadAllInteractionHandler extends TenantEngineLifecycleComponent
 	}
     }
 
+    /*
+     * @see com.sitewhere.sources.spi.socket.INonBlockingSocketInteractionHandler#
+     * processData(java.nio.ByteBuffer, boolean,
+     * com.sitewhere.sources.spi.IInboundEventReceiver)
+     */
+    @Override
+    public void processData(ByteBuffer buffer, boolean endOfStream, IInboundEventReceiver<byte[]> receiver)
+	    throws SiteWhereException {
+	if (endOfStream && buffer.hasRemaining()) {
+	    byte[] payload = new byte[buffer.remaining()];
+	    buffer.get(payload);
+	    receiver.onEventPayloadReceived(payload, null);
+	}
+    }
+
     /**
      * Factory class that produces {@link ReadAllInteractionHandler} instances.
      * 
@@ -10,6 +10,9 @@ package com.sitewhere.sources.spi;
 import java.util.List;
 import java.util.Map;
 
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.Timer;
 import com.sitewhere.spi.server.lifecycle.ITenantEngineLifecycleComponent;
 
 /**
@@ -71,4 +74,26 @@ public interface IInboundEventSource<T> extends ITenantEngineLifecycleComponent
      * @param metadata
      */
     public void onEncodedEventReceived(IInboundEventReceiver<T> receiver, T encodedEvent, Map<String, Object> metadata);
+
+    /**
+     * Get timer for latency between sending a decoded event and Kafka
+     * acknowledging it.
+     * 
+     * @return
+     */
+    public Timer getSendLatency();
+
+    /**
+     * Get meter for decoded events that could not be delivered to Kafka.
+     * 
+     * @return
+     */
+    public Meter getSendFailures();
+
+    /**
+     * Get counter for decoded events sent to Kafka and not yet acknowledged.
+     * 
+     * @return
+     */
+    public Counter getInFlightSends();
 }
\ No newline at end of file
@@ -0,0 +1,39 @@
+/*
+ * Copyright (c) SiteWhere, LLC. All rights reserved. http://www.sitewhere.com
+ *
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package com.sitewhere.sources.spi.socket;
+
+import java.nio.ByteBuffer;
+
+import com.sitewhere.sources.spi.IInboundEventReceiver;
+import com.sitewhere.spi.SiteWhereException;
+
+/**
+ * Extends {@link ISocketInteractionHandler} with support for processing data
+ * read from a non-blocking connection. A new handler instance is created for
+ * each connection, so implementations may keep per-connection framing state.
+ *
+ * @author Derek
+ *
+ * @param <T>
+ */
+public interface INonBlockingSocketInteractionHandler<T> extends ISocketInteractionHandler<T> {
+
+    /**
+     * Process data available for a connection. The buffer is passed in read mode
+     * and implementations should consume only complete frames, passing each to
+     * {@link IInboundEventReceiver} onEventPayloadReceived() method. Unconsumed
+     * bytes are retained and presented again along with data from the next read.
+     *
+     * @param buffer
+     * @param endOfStream
+     * @param receiver
+     * @throws SiteWhereException
+     */
+    public void processData(ByteBuffer buffer, boolean endOfStream, IInboundEventReceiver<T> receiver)
+	    throws SiteWhereException;
+}
@@ -52,9 +52,11 @@ import com.sitewhere.sources.deduplicator.GroovyEventDeduplicator;
 import com.sitewhere.sources.mqtt.MqttInboundEventReceiver;
 import com.sitewhere.sources.rabbitmq.RabbitMqInboundEventReceiver;
 import com.sitewhere.sources.rest.PollingRestInboundEventReceiver;
+import com.sitewhere.sources.socket.BinaryNioSocketInboundEventReceiver;
 import com.sitewhere.sources.socket.BinarySocketInboundEventReceiver;
 import com.sitewhere.sources.socket.GroovySocketInteractionHandler;
 import com.sitewhere.sources.socket.HttpInteractionHandler;
+import com.sitewhere.sources.socket.LengthPrefixedInteractionHandler;
 import com.sitewhere.sources.socket.ReadAllInteractionHandler;
 import com.sitewhere.sources.spi.IInboundEventReceiver;
 import com.sitewhere.sources.spi.IInboundEventSource;
@@ -140,6 +142,26 @@ public class EventSourcesParser extends AbstractBeanDefinitionParser {
 	// Build event sources manager and inject the list of beans.
 	BeanDefinitionBuilder manager = BeanDefinitionBuilder.rootBeanDefinition(EventSourcesManager.class);
 	manager.addPropertyValue("eventSources", sources);
+
+	Attr producerLingerMs = element.getAttributeNode("producerLingerMs");
+	if (producerLingerMs != null) {
+	    manager.addPropertyValue("producerLingerMs", producerLingerMs.getValue());
+	}
+
+	Attr producerBatchSize = element.getAttributeNode("producerBatchSize");
+	if (producerBatchSize != null) {
+	    manager.addPropertyValue("producerBatchSize", producerBatchSize.getValue());
+	}
+
+	Attr producerCompressionType = element.getAttributeNode("producerCompressionType");
+	if (producerCompressionType != null) {
+	    manager.addPropertyValue("producerCompressionType", producerCompressionType.getValue());
+	}
+
+	Attr producerIdempotent = element.getAttributeNode("producerIdempotent");
+	if (producerIdempotent != null) {
+	    manager.addPropertyValue("producerIdempotent", producerIdempotent.getValue());
+	}
 	context.getRegistry().registerBeanDefinition(EventSourcesBeans.BEAN_EVENT_SOURCES_MANAGER,
 		manager.getBeanDefinition());
 
@@ -253,6 +275,16 @@ public class EventSourcesParser extends AbstractBeanDefinitionParser {
 	    mqtt.addPropertyValue("numThreads", numThreads.getValue());
 	}
 
+	Attr queueSize = element.getAttributeNode("queueSize");
+	if (queueSize != null) {
+	    mqtt.addPropertyValue("queueSize", queueSize.getValue());
+	}
+
+	Attr sharedSubscriptionGroup = element.getAttributeNode("sharedSubscriptionGroup");
+	if (sharedSubscriptionGroup != null) {
+	    mqtt.addPropertyValue("sharedSubscriptionGroup", sharedSubscriptionGroup.getValue());
+	}
+
 	Attr trustStorePath = element.getAttributeNode("trustStorePath");
 	if (trustStorePath != null) {
 	    mqtt.addPropertyValue("trustStorePath", trustStorePath.getValue());
@@ -655,6 +687,15 @@ public class EventSourcesParser extends AbstractBeanDefinitionParser {
 	return BinarySocketInboundEventReceiver.class;
     }
 
+    /**
+     * Get implementation class for non-blocking socket event receiver.
+     * 
+     * @return
+     */
+    protected Class<? extends IInboundEventReceiver<byte[]>> getNonBlockingSocketEventReceiverImplementation() {
+	return BinaryNioSocketInboundEventReceiver.class;
+    }
+
     /**
      * Create socket event receiver from XML element.
      * 
@@ -663,7 +704,11 @@ public class EventSourcesParser extends AbstractBeanDefinitionParser {
      * @return
      */
     protected AbstractBeanDefinition createSocketEventReceiver(Element element, ParserContext context) {
-	BeanDefinitionBuilder socket = BeanDefinitionBuilder.rootBeanDefinition(getSocketEventReceiverImplementation());
+	Attr nonBlocking = element.getAttributeNode("nonBlocking");
+	boolean useNonBlocking = (nonBlocking != null) && Boolean.parseBoolean(nonBlocking.getValue());
+	BeanDefinitionBuilder socket = BeanDefinitionBuilder
+		.rootBeanDefinition(useNonBlocking ? getNonBlockingSocketEventReceiverImplementation()
+			: getSocketEventReceiverImplementation());
 
 	Attr port = element.getAttributeNode("port");
 	if (port != null) {
@@ -675,6 +720,11 @@ public class EventSourcesParser extends AbstractBeanDefinitionParser {
 	    socket.addPropertyValue("numThreads", numThreads.getValue());
 	}
 
+	Attr readBufferSize = element.getAttributeNode("readBufferSize");
+	if ((readBufferSize != null) && (useNonBlocking)) {
+	    socket.addPropertyValue("readBufferSize", readBufferSize.getValue());
+	}
+
 	// Parse configured socket interaction handler factory if available.
 	parseSocketInteractionHandlerFactory(element, context, socket);
 
@@ -714,6 +764,10 @@ public class EventSourcesParser extends AbstractBeanDefinitionParser {
 		parseGroovyFactory(parent, child, context, source);
 		return true;
 	    }
+	    case LengthPrefixedInteractionHandlerFactory: {
+		parseLengthPrefixedFactory(parent, child, context, source);
+		return true;
+	    }
 	    }
 	}
 	return false;
@@ -757,6 +811,32 @@ public class EventSourcesParser extends AbstractBeanDefinitionParser {
 	source.addPropertyReference("handlerFactory", name);
     }
 
+    /**
+     * Parse configuration for {@link LengthPrefixedInteractionHandler} factory
+     * implementation.
+     * 
+     * @param parent
+     * @param decoder
+     * @param context
+     * @param source
+     */
+    protected void parseLengthPrefixedFactory(Element parent, Element decoder, ParserContext context,
+	    BeanDefinitionBuilder source) {
+	LOGGER.debug("Configuring length-prefixed socket interaction handler factory for " + parent.getLocalName());
+	BeanDefinitionBuilder builder = BeanDefinitionBuilder
+		.rootBeanDefinition(LengthPrefixedInteractionHandler.Factory.class);
+
+	Attr maxFrameLength = decoder.getAttributeNode("maxFrameLength");
+	if (maxFrameLength != null) {
+	    builder.addPropertyValue("maxFrameLength", maxFrameLength.getValue());
+	}
+
+	AbstractBeanDefinition bean = builder.getBeanDefinition();
+	String name = nameGenerator.generateBeanName(bean, context.getRegistry());
+	context.getRegistry().registerBeanDefinition(name, bean);
+	source.addPropertyReference("handlerFactory", name);
+    }
+
     /**
      * Parse configuration for {@link HttpInteractionHandler} factory
      * implementation.
@@ -1140,6 +1220,12 @@ public class EventSourcesParser extends AbstractBeanDefinitionParser {
      */
     protected AbstractBeanDefinition parseProtobufDecoder(Element parent, Element decoder, ParserContext context) {
 	BeanDefinitionBuilder builder = BeanDefinitionBuilder.rootBeanDefinition(ProtobufDeviceEventDecoder.class);
+
+	Attr transcode = decoder.getAttributeNode("transcodeToKafkaModel");
+	if (transcode != null) {
+	    builder.addPropertyValue("transcodeToKafkaModel", transcode.getValue());
+	}
+
 	return builder.getBeanDefinition();
     }
 
@@ -1266,6 +1352,21 @@ public class EventSourcesParser extends AbstractBeanDefinitionParser {
 	    }
 	}
 
+	Attr deviceCacheSize = decoder.getAttributeNode("deviceCacheSize");
+	if (deviceCacheSize != null) {
+	    builder.addPropertyValue("deviceCacheSize", deviceCacheSize.getValue());
+	}
+
+	Attr deviceTypeCacheSize = decoder.getAttributeNode("deviceTypeCacheSize");
+	if (deviceTypeCacheSize != null) {
+	    builder.addPropertyValue("deviceTypeCacheSize", deviceTypeCacheSize.getValue());
+	}
+
+	Attr cacheTtlSeconds = decoder.getAttributeNode("cacheTtlSeconds");
+	if (cacheTtlSeconds != null) {
+	    builder.addPropertyValue("cacheTtlSeconds", cacheTtlSeconds.getValue());
+	}
+
 	return builder.getBeanDefinition();
     }
 
@@ -1414,6 +1515,27 @@ public class EventSourcesParser extends AbstractBeanDefinitionParser {
     protected AbstractBeanDefinition parseAlternateIdDeduplicator(Element parent, Element decoder,
 	    ParserContext context) {
 	BeanDefinitionBuilder builder = BeanDefinitionBuilder.rootBeanDefinition(AlternateIdDeduplicator.class);
+
+	Attr expectedInsertions = decoder.getAttributeNode("expectedInsertions");
+	if (expectedInsertions != null) {
+	    builder.addPropertyValue("expectedInsertions", expectedInsertions.getValue());
+	}
+
+	Attr falsePositiveProbability = decoder.getAttributeNode("falsePositiveProbability");
+	if (falsePositiveProbability != null) {
+	    builder.addPropertyValue("falsePositiveProbability", falsePositiveProbability.getValue());
+	}
+
+	Attr windowSeconds = decoder.getAttributeNode("windowSeconds");
+	if (windowSeconds != null) {
+	    builder.addPropertyValue("windowSeconds", windowSeconds.getValue());
+	}
+
+	Attr recentCacheSize = decoder.getAttributeNode("recentCacheSize");
+	if (recentCacheSize != null) {
+	    builder.addPropertyValue("recentCacheSize", recentCacheSize.getValue());
+	}
+
 	return builder.getBeanDefinition();
     }
 
@@ -0,0 +1,296 @@
+/*
+ * Copyright (c) SiteWhere, LLC. All rights reserved. http://www.sitewhere.com
+ *
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package com.sitewhere.sources.decoder.json;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.sitewhere.rest.model.device.event.request.DeviceAlertCreateRequest;
+import com.sitewhere.rest.model.device.event.request.DeviceLocationCreateRequest;
+import com.sitewhere.rest.model.device.event.request.DeviceMeasurementsCreateRequest;
+import com.sitewhere.sources.DecodedDeviceRequest;
+import com.sitewhere.sources.spi.IDecodedDeviceRequest;
+
+/**
+ * Verifies that {@link JsonDeviceRequestParser} produces the same requests as
+ * the databind path based on {@link JsonDeviceRequestMarshaler}.
+ * 
+ * @author Derek
+ */
+public class JsonDeviceRequestParserTests {
+
+    /** Device token used in payloads */
+    private static final String TOKEN = "74c79297-6197-47b2-85b1-ba140968f7c8";
+
+    /** Mapper used to compare results */
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    /** Mapper using the previous databind implementation */
+    private static final ObjectMapper DATABIND = createDatabindMapper();
+
+    @Test
+    public void testMeasurements() throws Exception {
+	assertSameAsDatabind(single("DeviceMeasurements",
+		"{\"measurements\":{\"temp\":20.5,\"humidity\":\"51.5\"},\"eventDate\":1525193345000,"
+			+ "\"updateState\":true}"));
+    }
+
+    @Test
+    public void testMeasurementsWithBooleanAndText() throws Exception {
+	assertSameAsDatabind(single("DeviceMeasurements",
+		"{\"measurements\":{\"temp\":20.5,\"alarm\":true,\"off\":false,\"status\":\"ok\"}}"));
+    }
+
+    @Test
+    public void testLocation() throws Exception {
+	assertSameAsDatabind(single("DeviceLocation",
+		"{\"latitude\":33.75,\"longitude\":\"-84.39\",\"elevation\":320,\"eventDate\":\"2018-05-01T12:00:00.000Z\"}"));
+    }
+
+    @Test
+    public void testAlert() throws Exception {
+	assertSameAsDatabind(single("DeviceAlert",
+		"{\"source\":\"Device\",\"level\":\"Critical\",\"type\":\"engine.overheat\",\"message\":\"Hot\"}"));
+    }
+
+    @Test
+    public void testRegistration() throws Exception {
+	assertSameAsDatabind(single("RegisterDevice",
+		"{\"deviceTypeToken\":\"mega2560\",\"areaToken\":\"southeast\",\"metadata\":{\"name\":\"x\"}}"));
+    }
+
+    @Test
+    public void testStream() throws Exception {
+	assertSameAsDatabind(single("DeviceStream", "{\"streamId\":\"video\",\"contentType\":\"video/mp4\"}"));
+    }
+
+    @Test
+    public void testStreamData() throws Exception {
+	assertSameAsDatabind(
+		single("DeviceStreamData", "{\"streamId\":\"video\",\"sequenceNumber\":3,\"data\":\"AQID\"}"));
+    }
+
+    @Test
+    public void testAcknowledge() throws Exception {
+	assertSameAsDatabind(single("Acknowledge",
+		"{\"originatingEventId\":\"e0f3f3c4-4b6f-4d56-8f4c-2fbb5c3c1d1a\",\"response\":\"done\"}"));
+    }
+
+    @Test
+    public void testMapDevice() throws Exception {
+	assertSameAsDatabind(single("MapDevice", "{\"mappingPath\":\"/default/serial\"}"));
+    }
+
+    @Test
+    public void testOriginator() throws Exception {
+	String payload = "{\"hardwareId\":\"" + TOKEN + "\",\"originator\":\"cmd-1\",\"type\":\"DeviceAlert\","
+		+ "\"request\":{\"type\":\"a\",\"message\":\"b\"}}";
+	assertSameAsDatabind(payload);
+	assertEquals("cmd-1", parseOne(payload).getOriginator());
+    }
+
+    @Test
+    public void testRequestBeforeType() throws Exception {
+	String payload = "{\"hardwareId\":\"" + TOKEN + "\",\"request\":{\"latitude\":1.5,\"longitude\":2.5},"
+		+ "\"type\":\"DeviceLocation\"}";
+	assertSameAsDatabind(payload);
+    }
+
+    @Test
+    public void testNestedMetadata() throws Exception {
+	assertSameAsDatabind(single("DeviceMeasurements",
+		"{\"measurements\":{\"temp\":1.5},\"metadata\":{\"site\":\"a\",\"floor\":3,\"note\":null}}"));
+
+	// Non-scalar metadata values are skipped.
+	IDecodedDeviceRequest<?> decoded = parseOne(single("DeviceLocation",
+		"{\"latitude\":1.5,\"longitude\":2.5,\"metadata\":{\"site\":\"a\",\"detail\":{\"x\":[1,2]}}}"));
+	DeviceLocationCreateRequest location = (DeviceLocationCreateRequest) decoded.getRequest();
+	assertEquals(1, location.getMetadata().size());
+	assertEquals("a", location.getMetadata().get("site"));
+    }
+
+    @Test
+    public void testUnknownFieldsSkipped() throws Exception {
+	String known = single("DeviceLocation", "{\"latitude\":1.5,\"longitude\":2.5}");
+	String unknown = "{\"hardwareId\":\"" + TOKEN + "\",\"extra\":{\"a\":[1,{\"b\":2}]},\"type\":\"DeviceLocation\","
+		+ "\"request\":{\"latitude\":1.5,\"bogus\":[true,false],\"longitude\":2.5,\"more\":{\"c\":1}}}";
+	assertEquals(asJson(parseDatabind(known)), asJson(parseStreaming(unknown)));
+    }
+
+    @Test
+    public void testBatchEnvelope() throws Exception {
+	String payload = "{\"deviceToken\":\"" + TOKEN + "\",\"originator\":\"o1\",\"requests\":["
+		+ "{\"type\":\"DeviceMeasurements\",\"request\":{\"measurements\":{\"temp\":1.5},"
+		+ "\"metadata\":{\"site\":\"a\"}}},"
+		+ "{\"type\":\"DeviceAlert\",\"deviceToken\":\"other\",\"originator\":\"o2\","
+		+ "\"request\":{\"type\":\"t\",\"message\":\"m\",\"metadata\":{\"site\":\"b\"}}}]}";
+	List<IDecodedDeviceRequest<?>> results = parseStreaming(payload);
+	assertEquals(2, results.size());
+	assertEquals(TOKEN, results.get(0).getDeviceToken());
+	assertEquals("o1", results.get(0).getOriginator());
+	assertEquals("a", ((DeviceMeasurementsCreateRequest) results.get(0).getRequest()).getMetadata().get("site"));
+	assertEquals("other", results.get(1).getDeviceToken());
+	assertEquals("o2", results.get(1).getOriginator());
+	assertEquals("b", ((DeviceAlertCreateRequest) results.get(1).getRequest()).getMetadata().get("site"));
+    }
+
+    @Test
+    public void testRequestArray() throws Exception {
+	String first = single("DeviceLocation", "{\"latitude\":1.5,\"longitude\":2.5}");
+	String second = single("DeviceAlert", "{\"type\":\"t\",\"message\":\"m\"}");
+	List<IDecodedDeviceRequest<?>> results = parseStreaming("[" + first + "," + second + "]");
+	assertEquals(2, results.size());
+	assertEquals(asJson(parseDatabind(first)), asJson(results.subList(0, 1)));
+	assertEquals(asJson(parseDatabind(second)), asJson(results.subList(1, 2)));
+    }
+
+    @Test
+    public void testEventBatch() throws Exception {
+	String payload = "{\"hardwareId\":\"" + TOKEN + "\",\"alerts\":[{\"type\":\"t\",\"message\":\"m\"}],"
+		+ "\"measurements\":[{\"measurements\":{\"temp\":1.5}}],\"locations\":[{\"latitude\":1.5,"
+		+ "\"longitude\":2.5}]}";
+	List<IDecodedDeviceRequest<?>> results = JsonDeviceRequestParser
+		.parseEventBatch(payload.getBytes(StandardCharsets.UTF_8));
+	assertEquals(3, results.size());
+	assertTrue(results.get(0).getRequest() instanceof DeviceLocationCreateRequest);
+	assertTrue(results.get(1).getRequest() instanceof DeviceMeasurementsCreateRequest);
+	assertTrue(results.get(2).getRequest() instanceof DeviceAlertCreateRequest);
+	for (IDecodedDeviceRequest<?> result : results) {
+	    assertEquals(TOKEN, result.getDeviceToken());
+	    assertNull(result.getOriginator());
+	}
+    }
+
+    @Test(expected = IOException.class)
+    public void testTruncatedSingle() throws Exception {
+	String payload = single("DeviceMeasurements", "{\"measurements\":{\"temp\":20.5}}");
+	parseStreaming(payload.substring(0, payload.length() - 5));
+    }
+
+    @Test(expected = IOException.class)
+    public void testTruncatedEnvelope() throws Exception {
+	parseStreaming("{\"deviceToken\":\"" + TOKEN + "\",\"requests\":[{\"type\":\"DeviceAlert\",\"request\":{");
+    }
+
+    @Test(expected = IOException.class)
+    public void testTruncatedEventBatch() throws Exception {
+	JsonDeviceRequestParser.parseEventBatch(
+		("{\"hardwareId\":\"" + TOKEN + "\",\"measurements\":[{\"measure").getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test(expected = IOException.class)
+    public void testMissingType() throws Exception {
+	parseStreaming("{\"hardwareId\":\"" + TOKEN + "\",\"request\":{\"latitude\":1.5}}");
+    }
+
+    @Test(expected = IOException.class)
+    public void testInvalidType() throws Exception {
+	parseStreaming(single("NotAType", "{}"));
+    }
+
+    @Test(expected = IOException.class)
+    public void testMissingToken() throws Exception {
+	parseStreaming("{\"type\":\"DeviceAlert\",\"request\":{\"type\":\"t\"}}");
+    }
+
+    /**
+     * Build a single request payload.
+     * 
+     * @param type
+     * @param request
+     * @return
+     */
+    protected static String single(String type, String request) {
+	return "{\"hardwareId\":\"" + TOKEN + "\",\"type\":\"" + type + "\",\"request\":" + request + "}";
+    }
+
+    /**
+     * Assert that streaming and databind paths produce equivalent results.
+     * 
+     * @param payload
+     * @throws Exception
+     */
+    protected static void assertSameAsDatabind(String payload) throws Exception {
+	List<IDecodedDeviceRequest<?>> expected = parseDatabind(payload);
+	List<IDecodedDeviceRequest<?>> actual = parseStreaming(payload);
+	assertEquals(1, actual.size());
+	assertEquals(expected.get(0).getRequest().getClass(), actual.get(0).getRequest().getClass());
+	assertEquals(asJson(expected), asJson(actual));
+    }
+
+    /**
+     * Parse a payload expected to contain exactly one request.
+     * 
+     * @param payload
+     * @return
+     * @throws IOException
+     */
+    protected static IDecodedDeviceRequest<?> parseOne(String payload) throws IOException {
+	List<IDecodedDeviceRequest<?>> results = parseStreaming(payload);
+	assertEquals(1, results.size());
+	return results.get(0);
+    }
+
+    /**
+     * Parse using the streaming parser.
+     * 
+     * @param payload
+     * @return
+     * @throws IOException
+     */
+    protected static List<IDecodedDeviceRequest<?>> parseStreaming(String payload) throws IOException {
+	return JsonDeviceRequestParser.parseRequests(payload.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Parse using the previous databind implementation.
+     * 
+     * @param payload
+     * @return
+     * @throws IOException
+     */
+    protected static List<IDecodedDeviceRequest<?>> parseDatabind(String payload) throws IOException {
+	DecodedDeviceRequest<?> decoded = DATABIND.readValue(payload.getBytes(StandardCharsets.UTF_8),
+		DecodedDeviceRequest.class);
+	return Collections.<IDecodedDeviceRequest<?>>singletonList(decoded);
+    }
+
+    /**
+     * Convert results to a tree for comparison.
+     * 
+     * @param requests
+     * @return
+     */
+    protected static JsonNode asJson(List<IDecodedDeviceRequest<?>> requests) {
+	return MAPPER.valueToTree(requests);
+    }
+
+    /**
+     * Create mapper that binds requests with {@link JsonDeviceRequestMarshaler}.
+     * 
+     * @return
+     */
+    protected static ObjectMapper createDatabindMapper() {
+	ObjectMapper mapper = new ObjectMapper();
+	SimpleModule module = new SimpleModule();
+	module.addDeserializer(DecodedDeviceRequest.class, new JsonDeviceRequestMarshaler());
+	mapper.registerModule(module);
+	return mapper;
+    }
+}
@@ -82,6 +82,7 @@ public class PersistedEventsConsumer extends DirectKafkaConsumer implements IPer
 	List<String> topics = new ArrayList<String>();
 	topics.add(
 		getMicroservice().getKafkaTopicNaming().getInboundPersistedEventsTopic(getTenantEngine().getTenant()));
+	topics.add(getMicroservice().getKafkaTopicNaming().getInboundReplayEventsTopic(getTenantEngine().getTenant()));
 	return topics;
     }
 
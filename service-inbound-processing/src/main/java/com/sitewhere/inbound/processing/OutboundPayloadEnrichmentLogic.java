@@ -83,11 +83,15 @@ public class OutboundPayloadEnrichmentLogic {
 
 	// Send enriched payload to topic.
 	GEnrichedEventPayload grpc = KafkaModelConverter.asGrpcEnrichedEventPayload(enriched);
+	if (payload.hasReplay()) {
+	    grpc = grpc.toBuilder().setReplay(payload.getReplay()).build();
+	}
 	byte[] message = KafkaModelMarshaler.buildEnrichedEventPayloadMessage(grpc);
 	getTenantEngine().getEnrichedEventsProducer().send(device.getToken(), message);
 
-	// Send enriched command invocations to topic.
-	if (event.getEventType() == DeviceEventType.CommandInvocation) {
+	// Send enriched command invocations to topic. Replayed invocations are not
+	// delivered to devices again.
+	if ((event.getEventType() == DeviceEventType.CommandInvocation) && !payload.hasReplay()) {
 	    getTenantEngine().getEnrichedCommandInvocationsProducer().send(device.getToken(), message);
 	}
     }
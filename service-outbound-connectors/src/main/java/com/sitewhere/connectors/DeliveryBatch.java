@@ -0,0 +1,74 @@
+/*
+ * Copyright (c) SiteWhere, LLC. All rights reserved. http://www.sitewhere.com
+ *
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package com.sitewhere.connectors;
+
+import java.util.concurrent.TimeUnit;
+
+import com.sitewhere.connectors.spi.IDeliveryBatch;
+import com.sitewhere.spi.SiteWhereException;
+
+/**
+ * Default {@link IDeliveryBatch} implementation. Connectors call
+ * {@link #deliveryStarted()} before sending and {@link #deliveryCompleted(Throwable)}
+ * when the external system acknowledges or rejects the delivery.
+ * 
+ * @author Derek
+ */
+public class DeliveryBatch implements IDeliveryBatch {
+
+    /** Number of deliveries not yet acknowledged */
+    private long unacknowledged;
+
+    /** Number of deliveries that failed */
+    private int failed;
+
+    /**
+     * Called before a delivery is sent.
+     */
+    public synchronized void deliveryStarted() {
+	unacknowledged++;
+    }
+
+    /**
+     * Called when a delivery is acknowledged or fails.
+     * 
+     * @param error
+     */
+    public synchronized void deliveryCompleted(Throwable error) {
+	unacknowledged--;
+	if (error != null) {
+	    failed++;
+	}
+	notifyAll();
+    }
+
+    /*
+     * @see
+     * com.sitewhere.connectors.spi.IDeliveryBatch#awaitAcknowledgements(long,
+     * java.util.concurrent.TimeUnit)
+     */
+    @Override
+    public synchronized void awaitAcknowledgements(long timeout, TimeUnit unit) throws SiteWhereException {
+	long deadline = System.nanoTime() + unit.toNanos(timeout);
+	try {
+	    while ((unacknowledged > 0) && (failed == 0)) {
+		long remaining = deadline - System.nanoTime();
+		if (remaining <= 0) {
+		    throw new SiteWhereException("Timed out waiting for " + unacknowledged + " acknowledgements.");
+		}
+		TimeUnit.NANOSECONDS.timedWait(this, remaining);
+	    }
+	} catch (InterruptedException e) {
+	    Thread.currentThread().interrupt();
+	    throw new SiteWhereException("Interrupted waiting for acknowledgements.", e);
+	}
+	if (failed > 0) {
+	    throw new SiteWhereException(failed + " deliveries were not acknowledged.");
+	}
+    }
+}
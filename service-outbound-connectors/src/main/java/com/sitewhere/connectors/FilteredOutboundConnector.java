@@ -10,6 +10,8 @@ package com.sitewhere.connectors;
 import java.util.ArrayList;
 import java.util.List;
 
+import com.sitewhere.connectors.filter.ExpressionFilter;
+import com.sitewhere.connectors.filter.expression.FilterEvaluationContext;
 import com.sitewhere.connectors.spi.IDeviceEventFilter;
 import com.sitewhere.connectors.spi.IFilteredOutboundConnector;
 import com.sitewhere.spi.SiteWhereException;
@@ -209,8 +211,17 @@ public abstract class FilteredOutboundConnector extends OutboundConnector implem
      * @throws SiteWhereException
      */
     protected boolean isFiltered(IDeviceEventContext context, IDeviceEvent event) throws SiteWhereException {
+	FilterEvaluationContext evaluation = null;
 	for (IDeviceEventFilter filter : filters) {
-	    if (filter.isFiltered(context, event)) {
+	    if (filter instanceof ExpressionFilter) {
+		// Share derived event values across expression filters.
+		if (evaluation == null) {
+		    evaluation = new FilterEvaluationContext(context, event);
+		}
+		if (((ExpressionFilter) filter).isFiltered(evaluation)) {
+		    return true;
+		}
+	    } else if (filter.isFiltered(context, event)) {
 		return true;
 	    }
 	}
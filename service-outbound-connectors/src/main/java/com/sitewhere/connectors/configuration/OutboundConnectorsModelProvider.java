@@ -68,6 +68,7 @@ public class OutboundConnectorsModelProvider extends ConfigurationModelProvider
 	addElement(createAreaFilterElement());
 	addElement(createSpecificationFilterElement());
 	addElement(createGroovyFilterElement());
+	addElement(createExpressionFilterElement());
     }
 
     /*
@@ -119,6 +120,7 @@ public class OutboundConnectorsModelProvider extends ConfigurationModelProvider
 		+ "field determines where events are delivered.");
 	builder.attributeGroup(ConfigurationModelProvider.ATTR_GROUP_CONNECTIVITY);
 	builder.attributeGroup(ConfigurationModelProvider.ATTR_GROUP_AUTHENTICATION);
+	builder.attributeGroup(ConfigurationModelProvider.ATTR_GROUP_PERFORMANCE);
 
 	addCommonConnectorAttributes(builder, ConfigurationModelProvider.ATTR_GROUP_CONNECTIVITY);
 	CommonConnectorModel.addMqttCommonAttributes(builder, ConfigurationModelProvider.ATTR_GROUP_CONNECTIVITY,
@@ -126,6 +128,13 @@ public class OutboundConnectorsModelProvider extends ConfigurationModelProvider
 	builder.attribute((new AttributeNode.Builder("MQTT topic", "topic", AttributeType.String,
 		ConfigurationModelProvider.ATTR_GROUP_CONNECTIVITY)
 			.description("MQTT topic used if no route builder is specified.").build()));
+	builder.attribute((new AttributeNode.Builder("Connection pool size", "connectionPoolSize",
+		AttributeType.Integer, ConfigurationModelProvider.ATTR_GROUP_PERFORMANCE)
+			.description("Number of broker connections used to publish events.").defaultValue("1").build()));
+	builder.attribute((new AttributeNode.Builder("Max in-flight publishes", "maxInFlight", AttributeType.Integer,
+		ConfigurationModelProvider.ATTR_GROUP_PERFORMANCE)
+			.description("Number of unacknowledged publishes allowed per connection before publishing blocks.")
+			.defaultValue("100").build()));
 	return builder.build();
     }
 
@@ -394,4 +403,25 @@ public class OutboundConnectorsModelProvider extends ConfigurationModelProvider
 			.description("Script path relative to Groovy script root.").makeRequired().build()));
 	return builder.build();
     }
+
+    /**
+     * Create connector expression filter.
+     * 
+     * @return
+     */
+    protected ElementNode createExpressionFilterElement() {
+	ElementNode.Builder builder = new ElementNode.Builder("Expression Filter",
+		IOutboundConnectorsParser.Filters.ExpressionFilter.getLocalName(), "filter",
+		OutboundConnectorsRoleKeys.OutboundFilter, this);
+	builder.description("Includes events that match a filter expression and filters all others. Expressions "
+		+ "may test device type, area, event type, device and assignment metadata, and measurement values. "
+		+ "A single expression can replace a chain of area, specification and Groovy filters.");
+	builder.attributeGroup(ConfigurationModelProvider.ATTR_GROUP_GENERAL);
+
+	builder.attribute((new AttributeNode.Builder("Expression", "expression", AttributeType.String,
+		ConfigurationModelProvider.ATTR_GROUP_GENERAL)
+			.description("Expression such as \"deviceType == 'mt90' and measurement.temp > 30\".")
+			.makeRequired().build()));
+	return builder.build();
+    }
 }
\ No newline at end of file
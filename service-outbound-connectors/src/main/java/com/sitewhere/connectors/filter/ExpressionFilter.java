@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) SiteWhere, LLC. All rights reserved. http://www.sitewhere.com
+ *
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package com.sitewhere.connectors.filter;
+
+import com.sitewhere.connectors.filter.expression.FilterEvaluationContext;
+import com.sitewhere.connectors.filter.expression.FilterExpressionCompiler;
+import com.sitewhere.connectors.spi.filter.IFilterEvaluationContext;
+import com.sitewhere.connectors.spi.filter.IFilterPredicate;
+import com.sitewhere.connectors.spi.microservice.IOutboundConnectorsMicroservice;
+import com.sitewhere.spi.SiteWhereException;
+import com.sitewhere.spi.device.IDeviceManagement;
+import com.sitewhere.spi.device.event.IDeviceEvent;
+import com.sitewhere.spi.device.event.IDeviceEventContext;
+import com.sitewhere.spi.server.lifecycle.ILifecycleProgressMonitor;
+
+/**
+ * Includes events that match a declarative filter expression and filters all
+ * others. The expression is compiled into a predicate tree when the filter is
+ * started, so evaluation does not require device management lookups or script
+ * execution. See {@link FilterExpressionCompiler} for the expression syntax.
+ * 
+ * @author Derek
+ */
+public class ExpressionFilter extends DeviceEventFilter {
+
+    /** Filter expression */
+    private String expression;
+
+    /** Compiled expression */
+    private IFilterPredicate predicate;
+
+    /*
+     * @see
+     * com.sitewhere.connectors.filter.DeviceEventFilter#start(com.sitewhere.spi.
+     * server.lifecycle.ILifecycleProgressMonitor)
+     */
+    @Override
+    public void start(ILifecycleProgressMonitor monitor) throws SiteWhereException {
+	super.start(monitor);
+
+	if (getExpression() == null) {
+	    throw new SiteWhereException("Expression not configured for expression filter.");
+	}
+	this.predicate = new FilterExpressionCompiler(getDeviceManagement()).compile(getExpression());
+    }
+
+    /*
+     * @see
+     * com.sitewhere.connectors.spi.IDeviceEventFilter#isFiltered(com.sitewhere.spi.
+     * device.event.IDeviceEventContext,
+     * com.sitewhere.spi.device.event.IDeviceEvent)
+     */
+    @Override
+    public boolean isFiltered(IDeviceEventContext context, IDeviceEvent event) throws SiteWhereException {
+	return isFiltered(new FilterEvaluationContext(context, event));
+    }
+
+    /**
+     * Evaluate filter using a context shared with other expression filters.
+     * 
+     * @param context
+     * @return
+     * @throws SiteWhereException
+     */
+    public boolean isFiltered(IFilterEvaluationContext context) throws SiteWhereException {
+	if (predicate == null) {
+	    throw new SiteWhereException("Expression filter has not been started.");
+	}
+	return !predicate.matches(context);
+    }
+
+    protected IDeviceManagement getDeviceManagement() {
+	return ((IOutboundConnectorsMicroservice) getTenantEngine().getMicroservice()).getDeviceManagementApiDemux()
+		.getApiChannel();
+    }
+
+    public String getExpression() {
+	return expression;
+    }
+
+    public void setExpression(String expression) {
+	this.expression = expression;
+    }
+}
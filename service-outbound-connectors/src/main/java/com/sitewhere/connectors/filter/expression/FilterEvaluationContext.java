@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) SiteWhere, LLC. All rights reserved. http://www.sitewhere.com
+ *
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package com.sitewhere.connectors.filter.expression;
+
+import java.util.Collections;
+import java.util.Map;
+
+import com.sitewhere.connectors.spi.filter.IFilterEvaluationContext;
+import com.sitewhere.spi.device.event.IDeviceEvent;
+import com.sitewhere.spi.device.event.IDeviceEventContext;
+import com.sitewhere.spi.device.event.IDeviceMeasurements;
+
+/**
+ * Default implementation of {@link IFilterEvaluationContext}. Derived values
+ * are calculated on first use.
+ * 
+ * @author Derek
+ */
+public class FilterEvaluationContext implements IFilterEvaluationContext {
+
+    /** Device context */
+    private IDeviceEventContext eventContext;
+
+    /** Event being evaluated */
+    private IDeviceEvent event;
+
+    /** Measurement values (calculated on first use) */
+    private Map<String, Double> measurements;
+
+    public FilterEvaluationContext(IDeviceEventContext eventContext, IDeviceEvent event) {
+	this.eventContext = eventContext;
+	this.event = event;
+    }
+
+    /*
+     * @see com.sitewhere.connectors.spi.filter.IFilterEvaluationContext#
+     * getEventContext()
+     */
+    @Override
+    public IDeviceEventContext getEventContext() {
+	return eventContext;
+    }
+
+    /*
+     * @see com.sitewhere.connectors.spi.filter.IFilterEvaluationContext#getEvent()
+     */
+    @Override
+    public IDeviceEvent getEvent() {
+	return event;
+    }
+
+    /*
+     * @see com.sitewhere.connectors.spi.filter.IFilterEvaluationContext#
+     * getMeasurements()
+     */
+    @Override
+    public Map<String, Double> getMeasurements() {
+	if (measurements == null) {
+	    Map<String, Double> values = null;
+	    if (event instanceof IDeviceMeasurements) {
+		values = ((IDeviceMeasurements) event).getMeasurements();
+	    }
+	    measurements = (values != null) ? values : Collections.emptyMap();
+	}
+	return measurements;
+    }
+}
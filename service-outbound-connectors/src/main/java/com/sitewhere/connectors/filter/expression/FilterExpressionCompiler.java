@@ -0,0 +1,566 @@
+/*
+ * Copyright (c) SiteWhere, LLC. All rights reserved. http://www.sitewhere.com
+ *
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package com.sitewhere.connectors.filter.expression;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+
+import com.sitewhere.connectors.spi.filter.IFilterEvaluationContext;
+import com.sitewhere.connectors.spi.filter.IFilterPredicate;
+import com.sitewhere.spi.SiteWhereException;
+import com.sitewhere.spi.area.IArea;
+import com.sitewhere.spi.device.IDeviceManagement;
+import com.sitewhere.spi.device.IDeviceType;
+import com.sitewhere.spi.device.event.DeviceEventType;
+
+/**
+ * Compiles filter expressions into a tree of {@link IFilterPredicate}. Tokens
+ * for device types and areas are resolved to ids at compile time so that
+ * evaluating an event requires no calls to device management. Supported
+ * syntax:
+ * 
+ * <pre>
+ * expression := term (('or' | '||') term)*
+ * term       := factor (('and' | '&amp;&amp;') factor)*
+ * factor     := ('not' | '!') factor | '(' expression ')' | comparison
+ * comparison := field ('==' | '!=' | '&lt;' | '&lt;=' | '&gt;' | '&gt;=') literal
+ *             | field 'in' '(' literal (',' literal)* ')'
+ * </pre>
+ * 
+ * Fields are 'deviceType', 'area', 'eventType', 'device.status',
+ * 'device.metadata.[name]', 'assignment.status', 'assignment.metadata.[name]',
+ * 'event.metadata.[name]' and 'measurement.[name]'. Literals are quoted strings
+ * or numbers. Within a string, a backslash escapes the following character so
+ * that quotes and backslashes may be included. Ordering comparisons are numeric
+ * and never match missing or non-numeric values.
+ * 
+ * @author Derek
+ */
+public class FilterExpressionCompiler {
+
+    /** Device management used to resolve tokens */
+    private IDeviceManagement deviceManagement;
+
+    /** Tokens for expression being compiled */
+    private List<Token> tokens;
+
+    /** Index of next token */
+    private int position;
+
+    public FilterExpressionCompiler(IDeviceManagement deviceManagement) {
+	this.deviceManagement = deviceManagement;
+    }
+
+    /**
+     * Compile an expression into a predicate.
+     * 
+     * @param expression
+     * @return
+     * @throws SiteWhereException
+     */
+    public IFilterPredicate compile(String expression) throws SiteWhereException {
+	this.tokens = tokenize(expression);
+	this.position = 0;
+	IFilterPredicate predicate = parseExpression();
+	if (peek().getType() != TokenType.End) {
+	    throw error("Unexpected '" + peek().getText() + "'");
+	}
+	return predicate;
+    }
+
+    /**
+     * Parse disjunction of terms.
+     * 
+     * @return
+     * @throws SiteWhereException
+     */
+    protected IFilterPredicate parseExpression() throws SiteWhereException {
+	List<IFilterPredicate> terms = new ArrayList<>();
+	terms.add(parseTerm());
+	while (acceptKeyword("or", "||")) {
+	    terms.add(parseTerm());
+	}
+	if (terms.size() == 1) {
+	    return terms.get(0);
+	}
+	IFilterPredicate[] any = terms.toArray(new IFilterPredicate[terms.size()]);
+	return (context) -> {
+	    for (IFilterPredicate term : any) {
+		if (term.matches(context)) {
+		    return true;
+		}
+	    }
+	    return false;
+	};
+    }
+
+    /**
+     * Parse conjunction of factors.
+     * 
+     * @return
+     * @throws SiteWhereException
+     */
+    protected IFilterPredicate parseTerm() throws SiteWhereException {
+	List<IFilterPredicate> factors = new ArrayList<>();
+	factors.add(parseFactor());
+	while (acceptKeyword("and", "&&")) {
+	    factors.add(parseFactor());
+	}
+	if (factors.size() == 1) {
+	    return factors.get(0);
+	}
+	IFilterPredicate[] all = factors.toArray(new IFilterPredicate[factors.size()]);
+	return (context) -> {
+	    for (IFilterPredicate factor : all) {
+		if (!factor.matches(context)) {
+		    return false;
+		}
+	    }
+	    return true;
+	};
+    }
+
+    /**
+     * Parse negation, parenthesized expression or comparison.
+     * 
+     * @return
+     * @throws SiteWhereException
+     */
+    protected IFilterPredicate parseFactor() throws SiteWhereException {
+	if (acceptKeyword("not", "!")) {
+	    IFilterPredicate negated = parseFactor();
+	    return (context) -> !negated.matches(context);
+	}
+	if (acceptSymbol("(")) {
+	    IFilterPredicate nested = parseExpression();
+	    expectSymbol(")");
+	    return nested;
+	}
+	return parseComparison();
+    }
+
+    /**
+     * Parse a comparison between a field and one or more literals.
+     * 
+     * @return
+     * @throws SiteWhereException
+     */
+    protected IFilterPredicate parseComparison() throws SiteWhereException {
+	Token field = next();
+	if (field.getType() != TokenType.Identifier) {
+	    throw error("Expected field name but found '" + field.getText() + "'");
+	}
+	if (acceptKeyword("in")) {
+	    expectSymbol("(");
+	    List<Token> literals = new ArrayList<>();
+	    literals.add(expectLiteral());
+	    while (acceptSymbol(",")) {
+		literals.add(expectLiteral());
+	    }
+	    expectSymbol(")");
+	    return compileMembership(field.getText(), literals, false);
+	}
+	Token operator = next();
+	if (operator.getType() != TokenType.Symbol) {
+	    throw error("Expected comparison operator but found '" + operator.getText() + "'");
+	}
+	Token literal = expectLiteral();
+	switch (operator.getText()) {
+	case "==":
+	    return compileMembership(field.getText(), singletonList(literal), false);
+	case "!=":
+	    return compileMembership(field.getText(), singletonList(literal), true);
+	case "<":
+	case "<=":
+	case ">":
+	case ">=":
+	    return compileNumeric(field.getText(), operator.getText(), literal);
+	default:
+	    throw error("Unknown comparison operator '" + operator.getText() + "'");
+	}
+    }
+
+    /**
+     * Compile an equality or membership test for a field.
+     * 
+     * @param field
+     * @param literals
+     * @param negate
+     * @return
+     * @throws SiteWhereException
+     */
+    protected IFilterPredicate compileMembership(String field, List<Token> literals, boolean negate)
+	    throws SiteWhereException {
+	if ("deviceType".equals(field)) {
+	    Set<UUID> ids = new HashSet<>();
+	    for (Token literal : literals) {
+		ids.add(resolveDeviceType(literal.getText()));
+	    }
+	    return (context) -> negate != ids.contains(context.getEventContext().getDeviceTypeId());
+	} else if ("area".equals(field)) {
+	    Set<UUID> ids = new HashSet<>();
+	    for (Token literal : literals) {
+		ids.add(resolveArea(literal.getText()));
+	    }
+	    return (context) -> negate != ids.contains(context.getEvent().getAreaId());
+	} else if (field.startsWith("measurement.")) {
+	    String name = field.substring("measurement.".length());
+	    Set<Double> values = new HashSet<>();
+	    for (Token literal : literals) {
+		values.add(asNumber(literal));
+	    }
+	    return (context) -> negate != values.contains(context.getMeasurements().get(name));
+	}
+	if ("eventType".equals(field)) {
+	    for (Token literal : literals) {
+		try {
+		    DeviceEventType.valueOf(literal.getText());
+		} catch (IllegalArgumentException e) {
+		    throw error("Unknown event type '" + literal.getText() + "'");
+		}
+	    }
+	}
+	Function<IFilterEvaluationContext, String> extractor = getStringExtractor(field);
+	Set<String> values = new HashSet<>();
+	for (Token literal : literals) {
+	    values.add(literal.getText());
+	}
+	return (context) -> negate != values.contains(extractor.apply(context));
+    }
+
+    /**
+     * Compile an ordering comparison for a field.
+     * 
+     * @param field
+     * @param operator
+     * @param literal
+     * @return
+     * @throws SiteWhereException
+     */
+    protected IFilterPredicate compileNumeric(String field, String operator, Token literal)
+	    throws SiteWhereException {
+	double threshold = asNumber(literal);
+	Function<IFilterEvaluationContext, Double> extractor;
+	if (field.startsWith("measurement.")) {
+	    String name = field.substring("measurement.".length());
+	    extractor = (context) -> context.getMeasurements().get(name);
+	} else {
+	    Function<IFilterEvaluationContext, String> strings = getStringExtractor(field);
+	    extractor = (context) -> parseNumber(strings.apply(context));
+	}
+	switch (operator) {
+	case "<":
+	    return (context) -> {
+		Double value = extractor.apply(context);
+		return (value != null) && (value < threshold);
+	    };
+	case "<=":
+	    return (context) -> {
+		Double value = extractor.apply(context);
+		return (value != null) && (value <= threshold);
+	    };
+	case ">":
+	    return (context) -> {
+		Double value = extractor.apply(context);
+		return (value != null) && (value > threshold);
+	    };
+	default:
+	    return (context) -> {
+		Double value = extractor.apply(context);
+		return (value != null) && (value >= threshold);
+	    };
+	}
+    }
+
+    /**
+     * Get function that extracts a string value for a field.
+     * 
+     * @param field
+     * @return
+     * @throws SiteWhereException
+     */
+    protected Function<IFilterEvaluationContext, String> getStringExtractor(String field) throws SiteWhereException {
+	if ("eventType".equals(field)) {
+	    return (context) -> context.getEvent().getEventType().name();
+	} else if ("device.status".equals(field)) {
+	    return (context) -> context.getEventContext().getDeviceStatus();
+	} else if ("assignment.status".equals(field)) {
+	    return (context) -> (context.getEventContext().getAssignmentStatus() != null)
+		    ? context.getEventContext().getAssignmentStatus().name()
+		    : null;
+	} else if (field.startsWith("device.metadata.")) {
+	    String name = field.substring("device.metadata.".length());
+	    return (context) -> getValue(context.getEventContext().getDeviceMetadata(), name);
+	} else if (field.startsWith("assignment.metadata.")) {
+	    String name = field.substring("assignment.metadata.".length());
+	    return (context) -> getValue(context.getEventContext().getAssignmentMetadata(), name);
+	} else if (field.startsWith("event.metadata.")) {
+	    String name = field.substring("event.metadata.".length());
+	    return (context) -> getValue(context.getEvent().getMetadata(), name);
+	}
+	throw error("Unknown field '" + field + "'");
+    }
+
+    /**
+     * Resolve device type token to id.
+     * 
+     * @param token
+     * @return
+     * @throws SiteWhereException
+     */
+    protected UUID resolveDeviceType(String token) throws SiteWhereException {
+	IDeviceType deviceType = getDeviceManagement().getDeviceTypeByToken(token);
+	if (deviceType == null) {
+	    throw error("Device type not found for token '" + token + "'");
+	}
+	return deviceType.getId();
+    }
+
+    /**
+     * Resolve area token to id.
+     * 
+     * @param token
+     * @return
+     * @throws SiteWhereException
+     */
+    protected UUID resolveArea(String token) throws SiteWhereException {
+	IArea area = getDeviceManagement().getAreaByToken(token);
+	if (area == null) {
+	    throw error("Area not found for token '" + token + "'");
+	}
+	return area.getId();
+    }
+
+    /**
+     * Get value from a map that may be null.
+     * 
+     * @param map
+     * @param key
+     * @return
+     */
+    protected static String getValue(Map<String, String> map, String key) {
+	return (map != null) ? map.get(key) : null;
+    }
+
+    /**
+     * Parse a numeric value, returning null if not a number.
+     * 
+     * @param value
+     * @return
+     */
+    protected static Double parseNumber(String value) {
+	if (value == null) {
+	    return null;
+	}
+	try {
+	    return Double.parseDouble(value);
+	} catch (NumberFormatException e) {
+	    return null;
+	}
+    }
+
+    /**
+     * Get numeric value of a literal.
+     * 
+     * @param literal
+     * @return
+     * @throws SiteWhereException
+     */
+    protected double asNumber(Token literal) throws SiteWhereException {
+	Double value = parseNumber(literal.getText());
+	if (value == null) {
+	    throw error("Expected number but found '" + literal.getText() + "'");
+	}
+	return value;
+    }
+
+    /**
+     * Split expression into tokens.
+     * 
+     * @param expression
+     * @return
+     * @throws SiteWhereException
+     */
+    protected static List<Token> tokenize(String expression) throws SiteWhereException {
+	List<Token> result = new ArrayList<>();
+	int i = 0;
+	while (i < expression.length()) {
+	    char c = expression.charAt(i);
+	    if (Character.isWhitespace(c)) {
+		i++;
+	    } else if ((c == '\'') || (c == '"')) {
+		StringBuilder text = new StringBuilder();
+		boolean closed = false;
+		i++;
+		while (i < expression.length()) {
+		    char current = expression.charAt(i++);
+		    if ((current == '\\') && (i < expression.length())) {
+			text.append(expression.charAt(i++));
+		    } else if (current == c) {
+			closed = true;
+			break;
+		    } else {
+			text.append(current);
+		    }
+		}
+		if (!closed) {
+		    throw new SiteWhereException("Unterminated string in filter expression: " + expression);
+		}
+		result.add(new Token(TokenType.Text, text.toString()));
+	    } else if (Character.isDigit(c) || ((c == '-') && (i + 1 < expression.length())
+		    && Character.isDigit(expression.charAt(i + 1)))) {
+		int start = i++;
+		while ((i < expression.length())
+			&& (Character.isDigit(expression.charAt(i)) || expression.charAt(i) == '.')) {
+		    i++;
+		}
+		result.add(new Token(TokenType.Number, expression.substring(start, i)));
+	    } else if (Character.isLetter(c) || (c == '_')) {
+		int start = i++;
+		while ((i < expression.length()) && isIdentifierPart(expression.charAt(i))) {
+		    i++;
+		}
+		result.add(new Token(TokenType.Identifier, expression.substring(start, i)));
+	    } else {
+		String two = (i + 1 < expression.length()) ? expression.substring(i, i + 2) : "";
+		if ("==".equals(two) || "!=".equals(two) || "<=".equals(two) || ">=".equals(two) || "&&".equals(two)
+			|| "||".equals(two)) {
+		    result.add(new Token(TokenType.Symbol, two));
+		    i += 2;
+		} else if ("()<>,!".indexOf(c) != -1) {
+		    result.add(new Token(TokenType.Symbol, String.valueOf(c)));
+		    i++;
+		} else {
+		    throw new SiteWhereException("Unexpected character '" + c + "' in filter expression: " + expression);
+		}
+	    }
+	}
+	result.add(new Token(TokenType.End, "<end>"));
+	return result;
+    }
+
+    /**
+     * Indicates whether character may be used after the first character of a
+     * field name.
+     * 
+     * @param c
+     * @return
+     */
+    protected static boolean isIdentifierPart(char c) {
+	return Character.isLetterOrDigit(c) || (c == '_') || (c == '.') || (c == '-');
+    }
+
+    protected Token peek() {
+	return tokens.get(position);
+    }
+
+    protected Token next() {
+	Token token = tokens.get(position);
+	if (token.getType() != TokenType.End) {
+	    position++;
+	}
+	return token;
+    }
+
+    /**
+     * Consume next token if it matches one of the given keywords or symbols.
+     * 
+     * @param values
+     * @return
+     */
+    protected boolean acceptKeyword(String... values) {
+	Token token = peek();
+	if ((token.getType() == TokenType.Identifier) || (token.getType() == TokenType.Symbol)) {
+	    for (String value : values) {
+		if (value.equalsIgnoreCase(token.getText())) {
+		    position++;
+		    return true;
+		}
+	    }
+	}
+	return false;
+    }
+
+    protected boolean acceptSymbol(String symbol) {
+	Token token = peek();
+	if ((token.getType() == TokenType.Symbol) && (symbol.equals(token.getText()))) {
+	    position++;
+	    return true;
+	}
+	return false;
+    }
+
+    protected void expectSymbol(String symbol) throws SiteWhereException {
+	if (!acceptSymbol(symbol)) {
+	    throw error("Expected '" + symbol + "' but found '" + peek().getText() + "'");
+	}
+    }
+
+    protected Token expectLiteral() throws SiteWhereException {
+	Token token = next();
+	if ((token.getType() != TokenType.Text) && (token.getType() != TokenType.Number)) {
+	    throw error("Expected literal value but found '" + token.getText() + "'");
+	}
+	return token;
+    }
+
+    protected static List<Token> singletonList(Token token) {
+	List<Token> list = new ArrayList<>();
+	list.add(token);
+	return list;
+    }
+
+    protected SiteWhereException error(String message) {
+	return new SiteWhereException("Invalid filter expression. " + message + ".");
+    }
+
+    public IDeviceManagement getDeviceManagement() {
+	return deviceManagement;
+    }
+
+    public void setDeviceManagement(IDeviceManagement deviceManagement) {
+	this.deviceManagement = deviceManagement;
+    }
+
+    /**
+     * Types of tokens in filter expressions.
+     */
+    protected static enum TokenType {
+	Identifier, Text, Number, Symbol, End;
+    }
+
+    /**
+     * Token in a filter expression.
+     */
+    protected static class Token {
+
+	/** Token type */
+	private TokenType type;
+
+	/** Token text */
+	private String text;
+
+	public Token(TokenType type, String text) {
+	    this.type = type;
+	    this.text = text;
+	}
+
+	public TokenType getType() {
+	    return type;
+	}
+
+	public String getText() {
+	    return text;
+	}
+    }
+}
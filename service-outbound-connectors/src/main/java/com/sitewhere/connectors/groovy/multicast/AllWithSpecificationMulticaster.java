@@ -9,10 +9,16 @@ package com.sitewhere.connectors.groovy.multicast;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 
+import com.sitewhere.connectors.routing.DeviceRoutingCache;
+import com.sitewhere.connectors.spi.microservice.IOutboundConnectorsMicroservice;
 import com.sitewhere.connectors.spi.multicast.IDeviceEventMulticaster;
+import com.sitewhere.grpc.client.spi.cache.ICacheListener;
 import com.sitewhere.microservice.groovy.GroovyComponent;
 import com.sitewhere.microservice.groovy.GroovyConfiguration;
 import com.sitewhere.rest.model.search.device.DeviceSearchCriteria;
@@ -20,17 +26,21 @@ import com.sitewhere.spi.SiteWhereException;
 import com.sitewhere.spi.device.IDevice;
 import com.sitewhere.spi.device.IDeviceAssignment;
 import com.sitewhere.spi.device.IDeviceManagement;
+import com.sitewhere.spi.device.IDeviceType;
 import com.sitewhere.spi.device.event.IDeviceEvent;
 import com.sitewhere.spi.search.ISearchResults;
 import com.sitewhere.spi.server.lifecycle.ILifecycleProgressMonitor;
 import com.sitewhere.spi.server.lifecycle.LifecycleComponentType;
-import com.sitewhere.spi.tenant.ITenant;
 
 import groovy.lang.Binding;
 
 /**
- * Routes events to all devices that use a given specification. The list of
- * devices is cached and refreshed at an interval to improve performance.
+ * Routes events to all devices that use a given specification. Target devices
+ * and their assignments are held in a route table keyed by device id. The table
+ * is loaded when the multicaster starts and is then maintained incrementally
+ * from device management cache updates, with a periodic full reload to recover
+ * from missed notifications. If routes do not depend on the event being sent,
+ * they may be precomputed so the script only runs when a target changes.
  * 
  * @author Derek
  *
@@ -38,20 +48,32 @@ import groovy.lang.Binding;
  */
 public abstract class AllWithSpecificationMulticaster<T> extends GroovyComponent implements IDeviceEventMulticaster<T> {
 
-    /** Interval between refreshing list of devices with specification */
+    /** Interval between full reloads when updates are not being received */
     private static final long REFRESH_INTERVAL_SECS = 60;
 
+    /** Interval between full reloads when updates are being received */
+    private static final long RECONCILE_INTERVAL_SECS = 600;
+
     /** Groovy configuration */
     private GroovyConfiguration groovyConfiguration;
 
     /** Token for specification */
     private String specificationToken;
 
+    /** Indicates whether routes are calculated once per target device */
+    private boolean precomputeRoutes = false;
+
     /** Executor for refresh thread */
     private ExecutorService executor;
 
-    /** Cached list of matches that determine routes */
-    private List<IDevice> matches = new ArrayList<IDevice>();
+    /** Cache of devices and assignments */
+    private DeviceRoutingCache routingCache;
+
+    /** Id of device type for specification token */
+    private UUID deviceTypeId;
+
+    /** Route targets indexed by device id */
+    private Map<UUID, RouteTarget<T>> routeTable = new ConcurrentHashMap<>();
 
     public AllWithSpecificationMulticaster() {
 	super(LifecycleComponentType.OutboundEventProcessorFilter);
@@ -69,10 +91,32 @@ public abstract class AllWithSpecificationMulticaster<T> extends GroovyComponent
 	if (getSpecificationToken() == null) {
 	    throw new RuntimeException("No specification token supplied.");
 	}
+	super.start(monitor);
+
+	routingCache = new DeviceRoutingCache(this);
+	routingCache.addDeviceListener(new TargetDeviceListener());
+	routingCache.addAssignmentListener(new TargetAssignmentListener());
 	executor = Executors.newSingleThreadExecutor();
 	executor.execute(new UpdateThread());
     }
 
+    /*
+     * @see
+     * com.sitewhere.microservice.groovy.GroovyComponent#stop(com.sitewhere.spi.
+     * server.lifecycle.ILifecycleProgressMonitor)
+     */
+    @Override
+    public void stop(ILifecycleProgressMonitor monitor) throws SiteWhereException {
+	if (executor != null) {
+	    executor.shutdownNow();
+	}
+	if (routingCache != null) {
+	    routingCache.close();
+	}
+	routeTable.clear();
+	super.stop(monitor);
+    }
+
     /*
      * (non-Javadoc)
      * 
@@ -84,30 +128,90 @@ public abstract class AllWithSpecificationMulticaster<T> extends GroovyComponent
     public List<T> calculateRoutes(IDeviceEvent event, IDevice device, IDeviceAssignment assignment)
 	    throws SiteWhereException {
 	List<T> routes = new ArrayList<T>();
-	IDeviceManagement dm = getDeviceManagement(getTenantEngine().getTenant());
-	for (IDevice targetDevice : matches) {
-	    IDeviceAssignment targetAssignment = dm.getDeviceAssignment(targetDevice.getDeviceAssignmentId());
-	    Binding binding = new Binding();
-	    binding.setVariable("logger", getLogger());
-	    binding.setVariable("event", event);
-	    binding.setVariable("device", device);
-	    binding.setVariable("assignment", assignment);
-	    if (device.getDeviceAssignmentId() != null) {
-		binding.setVariable("targetAssignment", targetAssignment);
-		binding.setVariable("targetDevice", targetDevice);
-	    }
-	    try {
-		Object result = run(binding);
-		if (result != null) {
-		    routes.add(convertRoute(result));
+	for (RouteTarget<T> target : routeTable.values()) {
+	    if (isPrecomputeRoutes()) {
+		if (target.getRoute() != null) {
+		    routes.add(target.getRoute());
 		}
-	    } catch (SiteWhereException e) {
-		getLogger().error("Unable to run route calculator script.", e);
+		continue;
+	    }
+	    T route = calculateRoute(event, device, assignment, target.getDevice(), target.getAssignment());
+	    if (route != null) {
+		routes.add(route);
 	    }
 	}
 	return routes;
     }
 
+    /**
+     * Run route calculator script for a target device.
+     * 
+     * @param event
+     * @param device
+     * @param assignment
+     * @param targetDevice
+     * @param targetAssignment
+     * @return
+     */
+    protected T calculateRoute(IDeviceEvent event, IDevice device, IDeviceAssignment assignment,
+	    IDevice targetDevice, IDeviceAssignment targetAssignment) {
+	Binding binding = new Binding();
+	binding.setVariable("logger", getLogger());
+	binding.setVariable("event", event);
+	binding.setVariable("device", device);
+	binding.setVariable("assignment", assignment);
+	binding.setVariable("targetDevice", targetDevice);
+	binding.setVariable("targetAssignment", targetAssignment);
+	try {
+	    Object result = run(binding);
+	    if (result != null) {
+		return convertRoute(result);
+	    }
+	} catch (SiteWhereException e) {
+	    getLogger().error("Unable to run route calculator script.", e);
+	}
+	return null;
+    }
+
+    /**
+     * Create route table entry for a target device.
+     * 
+     * @param targetDevice
+     * @param targetAssignment
+     * @return
+     */
+    protected RouteTarget<T> createRouteTarget(IDevice targetDevice, IDeviceAssignment targetAssignment) {
+	T route = isPrecomputeRoutes() ? calculateRoute(null, null, null, targetDevice, targetAssignment) : null;
+	return new RouteTarget<T>(targetDevice, targetAssignment, route);
+    }
+
+    /**
+     * Load the complete route table for the specification.
+     * 
+     * @throws SiteWhereException
+     */
+    protected void reloadRouteTable() throws SiteWhereException {
+	IDeviceManagement management = getDeviceManagement();
+	if (deviceTypeId == null) {
+	    IDeviceType deviceType = management.getDeviceTypeByToken(getSpecificationToken());
+	    if (deviceType == null) {
+		throw new SiteWhereException("Device type not found for token: " + getSpecificationToken());
+	    }
+	    deviceTypeId = deviceType.getId();
+	}
+	DeviceSearchCriteria criteria = new DeviceSearchCriteria(getSpecificationToken(), false, 1, 0, null, null);
+	ISearchResults<IDevice> results = management.listDevices(false, criteria);
+	Map<UUID, RouteTarget<T>> updated = new ConcurrentHashMap<>();
+	for (IDevice target : results.getResults()) {
+	    IDeviceAssignment assignment = (target.getDeviceAssignmentId() != null)
+		    ? routingCache.getDeviceAssignment(target.getDeviceAssignmentId())
+		    : null;
+	    updated.put(target.getId(), createRouteTarget(target, assignment));
+	}
+	this.routeTable = updated;
+	getLogger().debug("Loaded " + updated.size() + " route targets for routing.");
+    }
+
     /**
      * Converts script response into route.
      * 
@@ -133,8 +237,114 @@ public abstract class AllWithSpecificationMulticaster<T> extends GroovyComponent
 	this.specificationToken = specificationToken;
     }
 
+    public boolean isPrecomputeRoutes() {
+	return precomputeRoutes;
+    }
+
+    public void setPrecomputeRoutes(boolean precomputeRoutes) {
+	this.precomputeRoutes = precomputeRoutes;
+    }
+
+    /**
+     * Entry in route table for a target device.
+     * 
+     * @author Derek
+     *
+     * @param <T>
+     */
+    protected static class RouteTarget<T> {
+
+	/** Target device */
+	private IDevice device;
+
+	/** Current assignment for target device (may be null) */
+	private IDeviceAssignment assignment;
+
+	/** Precomputed route (if enabled) */
+	private T route;
+
+	public RouteTarget(IDevice device, IDeviceAssignment assignment, T route) {
+	    this.device = device;
+	    this.assignment = assignment;
+	    this.route = route;
+	}
+
+	public IDevice getDevice() {
+	    return device;
+	}
+
+	public IDeviceAssignment getAssignment() {
+	    return assignment;
+	}
+
+	public T getRoute() {
+	    return route;
+	}
+    }
+
+    /**
+     * Adds, updates or removes targets as devices change.
+     * 
+     * @author Derek
+     */
+    private class TargetDeviceListener implements ICacheListener<UUID, IDevice> {
+
+	@Override
+	public void onEntryUpdated(UUID key, IDevice value) {
+	    if ((deviceTypeId == null) || (value == null)) {
+		return;
+	    }
+	    if (!deviceTypeId.equals(value.getDeviceTypeId())) {
+		routeTable.remove(key);
+		return;
+	    }
+	    try {
+		IDeviceAssignment assignment = (value.getDeviceAssignmentId() != null)
+			? routingCache.getDeviceAssignment(value.getDeviceAssignmentId())
+			: null;
+		routeTable.put(key, createRouteTarget(value, assignment));
+	    } catch (SiteWhereException e) {
+		getLogger().error("Unable to update route target for device.", e);
+	    }
+	}
+
+	@Override
+	public void onEntryRemoved(UUID key) {
+	    routeTable.remove(key);
+	}
+    }
+
+    /**
+     * Updates assignments for existing targets.
+     * 
+     * @author Derek
+     */
+    private class TargetAssignmentListener implements ICacheListener<UUID, IDeviceAssignment> {
+
+	@Override
+	public void onEntryUpdated(UUID key, IDeviceAssignment value) {
+	    if (value == null) {
+		return;
+	    }
+	    RouteTarget<T> existing = routeTable.get(value.getDeviceId());
+	    if (existing != null) {
+		routeTable.put(value.getDeviceId(), createRouteTarget(existing.getDevice(), value));
+	    }
+	}
+
+	@Override
+	public void onEntryRemoved(UUID key) {
+	    for (RouteTarget<T> target : routeTable.values()) {
+		if ((target.getAssignment() != null) && (key.equals(target.getAssignment().getId()))) {
+		    routeTable.put(target.getDevice().getId(), createRouteTarget(target.getDevice(), null));
+		}
+	    }
+	}
+    }
+
     /**
-     * Thread that updates the list of devices with specification.
+     * Thread that reloads the route table. Reloads are frequent until updates
+     * are being received from device management, then only occasional.
      * 
      * @author Derek
      */
@@ -143,18 +353,15 @@ public abstract class AllWithSpecificationMulticaster<T> extends GroovyComponent
 	@Override
 	public void run() {
 	    while (true) {
+		routingCache.registerListeners();
 		try {
-		    ITenant tenant = AllWithSpecificationMulticaster.this.getTenantEngine().getTenant();
-		    String token = AllWithSpecificationMulticaster.this.getSpecificationToken();
-		    DeviceSearchCriteria criteria = new DeviceSearchCriteria(token, false, 1, 0, null, null);
-		    ISearchResults<IDevice> results = getDeviceManagement(tenant).listDevices(false, criteria);
-		    matches = results.getResults();
-		    getLogger().debug("Found " + matches.size() + " matches for routing.");
+		    reloadRouteTable();
 		} catch (SiteWhereException e) {
 		    getLogger().error("Unable to list devices for specification.", e);
 		}
+		long interval = routingCache.isListening() ? RECONCILE_INTERVAL_SECS : REFRESH_INTERVAL_SECS;
 		try {
-		    Thread.sleep(REFRESH_INTERVAL_SECS * 1000);
+		    Thread.sleep(interval * 1000);
 		} catch (InterruptedException e) {
 		    getLogger().info("Update thread shutting down.");
 		    return;
@@ -163,7 +370,8 @@ public abstract class AllWithSpecificationMulticaster<T> extends GroovyComponent
 	}
     }
 
-    private IDeviceManagement getDeviceManagement(ITenant tenant) {
-	return null;
+    protected IDeviceManagement getDeviceManagement() {
+	return ((IOutboundConnectorsMicroservice) getTenantEngine().getMicroservice()).getDeviceManagementApiDemux()
+		.getApiChannel();
     }
-}
\ No newline at end of file
+}
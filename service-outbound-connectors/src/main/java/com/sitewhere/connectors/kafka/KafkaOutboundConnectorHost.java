@@ -10,8 +10,10 @@ package com.sitewhere.connectors.kafka;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -20,8 +22,11 @@ import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.apache.kafka.common.TopicPartition;
 
 import com.sitewhere.common.MarshalUtils;
+import com.sitewhere.connectors.spi.IAcknowledgingOutboundConnector;
+import com.sitewhere.connectors.spi.IDeliveryBatch;
 import com.sitewhere.connectors.spi.IOutboundConnector;
 import com.sitewhere.grpc.kafka.model.KafkaModel.GEnrichedEventPayload;
+import com.sitewhere.grpc.kafka.model.KafkaModel.GEventReplayStage;
 import com.sitewhere.grpc.model.converter.KafkaModelConverter;
 import com.sitewhere.grpc.model.marshaler.KafkaModelMarshaler;
 import com.sitewhere.microservice.kafka.DirectKafkaConsumer;
@@ -40,7 +45,12 @@ import com.sitewhere.spi.server.lifecycle.ILifecycleProgressMonitor;
 
 /**
  * Kafka host container that reads from the enriched events topic and forwards
- * the messages to a wrapped outbound connector.
+ * the messages to a wrapped outbound connector. The offset for a partition is
+ * only committed after all of its records have been processed and, for
+ * connectors that implement {@link IAcknowledgingOutboundConnector}, after the
+ * external system has acknowledged delivery. If a batch fails, nothing is
+ * committed and the partition is rewound to the start of the batch so its
+ * records are delivered again.
  * 
  * @author Derek
  */
@@ -49,6 +59,9 @@ public class KafkaOutboundConnectorHost extends DirectKafkaConsumer {
     /** Consumer id */
     private static String CONSUMER_ID = UUID.randomUUID().toString();
 
+    /** Number of seconds to wait for connector acknowledgements */
+    private static final long ACKNOWLEDGEMENT_TIMEOUT_SECS = 30;
+
     /** Get wrapped outbound connector implementation */
     private IOutboundConnector outboundConnector;
 
@@ -143,13 +156,58 @@ public class KafkaOutboundConnectorHost extends DirectKafkaConsumer {
     @Override
     public void attemptToProcess(TopicPartition topicPartition, List<ConsumerRecord<String, byte[]>> records)
 	    throws SiteWhereException {
-	for (ConsumerRecord<String, byte[]> record : records) {
-	    received(record.key(), record.value());
+	try {
+	    IDeliveryBatch deliveries = null;
+	    if (getOutboundConnector() instanceof IAcknowledgingOutboundConnector) {
+		deliveries = ((IAcknowledgingOutboundConnector) getOutboundConnector()).startDeliveryBatch();
+	    }
+
+	    List<Future<?>> pending = new ArrayList<>();
+	    for (ConsumerRecord<String, byte[]> record : records) {
+		pending.add(received(record.key(), record.value()));
+	    }
+
+	    // Wait for batch to be handed to connector.
+	    try {
+		for (Future<?> future : pending) {
+		    future.get();
+		}
+	    } catch (InterruptedException e) {
+		Thread.currentThread().interrupt();
+		throw new SiteWhereException("Interrupted while processing outbound connector batch.", e);
+	    } catch (ExecutionException e) {
+		throw new SiteWhereException("Outbound connector batch processing failed.", e.getCause());
+	    }
+
+	    // Wait for external system to acknowledge delivery.
+	    if (deliveries != null) {
+		deliveries.awaitAcknowledgements(ACKNOWLEDGEMENT_TIMEOUT_SECS, TimeUnit.SECONDS);
+	    }
+	} catch (SiteWhereException e) {
+	    rewind(topicPartition, records);
+	    throw e;
 	}
     }
 
-    public void received(String key, byte[] message) throws SiteWhereException {
-	executor.execute(new EventPayloadProcessor(message));
+    /**
+     * Move the consumer position back to the first record of a failed batch so
+     * that the next poll delivers its records again. No offset is committed for
+     * the failed batch.
+     * 
+     * @param topicPartition
+     * @param records
+     */
+    protected void rewind(TopicPartition topicPartition, List<ConsumerRecord<String, byte[]>> records) {
+	if (!records.isEmpty()) {
+	    long offset = records.get(0).offset();
+	    getLogger().warn("Outbound connector batch failed. Rewinding " + topicPartition + " to offset " + offset
+		    + " for redelivery.");
+	    getConsumer().seek(topicPartition, offset);
+	}
+    }
+
+    public Future<?> received(String key, byte[] message) throws SiteWhereException {
+	return executor.submit(new EventPayloadProcessor(message));
     }
 
     public IOutboundConnector getOutboundConnector() {
@@ -183,6 +241,9 @@ public class KafkaOutboundConnectorHost extends DirectKafkaConsumer {
 	public void runAsSystemUser() throws SiteWhereException {
 	    try {
 		GEnrichedEventPayload grpc = KafkaModelMarshaler.parseEnrichedEventPayloadMessage(encoded);
+		if (!KafkaModelConverter.isProcessedByStage(grpc, GEventReplayStage.REPLAY_STAGE_OUTBOUND_CONNECTORS)) {
+		    return;
+		}
 		EnrichedEventPayload payload = KafkaModelConverter.asApiEnrichedEventPayload(grpc);
 		if (getLogger().isDebugEnabled()) {
 		    getLogger().debug(
@@ -7,11 +7,15 @@
  */
 package com.sitewhere.connectors.mqtt;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.fusesource.hawtdispatch.Dispatch;
 import org.fusesource.hawtdispatch.DispatchQueue;
+import org.fusesource.mqtt.client.Callback;
 import org.fusesource.mqtt.client.Future;
 import org.fusesource.mqtt.client.FutureConnection;
 import org.fusesource.mqtt.client.MQTT;
@@ -20,7 +24,11 @@ import org.fusesource.mqtt.client.QoS;
 import com.sitewhere.common.MarshalUtils;
 import com.sitewhere.communication.mqtt.IMqttComponent;
 import com.sitewhere.communication.mqtt.MqttLifecycleComponent;
+import com.sitewhere.connectors.DeliveryBatch;
 import com.sitewhere.connectors.FilteredOutboundConnector;
+import com.sitewhere.connectors.routing.DeviceRoutingCache;
+import com.sitewhere.connectors.spi.IAcknowledgingOutboundConnector;
+import com.sitewhere.connectors.spi.IDeliveryBatch;
 import com.sitewhere.connectors.spi.IMulticastingOutboundConnector;
 import com.sitewhere.connectors.spi.multicast.IDeviceEventMulticaster;
 import com.sitewhere.connectors.spi.routing.IRouteBuilder;
@@ -37,12 +45,22 @@ import com.sitewhere.spi.device.event.IDeviceMeasurements;
 import com.sitewhere.spi.server.lifecycle.ILifecycleProgressMonitor;
 
 /**
- * Outbound connector that sends events to an MQTT topic.
+ * Outbound connector that sends events to an MQTT topic. Publishes are
+ * pipelined over a pool of broker connections, each of which allows a bounded
+ * number of unacknowledged publishes. Acknowledgements are tracked per delivery
+ * batch so that the connector host only commits offsets for events the broker
+ * has accepted.
  * 
  * @author Derek
  */
 public class MqttOutboundConnector extends FilteredOutboundConnector
-	implements IMulticastingOutboundConnector<String>, IMqttComponent {
+	implements IMulticastingOutboundConnector<String>, IAcknowledgingOutboundConnector, IMqttComponent {
+
+    /** Default number of broker connections */
+    private static final int DEFAULT_CONNECTION_POOL_SIZE = 1;
+
+    /** Default number of unacknowledged publishes per connection */
+    private static final int DEFAULT_MAX_IN_FLIGHT = 100;
 
     private String protocol = MqttLifecycleComponent.DEFAULT_PROTOCOL;
 
@@ -82,14 +100,20 @@ public class MqttOutboundConnector extends FilteredOutboundConnector
     /** Quality of service */
     private String qos = QoS.AT_LEAST_ONCE.name();
 
-    /** MQTT client */
-    private MQTT mqtt;
+    /** Number of broker connections */
+    private int connectionPoolSize = DEFAULT_CONNECTION_POOL_SIZE;
+
+    /** Number of unacknowledged publishes allowed per connection */
+    private int maxInFlight = DEFAULT_MAX_IN_FLIGHT;
+
+    /** Pool of broker connections */
+    private List<PublishingConnection> connections = new ArrayList<>();
 
-    /** Hawtdispatch queue */
-    private DispatchQueue queue;
+    /** Index used to choose next connection */
+    private AtomicInteger nextConnection = new AtomicInteger();
 
-    /** Shared MQTT connection */
-    private FutureConnection connection;
+    /** Tracks acknowledgements for publishes in the current batch */
+    private volatile DeliveryBatch deliveryBatch = new DeliveryBatch();
 
     /** Multicaster for events */
     private IDeviceEventMulticaster<String> multicaster;
@@ -97,6 +121,9 @@ public class MqttOutboundConnector extends FilteredOutboundConnector
     /** Route builder for generating topics */
     private IRouteBuilder<String> routeBuilder;
 
+    /** Cache of devices and assignments used for routing */
+    private DeviceRoutingCache routingCache;
+
     /*
      * @see
      * com.sitewhere.connectors.FilteredOutboundConnector#start(com.sitewhere.spi.
@@ -111,6 +138,8 @@ public class MqttOutboundConnector extends FilteredOutboundConnector
 	// Required for filters.
 	super.start(monitor);
 
+	this.routingCache = new DeviceRoutingCache(this);
+
 	// Start multicaster if configured.
 	if (multicaster != null) {
 	    startNestedComponent(multicaster, monitor, true);
@@ -121,17 +150,25 @@ public class MqttOutboundConnector extends FilteredOutboundConnector
 	    startNestedComponent(routeBuilder, monitor, true);
 	}
 
-	// Use common MQTT configuration setup.
-	this.queue = Dispatch.createQueue(getComponentId());
-	this.mqtt = MqttLifecycleComponent.configure(this, queue);
-
-	getLogger().info("Connecting to MQTT broker at '" + getHostname() + ":" + getPort() + "'...");
-	connection = mqtt.futureConnection();
-	try {
-	    Future<Void> future = connection.connect();
-	    future.await(MqttLifecycleComponent.DEFAULT_CONNECT_TIMEOUT_SECS, TimeUnit.SECONDS);
-	} catch (Exception e) {
-	    throw new SiteWhereException("Unable to connect to MQTT broker.", e);
+	getLogger().info("Connecting to MQTT broker at '" + getHostname() + ":" + getPort() + "' using "
+		+ getConnectionPoolSize() + " connection(s)...");
+	connections.clear();
+	for (int i = 0; i < getConnectionPoolSize(); i++) {
+	    // Use common MQTT configuration setup.
+	    DispatchQueue queue = Dispatch.createQueue(getComponentId() + "-" + i);
+	    MQTT mqtt = MqttLifecycleComponent.configure(this, queue);
+	    if ((getClientId() != null) && (getConnectionPoolSize() > 1)) {
+		mqtt.setClientId(getClientId() + "-" + i);
+	    }
+
+	    FutureConnection connection = mqtt.futureConnection();
+	    connections.add(new PublishingConnection(queue, connection));
+	    try {
+		Future<Void> future = connection.connect();
+		future.await(MqttLifecycleComponent.DEFAULT_CONNECT_TIMEOUT_SECS, TimeUnit.SECONDS);
+	    } catch (Exception e) {
+		throw new SiteWhereException("Unable to connect to MQTT broker.", e);
+	    }
 	}
 	getLogger().info("Connected to MQTT broker.");
     }
@@ -153,16 +190,12 @@ public class MqttOutboundConnector extends FilteredOutboundConnector
 	    routeBuilder.lifecycleStop(monitor);
 	}
 
-	if (connection != null) {
-	    try {
-		connection.disconnect();
-		connection.kill();
-	    } catch (Exception e) {
-		getLogger().error("Error shutting down MQTT device event receiver.", e);
-	    }
+	for (PublishingConnection connection : connections) {
+	    connection.close();
 	}
-	if (queue != null) {
-	    queue.suspend();
+	connections.clear();
+	if (routingCache != null) {
+	    routingCache.close();
 	}
 	super.stop(monitor);
     }
@@ -231,16 +264,16 @@ public class MqttOutboundConnector extends FilteredOutboundConnector
      */
     protected void sendEvent(IDeviceEvent event) throws SiteWhereException {
 	if (getMulticaster() != null) {
-	    IDeviceAssignment assignment = getDeviceManagement().getDeviceAssignment(event.getDeviceAssignmentId());
-	    IDevice device = getDeviceManagement().getDevice(assignment.getDeviceId());
+	    IDeviceAssignment assignment = routingCache.getDeviceAssignment(event.getDeviceAssignmentId());
+	    IDevice device = routingCache.getDevice(assignment.getDeviceId());
 	    List<String> routes = getMulticaster().calculateRoutes(event, device, assignment);
 	    for (String route : routes) {
 		publish(event, route);
 	    }
 	} else {
 	    if (getRouteBuilder() != null) {
-		IDeviceAssignment assignment = getDeviceManagement().getDeviceAssignment(event.getDeviceAssignmentId());
-		IDevice device = getDeviceManagement().getDevice(assignment.getDeviceId());
+		IDeviceAssignment assignment = routingCache.getDeviceAssignment(event.getDeviceAssignmentId());
+		IDevice device = routingCache.getDevice(assignment.getDeviceId());
 		publish(event, getRouteBuilder().build(event, device, assignment));
 	    } else {
 		publish(event, getTopic());
@@ -255,7 +288,102 @@ public class MqttOutboundConnector extends FilteredOutboundConnector
      * @throws SiteWhereException
      */
     protected void publish(IDeviceEvent event, String topic) throws SiteWhereException {
-	connection.publish(topic, MarshalUtils.marshalJson(event), QoS.AT_LEAST_ONCE, false);
+	int index = Math.abs(nextConnection.getAndIncrement() % connections.size());
+	connections.get(index).publish(topic, MarshalUtils.marshalJson(event));
+    }
+
+    /*
+     * @see com.sitewhere.connectors.spi.IAcknowledgingOutboundConnector#
+     * startDeliveryBatch()
+     */
+    @Override
+    public IDeliveryBatch startDeliveryBatch() {
+	DeliveryBatch batch = new DeliveryBatch();
+	this.deliveryBatch = batch;
+	return batch;
+    }
+
+    /**
+     * Transform configuration to MQTT QoS
+     * 
+     * @param qos
+     * @return
+     */
+    private static QoS qosFromConfig(String qos) {
+	if ("0".equals(qos) || "AT_MOST_ONCE".equals(qos))
+	    return QoS.AT_MOST_ONCE;
+	if ("2".equals(qos) || "EXACTLY_ONCE".equals(qos))
+	    return QoS.EXACTLY_ONCE;
+	return QoS.AT_LEAST_ONCE;
+    }
+
+    /**
+     * Broker connection with a bounded window of unacknowledged publishes.
+     * 
+     * @author Derek
+     */
+    private class PublishingConnection {
+
+	/** Hawtdispatch queue */
+	private DispatchQueue queue;
+
+	/** MQTT connection */
+	private FutureConnection connection;
+
+	/** Permits for unacknowledged publishes */
+	private Semaphore window;
+
+	public PublishingConnection(DispatchQueue queue, FutureConnection connection) {
+	    this.queue = queue;
+	    this.connection = connection;
+	    this.window = new Semaphore(getMaxInFlight());
+	}
+
+	/**
+	 * Publish a payload, blocking if the in-flight window is full.
+	 * 
+	 * @param topic
+	 * @param payload
+	 * @throws SiteWhereException
+	 */
+	public void publish(String topic, byte[] payload) throws SiteWhereException {
+	    try {
+		window.acquire();
+	    } catch (InterruptedException e) {
+		Thread.currentThread().interrupt();
+		throw new SiteWhereException("Interrupted waiting for MQTT publish window.", e);
+	    }
+	    final DeliveryBatch batch = deliveryBatch;
+	    batch.deliveryStarted();
+	    connection.publish(topic, payload, qosFromConfig(getQos()), false).then(new Callback<Void>() {
+
+		@Override
+		public void onSuccess(Void value) {
+		    window.release();
+		    batch.deliveryCompleted(null);
+		}
+
+		@Override
+		public void onFailure(Throwable t) {
+		    window.release();
+		    getLogger().error("MQTT publish was not acknowledged by broker.", t);
+		    batch.deliveryCompleted(t);
+		}
+	    });
+	}
+
+	/**
+	 * Disconnect from broker.
+	 */
+	public void close() {
+	    try {
+		connection.disconnect();
+		connection.kill();
+	    } catch (Exception e) {
+		getLogger().error("Error shutting down MQTT outbound connector connection.", e);
+	    }
+	    queue.suspend();
+	}
     }
 
     /*
@@ -435,4 +563,20 @@ public class MqttOutboundConnector extends FilteredOutboundConnector
     public void setTopic(String topic) {
 	this.topic = topic;
     }
+
+    public int getConnectionPoolSize() {
+	return connectionPoolSize;
+    }
+
+    public void setConnectionPoolSize(int connectionPoolSize) {
+	this.connectionPoolSize = connectionPoolSize;
+    }
+
+    public int getMaxInFlight() {
+	return maxInFlight;
+    }
+
+    public void setMaxInFlight(int maxInFlight) {
+	this.maxInFlight = maxInFlight;
+    }
 }
\ No newline at end of file
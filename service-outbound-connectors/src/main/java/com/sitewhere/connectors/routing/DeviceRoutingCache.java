@@ -0,0 +1,266 @@
+/*
+ * Copyright (c) SiteWhere, LLC. All rights reserved. http://www.sitewhere.com
+ *
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package com.sitewhere.connectors.routing;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.sitewhere.connectors.spi.microservice.IOutboundConnectorsMicroservice;
+import com.sitewhere.grpc.client.device.CachedDeviceManagementApiChannel;
+import com.sitewhere.grpc.client.spi.cache.ICacheListener;
+import com.sitewhere.grpc.client.spi.cache.ICacheProvider;
+import com.sitewhere.spi.SiteWhereException;
+import com.sitewhere.spi.device.IDevice;
+import com.sitewhere.spi.device.IDeviceAssignment;
+import com.sitewhere.spi.device.IDeviceManagement;
+import com.sitewhere.spi.server.lifecycle.ITenantEngineLifecycleComponent;
+import com.sitewhere.spi.tenant.ITenant;
+
+/**
+ * Local cache of devices and assignments used to calculate routes for outbound
+ * events. Entries are kept current by listening to the Hazelcast device and
+ * assignment maps maintained by device management. Listeners are registered
+ * lazily since the Hazelcast client connects in the background. Entries also
+ * expire after a bounded time in case notifications are missed.
+ * 
+ * @author Derek
+ */
+public class DeviceRoutingCache {
+
+    /** Maximum number of entries held for each entity type */
+    private static final int MAX_ENTRIES = 10000;
+
+    /** Number of seconds entries are retained */
+    private static final int ENTRY_TTL_SECS = 300;
+
+    /** Minimum interval between attempts to register listeners */
+    private static final long LISTENER_RETRY_INTERVAL_MS = 5000;
+
+    /** Component that owns the cache */
+    private ITenantEngineLifecycleComponent owner;
+
+    /** Devices by id */
+    private Cache<UUID, IDevice> devices = CacheBuilder.newBuilder().maximumSize(MAX_ENTRIES)
+	    .expireAfterWrite(ENTRY_TTL_SECS, TimeUnit.SECONDS).build();
+
+    /** Device assignments by id */
+    private Cache<UUID, IDeviceAssignment> assignments = CacheBuilder.newBuilder().maximumSize(MAX_ENTRIES)
+	    .expireAfterWrite(ENTRY_TTL_SECS, TimeUnit.SECONDS).build();
+
+    /** Additional listeners for device changes */
+    private List<ICacheListener<UUID, IDevice>> deviceListeners = new CopyOnWriteArrayList<>();
+
+    /** Additional listeners for assignment changes */
+    private List<ICacheListener<UUID, IDeviceAssignment>> assignmentListeners = new CopyOnWriteArrayList<>();
+
+    /** Registration id for device map listener */
+    private String deviceRegistration;
+
+    /** Registration id for assignment map listener */
+    private String assignmentRegistration;
+
+    /** Last time listener registration was attempted */
+    private long lastRegistrationAttempt;
+
+    public DeviceRoutingCache(ITenantEngineLifecycleComponent owner) {
+	this.owner = owner;
+    }
+
+    /**
+     * Get device by id.
+     * 
+     * @param id
+     * @return
+     * @throws SiteWhereException
+     */
+    public IDevice getDevice(UUID id) throws SiteWhereException {
+	registerListeners();
+	IDevice device = devices.getIfPresent(id);
+	if (device == null) {
+	    device = getDeviceManagement().getDevice(id);
+	    if (device != null) {
+		devices.put(id, device);
+	    }
+	}
+	return device;
+    }
+
+    /**
+     * Get device assignment by id.
+     * 
+     * @param id
+     * @return
+     * @throws SiteWhereException
+     */
+    public IDeviceAssignment getDeviceAssignment(UUID id) throws SiteWhereException {
+	registerListeners();
+	IDeviceAssignment assignment = assignments.getIfPresent(id);
+	if (assignment == null) {
+	    assignment = getDeviceManagement().getDeviceAssignment(id);
+	    if (assignment != null) {
+		assignments.put(id, assignment);
+	    }
+	}
+	return assignment;
+    }
+
+    /**
+     * Add listener notified when a device changes.
+     * 
+     * @param listener
+     */
+    public void addDeviceListener(ICacheListener<UUID, IDevice> listener) {
+	deviceListeners.add(listener);
+    }
+
+    /**
+     * Add listener notified when a device assignment changes.
+     * 
+     * @param listener
+     */
+    public void addAssignmentListener(ICacheListener<UUID, IDeviceAssignment> listener) {
+	assignmentListeners.add(listener);
+    }
+
+    /**
+     * Indicates whether changes are being received from device management.
+     * 
+     * @return
+     */
+    public boolean isListening() {
+	return (deviceRegistration != null) && (assignmentRegistration != null);
+    }
+
+    /**
+     * Register listeners on device management maps if not already registered.
+     * Attempts are rate limited while the maps are unavailable.
+     */
+    public synchronized void registerListeners() {
+	if (isListening() || (System.currentTimeMillis() - lastRegistrationAttempt < LISTENER_RETRY_INTERVAL_MS)) {
+	    return;
+	}
+	lastRegistrationAttempt = System.currentTimeMillis();
+	IDeviceManagement management = getDeviceManagement();
+	if (!(management instanceof CachedDeviceManagementApiChannel)) {
+	    return;
+	}
+	CachedDeviceManagementApiChannel cached = (CachedDeviceManagementApiChannel) management;
+	try {
+	    ITenant tenant = owner.getTenantEngine().getTenant();
+	    if (deviceRegistration == null) {
+		deviceRegistration = cached.getDeviceByIdCache().addCacheListener(tenant, new DeviceListener());
+	    }
+	    if (assignmentRegistration == null) {
+		assignmentRegistration = cached.getDeviceAssignmentByIdCache().addCacheListener(tenant,
+			new AssignmentListener());
+	    }
+	    if (isListening()) {
+		owner.getLogger().info("Routing cache is listening for device management updates.");
+	    }
+	} catch (SiteWhereException e) {
+	    owner.getLogger().warn("Unable to register routing cache listeners.", e);
+	}
+    }
+
+    /**
+     * Remove listeners and clear cached entries.
+     */
+    public synchronized void close() {
+	IDeviceManagement management = getDeviceManagement();
+	if (management instanceof CachedDeviceManagementApiChannel) {
+	    CachedDeviceManagementApiChannel cached = (CachedDeviceManagementApiChannel) management;
+	    try {
+		ITenant tenant = owner.getTenantEngine().getTenant();
+		removeListener(cached.getDeviceByIdCache(), tenant, deviceRegistration);
+		removeListener(cached.getDeviceAssignmentByIdCache(), tenant, assignmentRegistration);
+	    } catch (SiteWhereException e) {
+		owner.getLogger().warn("Unable to remove routing cache listeners.", e);
+	    }
+	}
+	deviceRegistration = null;
+	assignmentRegistration = null;
+	devices.invalidateAll();
+	assignments.invalidateAll();
+    }
+
+    /**
+     * Remove a listener from a cache.
+     * 
+     * @param provider
+     * @param tenant
+     * @param registration
+     * @throws SiteWhereException
+     */
+    protected void removeListener(ICacheProvider<UUID, ?> provider, ITenant tenant, String registration)
+	    throws SiteWhereException {
+	if (registration != null) {
+	    provider.removeCacheListener(tenant, registration);
+	}
+    }
+
+    protected IDeviceManagement getDeviceManagement() {
+	return ((IOutboundConnectorsMicroservice) owner.getTenantEngine().getMicroservice())
+		.getDeviceManagementApiDemux().getApiChannel();
+    }
+
+    /**
+     * Applies device changes to local cache and forwards them to listeners.
+     * 
+     * @author Derek
+     */
+    private class DeviceListener implements ICacheListener<UUID, IDevice> {
+
+	@Override
+	public void onEntryUpdated(UUID key, IDevice value) {
+	    if (devices.getIfPresent(key) != null) {
+		devices.put(key, value);
+	    }
+	    for (ICacheListener<UUID, IDevice> listener : deviceListeners) {
+		listener.onEntryUpdated(key, value);
+	    }
+	}
+
+	@Override
+	public void onEntryRemoved(UUID key) {
+	    devices.invalidate(key);
+	    for (ICacheListener<UUID, IDevice> listener : deviceListeners) {
+		listener.onEntryRemoved(key);
+	    }
+	}
+    }
+
+    /**
+     * Applies assignment changes to local cache and forwards them to listeners.
+     * 
+     * @author Derek
+     */
+    private class AssignmentListener implements ICacheListener<UUID, IDeviceAssignment> {
+
+	@Override
+	public void onEntryUpdated(UUID key, IDeviceAssignment value) {
+	    if (assignments.getIfPresent(key) != null) {
+		assignments.put(key, value);
+	    }
+	    for (ICacheListener<UUID, IDeviceAssignment> listener : assignmentListeners) {
+		listener.onEntryUpdated(key, value);
+	    }
+	}
+
+	@Override
+	public void onEntryRemoved(UUID key) {
+	    assignments.invalidate(key);
+	    for (ICacheListener<UUID, IDeviceAssignment> listener : assignmentListeners) {
+		listener.onEntryRemoved(key);
+	    }
+	}
+    }
+}
@@ -0,0 +1,27 @@
+/*
+ * Copyright (c) SiteWhere, LLC. All rights reserved. http://www.sitewhere.com
+ *
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package com.sitewhere.connectors.spi;
+
+/**
+ * Extends {@link IOutboundConnector} for connectors that deliver events
+ * asynchronously and receive acknowledgements from the external system. The
+ * connector host starts a delivery batch for each batch of records and waits
+ * for its acknowledgements before committing offsets for those records.
+ * 
+ * @author Derek
+ */
+public interface IAcknowledgingOutboundConnector extends IOutboundConnector {
+
+    /**
+     * Start a new delivery batch. Deliveries started after this call, and before
+     * the next, are tracked by the returned batch.
+     * 
+     * @return
+     */
+    public IDeliveryBatch startDeliveryBatch();
+}
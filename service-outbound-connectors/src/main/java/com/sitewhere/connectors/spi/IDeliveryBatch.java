@@ -0,0 +1,32 @@
+/*
+ * Copyright (c) SiteWhere, LLC. All rights reserved. http://www.sitewhere.com
+ *
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package com.sitewhere.connectors.spi;
+
+import java.util.concurrent.TimeUnit;
+
+import com.sitewhere.spi.SiteWhereException;
+
+/**
+ * Tracks acknowledgements for events delivered by an
+ * {@link IAcknowledgingOutboundConnector} while processing a single batch.
+ * 
+ * @author Derek
+ */
+public interface IDeliveryBatch {
+
+    /**
+     * Wait until all deliveries in the batch have been acknowledged. An exception
+     * is thrown if any delivery in the batch failed or if acknowledgements do not
+     * arrive within the timeout.
+     * 
+     * @param timeout
+     * @param unit
+     * @throws SiteWhereException
+     */
+    public void awaitAcknowledgements(long timeout, TimeUnit unit) throws SiteWhereException;
+}
@@ -0,0 +1,45 @@
+/*
+ * Copyright (c) SiteWhere, LLC. All rights reserved. http://www.sitewhere.com
+ *
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package com.sitewhere.connectors.spi.filter;
+
+import java.util.Map;
+
+import com.sitewhere.spi.device.event.IDeviceEvent;
+import com.sitewhere.spi.device.event.IDeviceEventContext;
+
+/**
+ * Values available to compiled filter expressions while evaluating a single
+ * event. A context is created once per event and shared by all filters for a
+ * connector, so values derived from the event are only calculated once.
+ * 
+ * @author Derek
+ */
+public interface IFilterEvaluationContext {
+
+    /**
+     * Get context for device associated with event.
+     * 
+     * @return
+     */
+    public IDeviceEventContext getEventContext();
+
+    /**
+     * Get event being evaluated.
+     * 
+     * @return
+     */
+    public IDeviceEvent getEvent();
+
+    /**
+     * Get measurement values for event. Returns an empty map for events other
+     * than measurements.
+     * 
+     * @return
+     */
+    public Map<String, Double> getMeasurements();
+}
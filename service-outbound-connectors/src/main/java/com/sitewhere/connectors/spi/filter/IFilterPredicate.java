@@ -0,0 +1,24 @@
+/*
+ * Copyright (c) SiteWhere, LLC. All rights reserved. http://www.sitewhere.com
+ *
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package com.sitewhere.connectors.spi.filter;
+
+/**
+ * Node in a compiled filter expression.
+ * 
+ * @author Derek
+ */
+public interface IFilterPredicate {
+
+    /**
+     * Indicates whether the event being evaluated matches the predicate.
+     * 
+     * @param context
+     * @return
+     */
+    public boolean matches(IFilterEvaluationContext context);
+}
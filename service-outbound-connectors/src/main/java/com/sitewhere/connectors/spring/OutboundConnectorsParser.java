@@ -34,6 +34,7 @@ import com.sitewhere.connectors.azure.EventHubOutboundEventProcessor;
 import com.sitewhere.connectors.dweetio.DweetIoEventProcessor;
 import com.sitewhere.connectors.filter.AreaFilter;
 import com.sitewhere.connectors.filter.DeviceTypeFilter;
+import com.sitewhere.connectors.filter.ExpressionFilter;
 import com.sitewhere.connectors.filter.FilterOperation;
 import com.sitewhere.connectors.groovy.GroovyEventProcessor;
 import com.sitewhere.connectors.groovy.filter.GroovyFilter;
@@ -225,6 +226,16 @@ public class OutboundConnectorsParser extends AbstractBeanDefinitionParser {
 	    processor.addPropertyValue("topic", topic.getValue());
 	}
 
+	Attr connectionPoolSize = element.getAttributeNode("connectionPoolSize");
+	if (connectionPoolSize != null) {
+	    processor.addPropertyValue("connectionPoolSize", connectionPoolSize.getValue());
+	}
+
+	Attr maxInFlight = element.getAttributeNode("maxInFlight");
+	if (maxInFlight != null) {
+	    processor.addPropertyValue("maxInFlight", maxInFlight.getValue());
+	}
+
 	// Parse nested filters.
 	processor.addPropertyValue("filters", parseFilters(element, context));
 
@@ -499,6 +510,10 @@ public class OutboundConnectorsParser extends AbstractBeanDefinitionParser {
 		    result.add(parseGroovyFilter(child, context));
 		    break;
 		}
+		case ExpressionFilter: {
+		    result.add(parseExpressionFilter(child, context));
+		    break;
+		}
 		}
 	    }
 	}
@@ -558,6 +573,25 @@ public class OutboundConnectorsParser extends AbstractBeanDefinitionParser {
 	return filter.getBeanDefinition();
     }
 
+    /**
+     * Parse configuration for expression filter.
+     * 
+     * @param element
+     * @param context
+     * @return
+     */
+    protected AbstractBeanDefinition parseExpressionFilter(Element element, ParserContext context) {
+	BeanDefinitionBuilder filter = BeanDefinitionBuilder.rootBeanDefinition(ExpressionFilter.class);
+
+	Attr expression = element.getAttributeNode("expression");
+	if (expression == null) {
+	    throw new RuntimeException("Attribute 'expression' is required for expression-filter.");
+	}
+	filter.addPropertyValue("expression", expression.getValue());
+
+	return filter.getBeanDefinition();
+    }
+
     /**
      * Parse configuration for Groovy filter.
      * 
@@ -622,6 +656,11 @@ public class OutboundConnectorsParser extends AbstractBeanDefinitionParser {
 	    multicaster.addPropertyValue("scriptPath", scriptPath.getValue());
 	}
 
+	Attr precomputeRoutes = element.getAttributeNode("precomputeRoutes");
+	if (precomputeRoutes != null) {
+	    multicaster.addPropertyValue("precomputeRoutes", precomputeRoutes.getValue());
+	}
+
 	return multicaster.getBeanDefinition();
     }
 
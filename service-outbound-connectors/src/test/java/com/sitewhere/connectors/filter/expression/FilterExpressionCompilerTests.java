@@ -0,0 +1,279 @@
+/*
+ * Copyright (c) SiteWhere, LLC. All rights reserved. http://www.sitewhere.com
+ *
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package com.sitewhere.connectors.filter.expression;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import org.junit.Test;
+
+import com.sitewhere.connectors.spi.filter.IFilterEvaluationContext;
+import com.sitewhere.rest.model.area.Area;
+import com.sitewhere.rest.model.device.DeviceType;
+import com.sitewhere.rest.model.device.event.DeviceEventContext;
+import com.sitewhere.rest.model.device.event.DeviceMeasurements;
+import com.sitewhere.spi.SiteWhereException;
+import com.sitewhere.spi.device.DeviceAssignmentStatus;
+import com.sitewhere.spi.device.IDeviceManagement;
+
+/**
+ * Tests for {@link FilterExpressionCompiler}.
+ * 
+ * @author Derek
+ */
+public class FilterExpressionCompilerTests {
+
+    /** Id of known device type */
+    private static final UUID DEVICE_TYPE_ID = UUID.randomUUID();
+
+    /** Id of other known device type */
+    private static final UUID OTHER_DEVICE_TYPE_ID = UUID.randomUUID();
+
+    /** Id of known area */
+    private static final UUID AREA_ID = UUID.randomUUID();
+
+    /** Compiler backed by stub device management */
+    private FilterExpressionCompiler compiler = new FilterExpressionCompiler(createDeviceManagement());
+
+    @Test
+    public void testAndBindsTighterThanOr() throws Exception {
+	String expression = "measurement.t > 10 or measurement.h > 10 and measurement.p > 10";
+	assertTrue(matches(expression, measurements(20, 0, 0)));
+	assertFalse(matches(expression, measurements(0, 20, 0)));
+	assertTrue(matches(expression, measurements(0, 20, 20)));
+    }
+
+    @Test
+    public void testNotBindsTighterThanAnd() throws Exception {
+	String expression = "not measurement.t > 10 and measurement.h > 10";
+	assertTrue(matches(expression, measurements(0, 20, 0)));
+	assertFalse(matches(expression, measurements(20, 20, 0)));
+	assertFalse(matches(expression, measurements(0, 0, 0)));
+    }
+
+    @Test
+    public void testSymbolOperators() throws Exception {
+	String expression = "!measurement.t > 10 && measurement.h > 10 || measurement.p > 10";
+	assertTrue(matches(expression, measurements(0, 20, 0)));
+	assertTrue(matches(expression, measurements(20, 0, 20)));
+	assertFalse(matches(expression, measurements(20, 20, 0)));
+    }
+
+    @Test
+    public void testKeywordsIgnoreCase() throws Exception {
+	assertTrue(matches("NOT measurement.t > 10 AND measurement.h > 10", measurements(0, 20, 0)));
+	assertTrue(matches("measurement.t > 10 Or measurement.h > 10", measurements(0, 20, 0)));
+    }
+
+    @Test
+    public void testParentheses() throws Exception {
+	String expression = "(measurement.t > 10 or measurement.h > 10) and measurement.p > 10";
+	assertFalse(matches(expression, measurements(20, 0, 0)));
+	assertTrue(matches(expression, measurements(20, 0, 20)));
+	assertTrue(matches(expression, measurements(0, 20, 20)));
+
+	String nested = "not ((measurement.t > 10) and (measurement.h > 10 or (measurement.p > 10)))";
+	assertTrue(matches(nested, measurements(20, 0, 0)));
+	assertFalse(matches(nested, measurements(20, 0, 20)));
+    }
+
+    @Test
+    public void testNumericComparisons() throws Exception {
+	DeviceMeasurements event = measurements(10, 0, 0);
+	assertTrue(matches("measurement.t == 10", event));
+	assertTrue(matches("measurement.t != 11", event));
+	assertTrue(matches("measurement.t <= 10", event));
+	assertTrue(matches("measurement.t >= 10", event));
+	assertFalse(matches("measurement.t < 10", event));
+	assertFalse(matches("measurement.t > 10", event));
+	assertTrue(matches("measurement.t > -1.5", event));
+	assertTrue(matches("measurement.t in (1, 5, 10)", event));
+    }
+
+    @Test
+    public void testMissingValuesNeverOrdered() throws Exception {
+	DeviceMeasurements event = measurements(10, 0, 0);
+	assertFalse(matches("measurement.missing < 100", event));
+	assertFalse(matches("measurement.missing > -100", event));
+	assertTrue(matches("not measurement.missing < 100", event));
+	assertFalse(matches("device.metadata.room > 1", event));
+    }
+
+    @Test
+    public void testContextFields() throws Exception {
+	DeviceMeasurements event = measurements(0, 0, 0);
+	event.setAreaId(AREA_ID);
+	event.getMetadata().put("source", "gateway");
+	assertTrue(matches("deviceType == 'sensor'", event));
+	assertTrue(matches("deviceType in ('other', 'sensor')", event));
+	assertFalse(matches("deviceType == 'other'", event));
+	assertTrue(matches("area == 'north'", event));
+	assertTrue(matches("eventType == 'Measurements'", event));
+	assertTrue(matches("eventType != 'Alert'", event));
+	assertTrue(matches("device.status == 'ok'", event));
+	assertTrue(matches("assignment.status == 'Active'", event));
+	assertTrue(matches("device.metadata.floor == '3' and device.metadata.floor >= 3", event));
+	assertTrue(matches("assignment.metadata.owner == \"ops\"", event));
+	assertTrue(matches("event.metadata.source == 'gateway'", event));
+	assertFalse(matches("event.metadata.unknown == 'gateway'", event));
+    }
+
+    @Test
+    public void testStringEscaping() throws Exception {
+	DeviceMeasurements event = measurements(0, 0, 0);
+	event.getMetadata().put("name", "O'Brien");
+	event.getMetadata().put("quote", "say \"hi\"");
+	event.getMetadata().put("path", "a\\b");
+	assertTrue(matches("event.metadata.name == 'O\\'Brien'", event));
+	assertTrue(matches("event.metadata.name == \"O'Brien\"", event));
+	assertTrue(matches("event.metadata.quote == \"say \\\"hi\\\"\"", event));
+	assertTrue(matches("event.metadata.quote == 'say \"hi\"'", event));
+	assertTrue(matches("event.metadata.path == 'a\\\\b'", event));
+	assertTrue(matches("event.metadata.name in ('x', 'O\\'Brien')", event));
+    }
+
+    @Test
+    public void testUnknownIdentifiers() throws Exception {
+	assertInvalid("unknown == 'x'");
+	assertInvalid("device.unknown == 'x'");
+	assertInvalid("measurements.t > 1");
+	assertInvalid("deviceType == 'missing'");
+	assertInvalid("area in ('north', 'missing')");
+	assertInvalid("eventType == 'NotAnEventType'");
+    }
+
+    @Test
+    public void testMalformedInput() throws Exception {
+	assertInvalid("");
+	assertInvalid("measurement.t");
+	assertInvalid("measurement.t >");
+	assertInvalid("measurement.t > 1 and");
+	assertInvalid("and measurement.t > 1");
+	assertInvalid("(measurement.t > 1");
+	assertInvalid("measurement.t > 1)");
+	assertInvalid("measurement.t > 1 measurement.h > 1");
+	assertInvalid("measurement.t # 1");
+	assertInvalid("measurement.t = 1");
+	assertInvalid("measurement.t > 'abc'");
+	assertInvalid("measurement.t > 1.2.3");
+	assertInvalid("measurement.t in ()");
+	assertInvalid("measurement.t in (1, )");
+	assertInvalid("measurement.t in 1");
+	assertInvalid("event.metadata.name == 'unterminated");
+	assertInvalid("event.metadata.name == 'escaped end\\'");
+	assertInvalid("'text' == event.metadata.name");
+	assertInvalid("not");
+    }
+
+    /**
+     * Compile an expression and evaluate it against an event.
+     * 
+     * @param expression
+     * @param event
+     * @return
+     * @throws SiteWhereException
+     */
+    protected boolean matches(String expression, DeviceMeasurements event) throws SiteWhereException {
+	IFilterEvaluationContext context = new FilterEvaluationContext(createEventContext(), event);
+	return compiler.compile(expression).matches(context);
+    }
+
+    /**
+     * Assert that compiling an expression fails.
+     * 
+     * @param expression
+     */
+    protected void assertInvalid(String expression) {
+	try {
+	    compiler.compile(expression);
+	    fail("Expected expression to be rejected: " + expression);
+	} catch (SiteWhereException e) {
+	    // Expected.
+	}
+    }
+
+    /**
+     * Create measurements event with the given values.
+     * 
+     * @param t
+     * @param h
+     * @param p
+     * @return
+     */
+    protected static DeviceMeasurements measurements(double t, double h, double p) {
+	DeviceMeasurements event = new DeviceMeasurements();
+	event.addOrReplaceMeasurement("t", t);
+	event.addOrReplaceMeasurement("h", h);
+	event.addOrReplaceMeasurement("p", p);
+	event.setMetadata(new HashMap<String, String>());
+	return event;
+    }
+
+    /**
+     * Create device context used for all evaluations.
+     * 
+     * @return
+     */
+    protected static DeviceEventContext createEventContext() {
+	DeviceEventContext context = new DeviceEventContext();
+	context.setDeviceTypeId(DEVICE_TYPE_ID);
+	context.setDeviceStatus("ok");
+	Map<String, String> deviceMetadata = new HashMap<>();
+	deviceMetadata.put("floor", "3");
+	context.setDeviceMetadata(deviceMetadata);
+	context.setAssignmentStatus(DeviceAssignmentStatus.Active);
+	Map<String, String> assignmentMetadata = new HashMap<>();
+	assignmentMetadata.put("owner", "ops");
+	context.setAssignmentMetadata(assignmentMetadata);
+	return context;
+    }
+
+    /**
+     * Create device management that only resolves device types and areas.
+     * 
+     * @return
+     */
+    protected static IDeviceManagement createDeviceManagement() {
+	Map<String, DeviceType> deviceTypes = new HashMap<>();
+	deviceTypes.put("sensor", deviceType(DEVICE_TYPE_ID));
+	deviceTypes.put("other", deviceType(OTHER_DEVICE_TYPE_ID));
+	Map<String, Area> areas = new HashMap<>();
+	Area area = new Area();
+	area.setId(AREA_ID);
+	areas.put("north", area);
+	return (IDeviceManagement) Proxy.newProxyInstance(IDeviceManagement.class.getClassLoader(),
+		new Class<?>[] { IDeviceManagement.class }, (proxy, method, args) -> {
+		    switch (method.getName()) {
+		    case "getDeviceTypeByToken":
+			return deviceTypes.get(args[0]);
+		    case "getAreaByToken":
+			return areas.get(args[0]);
+		    default:
+			throw new UnsupportedOperationException(method.getName());
+		    }
+		});
+    }
+
+    /**
+     * Create device type with the given id.
+     * 
+     * @param id
+     * @return
+     */
+    protected static DeviceType deviceType(UUID id) {
+	DeviceType deviceType = new DeviceType();
+	deviceType.setId(id);
+	return deviceType;
+    }
+}
@@ -21,6 +21,7 @@ import org.apache.kafka.common.TopicPartition;
 
 import com.sitewhere.common.MarshalUtils;
 import com.sitewhere.grpc.kafka.model.KafkaModel.GEnrichedEventPayload;
+import com.sitewhere.grpc.kafka.model.KafkaModel.GEventReplayStage;
 import com.sitewhere.grpc.model.converter.KafkaModelConverter;
 import com.sitewhere.grpc.model.marshaler.KafkaModelMarshaler;
 import com.sitewhere.microservice.kafka.DirectKafkaConsumer;
@@ -183,6 +184,9 @@ public class KafkaRuleProcessorHost extends DirectKafkaConsumer {
 	public void runAsSystemUser() throws SiteWhereException {
 	    try {
 		GEnrichedEventPayload grpc = KafkaModelMarshaler.parseEnrichedEventPayloadMessage(encoded);
+		if (!KafkaModelConverter.isProcessedByStage(grpc, GEventReplayStage.REPLAY_STAGE_RULES)) {
+		    return;
+		}
 		EnrichedEventPayload payload = KafkaModelConverter.asApiEnrichedEventPayload(grpc);
 		if (getLogger().isDebugEnabled()) {
 		    getLogger().debug(
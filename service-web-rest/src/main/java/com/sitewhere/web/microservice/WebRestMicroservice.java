@@ -11,6 +11,7 @@ import com.sitewhere.grpc.client.ApiChannelNotAvailableException;
 import com.sitewhere.grpc.client.asset.AssetManagementApiDemux;
 import com.sitewhere.grpc.client.batch.BatchManagementApiDemux;
 import com.sitewhere.grpc.client.device.DeviceManagementApiDemux;
+import com.sitewhere.grpc.client.devicestate.DeviceStateApiDemux;
 import com.sitewhere.grpc.client.event.DeviceEventManagementApiDemux;
 import com.sitewhere.grpc.client.label.LabelGenerationApiDemux;
 import com.sitewhere.grpc.client.schedule.ScheduleManagementApiDemux;
@@ -18,6 +19,7 @@ import com.sitewhere.grpc.client.spi.client.IAssetManagementApiDemux;
 import com.sitewhere.grpc.client.spi.client.IBatchManagementApiDemux;
 import com.sitewhere.grpc.client.spi.client.IDeviceEventManagementApiDemux;
 import com.sitewhere.grpc.client.spi.client.IDeviceManagementApiDemux;
+import com.sitewhere.grpc.client.spi.client.IDeviceStateApiDemux;
 import com.sitewhere.grpc.client.spi.client.ILabelGenerationApiDemux;
 import com.sitewhere.grpc.client.spi.client.IScheduleManagementApiDemux;
 import com.sitewhere.grpc.client.spi.client.ITenantManagementApiDemux;
@@ -63,6 +65,9 @@ public class WebRestMicroservice extends GlobalMicroservice<MicroserviceIdentifi
     /** Device event management API demux */
     private IDeviceEventManagementApiDemux deviceEventManagementApiDemux;
 
+    /** Device state API demux */
+    private IDeviceStateApiDemux deviceStateApiDemux;
+
     /** Asset management API demux */
     private IAssetManagementApiDemux assetManagementApiDemux;
 
@@ -176,6 +181,9 @@ public class WebRestMicroservice extends GlobalMicroservice<MicroserviceIdentifi
 	// Initialize device event management API demux.
 	init.addInitializeStep(this, getDeviceEventManagementApiDemux(), true);
 
+	// Initialize device state API demux.
+	init.addInitializeStep(this, getDeviceStateApiDemux(), true);
+
 	// Initialize asset management API demux.
 	init.addInitializeStep(this, getAssetManagementApiDemux(), true);
 
@@ -213,6 +221,9 @@ public class WebRestMicroservice extends GlobalMicroservice<MicroserviceIdentifi
 	// Device event management.
 	this.deviceEventManagementApiDemux = new DeviceEventManagementApiDemux();
 
+	// Device state.
+	this.deviceStateApiDemux = new DeviceStateApiDemux();
+
 	// Asset management.
 	this.assetManagementApiDemux = new AssetManagementApiDemux();
 
@@ -253,6 +264,9 @@ public class WebRestMicroservice extends GlobalMicroservice<MicroserviceIdentifi
 	// Start device event mangement API demux.
 	start.addStartStep(this, getDeviceEventManagementApiDemux(), true);
 
+	// Start device state API demux.
+	start.addStartStep(this, getDeviceStateApiDemux(), true);
+
 	// Start asset mangement API demux.
 	start.addStartStep(this, getAssetManagementApiDemux(), true);
 
@@ -295,6 +309,9 @@ public class WebRestMicroservice extends GlobalMicroservice<MicroserviceIdentifi
 	// Stop device event mangement API demux.
 	stop.addStopStep(this, getDeviceEventManagementApiDemux());
 
+	// Stop device state API demux.
+	stop.addStopStep(this, getDeviceStateApiDemux());
+
 	// Stop asset mangement API demux.
 	stop.addStopStep(this, getAssetManagementApiDemux());
 
@@ -366,6 +383,19 @@ public class WebRestMicroservice extends GlobalMicroservice<MicroserviceIdentifi
 	this.deviceEventManagementApiDemux = deviceEventManagementApiDemux;
     }
 
+    /*
+     * @see com.sitewhere.web.spi.microservice.IWebRestMicroservice#
+     * getDeviceStateApiDemux()
+     */
+    @Override
+    public IDeviceStateApiDemux getDeviceStateApiDemux() {
+	return deviceStateApiDemux;
+    }
+
+    public void setDeviceStateApiDemux(IDeviceStateApiDemux deviceStateApiDemux) {
+	this.deviceStateApiDemux = deviceStateApiDemux;
+    }
+
     /*
      * @see com.sitewhere.web.spi.microservice.IWebRestMicroservice#
      * getAssetManagementApiDemux()
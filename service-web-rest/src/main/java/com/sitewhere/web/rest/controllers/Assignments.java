@@ -43,6 +43,7 @@ import com.sitewhere.device.marshaling.DeviceAssignmentMarshalHelper;
 import com.sitewhere.device.marshaling.DeviceCommandInvocationMarshalHelper;
 import com.sitewhere.grpc.client.event.BlockingDeviceEventManagement;
 import com.sitewhere.grpc.client.spi.client.IDeviceEventManagementApiChannel;
+import com.sitewhere.grpc.client.spi.client.IDeviceStateApiChannel;
 import com.sitewhere.rest.model.device.DeviceAssignment;
 import com.sitewhere.rest.model.device.event.DeviceCommandResponse;
 import com.sitewhere.rest.model.device.event.request.DeviceAlertCreateRequest;
@@ -77,6 +78,7 @@ import com.sitewhere.spi.device.event.IDeviceLocation;
 import com.sitewhere.spi.device.event.IDeviceMeasurements;
 import com.sitewhere.spi.device.event.IDeviceStateChange;
 import com.sitewhere.spi.device.event.IDeviceStreamData;
+import com.sitewhere.spi.device.state.IDeviceAssignmentLastValues;
 import com.sitewhere.spi.device.streaming.IDeviceStream;
 import com.sitewhere.spi.error.ErrorCode;
 import com.sitewhere.spi.error.ErrorLevel;
@@ -302,6 +304,29 @@ public class Assignments extends RestControllerBase {
 	return new SearchResults<IDeviceAssignment>(results, matches.getNumResults());
     }
 
+    /**
+     * Get most recent measurements, location and alerts for a list of device
+     * assignments. Values are served from the device state last value cache
+     * rather than querying event history.
+     * 
+     * @param tokens
+     * @param servletRequest
+     * @return
+     * @throws SiteWhereException
+     */
+    @RequestMapping(value = "/lastvalues", method = RequestMethod.POST)
+    @ApiOperation(value = "Get last values for a list of device assignments")
+    @Secured({ SiteWhereRoles.REST })
+    public List<IDeviceAssignmentLastValues> getLastValuesForAssignments(
+	    @ApiParam(value = "Assignment tokens", required = true) @RequestBody List<String> tokens,
+	    HttpServletRequest servletRequest) throws SiteWhereException {
+	List<UUID> assignmentIds = new ArrayList<>();
+	for (String token : tokens) {
+	    assignmentIds.add(assertDeviceAssignment(token).getId());
+	}
+	return getDeviceState().getLastValuesForAssignments(assignmentIds);
+    }
+
     /**
      * List all device measurements for a given assignment.
      * 
@@ -1009,6 +1034,10 @@ public class Assignments extends RestControllerBase {
 	return getMicroservice().getDeviceEventManagementApiDemux().getApiChannel();
     }
 
+    private IDeviceStateApiChannel<?> getDeviceState() {
+	return getMicroservice().getDeviceStateApiDemux().getApiChannel();
+    }
+
     private IAssetManagement getAssetManagement() {
 	return getMicroservice().getAssetManagementApiDemux().getApiChannel();
     }
@@ -43,6 +43,7 @@ import com.sitewhere.spi.user.IUserManagement;
 import com.sitewhere.spi.user.SiteWhereAuthority;
 import com.sitewhere.web.annotation.SiteWhereCrossOrigin;
 import com.sitewhere.web.rest.RestControllerBase;
+import com.sitewhere.web.security.jwt.JwtAuthenticationCache;
 import com.sitewhere.web.spi.microservice.IWebRestMicroservice;
 
 import io.swagger.annotations.Api;
@@ -64,6 +65,10 @@ public class Users extends RestControllerBase {
     @Autowired
     IWebRestMicroservice<?> webRestMicroservice;
 
+    /** Injected reference to verified token cache */
+    @Autowired
+    JwtAuthenticationCache jwtAuthenticationCache;
+
     /** Static logger instance */
     @SuppressWarnings("unused")
     private static Log LOGGER = LogFactory.getLog(Users.class);
@@ -104,6 +109,7 @@ public class Users extends RestControllerBase {
 	    @RequestBody UserCreateRequest input) throws SiteWhereException {
 	checkForAdminOrEditSelf(username);
 	IUser user = getUserManagement().updateUser(username, input, true);
+	jwtAuthenticationCache.invalidateUser(username);
 	return User.copy(user);
     }
 
@@ -143,6 +149,7 @@ public class Users extends RestControllerBase {
 	    throws SiteWhereException {
 	checkAuthForAll(SiteWhereAuthority.REST, SiteWhereAuthority.AdminUsers);
 	IUser user = getUserManagement().deleteUser(username, force);
+	jwtAuthenticationCache.invalidateUser(username);
 	return User.copy(user);
     }
 
@@ -22,6 +22,7 @@ import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
 import com.sitewhere.web.security.basic.LimitedBasicAuthFilter;
+import com.sitewhere.web.security.jwt.JwtAuthenticationCache;
 import com.sitewhere.web.security.jwt.TokenAuthenticationFilter;
 import com.sitewhere.web.spi.microservice.IWebRestMicroservice;
 
@@ -73,7 +74,18 @@ public class RestSecurity extends WebSecurityConfigurerAdapter {
      */
     @Bean
     protected TokenAuthenticationFilter tokenAuthenticationFilter() throws Exception {
-	return new TokenAuthenticationFilter(getWebRestMicroservice(), authenticationManagerBean());
+	return new TokenAuthenticationFilter(getWebRestMicroservice(), authenticationManagerBean(),
+		jwtAuthenticationCache());
+    }
+
+    /**
+     * Cache of verified JWTs shared by the token filter and user updates.
+     * 
+     * @return
+     */
+    @Bean
+    public JwtAuthenticationCache jwtAuthenticationCache() {
+	return new JwtAuthenticationCache();
     }
 
     /**
@@ -0,0 +1,134 @@
+/*
+ * Copyright (c) SiteWhere, LLC. All rights reserved. http://www.sitewhere.com
+ *
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package com.sitewhere.web.security.jwt;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.sitewhere.security.SitewhereAuthentication;
+import com.sitewhere.security.SitewhereUserDetails;
+
+/**
+ * Bounded, expiring cache of user details for JWTs that have already been
+ * verified and authenticated by the REST tier. Avoids re-verifying the token
+ * signature and reloading the user and granted authorities on every request.
+ * Entries are never returned past the expiration of the token they were
+ * derived from. Changes to a user should be followed by a call to
+ * {@link #invalidateUser(String)} so that cached tokens for the user are
+ * verified again.
+ * 
+ * @author Derek
+ */
+public class JwtAuthenticationCache {
+
+    /** Default maximum number of cached tokens */
+    private static final int DEFAULT_MAXIMUM_SIZE = 5000;
+
+    /** Default maximum time an entry is held in cache (in seconds) */
+    private static final int DEFAULT_EXPIRE_SECONDS = 60;
+
+    /** Underlying cache */
+    private Cache<String, CachedAuthentication> cache;
+
+    public JwtAuthenticationCache() {
+	this(DEFAULT_MAXIMUM_SIZE, DEFAULT_EXPIRE_SECONDS);
+    }
+
+    public JwtAuthenticationCache(int maximumSize, int expireSeconds) {
+	this.cache = CacheBuilder.newBuilder().maximumSize(maximumSize).expireAfterWrite(expireSeconds, TimeUnit.SECONDS)
+		.build();
+    }
+
+    /**
+     * Get authentication for a previously verified JWT. A new authentication
+     * instance is returned for each call so that per-request data such as the
+     * tenant is not shared between requests. Returns null if the token is not
+     * cached or has expired.
+     * 
+     * @param jwt
+     * @return
+     */
+    public SitewhereAuthentication getAuthentication(String jwt) {
+	CachedAuthentication cached = getCache().getIfPresent(jwt);
+	if (cached == null) {
+	    return null;
+	}
+	if (cached.isExpired()) {
+	    getCache().invalidate(jwt);
+	    return null;
+	}
+	return new SitewhereAuthentication(cached.getUserDetails(), jwt);
+    }
+
+    /**
+     * Add user details for a verified JWT.
+     * 
+     * @param jwt
+     * @param details
+     * @param expiration
+     */
+    public void put(String jwt, SitewhereUserDetails details, Date expiration) {
+	getCache().put(jwt, new CachedAuthentication(details, expiration));
+    }
+
+    /**
+     * Remove a token from the cache.
+     * 
+     * @param jwt
+     */
+    public void invalidate(String jwt) {
+	getCache().invalidate(jwt);
+    }
+
+    /**
+     * Remove all tokens issued to the given user.
+     * 
+     * @param username
+     */
+    public void invalidateUser(String username) {
+	getCache().asMap().values().removeIf(cached -> username.equals(cached.getUserDetails().getUsername()));
+    }
+
+    /**
+     * Remove all tokens from the cache.
+     */
+    public void invalidateAll() {
+	getCache().invalidateAll();
+    }
+
+    protected Cache<String, CachedAuthentication> getCache() {
+	return cache;
+    }
+
+    /**
+     * Holds user details along with expiration of the token they came from.
+     */
+    private static class CachedAuthentication {
+
+	/** User details */
+	private SitewhereUserDetails userDetails;
+
+	/** Token expiration date (may be null) */
+	private Date expiration;
+
+	public CachedAuthentication(SitewhereUserDetails userDetails, Date expiration) {
+	    this.userDetails = userDetails;
+	    this.expiration = expiration;
+	}
+
+	public boolean isExpired() {
+	    return (expiration != null) && (expiration.getTime() <= System.currentTimeMillis());
+	}
+
+	public SitewhereUserDetails getUserDetails() {
+	    return userDetails;
+	}
+    }
+}
@@ -27,6 +27,7 @@ import org.springframework.web.filter.OncePerRequestFilter;
 
 import com.sitewhere.grpc.client.spi.provider.ITenantManagementDemuxProvider;
 import com.sitewhere.security.SitewhereGrantedAuthority;
+import com.sitewhere.security.SitewhereUserDetails;
 import com.sitewhere.spi.SiteWhereException;
 import com.sitewhere.spi.microservice.security.ITokenManagement;
 import com.sitewhere.spi.security.ITenantAwareAuthentication;
@@ -53,10 +54,14 @@ public class TokenAuthenticationFilter extends OncePerRequestFilter {
     /** Authentication manager */
     private AuthenticationManager authenticationManager;
 
+    /** Cache of previously verified tokens */
+    private JwtAuthenticationCache authenticationCache;
+
     public TokenAuthenticationFilter(ITenantManagementDemuxProvider<?> tenantManagementDemuxProvider,
-	    AuthenticationManager authenticationManager) {
+	    AuthenticationManager authenticationManager, JwtAuthenticationCache authenticationCache) {
 	this.tenantManagementDemuxProvider = tenantManagementDemuxProvider;
 	this.authenticationManager = authenticationManager;
+	this.authenticationCache = authenticationCache;
     }
 
     /*
@@ -74,20 +79,13 @@ public class TokenAuthenticationFilter extends OncePerRequestFilter {
 	String tenantId = SiteWhereHttpHeaders.getTenantIdFromHeader(request);
 	String tenantAuth = SiteWhereHttpHeaders.getTenantAuthFromHeader(request);
 	if (jwt != null) {
-	    // Get username from token and load user.
-	    ITokenManagement tokenManagement = getTenantManagementDemuxProvider().getTokenManagement();
-	    Claims claims = tokenManagement.getClaimsForToken(jwt);
-	    String username = tokenManagement.getUsernameFromClaims(claims);
-	    LOGGER.debug("JWT decoded for username: " + username);
-	    List<IGrantedAuthority> auths = tokenManagement.getGrantedAuthoritiesFromClaims(claims);
-	    List<GrantedAuthority> springAuths = new ArrayList<GrantedAuthority>();
-	    for (IGrantedAuthority auth : auths) {
-		springAuths.add(new SitewhereGrantedAuthority(auth));
+	    Authentication authenticated = getAuthenticationCache().getAuthentication(jwt);
+	    if (authenticated == null) {
+		authenticated = authenticateJwt(jwt);
+	    } else {
+		LOGGER.debug("Using cached authentication for JWT.");
 	    }
 
-	    // Create authentication object based on JWT and tenant token.
-	    JwtAuthenticationToken token = new JwtAuthenticationToken(username, springAuths, jwt);
-	    Authentication authenticated = getAuthenticationManager().authenticate(token);
 	    if ((!StringUtils.isEmpty(tenantId)) && (StringUtils.isEmpty(tenantAuth))) {
 		throw new SiteWhereException("Tenant id passed without corresponding tenant auth token.");
 	    }
@@ -104,6 +102,36 @@ public class TokenAuthenticationFilter extends OncePerRequestFilter {
 	}
     }
 
+    /**
+     * Verify JWT, authenticate the user it was issued to, and cache the result
+     * until the token expires or the user is invalidated.
+     * 
+     * @param jwt
+     * @return
+     * @throws SiteWhereException
+     */
+    protected Authentication authenticateJwt(String jwt) throws SiteWhereException {
+	// Get username from token and load user.
+	ITokenManagement tokenManagement = getTenantManagementDemuxProvider().getTokenManagement();
+	Claims claims = tokenManagement.getClaimsForToken(jwt);
+	String username = tokenManagement.getUsernameFromClaims(claims);
+	LOGGER.debug("JWT decoded for username: " + username);
+	List<IGrantedAuthority> auths = tokenManagement.getGrantedAuthoritiesFromClaims(claims);
+	List<GrantedAuthority> springAuths = new ArrayList<GrantedAuthority>();
+	for (IGrantedAuthority auth : auths) {
+	    springAuths.add(new SitewhereGrantedAuthority(auth));
+	}
+
+	// Create authentication object based on JWT.
+	JwtAuthenticationToken token = new JwtAuthenticationToken(username, springAuths, jwt);
+	Authentication authenticated = getAuthenticationManager().authenticate(token);
+	if (authenticated.getDetails() instanceof SitewhereUserDetails) {
+	    getAuthenticationCache().put(jwt, (SitewhereUserDetails) authenticated.getDetails(),
+		    claims.getExpiration());
+	}
+	return authenticated;
+    }
+
     /**
      * Based on fields passed in HTTP headers, look up tenant and verify that tenant
      * auth token is valid. Store tenant information in Spring authentication data
@@ -150,4 +178,12 @@ public class TokenAuthenticationFilter extends OncePerRequestFilter {
     public void setAuthenticationManager(AuthenticationManager authenticationManager) {
 	this.authenticationManager = authenticationManager;
     }
+
+    public JwtAuthenticationCache getAuthenticationCache() {
+	return authenticationCache;
+    }
+
+    public void setAuthenticationCache(JwtAuthenticationCache authenticationCache) {
+	this.authenticationCache = authenticationCache;
+    }
 }
\ No newline at end of file
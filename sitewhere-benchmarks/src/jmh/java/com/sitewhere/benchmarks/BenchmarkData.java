@@ -0,0 +1,290 @@
+/*
+ * Copyright (c) SiteWhere, LLC. All rights reserved. http://www.sitewhere.com
+ *
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package com.sitewhere.benchmarks;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import com.sitewhere.rest.model.device.Device;
+import com.sitewhere.rest.model.device.DeviceAssignment;
+import com.sitewhere.rest.model.device.event.DeviceAlert;
+import com.sitewhere.rest.model.device.event.DeviceEvent;
+import com.sitewhere.rest.model.device.event.DeviceLocation;
+import com.sitewhere.rest.model.device.event.DeviceMeasurements;
+import com.sitewhere.rest.model.device.event.request.DeviceAlertCreateRequest;
+import com.sitewhere.rest.model.device.event.request.DeviceLocationCreateRequest;
+import com.sitewhere.rest.model.device.event.request.DeviceMeasurementsCreateRequest;
+import com.sitewhere.rest.model.microservice.kafka.payload.InboundEventPayload;
+import com.sitewhere.spi.device.DeviceAssignmentStatus;
+import com.sitewhere.spi.device.event.AlertLevel;
+import com.sitewhere.spi.device.event.AlertSource;
+
+/**
+ * Factory methods for representative objects used as benchmark inputs. Values
+ * approximate a typical device event so that per-event costs are comparable
+ * across releases.
+ * 
+ * @author Derek
+ */
+public class BenchmarkData {
+
+    /** Device token used for all events */
+    public static final String DEVICE_TOKEN = "bench-device-0001";
+
+    /** Number of measurements in a measurements event */
+    public static final int MEASUREMENT_COUNT = 5;
+
+    /**
+     * Create common event metadata.
+     * 
+     * @return
+     */
+    public static Map<String, String> createMetadata() {
+	Map<String, String> metadata = new HashMap<String, String>();
+	metadata.put("firmware", "1.0.3");
+	metadata.put("region", "us-east");
+	return metadata;
+    }
+
+    /**
+     * Create a measurements create request.
+     * 
+     * @return
+     */
+    public static DeviceMeasurementsCreateRequest createMeasurementsRequest() {
+	DeviceMeasurementsCreateRequest request = new DeviceMeasurementsCreateRequest();
+	for (int i = 0; i < MEASUREMENT_COUNT; i++) {
+	    request.addOrReplaceMeasurement("sensor." + i, 20.0 + i);
+	}
+	request.setEventDate(new Date());
+	request.setMetadata(createMetadata());
+	return request;
+    }
+
+    /**
+     * Create a location create request.
+     * 
+     * @return
+     */
+    public static DeviceLocationCreateRequest createLocationRequest() {
+	DeviceLocationCreateRequest request = new DeviceLocationCreateRequest();
+	request.setLatitude(33.7550);
+	request.setLongitude(-84.3900);
+	request.setElevation(320.0);
+	request.setEventDate(new Date());
+	request.setMetadata(createMetadata());
+	return request;
+    }
+
+    /**
+     * Create an alert create request.
+     * 
+     * @return
+     */
+    public static DeviceAlertCreateRequest createAlertRequest() {
+	DeviceAlertCreateRequest request = new DeviceAlertCreateRequest();
+	request.setSource(AlertSource.Device);
+	request.setLevel(AlertLevel.Warning);
+	request.setType("engine.overheat");
+	request.setMessage("Engine temperature exceeded threshold.");
+	request.setEventDate(new Date());
+	request.setMetadata(createMetadata());
+	return request;
+    }
+
+    /**
+     * Create an inbound event payload wrapping a measurements request.
+     * 
+     * @return
+     */
+    public static InboundEventPayload createInboundEventPayload() {
+	InboundEventPayload payload = new InboundEventPayload();
+	payload.setSourceId("mqtt");
+	payload.setDeviceToken(DEVICE_TOKEN);
+	payload.setEventCreateRequest(createMeasurementsRequest());
+	return payload;
+    }
+
+    /**
+     * Create a persisted measurements event.
+     * 
+     * @return
+     */
+    public static DeviceMeasurements createMeasurements() {
+	DeviceMeasurements measurements = new DeviceMeasurements();
+	populateEvent(measurements);
+	for (int i = 0; i < MEASUREMENT_COUNT; i++) {
+	    measurements.addOrReplaceMeasurement("sensor." + i, 20.0 + i);
+	}
+	return measurements;
+    }
+
+    /**
+     * Create a persisted location event.
+     * 
+     * @return
+     */
+    public static DeviceLocation createLocation() {
+	DeviceLocation location = new DeviceLocation();
+	populateEvent(location);
+	location.setLatitude(33.7550);
+	location.setLongitude(-84.3900);
+	location.setElevation(320.0);
+	return location;
+    }
+
+    /**
+     * Create a persisted alert event.
+     * 
+     * @return
+     */
+    public static DeviceAlert createAlert() {
+	DeviceAlert alert = new DeviceAlert();
+	populateEvent(alert);
+	alert.setSource(AlertSource.Device);
+	alert.setLevel(AlertLevel.Warning);
+	alert.setType("engine.overheat");
+	alert.setMessage("Engine temperature exceeded threshold.");
+	return alert;
+    }
+
+    /**
+     * Populate fields common to persisted events.
+     * 
+     * @param event
+     */
+    protected static void populateEvent(DeviceEvent event) {
+	event.setId(UUID.randomUUID());
+	event.setDeviceId(UUID.randomUUID());
+	event.setDeviceAssignmentId(UUID.randomUUID());
+	event.setAreaId(UUID.randomUUID());
+	event.setAssetId(UUID.randomUUID());
+	event.setEventDate(new Date());
+	event.setReceivedDate(new Date());
+	event.setMetadata(createMetadata());
+    }
+
+    /**
+     * Create a device.
+     * 
+     * @return
+     */
+    public static Device createDevice() {
+	Device device = new Device();
+	device.setId(UUID.randomUUID());
+	device.setToken(DEVICE_TOKEN);
+	device.setDeviceTypeId(UUID.randomUUID());
+	device.setDeviceAssignmentId(UUID.randomUUID());
+	device.setComments("Benchmark device.");
+	device.setStatus("active");
+	device.setCreatedDate(new Date());
+	device.setCreatedBy("admin");
+	device.setMetadata(createMetadata());
+	return device;
+    }
+
+    /**
+     * Create a device assignment.
+     * 
+     * @return
+     */
+    public static DeviceAssignment createDeviceAssignment() {
+	DeviceAssignment assignment = new DeviceAssignment();
+	assignment.setId(UUID.randomUUID());
+	assignment.setToken("bench-assignment-0001");
+	assignment.setStatus(DeviceAssignmentStatus.Active);
+	assignment.setDeviceId(UUID.randomUUID());
+	assignment.setAreaId(UUID.randomUUID());
+	assignment.setAssetId(UUID.randomUUID());
+	assignment.setActiveDate(new Date());
+	assignment.setCreatedDate(new Date());
+	assignment.setCreatedBy("admin");
+	assignment.setMetadata(createMetadata());
+	return assignment;
+    }
+
+    /**
+     * Create JSON payload in the format expected by the JSON device request
+     * decoder.
+     * 
+     * @return
+     */
+    public static byte[] createJsonDeviceRequest() {
+	StringBuilder json = new StringBuilder();
+	json.append("{\"hardwareId\":\"").append(DEVICE_TOKEN).append("\",");
+	json.append("\"type\":\"DeviceMeasurements\",");
+	json.append("\"request\":{\"measurements\":{");
+	for (int i = 0; i < MEASUREMENT_COUNT; i++) {
+	    if (i > 0) {
+		json.append(",");
+	    }
+	    json.append("\"sensor.").append(i).append("\":").append(20.0 + i);
+	}
+	json.append("},\"updateState\":true,\"metadata\":{\"firmware\":\"1.0.3\"}}}");
+	return json.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Create JSON batch envelope holding the given number of measurements
+     * requests for the JSON device request decoder.
+     * 
+     * @param requests
+     * @return
+     */
+    public static byte[] createJsonRequestEnvelope(int requests) {
+	StringBuilder json = new StringBuilder();
+	json.append("{\"deviceToken\":\"").append(DEVICE_TOKEN).append("\",\"requests\":[");
+	for (int i = 0; i < requests; i++) {
+	    if (i > 0) {
+		json.append(",");
+	    }
+	    json.append("{\"type\":\"DeviceMeasurements\",\"request\":{\"measurements\":{\"sensor.0\":")
+		    .append(20.0 + i).append(",\"sensor.1\":").append(i).append("}}}");
+	}
+	json.append("]}");
+	return json.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Create JSON payload in the format expected by the JSON batch event decoder.
+     * 
+     * @param eventsPerType
+     * @return
+     */
+    public static byte[] createJsonBatch(int eventsPerType) {
+	StringBuilder json = new StringBuilder();
+	json.append("{\"hardwareId\":\"").append(DEVICE_TOKEN).append("\",\"measurements\":[");
+	for (int i = 0; i < eventsPerType; i++) {
+	    if (i > 0) {
+		json.append(",");
+	    }
+	    json.append("{\"measurements\":{\"sensor.0\":").append(20.0 + i).append(",\"sensor.1\":").append(i)
+		    .append("}}");
+	}
+	json.append("],\"locations\":[");
+	for (int i = 0; i < eventsPerType; i++) {
+	    if (i > 0) {
+		json.append(",");
+	    }
+	    json.append("{\"latitude\":33.755,\"longitude\":-84.39,\"elevation\":").append(i).append("}");
+	}
+	json.append("],\"alerts\":[");
+	for (int i = 0; i < eventsPerType; i++) {
+	    if (i > 0) {
+		json.append(",");
+	    }
+	    json.append("{\"type\":\"engine.overheat\",\"level\":\"Warning\",\"message\":\"Alert ").append(i)
+		    .append("\"}");
+	}
+	json.append("]}");
+	return json.toString().getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,38 @@
+/*
+ * Copyright (c) SiteWhere, LLC. All rights reserved. http://www.sitewhere.com
+ *
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package com.sitewhere.benchmarks;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Secondary benchmark result holding the size of the payload produced by an
+ * encode benchmark. Since the value is set rather than accumulated, JMH reports
+ * the encoded size in bytes alongside throughput in the benchmark results.
+ * 
+ * @author Derek
+ */
+@State(Scope.Thread)
+@AuxCounters(AuxCounters.Type.EVENTS)
+public class EncodedSizeCounters {
+
+    /** Size of the last encoded payload in bytes */
+    public long encodedBytes;
+
+    /**
+     * Record size of an encoded payload.
+     * 
+     * @param payload
+     * @return
+     */
+    public byte[] record(byte[] payload) {
+	this.encodedBytes = payload.length;
+	return payload;
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) SiteWhere, LLC. All rights reserved. http://www.sitewhere.com
+ *
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package com.sitewhere.benchmarks;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.sitewhere.sources.decoder.json.JsonBatchEventDecoder;
+import com.sitewhere.sources.decoder.json.JsonDeviceRequestDecoder;
+import com.sitewhere.sources.spi.EventDecodeException;
+import com.sitewhere.sources.spi.IDecodedDeviceRequest;
+
+/**
+ * Benchmarks for the Jackson-based decoders used by event sources to convert
+ * inbound JSON payloads into device requests.
+ * 
+ * @author Derek
+ */
+@State(Scope.Benchmark)
+public class JsonDecoderBenchmarks {
+
+    /** Number of events of each type in batch payload */
+    @Param({ "1", "10", "100" })
+    private int batchSize;
+
+    /** Decoder for single requests */
+    private JsonDeviceRequestDecoder requestDecoder;
+
+    /** Decoder for event batches */
+    private JsonBatchEventDecoder batchDecoder;
+
+    /** Single request payload */
+    private byte[] requestPayload;
+
+    /** Batch payload */
+    private byte[] batchPayload;
+
+    /** Batch envelope payload */
+    private byte[] envelopePayload;
+
+    /** Payload metadata */
+    private Map<String, Object> metadata = new HashMap<String, Object>();
+
+    @Setup
+    public void setup() {
+	this.requestDecoder = new JsonDeviceRequestDecoder();
+	this.batchDecoder = new JsonBatchEventDecoder();
+	this.requestPayload = BenchmarkData.createJsonDeviceRequest();
+	this.batchPayload = BenchmarkData.createJsonBatch(batchSize);
+	this.envelopePayload = BenchmarkData.createJsonRequestEnvelope(batchSize);
+    }
+
+    @Benchmark
+    public List<IDecodedDeviceRequest<?>> decodeRequest() throws EventDecodeException {
+	return requestDecoder.decode(requestPayload, metadata);
+    }
+
+    @Benchmark
+    public List<IDecodedDeviceRequest<?>> decodeEnvelope() throws EventDecodeException {
+	return requestDecoder.decode(envelopePayload, metadata);
+    }
+
+    @Benchmark
+    public List<IDecodedDeviceRequest<?>> decodeBatch() throws EventDecodeException {
+	return batchDecoder.decode(batchPayload, metadata);
+    }
+}
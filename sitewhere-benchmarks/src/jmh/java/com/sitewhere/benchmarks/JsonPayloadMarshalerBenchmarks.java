@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) SiteWhere, LLC. All rights reserved. http://www.sitewhere.com
+ *
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package com.sitewhere.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.sitewhere.hbase.encoder.JsonPayloadMarshaler;
+import com.sitewhere.rest.model.device.Device;
+import com.sitewhere.rest.model.device.event.DeviceAlert;
+import com.sitewhere.rest.model.device.event.DeviceLocation;
+import com.sitewhere.rest.model.device.event.DeviceMeasurements;
+import com.sitewhere.spi.SiteWhereException;
+
+/**
+ * Benchmarks for the JSON payload marshaler used to store entities and events
+ * in HBase. Encode benchmarks report the payload size in bytes as a secondary
+ * result.
+ * 
+ * @author Derek
+ */
+@State(Scope.Benchmark)
+public class JsonPayloadMarshalerBenchmarks {
+
+    /** Marshaler being tested */
+    private JsonPayloadMarshaler marshaler = new JsonPayloadMarshaler();
+
+    /** Measurements event */
+    private DeviceMeasurements measurements;
+
+    /** Encoded measurements event */
+    private byte[] measurementsBytes;
+
+    /** Location event */
+    private DeviceLocation location;
+
+    /** Encoded location event */
+    private byte[] locationBytes;
+
+    /** Alert event */
+    private DeviceAlert alert;
+
+    /** Encoded alert event */
+    private byte[] alertBytes;
+
+    /** Device */
+    private Device device;
+
+    /** Encoded device */
+    private byte[] deviceBytes;
+
+    @Setup
+    public void setup() throws SiteWhereException {
+	this.measurements = BenchmarkData.createMeasurements();
+	this.measurementsBytes = marshaler.encodeDeviceMeasurements(measurements);
+	this.location = BenchmarkData.createLocation();
+	this.locationBytes = marshaler.encodeDeviceLocation(location);
+	this.alert = BenchmarkData.createAlert();
+	this.alertBytes = marshaler.encodeDeviceAlert(alert);
+	this.device = BenchmarkData.createDevice();
+	this.deviceBytes = marshaler.encodeDevice(device);
+    }
+
+    @Benchmark
+    public byte[] encodeMeasurements(EncodedSizeCounters size) throws SiteWhereException {
+	return size.record(marshaler.encodeDeviceMeasurements(measurements));
+    }
+
+    @Benchmark
+    public DeviceMeasurements decodeMeasurements() throws SiteWhereException {
+	return marshaler.decodeDeviceMeasurements(measurementsBytes);
+    }
+
+    @Benchmark
+    public byte[] encodeLocation(EncodedSizeCounters size) throws SiteWhereException {
+	return size.record(marshaler.encodeDeviceLocation(location));
+    }
+
+    @Benchmark
+    public DeviceLocation decodeLocation() throws SiteWhereException {
+	return marshaler.decodeDeviceLocation(locationBytes);
+    }
+
+    @Benchmark
+    public byte[] encodeAlert(EncodedSizeCounters size) throws SiteWhereException {
+	return size.record(marshaler.encodeDeviceAlert(alert));
+    }
+
+    @Benchmark
+    public DeviceAlert decodeAlert() throws SiteWhereException {
+	return marshaler.decodeDeviceAlert(alertBytes);
+    }
+
+    @Benchmark
+    public byte[] encodeDevice(EncodedSizeCounters size) throws SiteWhereException {
+	return size.record(marshaler.encodeDevice(device));
+    }
+
+    @Benchmark
+    public Device decodeDevice() throws SiteWhereException {
+	return marshaler.decodeDevice(deviceBytes);
+    }
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright (c) SiteWhere, LLC. All rights reserved. http://www.sitewhere.com
+ *
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package com.sitewhere.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.sitewhere.grpc.kafka.model.KafkaModel.GInboundEventPayload;
+import com.sitewhere.grpc.model.DeviceEventModel.GAnyDeviceEventCreateRequest;
+import com.sitewhere.grpc.model.DeviceEventModel.GDeviceAlert;
+import com.sitewhere.grpc.model.DeviceEventModel.GDeviceLocation;
+import com.sitewhere.grpc.model.DeviceEventModel.GDeviceMeasurements;
+import com.sitewhere.grpc.model.DeviceModel.GDevice;
+import com.sitewhere.grpc.model.DeviceModel.GDeviceAssignment;
+import com.sitewhere.grpc.model.converter.DeviceModelConverter;
+import com.sitewhere.grpc.model.converter.EventModelConverter;
+import com.sitewhere.grpc.model.converter.KafkaModelConverter;
+import com.sitewhere.rest.model.device.Device;
+import com.sitewhere.rest.model.device.DeviceAssignment;
+import com.sitewhere.rest.model.device.event.DeviceAlert;
+import com.sitewhere.rest.model.device.event.DeviceLocation;
+import com.sitewhere.rest.model.device.event.DeviceMeasurements;
+import com.sitewhere.rest.model.device.event.request.DeviceMeasurementsCreateRequest;
+import com.sitewhere.rest.model.microservice.kafka.payload.InboundEventPayload;
+import com.sitewhere.spi.SiteWhereException;
+
+/**
+ * Benchmarks for conversion between API and GRPC models. These conversions are
+ * performed for every event passed between microservices, so their cost is a
+ * large part of per-event CPU usage.
+ * 
+ * @author Derek
+ */
+@State(Scope.Benchmark)
+public class ModelConverterBenchmarks {
+
+    /** API measurements create request */
+    private DeviceMeasurementsCreateRequest measurementsRequest;
+
+    /** API measurements */
+    private DeviceMeasurements measurements;
+
+    /** GRPC measurements */
+    private GDeviceMeasurements grpcMeasurements;
+
+    /** API location */
+    private DeviceLocation location;
+
+    /** GRPC location */
+    private GDeviceLocation grpcLocation;
+
+    /** API alert */
+    private DeviceAlert alert;
+
+    /** GRPC alert */
+    private GDeviceAlert grpcAlert;
+
+    /** API device */
+    private Device device;
+
+    /** GRPC device */
+    private GDevice grpcDevice;
+
+    /** API device assignment */
+    private DeviceAssignment assignment;
+
+    /** GRPC device assignment */
+    private GDeviceAssignment grpcAssignment;
+
+    /** API inbound event payload */
+    private InboundEventPayload inbound;
+
+    /** GRPC inbound event payload */
+    private GInboundEventPayload grpcInbound;
+
+    /** Serialized GRPC inbound event payload */
+    private byte[] inboundBytes;
+
+    @Setup
+    public void setup() throws SiteWhereException {
+	this.measurementsRequest = BenchmarkData.createMeasurementsRequest();
+	this.measurements = BenchmarkData.createMeasurements();
+	this.grpcMeasurements = EventModelConverter.asGrpcDeviceMeasurements(measurements);
+	this.location = BenchmarkData.createLocation();
+	this.grpcLocation = EventModelConverter.asGrpcDeviceLocation(location);
+	this.alert = BenchmarkData.createAlert();
+	this.grpcAlert = EventModelConverter.asGrpcDeviceAlert(alert);
+	this.device = BenchmarkData.createDevice();
+	this.grpcDevice = DeviceModelConverter.asGrpcDevice(device);
+	this.assignment = BenchmarkData.createDeviceAssignment();
+	this.grpcAssignment = DeviceModelConverter.asGrpcDeviceAssignment(assignment);
+	this.inbound = BenchmarkData.createInboundEventPayload();
+	this.grpcInbound = KafkaModelConverter.asGrpcInboundEventPayload(inbound);
+	this.inboundBytes = grpcInbound.toByteArray();
+    }
+
+    @Benchmark
+    public GAnyDeviceEventCreateRequest eventCreateRequestToGrpc() throws SiteWhereException {
+	return EventModelConverter.asGrpcDeviceEventCreateRequest(measurementsRequest);
+    }
+
+    @Benchmark
+    public GDeviceMeasurements measurementsToGrpc() throws SiteWhereException {
+	return EventModelConverter.asGrpcDeviceMeasurements(measurements);
+    }
+
+    @Benchmark
+    public DeviceMeasurements measurementsToApi() throws SiteWhereException {
+	return EventModelConverter.asApiDeviceMeasurements(grpcMeasurements);
+    }
+
+    @Benchmark
+    public GDeviceLocation locationToGrpc() throws SiteWhereException {
+	return EventModelConverter.asGrpcDeviceLocation(location);
+    }
+
+    @Benchmark
+    public DeviceLocation locationToApi() throws SiteWhereException {
+	return EventModelConverter.asApiDeviceLocation(grpcLocation);
+    }
+
+    @Benchmark
+    public GDeviceAlert alertToGrpc() throws SiteWhereException {
+	return EventModelConverter.asGrpcDeviceAlert(alert);
+    }
+
+    @Benchmark
+    public DeviceAlert alertToApi() throws SiteWhereException {
+	return EventModelConverter.asApiDeviceAlert(grpcAlert);
+    }
+
+    @Benchmark
+    public GDevice deviceToGrpc() throws SiteWhereException {
+	return DeviceModelConverter.asGrpcDevice(device);
+    }
+
+    @Benchmark
+    public Device deviceToApi() throws SiteWhereException {
+	return DeviceModelConverter.asApiDevice(grpcDevice);
+    }
+
+    @Benchmark
+    public GDeviceAssignment assignmentToGrpc() throws SiteWhereException {
+	return DeviceModelConverter.asGrpcDeviceAssignment(assignment);
+    }
+
+    @Benchmark
+    public DeviceAssignment assignmentToApi() throws SiteWhereException {
+	return DeviceModelConverter.asApiDeviceAssignment(grpcAssignment);
+    }
+
+    @Benchmark
+    public byte[] inboundPayloadToKafka() throws SiteWhereException {
+	return KafkaModelConverter.asGrpcInboundEventPayload(inbound).toByteArray();
+    }
+
+    @Benchmark
+    public InboundEventPayload inboundPayloadFromKafka() throws Exception {
+	return KafkaModelConverter.asApiInboundEventPayload(GInboundEventPayload.parseFrom(inboundBytes));
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright (c) SiteWhere, LLC. All rights reserved. http://www.sitewhere.com
+ *
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package com.sitewhere.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.sitewhere.rest.model.search.Pager;
+import com.sitewhere.rest.model.search.SearchCriteria;
+
+/**
+ * Benchmarks for the in-memory {@link Pager} used by datastores that page
+ * results on the client side.
+ * 
+ * @author Derek
+ */
+@State(Scope.Benchmark)
+public class PagerBenchmarks {
+
+    /** Number of records scanned */
+    @Param({ "1000", "100000" })
+    private int recordCount;
+
+    /** Page requested */
+    @Param({ "1", "50" })
+    private int pageNumber;
+
+    /** Records to be paged */
+    private List<String> records;
+
+    @Setup
+    public void setup() {
+	this.records = new ArrayList<String>(recordCount);
+	for (int i = 0; i < recordCount; i++) {
+	    records.add("record-" + i);
+	}
+    }
+
+    @Benchmark
+    public List<String> page() {
+	Pager<String> pager = new Pager<String>(new SearchCriteria(pageNumber, 100));
+	for (String record : records) {
+	    pager.process(record);
+	}
+	return pager.getResults();
+    }
+}
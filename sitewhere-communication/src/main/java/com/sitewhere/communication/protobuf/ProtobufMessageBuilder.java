@@ -13,6 +13,8 @@ import java.io.IOException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
 import com.google.protobuf.DescriptorProtos;
 import com.google.protobuf.Descriptors;
 import com.google.protobuf.DynamicMessage;
@@ -48,6 +50,25 @@ public class ProtobufMessageBuilder {
      */
     public static byte[] createMessage(IDeviceCommandExecution execution, IDeviceNestingContext nested,
 	    IDeviceAssignment assignment, ITenant tenant) throws SiteWhereException {
+	return createMessage(execution, nested, assignment, tenant, String.valueOf(execution.getInvocation().getId()));
+    }
+
+    /**
+     * Create a protobuf message for an {@link IDeviceCommandExecution}. If the
+     * originator is null, it is left out of the header so that the message can be
+     * shared by invocations with the same command and parameter values and
+     * completed later by {@link #setOriginator(byte[], String)}.
+     * 
+     * @param execution
+     * @param nested
+     * @param assignment
+     * @param tenant
+     * @param originator
+     * @return
+     * @throws SiteWhereException
+     */
+    public static byte[] createMessage(IDeviceCommandExecution execution, IDeviceNestingContext nested,
+	    IDeviceAssignment assignment, ITenant tenant, String originator) throws SiteWhereException {
 	IDeviceType deviceType = getDeviceManagement(tenant).getDeviceType(execution.getCommand().getDeviceTypeId());
 	DescriptorProtos.FileDescriptorProto fdproto = getFileDescriptor(deviceType, tenant);
 	LOGGER.debug("Using the following device type proto:\n" + fdproto.toString());
@@ -70,8 +91,9 @@ public class ProtobufMessageBuilder {
 		throw new SiteWhereException("No enum value found for command: " + execution.getCommand().getName());
 	    }
 	    headBuilder.setField(header.findFieldByName(ProtobufNaming.HEADER_COMMAND_FIELD_NAME), enumValue);
-	    headBuilder.setField(header.findFieldByName(ProtobufNaming.HEADER_ORIGINATOR_FIELD_NAME),
-		    execution.getInvocation().getId());
+	    if (originator != null) {
+		headBuilder.setField(header.findFieldByName(ProtobufNaming.HEADER_ORIGINATOR_FIELD_NAME), originator);
+	    }
 
 	    if (nested.getNested() != null) {
 		IDeviceType nestedType = getDeviceManagement(tenant)
@@ -119,6 +141,41 @@ public class ProtobufMessageBuilder {
 	}
     }
 
+    /**
+     * Add the originator to the header of a message created without one. The
+     * header is the first delimited message, so the originator field is appended
+     * to it and the remainder of the message is copied unchanged.
+     * 
+     * @param message
+     * @param originator
+     * @return
+     * @throws SiteWhereException
+     */
+    public static byte[] setOriginator(byte[] message, String originator) throws SiteWhereException {
+	try {
+	    CodedInputStream input = CodedInputStream.newInstance(message);
+	    int headerLength = input.readRawVarint32();
+	    int headerStart = input.getTotalBytesRead();
+	    int bodyStart = headerStart + headerLength;
+	    if (bodyStart > message.length) {
+		throw new SiteWhereException("Protobuf message header exceeds message length.");
+	    }
+	    int originatorLength = CodedOutputStream.computeStringSize(ProtobufNaming.HEADER_ORIGINATOR_FIELD_NUMBER,
+		    originator);
+
+	    ByteArrayOutputStream out = new ByteArrayOutputStream(message.length + originatorLength + 5);
+	    CodedOutputStream coded = CodedOutputStream.newInstance(out);
+	    coded.writeUInt32NoTag(headerLength + originatorLength);
+	    coded.writeRawBytes(message, headerStart, headerLength);
+	    coded.writeString(ProtobufNaming.HEADER_ORIGINATOR_FIELD_NUMBER, originator);
+	    coded.writeRawBytes(message, bodyStart, message.length - bodyStart);
+	    coded.flush();
+	    return out.toByteArray();
+	} catch (IOException e) {
+	    throw new SiteWhereException("Unable to add originator to protobuf message.", e);
+	}
+    }
+
     /**
      * Gets a file descriptor for protobuf representation of {@link IDeviceType}.
      * 
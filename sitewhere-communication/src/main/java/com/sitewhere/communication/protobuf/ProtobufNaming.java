@@ -27,6 +27,9 @@ public class ProtobufNaming {
     /** Name of originator field in header */
     public static final String HEADER_ORIGINATOR_FIELD_NAME = "originator";
 
+    /** Number of originator field in header */
+    public static final int HEADER_ORIGINATOR_FIELD_NUMBER = 2;
+
     /** Name of nested path field in header */
     public static final String HEADER_NESTED_PATH_FIELD_NAME = "nestedPath";
 
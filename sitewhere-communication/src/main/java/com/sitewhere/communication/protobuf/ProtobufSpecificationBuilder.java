@@ -126,7 +126,8 @@ public class ProtobufSpecificationBuilder {
 		.setTypeName(ProtobufNaming.COMMAND_TYPES_ENUM);
 	builder.addField(command.build());
 	DescriptorProtos.FieldDescriptorProto.Builder originator = DescriptorProtos.FieldDescriptorProto.newBuilder()
-		.setName(ProtobufNaming.HEADER_ORIGINATOR_FIELD_NAME).setNumber(2).setType(Type.TYPE_STRING);
+		.setName(ProtobufNaming.HEADER_ORIGINATOR_FIELD_NAME)
+		.setNumber(ProtobufNaming.HEADER_ORIGINATOR_FIELD_NUMBER).setType(Type.TYPE_STRING);
 	builder.addField(originator.build());
 	DescriptorProtos.FieldDescriptorProto.Builder path = DescriptorProtos.FieldDescriptorProto.newBuilder()
 		.setName(ProtobufNaming.HEADER_NESTED_PATH_FIELD_NAME).setNumber(3).setType(Type.TYPE_STRING);
@@ -84,6 +84,23 @@ public class CommonDatastoreProvider extends ConfigurationModelProvider {
 		CommonDatastoreRoleKeys.EventManagementDatastore, this);
 
 	builder.description("Specifies how device event data will be stored.");
+	builder.attributeGroup(ConfigurationModelProvider.ATTR_GROUP_PERFORMANCE);
+
+	builder.attribute((new AttributeNode.Builder("Use measurement buckets", "useMeasurementBuckets",
+		AttributeType.Boolean, ConfigurationModelProvider.ATTR_GROUP_PERFORMANCE)
+			.description("Store measurements in time-bucketed documents (MongoDB only).")
+			.defaultValue("false").build()));
+	builder.attribute((new AttributeNode.Builder("Measurement bucket seconds", "measurementBucketSeconds",
+		AttributeType.Integer, ConfigurationModelProvider.ATTR_GROUP_PERFORMANCE)
+			.description("Width of each measurement bucket in seconds.").defaultValue("3600").build()));
+	builder.attribute((new AttributeNode.Builder("Use downsampling", "useDownsampling", AttributeType.Boolean,
+		ConfigurationModelProvider.ATTR_GROUP_PERFORMANCE)
+			.description("Maintain downsampled measurement tiers (InfluxDB only).").defaultValue("false")
+			.build()));
+	builder.attribute((new AttributeNode.Builder("Downsampling tiers", "downsamplingTiers", AttributeType.String,
+		ConfigurationModelProvider.ATTR_GROUP_PERFORMANCE)
+			.description("Comma-delimited list of interval=retention pairs for downsampled tiers.")
+			.defaultValue("1m=30d,1h=INF").build()));
 
 	return builder.build();
     }
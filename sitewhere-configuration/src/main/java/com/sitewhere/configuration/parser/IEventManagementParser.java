@@ -20,7 +20,10 @@ public interface IEventManagementParser {
     public static enum Elements {
 
 	/** Event management datastore */
-	EventManagementDatastore("event-management-datastore");
+	EventManagementDatastore("event-management-datastore"),
+
+	/** Event export manager */
+	EventExport("event-export");
 
 	/** Event code */
 	private String localName;
@@ -197,7 +197,13 @@ public interface IEventSourcesParser {
 	HttpInteractionHandlerFactory("http-interaction-handler-factory"),
 
 	/** Produces interaction handler uses Groovy to interact with socket */
-	GroovySocketInteractionHandlerFactory("groovy-interaction-handler-factory");
+	GroovySocketInteractionHandlerFactory("groovy-interaction-handler-factory"),
+
+	/**
+	 * Produces interaction handler that reads length-prefixed payloads from a
+	 * persistent client connection
+	 */
+	LengthPrefixedInteractionHandlerFactory("length-prefixed-interaction-handler-factory");
 
 	/** Event code */
 	private String localName;
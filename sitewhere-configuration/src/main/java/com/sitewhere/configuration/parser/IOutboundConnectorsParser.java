@@ -90,7 +90,10 @@ public interface IOutboundConnectorsParser {
 	SpecificationFilter("specification-filter"),
 
 	/** Include or exclude events based on running a script */
-	GroovyFilter("groovy-filter");
+	GroovyFilter("groovy-filter"),
+
+	/** Include events matching a compiled filter expression */
+	ExpressionFilter("expression-filter");
 
 	/** Event code */
 	private String localName;
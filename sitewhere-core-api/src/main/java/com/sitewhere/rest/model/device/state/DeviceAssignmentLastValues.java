@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) SiteWhere, LLC. All rights reserved. http://www.sitewhere.com
+ *
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package com.sitewhere.rest.model.device.state;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+import com.sitewhere.spi.device.event.IDeviceAlert;
+import com.sitewhere.spi.device.event.IDeviceLocation;
+import com.sitewhere.spi.device.event.IDeviceMeasurement;
+import com.sitewhere.spi.device.state.IDeviceAssignmentLastValues;
+
+/**
+ * Model object for latest values reported for a device assignment.
+ * 
+ * @author Derek
+ */
+@JsonInclude(Include.NON_NULL)
+public class DeviceAssignmentLastValues implements IDeviceAssignmentLastValues {
+
+    /** Serial version UID */
+    private static final long serialVersionUID = -4116420735531947812L;
+
+    /** Device assignment id */
+    private UUID deviceAssignmentId;
+
+    /** Latest value for each measurement name */
+    private Map<String, IDeviceMeasurement> lastMeasurements = new HashMap<>();
+
+    /** Latest location */
+    private IDeviceLocation lastLocation;
+
+    /** Latest alert for each alert type */
+    private Map<String, IDeviceAlert> lastAlerts = new HashMap<>();
+
+    /*
+     * @see com.sitewhere.spi.device.state.IDeviceAssignmentLastValues#
+     * getDeviceAssignmentId()
+     */
+    @Override
+    public UUID getDeviceAssignmentId() {
+	return deviceAssignmentId;
+    }
+
+    public void setDeviceAssignmentId(UUID deviceAssignmentId) {
+	this.deviceAssignmentId = deviceAssignmentId;
+    }
+
+    /*
+     * @see com.sitewhere.spi.device.state.IDeviceAssignmentLastValues#
+     * getLastMeasurements()
+     */
+    @Override
+    public Map<String, IDeviceMeasurement> getLastMeasurements() {
+	return lastMeasurements;
+    }
+
+    public void setLastMeasurements(Map<String, IDeviceMeasurement> lastMeasurements) {
+	this.lastMeasurements = lastMeasurements;
+    }
+
+    /*
+     * @see
+     * com.sitewhere.spi.device.state.IDeviceAssignmentLastValues#getLastLocation()
+     */
+    @Override
+    public IDeviceLocation getLastLocation() {
+	return lastLocation;
+    }
+
+    public void setLastLocation(IDeviceLocation lastLocation) {
+	this.lastLocation = lastLocation;
+    }
+
+    /*
+     * @see
+     * com.sitewhere.spi.device.state.IDeviceAssignmentLastValues#getLastAlerts()
+     */
+    @Override
+    public Map<String, IDeviceAlert> getLastAlerts() {
+	return lastAlerts;
+    }
+
+    public void setLastAlerts(Map<String, IDeviceAlert> lastAlerts) {
+	this.lastAlerts = lastAlerts;
+    }
+}
@@ -8,6 +8,7 @@
 package com.sitewhere.rest.model.search.device;
 
 import java.util.Date;
+import java.util.List;
 
 import com.sitewhere.rest.model.search.DateRangeSearchCriteria;
 import com.sitewhere.spi.search.device.IDeviceSearchCriteria;
@@ -28,6 +29,9 @@ public class DeviceSearchCriteria extends DateRangeSearchCriteria implements IDe
     /** Indicates if assigned devices should be excluded */
     private boolean excludeAssigned = false;
 
+    /** Device tokens to match in filter */
+    private List<String> deviceTokens;
+
     public DeviceSearchCriteria(int pageNumber, int pageSize, Date startDate, Date endDate) {
 	super(pageNumber, pageSize, startDate, endDate);
     }
@@ -66,4 +70,16 @@ public class DeviceSearchCriteria extends DateRangeSearchCriteria implements IDe
     public void setExcludeAssigned(boolean excludeAssigned) {
 	this.excludeAssigned = excludeAssigned;
     }
+
+    /*
+     * @see com.sitewhere.spi.search.device.IDeviceSearchCriteria#getDeviceTokens()
+     */
+    @Override
+    public List<String> getDeviceTokens() {
+	return deviceTokens;
+    }
+
+    public void setDeviceTokens(List<String> deviceTokens) {
+	this.deviceTokens = deviceTokens;
+    }
 }
\ No newline at end of file
@@ -8,6 +8,8 @@
 package com.sitewhere.rest.model.search.device;
 
 import java.util.Date;
+import java.util.List;
+import java.util.UUID;
 
 import com.sitewhere.rest.model.search.SearchCriteria;
 import com.sitewhere.spi.search.device.IDeviceStateSearchCriteria;
@@ -22,6 +24,9 @@ public class DeviceStateSearchCriteria extends SearchCriteria implements IDevice
     /** Filter by last interaction date before a given value */
     private Date lastInteractionDateBefore;
 
+    /** Filter by device assignment ids */
+    private List<UUID> deviceAssignmentIds;
+
     public DeviceStateSearchCriteria(int pageNumber, int pageSize) {
 	super(pageNumber, pageSize);
     }
@@ -38,4 +43,17 @@ public class DeviceStateSearchCriteria extends SearchCriteria implements IDevice
     public void setLastInteractionDateBefore(Date lastInteractionDateBefore) {
 	this.lastInteractionDateBefore = lastInteractionDateBefore;
     }
+
+    /*
+     * @see com.sitewhere.spi.search.device.IDeviceStateSearchCriteria#
+     * getDeviceAssignmentIds()
+     */
+    @Override
+    public List<UUID> getDeviceAssignmentIds() {
+	return deviceAssignmentIds;
+    }
+
+    public void setDeviceAssignmentIds(List<UUID> deviceAssignmentIds) {
+	this.deviceAssignmentIds = deviceAssignmentIds;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,52 @@
+/*
+ * Copyright (c) SiteWhere, LLC. All rights reserved. http://www.sitewhere.com
+ *
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package com.sitewhere.spi.device.state;
+
+import java.io.Serializable;
+import java.util.Map;
+import java.util.UUID;
+
+import com.sitewhere.spi.device.event.IDeviceAlert;
+import com.sitewhere.spi.device.event.IDeviceLocation;
+import com.sitewhere.spi.device.event.IDeviceMeasurement;
+
+/**
+ * Latest values reported for a device assignment.
+ * 
+ * @author Derek
+ */
+public interface IDeviceAssignmentLastValues extends Serializable {
+
+    /**
+     * Get device assignment id.
+     * 
+     * @return
+     */
+    public UUID getDeviceAssignmentId();
+
+    /**
+     * Get latest value for each measurement name.
+     * 
+     * @return
+     */
+    public Map<String, IDeviceMeasurement> getLastMeasurements();
+
+    /**
+     * Get latest location.
+     * 
+     * @return
+     */
+    public IDeviceLocation getLastLocation();
+
+    /**
+     * Get latest alert for each alert type.
+     * 
+     * @return
+     */
+    public Map<String, IDeviceAlert> getLastAlerts();
+}
@@ -101,6 +101,15 @@ public interface IKafkaTopicNaming {
      */
     public String getInboundPersistedEventsTopic(ITenant tenant);
 
+    /**
+     * Get topic for previously persisted events that are being replayed through
+     * the processing pipeline.
+     * 
+     * @param tenant
+     * @return
+     */
+    public String getInboundReplayEventsTopic(ITenant tenant);
+
     /**
      * Get name fro topic that contains events for devices that were not registered
      * in the system.
@@ -25,4 +25,7 @@ public class EventManagementBeans {
 
     /** Bean id for event management in server configuration */
     public static final String BEAN_EVENT_MANAGEMENT = "eventManagement";
+
+    /** Bean id for event export manager in server configuration */
+    public static final String BEAN_EVENT_EXPORT_MANAGER = "eventExportManager";
 }
\ No newline at end of file
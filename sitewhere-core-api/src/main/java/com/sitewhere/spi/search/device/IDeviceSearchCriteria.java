@@ -7,6 +7,8 @@
  */
 package com.sitewhere.spi.search.device;
 
+import java.util.List;
+
 import com.sitewhere.spi.search.IDateRangeSearchCriteria;
 
 /**
@@ -29,4 +31,11 @@ public interface IDeviceSearchCriteria extends IDateRangeSearchCriteria {
      * @return
      */
     public boolean isExcludeAssigned();
+
+    /**
+     * Get list of device tokens if filtered to specific devices.
+     * 
+     * @return
+     */
+    public List<String> getDeviceTokens();
 }
\ No newline at end of file
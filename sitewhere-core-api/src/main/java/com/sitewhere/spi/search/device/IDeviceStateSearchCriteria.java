@@ -8,6 +8,8 @@
 package com.sitewhere.spi.search.device;
 
 import java.util.Date;
+import java.util.List;
+import java.util.UUID;
 
 import com.sitewhere.spi.search.ISearchCriteria;
 
@@ -25,4 +27,11 @@ public interface IDeviceStateSearchCriteria extends ISearchCriteria {
      * @return
      */
     public Date getLastInteractionDateBefore();
+
+    /**
+     * If set, will limit results to those for the given device assignments.
+     * 
+     * @return
+     */
+    public List<UUID> getDeviceAssignmentIds();
 }
\ No newline at end of file
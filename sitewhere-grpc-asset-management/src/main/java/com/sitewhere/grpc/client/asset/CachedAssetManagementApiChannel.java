@@ -51,6 +51,7 @@ public class CachedAssetManagementApiChannel extends AssetManagementApiChannel {
 	this.assetTypeByIdCache = new AssetManagementCacheProviders.AssetTypeByIdCache(nearCacheManager);
 	this.assetCache = new AssetManagementCacheProviders.AssetByTokenCache(nearCacheManager);
 	this.assetByIdCache = new AssetManagementCacheProviders.AssetByIdCache(nearCacheManager);
+	getNearCacheManager().setCacheProviders(assetTypeCache, assetTypeByIdCache, assetCache, assetByIdCache);
     }
 
     /*
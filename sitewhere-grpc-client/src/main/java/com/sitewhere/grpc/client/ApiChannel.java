@@ -7,6 +7,7 @@
  */
 package com.sitewhere.grpc.client;
 
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 
 import com.sitewhere.grpc.client.spi.IApiChannel;
@@ -28,7 +29,7 @@ import io.grpc.ConnectivityState;
 public abstract class ApiChannel<T extends GrpcChannel<?, ?>> extends TenantEngineLifecycleComponent
 	implements IApiChannel<T> {
 
-    /** Interval at which GRPC connection will be checked */
+    /** Maximum interval between checks of GRPC connection state */
     private static final long CONNECTION_CHECK_INTERVAL = 2 * 1000;
 
     /** Parent demux */
@@ -124,7 +125,8 @@ public abstract class ApiChannel<T extends GrpcChannel<?, ?>> extends TenantEngi
 			    getLogger().info(
 				    "Waiting for GRPC service to become available. (status:" + state.name() + ")");
 			}
-			Thread.sleep(CONNECTION_CHECK_INTERVAL);
+			long remaining = deadline - System.currentTimeMillis();
+			waitForStateChange(state, Math.min(Math.max(remaining, 1), CONNECTION_CHECK_INTERVAL));
 		    } else {
 			return;
 		    }
@@ -139,6 +141,21 @@ public abstract class ApiChannel<T extends GrpcChannel<?, ?>> extends TenantEngi
 	throw e;
     }
 
+    /**
+     * Block until the GRPC connection leaves the given state or the timeout
+     * expires. The channel notifies on state transitions, so callers resume as
+     * soon as the connection becomes ready rather than on a fixed interval.
+     * 
+     * @param current
+     * @param timeoutMs
+     * @throws InterruptedException
+     */
+    protected void waitForStateChange(ConnectivityState current, long timeoutMs) throws InterruptedException {
+	CountDownLatch changed = new CountDownLatch(1);
+	getGrpcChannel().getChannel().notifyWhenStateChanged(current, changed::countDown);
+	changed.await(timeoutMs, TimeUnit.MILLISECONDS);
+    }
+
     /*
      * @see com.sitewhere.grpc.client.spi.IApiChannel#getHostname()
      */
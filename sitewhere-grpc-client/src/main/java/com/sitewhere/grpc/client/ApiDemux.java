@@ -36,6 +36,9 @@ import com.sitewhere.spi.server.lifecycle.ILifecycleProgressMonitor;
 import com.sitewhere.spi.server.lifecycle.LifecycleStatus;
 import com.sitewhere.spi.tenant.ITenant;
 
+import io.grpc.ConnectivityState;
+import io.grpc.ManagedChannel;
+
 /**
  * Demulitiplexes API calls across multiple {@link IApiChannel} in order to
  * provide high availability and increased throughput.
@@ -71,6 +74,12 @@ public abstract class ApiDemux<T extends IApiChannel> extends TenantEngineLifecy
     /** Executor service */
     private ExecutorService executor;
 
+    /** Monitor signalled when API channels are added */
+    private final Object channelsUpdated = new Object();
+
+    /** Incremented each time an API channel is added */
+    private long channelsVersion = 0;
+
     /*
      * @see
      * com.sitewhere.server.lifecycle.LifecycleComponent#start(com.sitewhere.spi.
@@ -159,6 +168,12 @@ public abstract class ApiDemux<T extends IApiChannel> extends TenantEngineLifecy
 
 	while (channelCount > 0) {
 	    T selectedChannel = getRoutingStrategy().chooseApiChannel(getApiChannels());
+
+	    // Avoid blocking on a failed channel while others may be available.
+	    if ((channelCount > 1) && isApiChannelFailed(selectedChannel)) {
+		channelCount--;
+		continue;
+	    }
 	    Long lastAccess = getApiChannelLastAccess().get(selectedChannel.getHostname());
 	    if ((lastAccess == null)
 		    || (System.currentTimeMillis() - lastAccess > CHANNEL_VALID_CHECK_INTERVAL_IN_MS)) {
@@ -174,6 +189,25 @@ public abstract class ApiDemux<T extends IApiChannel> extends TenantEngineLifecy
 	throw new ApiChannelNotAvailableException("No API Channel available.");
     }
 
+    /**
+     * Indicates if the underlying GRPC connection for a channel has failed or been
+     * shut down. Does not trigger a connection attempt.
+     * 
+     * @param channel
+     * @return
+     */
+    protected boolean isApiChannelFailed(T channel) {
+	if (channel.getGrpcChannel() == null) {
+	    return false;
+	}
+	ManagedChannel managed = channel.getGrpcChannel().getChannel();
+	if (managed == null) {
+	    return false;
+	}
+	ConnectivityState state = managed.getState(false);
+	return (state == ConnectivityState.TRANSIENT_FAILURE) || (state == ConnectivityState.SHUTDOWN);
+    }
+
     /*
      * @see com.sitewhere.grpc.client.spi.IApiDemux#waitForMicroserviceAvailable()
      */
@@ -197,6 +231,7 @@ public abstract class ApiDemux<T extends IApiChannel> extends TenantEngineLifecy
 	long deadline = System.currentTimeMillis() + (API_CHANNEL_WARN_INTERVAL_IN_SECS * 1000);
 	long waitPeriod = API_CHANNEL_WAIT_INTERVAL_MS_MIN;
 	while (true) {
+	    long version = getChannelsVersion();
 	    try {
 		getApiChannelWithConstraints(tenant);
 		return;
@@ -208,7 +243,7 @@ public abstract class ApiDemux<T extends IApiChannel> extends TenantEngineLifecy
 		}
 	    }
 	    try {
-		Thread.sleep(waitPeriod);
+		waitForApiChannelAdded(version, waitPeriod);
 	    } catch (InterruptedException e) {
 		getLogger().warn(GrpcClientMessages.API_CHANNEL_INTERRUPTED_WAITING_FOR_MS);
 	    }
@@ -219,6 +254,43 @@ public abstract class ApiDemux<T extends IApiChannel> extends TenantEngineLifecy
 	}
     }
 
+    /**
+     * Wait until an API channel is added or the wait period expires. Returns
+     * immediately if a channel was added since the given version was read.
+     * 
+     * @param version
+     * @param waitPeriod
+     * @throws InterruptedException
+     */
+    protected void waitForApiChannelAdded(long version, long waitPeriod) throws InterruptedException {
+	synchronized (channelsUpdated) {
+	    if (channelsVersion == version) {
+		channelsUpdated.wait(waitPeriod);
+	    }
+	}
+    }
+
+    /**
+     * Wake any threads waiting for an API channel to be added.
+     */
+    protected void onApiChannelAdded() {
+	synchronized (channelsUpdated) {
+	    channelsVersion++;
+	    channelsUpdated.notifyAll();
+	}
+    }
+
+    /**
+     * Get number of times an API channel has been added.
+     * 
+     * @return
+     */
+    protected long getChannelsVersion() {
+	synchronized (channelsUpdated) {
+	    return channelsVersion;
+	}
+    }
+
     /*
      * @see
      * com.sitewhere.grpc.model.spi.IApiDemux#initializeApiChannel(java.lang.String)
@@ -268,6 +340,30 @@ public abstract class ApiDemux<T extends IApiChannel> extends TenantEngineLifecy
      */
     @Override
     public void onMicroserviceUpdated(IMicroserviceState previous, IMicroserviceState updated) {
+	IMicroserviceDetails microservice = updated.getMicroservice();
+	if (!getTargetIdentifier().equals(microservice.getIdentifier())) {
+	    return;
+	}
+	switch (updated.getLifecycleStatus()) {
+	case Started: {
+	    if (getApiChannelForHost(microservice.getHostname()) == null) {
+		detectServiceAdded(updated);
+	    }
+	    break;
+	}
+	case Stopping:
+	case Terminating:
+	case Terminated:
+	case LifecycleError: {
+	    getLogger().info(GrpcClientMessages.API_CHANNEL_REMOVED_AFTER_MS_STOPPING, microservice.getHostname(),
+		    updated.getLifecycleStatus().name());
+	    detectServiceRemoved(microservice);
+	    break;
+	}
+	default: {
+	    break;
+	}
+	}
     }
 
     /*
@@ -396,6 +492,7 @@ public abstract class ApiDemux<T extends IApiChannel> extends TenantEngineLifecy
 		if (existing != null) {
 		    getLogger().error("Creating API channel for hostname when one already existed.");
 		}
+		onApiChannelAdded();
 	    } catch (SiteWhereException e) {
 		getLogger().error(e, GrpcClientMessages.API_CHANNEL_EXCEPTION_ON_CREATE, getHost());
 	    } catch (Throwable t) {
@@ -0,0 +1,162 @@
+/*
+ * Copyright (c) SiteWhere, LLC. All rights reserved. http://www.sitewhere.com
+ *
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package com.sitewhere.grpc.client;
+
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.sitewhere.rest.model.user.User;
+import com.sitewhere.security.SitewhereUserDetails;
+import com.sitewhere.spi.SiteWhereException;
+import com.sitewhere.spi.microservice.IMicroservice;
+import com.sitewhere.spi.user.IGrantedAuthority;
+
+import io.jsonwebtoken.Claims;
+
+/**
+ * Bounded, expiring cache of user details derived from verified JWTs. Avoids
+ * re-parsing claims and rebuilding granted authorities on every gRPC server
+ * call. Entries are never returned past the expiration of the token they were
+ * derived from.
+ *
+ * @author Derek
+ */
+public class GrpcAuthenticationCache {
+
+    /** Default maximum number of cached tokens */
+    private static final int DEFAULT_MAXIMUM_SIZE = 5000;
+
+    /** Default maximum time an entry is held in cache (in seconds) */
+    private static final int DEFAULT_EXPIRE_SECONDS = 5 * 60;
+
+    /** Metric name for cache hits */
+    private static final String METRIC_HITS = "grpc.jwtCache.hits";
+
+    /** Metric name for cache misses */
+    private static final String METRIC_MISSES = "grpc.jwtCache.misses";
+
+    /** Underlying cache */
+    private Cache<String, CachedAuthentication> cache;
+
+    public GrpcAuthenticationCache() {
+	this(DEFAULT_MAXIMUM_SIZE, DEFAULT_EXPIRE_SECONDS);
+    }
+
+    public GrpcAuthenticationCache(int maximumSize, int expireSeconds) {
+	this.cache = CacheBuilder.newBuilder().maximumSize(maximumSize).expireAfterWrite(expireSeconds, TimeUnit.SECONDS)
+		.recordStats().build();
+    }
+
+    /**
+     * Get user details for a JWT, verifying and caching the token claims if not
+     * already cached.
+     *
+     * @param microservice
+     * @param jwt
+     * @return
+     * @throws SiteWhereException
+     */
+    public SitewhereUserDetails getUserDetails(IMicroservice<?> microservice, String jwt) throws SiteWhereException {
+	MetricRegistry metrics = microservice.getMetricRegistry();
+	CachedAuthentication cached = getCache().getIfPresent(jwt);
+	if ((cached != null) && (!cached.isExpired())) {
+	    getMeter(metrics, METRIC_HITS).mark();
+	    return cached.getUserDetails();
+	}
+	if (cached != null) {
+	    getCache().invalidate(jwt);
+	}
+	getMeter(metrics, METRIC_MISSES).mark();
+
+	// Verifies signature and expiration, throwing if token is not valid.
+	Claims claims = microservice.getTokenManagement().getClaimsForToken(jwt);
+	String username = microservice.getTokenManagement().getUsernameFromClaims(claims);
+	List<IGrantedAuthority> gauths = microservice.getTokenManagement().getGrantedAuthoritiesFromClaims(claims);
+	List<String> auths = gauths.stream().map(g -> g.getAuthority()).collect(Collectors.toList());
+
+	User user = new User();
+	user.setUsername(username);
+	user.setAuthorities(auths);
+	SitewhereUserDetails details = new SitewhereUserDetails(user, gauths);
+	getCache().put(jwt, new CachedAuthentication(details, claims.getExpiration()));
+	return details;
+    }
+
+    /**
+     * Remove a token from the cache.
+     *
+     * @param jwt
+     */
+    public void invalidate(String jwt) {
+	getCache().invalidate(jwt);
+    }
+
+    /**
+     * Remove all tokens from the cache.
+     */
+    public void invalidateAll() {
+	getCache().invalidateAll();
+    }
+
+    /**
+     * Get ratio of cache hits to total requests since cache was created.
+     *
+     * @return
+     */
+    public double getHitRate() {
+	return getCache().stats().hitRate();
+    }
+
+    /**
+     * Get approximate number of cached tokens.
+     *
+     * @return
+     */
+    public long getSize() {
+	return getCache().size();
+    }
+
+    protected Meter getMeter(MetricRegistry metrics, String name) {
+	return metrics.meter(name);
+    }
+
+    protected Cache<String, CachedAuthentication> getCache() {
+	return cache;
+    }
+
+    /**
+     * Holds user details along with expiration of the token they came from.
+     */
+    private static class CachedAuthentication {
+
+	/** User details */
+	private SitewhereUserDetails userDetails;
+
+	/** Token expiration date (may be null) */
+	private Date expiration;
+
+	public CachedAuthentication(SitewhereUserDetails userDetails, Date expiration) {
+	    this.userDetails = userDetails;
+	    this.expiration = expiration;
+	}
+
+	public boolean isExpired() {
+	    return (expiration != null) && (expiration.getTime() <= System.currentTimeMillis());
+	}
+
+	public SitewhereUserDetails getUserDetails() {
+	    return userDetails;
+	}
+    }
+}
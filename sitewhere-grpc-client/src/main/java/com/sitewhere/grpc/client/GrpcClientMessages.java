@@ -34,6 +34,8 @@ public enum GrpcClientMessages {
 
     API_CHANNEL_REMOVED_AFTER_MS_REMOVED,
 
+    API_CHANNEL_REMOVED_AFTER_MS_STOPPING,
+
     API_CHANNEL_UNABLE_TO_INIT,
 
     API_CHANNEL_UNABLE_TO_REMOVE,
@@ -7,11 +7,7 @@
  */
 package com.sitewhere.grpc.client;
 
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
 import java.util.UUID;
-import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -24,7 +20,6 @@ import com.sitewhere.grpc.client.spi.server.IGrpcApiImplementation;
 import com.sitewhere.grpc.model.security.NotAuthorizedException;
 import com.sitewhere.grpc.model.security.UnauthenticatedException;
 import com.sitewhere.grpc.model.tracing.DebugParameter;
-import com.sitewhere.rest.model.user.User;
 import com.sitewhere.security.SitewhereAuthentication;
 import com.sitewhere.security.SitewhereUserDetails;
 import com.sitewhere.spi.SiteWhereException;
@@ -36,7 +31,6 @@ import com.sitewhere.spi.microservice.multitenant.IMicroserviceTenantEngine;
 import com.sitewhere.spi.microservice.multitenant.IMultitenantMicroservice;
 import com.sitewhere.spi.microservice.multitenant.TenantEngineNotAvailableException;
 import com.sitewhere.spi.tenant.ITenant;
-import com.sitewhere.spi.user.IGrantedAuthority;
 
 import io.grpc.MethodDescriptor;
 import io.grpc.Status;
@@ -44,15 +38,14 @@ import io.grpc.Status.Code;
 import io.grpc.StatusException;
 import io.grpc.StatusRuntimeException;
 import io.grpc.stub.StreamObserver;
-import io.jsonwebtoken.Claims;
 
 public class GrpcUtils {
 
     /** Static logger instance */
     private static Logger LOGGER = LoggerFactory.getLogger(GrpcUtils.class);
 
-    /** Hashmap of JWT to decoded claims */
-    private static Map<String, Claims> jwtToClaims = new HashMap<String, Claims>();
+    /** Bounded, expiring cache of JWT to verified user details */
+    private static GrpcAuthenticationCache authenticationCache = new GrpcAuthenticationCache();
 
     public static void handleClientMethodEntry(IApiChannel<?> channel, MethodDescriptor<?, ?> method,
 	    DebugParameter... parameters) {
@@ -107,32 +100,20 @@ public class GrpcUtils {
 		    tenant = engine.getTenant();
 		}
 	    }
-	    Claims claims = getClaimsForJwt(api, jwt);
-	    String username = api.getMicroservice().getTokenManagement().getUsernameFromClaims(claims);
-	    List<IGrantedAuthority> gauths = api.getMicroservice().getTokenManagement()
-		    .getGrantedAuthoritiesFromClaims(claims);
-	    List<String> auths = gauths.stream().map(g -> g.getAuthority()).collect(Collectors.toList());
-	    establishSecurityContext(jwt, username, gauths, auths, tenant);
+	    SitewhereUserDetails details = getAuthenticationCache().getUserDetails(api.getMicroservice(), jwt);
+	    establishSecurityContext(jwt, details, tenant);
 	} catch (SiteWhereException e) {
 	    LOGGER.error("Error in gRPC server method " + method.getFullMethodName(), e);
 	}
     }
 
     /**
-     * Get cached claims for JWT.
+     * Get cache of verified JWT authentication details.
      * 
-     * @param jwt
      * @return
-     * @throws SiteWhereException
      */
-    protected static Claims getClaimsForJwt(IGrpcApiImplementation api, String jwt) throws SiteWhereException {
-	// TODO: Swap to expiring cache and put limits on number of cached JWTs.
-	Claims claims = jwtToClaims.get(jwt);
-	if (claims == null) {
-	    claims = api.getMicroservice().getTokenManagement().getClaimsForToken(jwt);
-	    jwtToClaims.put(jwt, claims);
-	}
-	return claims;
+    public static GrpcAuthenticationCache getAuthenticationCache() {
+	return authenticationCache;
     }
 
     /**
@@ -150,23 +131,16 @@ public class GrpcUtils {
      * Build Spring Security context based on values passed via gRPC interceptors.
      * 
      * @param jwt
-     * @param username
-     * @param gauths
-     * @param auths
-     * @param tenantId
+     * @param details
+     * @param tenant
      */
-    protected static void establishSecurityContext(String jwt, String username, List<IGrantedAuthority> gauths,
-	    List<String> auths, ITenant tenant) {
-	User user = new User();
-	user.setUsername(username);
-	user.setAuthorities(auths);
-	SitewhereUserDetails details = new SitewhereUserDetails(user, gauths);
+    protected static void establishSecurityContext(String jwt, SitewhereUserDetails details, ITenant tenant) {
 	SitewhereAuthentication auth = new SitewhereAuthentication(details, jwt);
 	if (tenant != null) {
 	    auth.setTenant(tenant);
 	}
 	SecurityContextHolder.getContext().setAuthentication(auth);
-	LOGGER.trace("Set security context: username=" + username + " jwt=" + jwt);
+	LOGGER.trace("Set security context: username=" + details.getUsername() + " jwt=" + jwt);
     }
 
     public static void logServerApiResult(MethodDescriptor<?, ?> method, Object result) throws SiteWhereException {
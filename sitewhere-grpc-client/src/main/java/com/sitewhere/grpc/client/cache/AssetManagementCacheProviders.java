@@ -34,7 +34,7 @@ public class AssetManagementCacheProviders {
 	private static Logger LOGGER = LoggerFactory.getLogger(AssetByTokenCache.class);
 
 	public AssetTypeByTokenCache(IHazelcastProvider hazelcastProvider) {
-	    super(hazelcastProvider, CacheIdentifier.AssetTypeByToken, 1000);
+	    super(hazelcastProvider, CacheIdentifier.AssetTypeByToken, 1000, 1000);
 	}
 
 	/*
@@ -57,7 +57,7 @@ public class AssetManagementCacheProviders {
 	private static Logger LOGGER = LoggerFactory.getLogger(AssetByTokenCache.class);
 
 	public AssetTypeByIdCache(IHazelcastProvider hazelcastProvider) {
-	    super(hazelcastProvider, CacheIdentifier.AssetTypeById, 1000);
+	    super(hazelcastProvider, CacheIdentifier.AssetTypeById, 1000, 1000);
 	}
 
 	/*
@@ -80,7 +80,7 @@ public class AssetManagementCacheProviders {
 	private static Logger LOGGER = LoggerFactory.getLogger(AssetByTokenCache.class);
 
 	public AssetByTokenCache(IHazelcastProvider hazelcastProvider) {
-	    super(hazelcastProvider, CacheIdentifier.AssetByToken, 5000);
+	    super(hazelcastProvider, CacheIdentifier.AssetByToken, 10000, 5000);
 	}
 
 	/*
@@ -103,7 +103,7 @@ public class AssetManagementCacheProviders {
 	private static Logger LOGGER = LoggerFactory.getLogger(AssetByTokenCache.class);
 
 	public AssetByIdCache(IHazelcastProvider hazelcastProvider) {
-	    super(hazelcastProvider, CacheIdentifier.AssetById, 5000);
+	    super(hazelcastProvider, CacheIdentifier.AssetById, 10000, 5000);
 	}
 
 	/*
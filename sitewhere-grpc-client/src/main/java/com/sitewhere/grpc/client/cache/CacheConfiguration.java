@@ -0,0 +1,228 @@
+/*
+ * Copyright (c) SiteWhere, LLC. All rights reserved. http://www.sitewhere.com
+ *
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package com.sitewhere.grpc.client.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.hazelcast.config.EvictionPolicy;
+import com.sitewhere.grpc.client.spi.cache.ICacheConfiguration;
+
+/**
+ * Default implementation of {@link ICacheConfiguration}. Values may be
+ * overridden per cache with system properties of the form
+ * <code>sitewhere.cache.[cache key].[setting]</code> (for instance
+ * <code>sitewhere.cache.device_by_token.maximumSize=50000</code>).
+ * 
+ * @author Derek
+ */
+public class CacheConfiguration implements ICacheConfiguration {
+
+    /** Static logger instance */
+    private static Logger LOGGER = LoggerFactory.getLogger(CacheConfiguration.class);
+
+    /** Prefix for system properties that override settings */
+    private static final String PROPERTY_PREFIX = "sitewhere.cache.";
+
+    /** Default time to live (in seconds) */
+    private static final int DEFAULT_TTL_SECONDS = 300;
+
+    /** Default near cache time to live (in seconds) */
+    private static final int DEFAULT_NEAR_CACHE_TTL_SECONDS = 60;
+
+    /** Default near cache max idle time (in seconds) */
+    private static final int DEFAULT_NEAR_CACHE_MAX_IDLE_SECONDS = 20;
+
+    /** Maximum entries per member */
+    private int maximumSize;
+
+    /** Time to live in seconds */
+    private int timeToLiveSeconds = DEFAULT_TTL_SECONDS;
+
+    /** Max idle time in seconds */
+    private int maxIdleSeconds = 0;
+
+    /** Eviction policy */
+    private EvictionPolicy evictionPolicy = EvictionPolicy.LRU;
+
+    /** Indicates if near cache is enabled */
+    private boolean nearCacheEnabled = true;
+
+    /** Maximum entries in near cache */
+    private int nearCacheMaximumSize;
+
+    /** Near cache time to live in seconds */
+    private int nearCacheTimeToLiveSeconds = DEFAULT_NEAR_CACHE_TTL_SECONDS;
+
+    /** Near cache max idle time in seconds */
+    private int nearCacheMaxIdleSeconds = DEFAULT_NEAR_CACHE_MAX_IDLE_SECONDS;
+
+    public CacheConfiguration(int maximumSize) {
+	this(maximumSize, maximumSize);
+    }
+
+    public CacheConfiguration(int maximumSize, int nearCacheMaximumSize) {
+	this.maximumSize = maximumSize;
+	this.nearCacheMaximumSize = nearCacheMaximumSize;
+    }
+
+    /**
+     * Apply any system property overrides for the given cache.
+     * 
+     * @param identifier
+     * @return
+     */
+    public CacheConfiguration withOverrides(CacheIdentifier identifier) {
+	String prefix = PROPERTY_PREFIX + identifier.getCacheKey() + ".";
+	setMaximumSize(getIntOverride(prefix + "maximumSize", getMaximumSize()));
+	setTimeToLiveSeconds(getIntOverride(prefix + "timeToLiveSeconds", getTimeToLiveSeconds()));
+	setMaxIdleSeconds(getIntOverride(prefix + "maxIdleSeconds", getMaxIdleSeconds()));
+	String policy = System.getProperty(prefix + "evictionPolicy");
+	if (policy != null) {
+	    try {
+		setEvictionPolicy(EvictionPolicy.valueOf(policy.toUpperCase()));
+	    } catch (IllegalArgumentException e) {
+		LOGGER.warn("Ignoring invalid eviction policy '" + policy + "' for cache '" + identifier.getCacheKey()
+			+ "'.");
+	    }
+	}
+	String nearEnabled = System.getProperty(prefix + "nearCacheEnabled");
+	if (nearEnabled != null) {
+	    setNearCacheEnabled(Boolean.parseBoolean(nearEnabled));
+	}
+	setNearCacheMaximumSize(getIntOverride(prefix + "nearCacheMaximumSize", getNearCacheMaximumSize()));
+	setNearCacheTimeToLiveSeconds(
+		getIntOverride(prefix + "nearCacheTimeToLiveSeconds", getNearCacheTimeToLiveSeconds()));
+	setNearCacheMaxIdleSeconds(getIntOverride(prefix + "nearCacheMaxIdleSeconds", getNearCacheMaxIdleSeconds()));
+	return this;
+    }
+
+    /**
+     * Get integer value from system property or default if not set.
+     * 
+     * @param property
+     * @param defaultValue
+     * @return
+     */
+    protected static int getIntOverride(String property, int defaultValue) {
+	String value = System.getProperty(property);
+	if (value == null) {
+	    return defaultValue;
+	}
+	try {
+	    return Integer.parseInt(value.trim());
+	} catch (NumberFormatException e) {
+	    LOGGER.warn("Ignoring invalid value '" + value + "' for '" + property + "'.");
+	    return defaultValue;
+	}
+    }
+
+    /*
+     * @see com.sitewhere.grpc.client.spi.cache.ICacheConfiguration#getMaximumSize()
+     */
+    @Override
+    public int getMaximumSize() {
+	return maximumSize;
+    }
+
+    public void setMaximumSize(int maximumSize) {
+	this.maximumSize = maximumSize;
+    }
+
+    /*
+     * @see
+     * com.sitewhere.grpc.client.spi.cache.ICacheConfiguration#getTimeToLiveSeconds(
+     * )
+     */
+    @Override
+    public int getTimeToLiveSeconds() {
+	return timeToLiveSeconds;
+    }
+
+    public void setTimeToLiveSeconds(int timeToLiveSeconds) {
+	this.timeToLiveSeconds = timeToLiveSeconds;
+    }
+
+    /*
+     * @see
+     * com.sitewhere.grpc.client.spi.cache.ICacheConfiguration#getMaxIdleSeconds()
+     */
+    @Override
+    public int getMaxIdleSeconds() {
+	return maxIdleSeconds;
+    }
+
+    public void setMaxIdleSeconds(int maxIdleSeconds) {
+	this.maxIdleSeconds = maxIdleSeconds;
+    }
+
+    /*
+     * @see
+     * com.sitewhere.grpc.client.spi.cache.ICacheConfiguration#getEvictionPolicy()
+     */
+    @Override
+    public EvictionPolicy getEvictionPolicy() {
+	return evictionPolicy;
+    }
+
+    public void setEvictionPolicy(EvictionPolicy evictionPolicy) {
+	this.evictionPolicy = evictionPolicy;
+    }
+
+    /*
+     * @see
+     * com.sitewhere.grpc.client.spi.cache.ICacheConfiguration#isNearCacheEnabled()
+     */
+    @Override
+    public boolean isNearCacheEnabled() {
+	return nearCacheEnabled;
+    }
+
+    public void setNearCacheEnabled(boolean nearCacheEnabled) {
+	this.nearCacheEnabled = nearCacheEnabled;
+    }
+
+    /*
+     * @see com.sitewhere.grpc.client.spi.cache.ICacheConfiguration#
+     * getNearCacheMaximumSize()
+     */
+    @Override
+    public int getNearCacheMaximumSize() {
+	return nearCacheMaximumSize;
+    }
+
+    public void setNearCacheMaximumSize(int nearCacheMaximumSize) {
+	this.nearCacheMaximumSize = nearCacheMaximumSize;
+    }
+
+    /*
+     * @see com.sitewhere.grpc.client.spi.cache.ICacheConfiguration#
+     * getNearCacheTimeToLiveSeconds()
+     */
+    @Override
+    public int getNearCacheTimeToLiveSeconds() {
+	return nearCacheTimeToLiveSeconds;
+    }
+
+    public void setNearCacheTimeToLiveSeconds(int nearCacheTimeToLiveSeconds) {
+	this.nearCacheTimeToLiveSeconds = nearCacheTimeToLiveSeconds;
+    }
+
+    /*
+     * @see com.sitewhere.grpc.client.spi.cache.ICacheConfiguration#
+     * getNearCacheMaxIdleSeconds()
+     */
+    @Override
+    public int getNearCacheMaxIdleSeconds() {
+	return nearCacheMaxIdleSeconds;
+    }
+
+    public void setNearCacheMaxIdleSeconds(int nearCacheMaxIdleSeconds) {
+	this.nearCacheMaxIdleSeconds = nearCacheMaxIdleSeconds;
+    }
+}
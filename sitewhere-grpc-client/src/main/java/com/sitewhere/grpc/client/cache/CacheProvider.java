@@ -7,14 +7,35 @@
  */
 package com.sitewhere.grpc.client.cache;
 
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.hazelcast.core.EntryEvent;
+import com.hazelcast.core.HazelcastInstance;
 import com.hazelcast.core.IMap;
+import com.hazelcast.map.listener.EntryAddedListener;
+import com.hazelcast.map.listener.EntryRemovedListener;
+import com.hazelcast.map.listener.EntryUpdatedListener;
+import com.sitewhere.grpc.client.spi.cache.ICacheConfiguration;
+import com.sitewhere.grpc.client.spi.cache.ICacheListener;
 import com.sitewhere.grpc.client.spi.cache.ICacheProvider;
+import com.sitewhere.grpc.client.spi.cache.INearCacheManager;
 import com.sitewhere.spi.SiteWhereException;
+import com.sitewhere.spi.microservice.IMicroservice;
 import com.sitewhere.spi.microservice.hazelcast.IHazelcastProvider;
+import com.sitewhere.spi.server.lifecycle.ILifecycleComponent;
 import com.sitewhere.spi.tenant.ITenant;
 
 /**
- * Base class for cache providers.
+ * Base class for cache providers. Map handles are resolved once per tenant and
+ * held until the underlying Hazelcast instance changes. Providers backed by a
+ * Hazelcast member register map settings from their {@link ICacheConfiguration}
+ * before the first map is accessed. Hits and misses are published as meters
+ * named <code>cache.[cache key].hits</code> and
+ * <code>cache.[cache key].misses</code>.
  * 
  * @author Derek
  *
@@ -26,19 +47,44 @@ public abstract class CacheProvider<K, V> implements ICacheProvider<K, V> {
     /** Cache prefix for global caches */
     private static final String GLOBAL_CACHE_INDICATOR = "_global_";
 
+    /** Prefix for cache metric names */
+    private static final String METRIC_PREFIX = "cache.";
+
     /** Hazelcast provider */
     private IHazelcastProvider hazelcastProvider;
 
     /** Cache identifier */
     private CacheIdentifier cacheIdentifier;
 
-    /** Maximum cache size */
-    private int maximumSize;
+    /** Cache configuration */
+    private ICacheConfiguration configuration;
+
+    /** Hazelcast instance that map handles were resolved from */
+    private volatile HazelcastInstance hazelcastInstance;
+
+    /** Map handles indexed by tenant id */
+    private Map<UUID, IMap<K, V>> tenantCaches = new ConcurrentHashMap<>();
+
+    /** Map handle for global cache */
+    private volatile IMap<K, V> globalCache;
 
-    public CacheProvider(IHazelcastProvider hazelcastProvider, CacheIdentifier cacheIdentifier, int maximumSize) {
+    /** Meter for cache hits */
+    private volatile Meter hitMeter;
+
+    /** Meter for cache misses */
+    private volatile Meter missMeter;
+
+    public CacheProvider(IHazelcastProvider hazelcastProvider, CacheIdentifier cacheIdentifier,
+	    ICacheConfiguration configuration) {
 	this.hazelcastProvider = hazelcastProvider;
 	this.cacheIdentifier = cacheIdentifier;
-	this.maximumSize = maximumSize;
+	this.configuration = configuration;
+    }
+
+    public CacheProvider(IHazelcastProvider hazelcastProvider, CacheIdentifier cacheIdentifier, int maximumSize,
+	    int nearCacheMaximumSize) {
+	this(hazelcastProvider, cacheIdentifier,
+		new CacheConfiguration(maximumSize, nearCacheMaximumSize).withOverrides(cacheIdentifier));
     }
 
     /*
@@ -48,9 +94,10 @@ public abstract class CacheProvider<K, V> implements ICacheProvider<K, V> {
      */
     @Override
     public void setCacheEntry(ITenant tenant, K key, V value) throws SiteWhereException {
-	if (getCache(tenant) != null) {
+	IMap<K, V> cache = getCache(tenant);
+	if (cache != null) {
 	    getLogger().trace("Caching value for '" + key.toString() + "'.");
-	    getCache(tenant).put(key, value);
+	    cache.put(key, value);
 	}
     }
 
@@ -61,12 +108,15 @@ public abstract class CacheProvider<K, V> implements ICacheProvider<K, V> {
      */
     @Override
     public V getCacheEntry(ITenant tenant, K key) throws SiteWhereException {
-	if (getCache(tenant) != null) {
-	    V result = getCache(tenant).get(key);
+	IMap<K, V> cache = getCache(tenant);
+	if (cache != null) {
+	    V result = cache.get(key);
 	    if (result != null) {
 		getLogger().trace("Found cached value for '" + key.toString() + "'.");
+		markHit();
 		return result;
 	    }
+	    markMiss();
 	} else {
 	    getLogger().debug("Accessing cache before Hazelcast has been initialized.");
 	}
@@ -80,27 +130,136 @@ public abstract class CacheProvider<K, V> implements ICacheProvider<K, V> {
      */
     @Override
     public void removeCacheEntry(ITenant tenant, K key) throws SiteWhereException {
-	if (getCache(tenant) != null) {
-	    getCache(tenant).remove(key);
+	IMap<K, V> cache = getCache(tenant);
+	if (cache != null) {
+	    cache.remove(key);
+	}
+    }
+
+    /*
+     * @see
+     * com.sitewhere.grpc.client.spi.cache.ICacheProvider#addCacheListener(com.
+     * sitewhere.spi.tenant.ITenant,
+     * com.sitewhere.grpc.client.spi.cache.ICacheListener)
+     */
+    @Override
+    public String addCacheListener(ITenant tenant, ICacheListener<K, V> listener) throws SiteWhereException {
+	IMap<K, V> cache = getCache(tenant);
+	if (cache == null) {
+	    return null;
+	}
+	return cache.addEntryListener(new CacheListenerAdapter<K, V>(listener), true);
+    }
+
+    /*
+     * @see
+     * com.sitewhere.grpc.client.spi.cache.ICacheProvider#removeCacheListener(com.
+     * sitewhere.spi.tenant.ITenant, java.lang.String)
+     */
+    @Override
+    public void removeCacheListener(ITenant tenant, String registrationId) throws SiteWhereException {
+	IMap<K, V> cache = getCache(tenant);
+	if ((cache != null) && (registrationId != null)) {
+	    cache.removeEntryListener(registrationId);
 	}
     }
 
     /**
-     * Get cache (create if not found).
+     * Get cache (create if not found). Map handles are reused until the Hazelcast
+     * instance is replaced.
      * 
      * @return
      * @throws SiteWhereException
      */
     protected IMap<K, V> getCache(ITenant tenant) throws SiteWhereException {
-	boolean hzInitialized = (getHazelcastProvider().getHazelcastInstance() != null)
-		&& (getHazelcastProvider().getHazelcastInstance().getLifecycleService().isRunning());
-	if (hzInitialized) {
-	    String cacheName = getCacheNameForTenant(tenant);
-	    return getHazelcastProvider().getHazelcastInstance().getMap(cacheName);
-	} else {
+	HazelcastInstance instance = getHazelcastProvider().getHazelcastInstance();
+	if ((instance == null) || (!instance.getLifecycleService().isRunning())) {
 	    getLogger().debug("Trying to access uninitialized cache.");
 	    return null;
 	}
+	if (instance != hazelcastInstance) {
+	    onHazelcastInstanceChanged(instance);
+	}
+	if (tenant == null) {
+	    IMap<K, V> cache = globalCache;
+	    if (cache == null) {
+		cache = instance.getMap(getCacheNameForTenant(null));
+		globalCache = cache;
+	    }
+	    return cache;
+	}
+	IMap<K, V> cache = tenantCaches.get(tenant.getId());
+	if (cache == null) {
+	    cache = instance.getMap(getCacheNameForTenant(tenant));
+	    tenantCaches.put(tenant.getId(), cache);
+	}
+	return cache;
+    }
+
+    /**
+     * Drop map handles resolved from a previous Hazelcast instance and register
+     * map settings with the new one.
+     * 
+     * @param instance
+     */
+    protected synchronized void onHazelcastInstanceChanged(HazelcastInstance instance) {
+	if (instance == hazelcastInstance) {
+	    return;
+	}
+	tenantCaches.clear();
+	globalCache = null;
+	if (!(getHazelcastProvider() instanceof INearCacheManager)) {
+	    try {
+		instance.getConfig().addMapConfig(CacheUtils.createMapConfig(
+			CacheUtils.getCacheNamePattern(getCacheIdentifier()), getConfiguration()));
+	    } catch (Throwable t) {
+		getLogger().warn("Unable to register configuration for cache '"
+			+ getCacheIdentifier().getCacheKey() + "'. Using defaults.", t);
+	    }
+	}
+	hazelcastInstance = instance;
+    }
+
+    /**
+     * Record a cache hit.
+     */
+    protected void markHit() {
+	if (hitMeter == null) {
+	    hitMeter = getMeter("hits");
+	}
+	if (hitMeter != null) {
+	    hitMeter.mark();
+	}
+    }
+
+    /**
+     * Record a cache miss.
+     */
+    protected void markMiss() {
+	if (missMeter == null) {
+	    missMeter = getMeter("misses");
+	}
+	if (missMeter != null) {
+	    missMeter.mark();
+	}
+    }
+
+    /**
+     * Get meter from the metric registry of the microservice that owns the
+     * Hazelcast provider. Returns null if not yet available.
+     * 
+     * @param suffix
+     * @return
+     */
+    protected Meter getMeter(String suffix) {
+	if (getHazelcastProvider() instanceof ILifecycleComponent) {
+	    IMicroservice<?> microservice = ((ILifecycleComponent) getHazelcastProvider()).getMicroservice();
+	    MetricRegistry metrics = (microservice != null) ? microservice.getMetricRegistry() : null;
+	    if (metrics != null) {
+		return metrics.meter(METRIC_PREFIX + getCacheIdentifier().getCacheKey() + "." + suffix);
+	    }
+	}
+	return null;
     }
 
     /**
@@ -127,15 +286,15 @@ public abstract class CacheProvider<K, V> implements ICacheProvider<K, V> {
     }
 
     /*
-     * @see com.sitewhere.grpc.client.spi.cache.ICacheProvider#getMaximumSize()
+     * @see com.sitewhere.grpc.client.spi.cache.ICacheProvider#getConfiguration()
      */
     @Override
-    public int getMaximumSize() {
-	return maximumSize;
+    public ICacheConfiguration getConfiguration() {
+	return configuration;
     }
 
-    public void setMaximumSize(int maximumSize) {
-	this.maximumSize = maximumSize;
+    public void setConfiguration(ICacheConfiguration configuration) {
+	this.configuration = configuration;
     }
 
     public IHazelcastProvider getHazelcastProvider() {
@@ -145,4 +304,53 @@ public abstract class CacheProvider<K, V> implements ICacheProvider<K, V> {
     public void setHazelcastProvider(IHazelcastProvider hazelcastProvider) {
 	this.hazelcastProvider = hazelcastProvider;
     }
+
+    /**
+     * Adapts Hazelcast entry events to an {@link ICacheListener}.
+     * 
+     * @author Derek
+     *
+     * @param <K>
+     * @param <V>
+     */
+    private static class CacheListenerAdapter<K, V>
+	    implements EntryAddedListener<K, V>, EntryUpdatedListener<K, V>, EntryRemovedListener<K, V> {
+
+	/** Wrapped listener */
+	private ICacheListener<K, V> listener;
+
+	public CacheListenerAdapter(ICacheListener<K, V> listener) {
+	    this.listener = listener;
+	}
+
+	/*
+	 * @see
+	 * com.hazelcast.map.listener.EntryAddedListener#entryAdded(com.hazelcast.core.
+	 * EntryEvent)
+	 */
+	@Override
+	public void entryAdded(EntryEvent<K, V> event) {
+	    listener.onEntryUpdated(event.getKey(), event.getValue());
+	}
+
+	/*
+	 * @see
+	 * com.hazelcast.map.listener.EntryUpdatedListener#entryUpdated(com.hazelcast.
+	 * core.EntryEvent)
+	 */
+	@Override
+	public void entryUpdated(EntryEvent<K, V> event) {
+	    listener.onEntryUpdated(event.getKey(), event.getValue());
+	}
+
+	/*
+	 * @see
+	 * com.hazelcast.map.listener.EntryRemovedListener#entryRemoved(com.hazelcast.
+	 * core.EntryEvent)
+	 */
+	@Override
+	public void entryRemoved(EntryEvent<K, V> event) {
+	    listener.onEntryRemoved(event.getKey());
+	}
+    }
 }
\ No newline at end of file
@@ -10,7 +10,15 @@ package com.sitewhere.grpc.client.cache;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.hazelcast.config.EvictionConfig;
+import com.hazelcast.config.EvictionConfig.MaxSizePolicy;
+import com.hazelcast.config.InMemoryFormat;
+import com.hazelcast.config.MapConfig;
+import com.hazelcast.config.MaxSizeConfig;
+import com.hazelcast.config.NearCacheConfig;
+import com.hazelcast.config.NearCacheConfig.LocalUpdatePolicy;
 import com.sitewhere.common.MarshalUtils;
+import com.sitewhere.grpc.client.spi.cache.ICacheConfiguration;
 import com.sitewhere.spi.SiteWhereException;
 
 /**
@@ -58,4 +66,57 @@ public class CacheUtils {
 	    LOGGER.trace("Removing cached object with key: " + key);
 	}
     }
+
+    /**
+     * Get name pattern that matches the per-tenant maps for a cache.
+     * 
+     * @param identifier
+     * @return
+     */
+    public static String getCacheNamePattern(CacheIdentifier identifier) {
+	return identifier.getCacheKey() + ":*";
+    }
+
+    /**
+     * Create Hazelcast map configuration for maps with names matching the given
+     * pattern.
+     * 
+     * @param name
+     * @param configuration
+     * @return
+     */
+    public static MapConfig createMapConfig(String name, ICacheConfiguration configuration) {
+	MapConfig config = new MapConfig().setName(name)
+		.setMaxSizeConfig(
+			new MaxSizeConfig(configuration.getMaximumSize(), MaxSizeConfig.MaxSizePolicy.PER_NODE))
+		.setEvictionPolicy(configuration.getEvictionPolicy())
+		.setTimeToLiveSeconds(configuration.getTimeToLiveSeconds())
+		.setMaxIdleSeconds(configuration.getMaxIdleSeconds());
+	if (configuration.isNearCacheEnabled()) {
+	    config.setNearCacheConfig(createNearCacheConfig(name, configuration, true));
+	}
+	return config;
+    }
+
+    /**
+     * Create Hazelcast near cache configuration for maps with names matching the
+     * given pattern.
+     * 
+     * @param name
+     * @param configuration
+     * @param cacheLocalEntries
+     * @return
+     */
+    public static NearCacheConfig createNearCacheConfig(String name, ICacheConfiguration configuration,
+	    boolean cacheLocalEntries) {
+	EvictionConfig evictionConfig = new EvictionConfig();
+	evictionConfig.setMaximumSizePolicy(MaxSizePolicy.ENTRY_COUNT)
+		.setEvictionPolicy(configuration.getEvictionPolicy())
+		.setSize(configuration.getNearCacheMaximumSize());
+
+	return new NearCacheConfig().setName(name).setInMemoryFormat(InMemoryFormat.BINARY)
+		.setInvalidateOnChange(true).setTimeToLiveSeconds(configuration.getNearCacheTimeToLiveSeconds())
+		.setMaxIdleSeconds(configuration.getNearCacheMaxIdleSeconds()).setEvictionConfig(evictionConfig)
+		.setCacheLocalEntries(cacheLocalEntries).setLocalUpdatePolicy(LocalUpdatePolicy.INVALIDATE);
+    }
 }
\ No newline at end of file
@@ -36,7 +36,7 @@ public class DeviceManagementCacheProviders {
 	private static Logger LOGGER = LoggerFactory.getLogger(AreaByTokenCache.class);
 
 	public AreaByTokenCache(IHazelcastProvider hazelcastProvider) {
-	    super(hazelcastProvider, CacheIdentifier.AreaByToken, 1000);
+	    super(hazelcastProvider, CacheIdentifier.AreaByToken, 1000, 1000);
 	}
 
 	/*
@@ -59,7 +59,7 @@ public class DeviceManagementCacheProviders {
 	private static Logger LOGGER = LoggerFactory.getLogger(AreaByIdCache.class);
 
 	public AreaByIdCache(IHazelcastProvider hazelcastProvider) {
-	    super(hazelcastProvider, CacheIdentifier.AreaById, 1000);
+	    super(hazelcastProvider, CacheIdentifier.AreaById, 1000, 1000);
 	}
 
 	/*
@@ -82,7 +82,7 @@ public class DeviceManagementCacheProviders {
 	private static Logger LOGGER = LoggerFactory.getLogger(DeviceTypeByTokenCache.class);
 
 	public DeviceTypeByTokenCache(IHazelcastProvider hazelcastProvider) {
-	    super(hazelcastProvider, CacheIdentifier.DeviceByToken, 100);
+	    super(hazelcastProvider, CacheIdentifier.DeviceTypeByToken, 1000, 1000);
 	}
 
 	/*
@@ -105,7 +105,7 @@ public class DeviceManagementCacheProviders {
 	private static Logger LOGGER = LoggerFactory.getLogger(DeviceTypeByIdCache.class);
 
 	public DeviceTypeByIdCache(IHazelcastProvider hazelcastProvider) {
-	    super(hazelcastProvider, CacheIdentifier.DeviceTypeById, 100);
+	    super(hazelcastProvider, CacheIdentifier.DeviceTypeById, 1000, 1000);
 	}
 
 	/*
@@ -128,7 +128,7 @@ public class DeviceManagementCacheProviders {
 	private static Logger LOGGER = LoggerFactory.getLogger(DeviceByTokenCache.class);
 
 	public DeviceByTokenCache(IHazelcastProvider hazelcastProvider) {
-	    super(hazelcastProvider, CacheIdentifier.DeviceByToken, 5000);
+	    super(hazelcastProvider, CacheIdentifier.DeviceByToken, 50000, 10000);
 	}
 
 	/*
@@ -151,7 +151,7 @@ public class DeviceManagementCacheProviders {
 	private static Logger LOGGER = LoggerFactory.getLogger(DeviceByIdCache.class);
 
 	public DeviceByIdCache(IHazelcastProvider hazelcastProvider) {
-	    super(hazelcastProvider, CacheIdentifier.DeviceById, 5000);
+	    super(hazelcastProvider, CacheIdentifier.DeviceById, 50000, 10000);
 	}
 
 	/*
@@ -174,7 +174,7 @@ public class DeviceManagementCacheProviders {
 	private static Logger LOGGER = LoggerFactory.getLogger(DeviceAssignmentByTokenCache.class);
 
 	public DeviceAssignmentByTokenCache(IHazelcastProvider hazelcastProvider) {
-	    super(hazelcastProvider, CacheIdentifier.DeviceAssignmentByToken, 5000);
+	    super(hazelcastProvider, CacheIdentifier.DeviceAssignmentByToken, 50000, 10000);
 	}
 
 	/*
@@ -197,7 +197,7 @@ public class DeviceManagementCacheProviders {
 	private static Logger LOGGER = LoggerFactory.getLogger(DeviceAssignmentByIdCache.class);
 
 	public DeviceAssignmentByIdCache(IHazelcastProvider hazelcastProvider) {
-	    super(hazelcastProvider, CacheIdentifier.DeviceAssignmentById, 5000);
+	    super(hazelcastProvider, CacheIdentifier.DeviceAssignmentById, 50000, 10000);
 	}
 
 	/*
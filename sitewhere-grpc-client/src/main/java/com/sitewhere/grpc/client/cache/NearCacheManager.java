@@ -15,12 +15,6 @@ import java.util.concurrent.Executors;
 
 import com.hazelcast.client.HazelcastClient;
 import com.hazelcast.client.config.ClientConfig;
-import com.hazelcast.config.EvictionConfig;
-import com.hazelcast.config.EvictionConfig.MaxSizePolicy;
-import com.hazelcast.config.EvictionPolicy;
-import com.hazelcast.config.InMemoryFormat;
-import com.hazelcast.config.NearCacheConfig;
-import com.hazelcast.config.NearCacheConfig.LocalUpdatePolicy;
 import com.hazelcast.core.HazelcastInstance;
 import com.sitewhere.grpc.client.spi.cache.ICacheProvider;
 import com.sitewhere.grpc.client.spi.cache.INearCacheManager;
@@ -80,26 +74,21 @@ public class NearCacheManager extends LifecycleComponent implements INearCacheMa
 	config.getNetworkConfig().setAddresses(members);
 	config.setProperty("hazelcast.logging.type", "slf4j");
 
-	// Create the default near cache configuration.
-	config.addNearCacheConfig(createNearCacheConfig());
+	// Create near cache configuration for each cache provider.
+	if (getCacheProviders() != null) {
+	    for (ICacheProvider<?, ?> provider : getCacheProviders()) {
+		if (provider.getConfiguration().isNearCacheEnabled()) {
+		    config.addNearCacheConfig(
+			    CacheUtils.createNearCacheConfig(CacheUtils.getCacheNamePattern(provider.getCacheIdentifier()),
+				    provider.getConfiguration(), false));
+		}
+	    }
+	}
 
 	hazelcastInstance = HazelcastClient.newHazelcastClient(config);
 	getLogger().debug("Hazelcast client for near cache started.");
     }
 
-    protected NearCacheConfig createNearCacheConfig() {
-	// Configure eviction.
-	EvictionConfig evictionConfig = new EvictionConfig();
-	evictionConfig.setMaximumSizePolicy(MaxSizePolicy.ENTRY_COUNT).setEvictionPolicy(EvictionPolicy.LRU)
-		.setSize(10000);
-
-	// Configure near cache.
-	return new NearCacheConfig().setName("default").setInMemoryFormat(InMemoryFormat.BINARY)
-		.setInvalidateOnChange(true).setTimeToLiveSeconds(60).setMaxIdleSeconds(20)
-		.setEvictionConfig(evictionConfig).setCacheLocalEntries(false)
-		.setLocalUpdatePolicy(LocalUpdatePolicy.INVALIDATE);
-    }
-
     /*
      * @see
      * com.sitewhere.server.lifecycle.LifecycleComponent#stop(com.sitewhere.spi.
@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) SiteWhere, LLC. All rights reserved. http://www.sitewhere.com
+ *
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package com.sitewhere.grpc.client.spi.cache;
+
+import com.hazelcast.config.EvictionPolicy;
+
+/**
+ * Sizing and expiration settings for a cache hosted in Hazelcast along with
+ * settings for the near cache kept by clients of the cache.
+ * 
+ * @author Derek
+ */
+public interface ICacheConfiguration {
+
+    /**
+     * Get maximum number of entries held per Hazelcast member.
+     * 
+     * @return
+     */
+    public int getMaximumSize();
+
+    /**
+     * Get number of seconds an entry is kept after being written. Zero means
+     * entries do not expire.
+     * 
+     * @return
+     */
+    public int getTimeToLiveSeconds();
+
+    /**
+     * Get number of seconds an entry is kept without being accessed. Zero means
+     * entries do not expire.
+     * 
+     * @return
+     */
+    public int getMaxIdleSeconds();
+
+    /**
+     * Get policy used to choose entries to evict when cache is full.
+     * 
+     * @return
+     */
+    public EvictionPolicy getEvictionPolicy();
+
+    /**
+     * Indicates whether a near cache is kept for the cache.
+     * 
+     * @return
+     */
+    public boolean isNearCacheEnabled();
+
+    /**
+     * Get maximum number of entries held in near cache.
+     * 
+     * @return
+     */
+    public int getNearCacheMaximumSize();
+
+    /**
+     * Get number of seconds a near cache entry is kept after being written.
+     * 
+     * @return
+     */
+    public int getNearCacheTimeToLiveSeconds();
+
+    /**
+     * Get number of seconds a near cache entry is kept without being accessed.
+     * 
+     * @return
+     */
+    public int getNearCacheMaxIdleSeconds();
+}
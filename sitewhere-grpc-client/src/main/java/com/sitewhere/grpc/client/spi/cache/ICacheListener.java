@@ -0,0 +1,36 @@
+/*
+ * Copyright (c) SiteWhere, LLC. All rights reserved. http://www.sitewhere.com
+ *
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package com.sitewhere.grpc.client.spi.cache;
+
+/**
+ * Receives notifications when entries in a cache hosted in Hazelcast are
+ * changed. Entries evicted to honor size limits are not reported since they do
+ * not indicate a change in the underlying data.
+ * 
+ * @author Derek
+ *
+ * @param <K>
+ * @param <V>
+ */
+public interface ICacheListener<K, V> {
+
+    /**
+     * Called when an entry is added or updated.
+     * 
+     * @param key
+     * @param value
+     */
+    public void onEntryUpdated(K key, V value);
+
+    /**
+     * Called when an entry is removed.
+     * 
+     * @param key
+     */
+    public void onEntryRemoved(K key);
+}
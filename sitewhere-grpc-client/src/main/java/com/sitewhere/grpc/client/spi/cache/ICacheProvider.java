@@ -31,11 +31,11 @@ public interface ICacheProvider<K, V> {
     public CacheIdentifier getCacheIdentifier();
 
     /**
-     * Get maximum size for cache.
+     * Get sizing and expiration settings for cache.
      * 
      * @return
      */
-    public int getMaximumSize();
+    public ICacheConfiguration getConfiguration();
 
     /**
      * Set a cache entry.
@@ -66,6 +66,26 @@ public interface ICacheProvider<K, V> {
      */
     public void removeCacheEntry(ITenant tenant, K key) throws SiteWhereException;
 
+    /**
+     * Add a listener that is notified when cache entries change. Returns null if
+     * the cache is not yet available.
+     * 
+     * @param tenant
+     * @param listener
+     * @return registration id used to remove the listener
+     * @throws SiteWhereException
+     */
+    public String addCacheListener(ITenant tenant, ICacheListener<K, V> listener) throws SiteWhereException;
+
+    /**
+     * Remove a listener previously added to the cache.
+     * 
+     * @param tenant
+     * @param registrationId
+     * @throws SiteWhereException
+     */
+    public void removeCacheListener(ITenant tenant, String registrationId) throws SiteWhereException;
+
     /**
      * Get logger for cache.
      * 
@@ -0,0 +1,18 @@
+/*
+ * Copyright (c) SiteWhere, LLC. All rights reserved. http://www.sitewhere.com
+ *
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package com.sitewhere.grpc.client.spi.client;
+
+import com.sitewhere.grpc.client.spi.multitenant.IMultitenantApiDemux;
+
+/**
+ * Demultiplexes device state requests across one or more API channels.
+ * 
+ * @author Derek
+ */
+public interface IDeviceStateApiDemux extends IMultitenantApiDemux<IDeviceStateApiChannel<?>> {
+}
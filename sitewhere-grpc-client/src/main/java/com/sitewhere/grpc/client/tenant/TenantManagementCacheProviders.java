@@ -41,7 +41,7 @@ public class TenantManagementCacheProviders {
 	private static Logger LOGGER = LoggerFactory.getLogger(TenantByTokenCache.class);
 
 	public TenantByTokenCache(IHazelcastProvider hazelcastProvider) {
-	    super(hazelcastProvider, CacheIdentifier.TenantByToken, 100);
+	    super(hazelcastProvider, CacheIdentifier.TenantByToken, 100, 100);
 	}
 
 	/*
@@ -64,7 +64,7 @@ public class TenantManagementCacheProviders {
 	private static Logger LOGGER = LoggerFactory.getLogger(TenantByIdCache.class);
 
 	public TenantByIdCache(IHazelcastProvider hazelcastProvider) {
-	    super(hazelcastProvider, CacheIdentifier.TenantById, 100);
+	    super(hazelcastProvider, CacheIdentifier.TenantById, 100, 100);
 	}
 
 	/*
@@ -42,7 +42,7 @@ public class UserManagementCacheProviders {
 	private static Logger LOGGER = LoggerFactory.getLogger(UserByTokenCache.class);
 
 	public UserByTokenCache(IHazelcastProvider hazelcastProvider) {
-	    super(hazelcastProvider, CacheIdentifier.UserByToken, 100);
+	    super(hazelcastProvider, CacheIdentifier.UserByToken, 1000, 100);
 	}
 
 	/*
@@ -65,7 +65,7 @@ public class UserManagementCacheProviders {
 	private static Logger LOGGER = LoggerFactory.getLogger(GrantedAuthorityByTokenCache.class);
 
 	public GrantedAuthorityByTokenCache(IHazelcastProvider hazelcastProvider) {
-	    super(hazelcastProvider, CacheIdentifier.GrantedAuthorityByToken, 100);
+	    super(hazelcastProvider, CacheIdentifier.GrantedAuthorityByToken, 100, 100);
 	}
 
 	/*
@@ -69,6 +69,8 @@ public class CachedDeviceManagementApiChannel extends DeviceManagementApiChannel
 	this.deviceByIdCache = new DeviceManagementCacheProviders.DeviceByIdCache(nearCacheManager);
 	this.deviceAssignmentCache = new DeviceManagementCacheProviders.DeviceAssignmentByTokenCache(nearCacheManager);
 	this.deviceAssignmentByIdCache = new DeviceManagementCacheProviders.DeviceAssignmentByIdCache(nearCacheManager);
+	getNearCacheManager().setCacheProviders(areaCache, areaByIdCache, deviceTypeCache, deviceTypeByIdCache,
+		deviceCache, deviceByIdCache, deviceAssignmentCache, deviceAssignmentByIdCache);
     }
 
     /*
@@ -0,0 +1,227 @@
+/*
+ * Copyright (c) SiteWhere, LLC. All rights reserved. http://www.sitewhere.com
+ *
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package com.sitewhere.grpc.client.devicestate;
+
+import java.util.List;
+import java.util.UUID;
+
+import com.sitewhere.grpc.client.GrpcUtils;
+import com.sitewhere.grpc.client.MultitenantApiChannel;
+import com.sitewhere.grpc.client.spi.IApiDemux;
+import com.sitewhere.grpc.client.spi.client.IDeviceStateApiChannel;
+import com.sitewhere.grpc.model.converter.CommonModelConverter;
+import com.sitewhere.grpc.model.converter.DeviceStateModelConverter;
+import com.sitewhere.grpc.service.DeviceStateGrpc;
+import com.sitewhere.grpc.service.GCreateDeviceStateRequest;
+import com.sitewhere.grpc.service.GCreateDeviceStateResponse;
+import com.sitewhere.grpc.service.GDeleteDeviceStateRequest;
+import com.sitewhere.grpc.service.GDeleteDeviceStateResponse;
+import com.sitewhere.grpc.service.GGetDeviceStateByDeviceAssignmentIdRequest;
+import com.sitewhere.grpc.service.GGetDeviceStateByDeviceAssignmentIdResponse;
+import com.sitewhere.grpc.service.GGetDeviceStateRequest;
+import com.sitewhere.grpc.service.GGetDeviceStateResponse;
+import com.sitewhere.grpc.service.GGetLastValuesForAssignmentsRequest;
+import com.sitewhere.grpc.service.GGetLastValuesForAssignmentsResponse;
+import com.sitewhere.grpc.service.GListDeviceStatesRequest;
+import com.sitewhere.grpc.service.GListDeviceStatesResponse;
+import com.sitewhere.grpc.service.GUpdateDeviceStateRequest;
+import com.sitewhere.grpc.service.GUpdateDeviceStateResponse;
+import com.sitewhere.spi.SiteWhereException;
+import com.sitewhere.spi.device.state.IDeviceAssignmentLastValues;
+import com.sitewhere.spi.device.state.IDeviceState;
+import com.sitewhere.spi.device.state.request.IDeviceStateCreateRequest;
+import com.sitewhere.spi.search.ISearchResults;
+import com.sitewhere.spi.search.device.IDeviceStateSearchCriteria;
+import com.sitewhere.spi.tracing.ITracerProvider;
+
+/**
+ * Supports SiteWhere device state APIs on top of a
+ * {@link DeviceStateGrpcChannel}.
+ * 
+ * @author Derek
+ */
+public class DeviceStateApiChannel extends MultitenantApiChannel<DeviceStateGrpcChannel>
+	implements IDeviceStateApiChannel<DeviceStateGrpcChannel> {
+
+    public DeviceStateApiChannel(IApiDemux<?> demux, String host, int port) {
+	super(demux, host, port);
+    }
+
+    /*
+     * @see
+     * com.sitewhere.grpc.client.spi.IApiChannel#createGrpcChannel(com.sitewhere.spi
+     * .tracing.ITracerProvider, java.lang.String, int)
+     */
+    @Override
+    public DeviceStateGrpcChannel createGrpcChannel(ITracerProvider tracerProvider, String host, int port) {
+	return new DeviceStateGrpcChannel(tracerProvider, host, port);
+    }
+
+    /*
+     * @see
+     * com.sitewhere.spi.device.state.IDeviceStateManagement#createDeviceState(com.
+     * sitewhere.spi.device.state.request.IDeviceStateCreateRequest)
+     */
+    @Override
+    public IDeviceState createDeviceState(IDeviceStateCreateRequest request) throws SiteWhereException {
+	try {
+	    GrpcUtils.handleClientMethodEntry(this, DeviceStateGrpc.getCreateDeviceStateMethod());
+	    GCreateDeviceStateRequest.Builder grequest = GCreateDeviceStateRequest.newBuilder();
+	    grequest.setRequest(DeviceStateModelConverter.asGrpcDeviceStateCreateRequest(request));
+	    GCreateDeviceStateResponse gresponse = getGrpcChannel().getBlockingStub()
+		    .createDeviceState(grequest.build());
+	    IDeviceState response = (gresponse.hasDeviceState())
+		    ? DeviceStateModelConverter.asApiDeviceState(gresponse.getDeviceState())
+		    : null;
+	    GrpcUtils.logClientMethodResponse(DeviceStateGrpc.getCreateDeviceStateMethod(), response);
+	    return response;
+	} catch (Throwable t) {
+	    throw GrpcUtils.handleClientMethodException(DeviceStateGrpc.getCreateDeviceStateMethod(), t);
+	}
+    }
+
+    /*
+     * @see
+     * com.sitewhere.spi.device.state.IDeviceStateManagement#getDeviceState(java.
+     * util.UUID)
+     */
+    @Override
+    public IDeviceState getDeviceState(UUID id) throws SiteWhereException {
+	try {
+	    GrpcUtils.handleClientMethodEntry(this, DeviceStateGrpc.getGetDeviceStateMethod());
+	    GGetDeviceStateRequest.Builder grequest = GGetDeviceStateRequest.newBuilder();
+	    grequest.setId(CommonModelConverter.asGrpcUuid(id));
+	    GGetDeviceStateResponse gresponse = getGrpcChannel().getBlockingStub().getDeviceState(grequest.build());
+	    IDeviceState response = (gresponse.hasDeviceState())
+		    ? DeviceStateModelConverter.asApiDeviceState(gresponse.getDeviceState())
+		    : null;
+	    GrpcUtils.logClientMethodResponse(DeviceStateGrpc.getGetDeviceStateMethod(), response);
+	    return response;
+	} catch (Throwable t) {
+	    throw GrpcUtils.handleClientMethodException(DeviceStateGrpc.getGetDeviceStateMethod(), t);
+	}
+    }
+
+    /*
+     * @see com.sitewhere.spi.device.state.IDeviceStateManagement#
+     * getDeviceStateByDeviceAssignmentId(java.util.UUID)
+     */
+    @Override
+    public IDeviceState getDeviceStateByDeviceAssignmentId(UUID assignmentId) throws SiteWhereException {
+	try {
+	    GrpcUtils.handleClientMethodEntry(this, DeviceStateGrpc.getGetDeviceStateByDeviceAssignmentIdMethod());
+	    GGetDeviceStateByDeviceAssignmentIdRequest.Builder grequest = GGetDeviceStateByDeviceAssignmentIdRequest
+		    .newBuilder();
+	    grequest.setDeviceAssignmentId(CommonModelConverter.asGrpcUuid(assignmentId));
+	    GGetDeviceStateByDeviceAssignmentIdResponse gresponse = getGrpcChannel().getBlockingStub()
+		    .getDeviceStateByDeviceAssignmentId(grequest.build());
+	    IDeviceState response = (gresponse.hasDeviceState())
+		    ? DeviceStateModelConverter.asApiDeviceState(gresponse.getDeviceState())
+		    : null;
+	    GrpcUtils.logClientMethodResponse(DeviceStateGrpc.getGetDeviceStateByDeviceAssignmentIdMethod(),
+		    response);
+	    return response;
+	} catch (Throwable t) {
+	    throw GrpcUtils.handleClientMethodException(DeviceStateGrpc.getGetDeviceStateByDeviceAssignmentIdMethod(),
+		    t);
+	}
+    }
+
+    /*
+     * @see
+     * com.sitewhere.spi.device.state.IDeviceStateManagement#listDeviceStates(com.
+     * sitewhere.spi.search.device.IDeviceStateSearchCriteria)
+     */
+    @Override
+    public ISearchResults<IDeviceState> listDeviceStates(IDeviceStateSearchCriteria criteria)
+	    throws SiteWhereException {
+	try {
+	    GrpcUtils.handleClientMethodEntry(this, DeviceStateGrpc.getListDeviceStatesMethod());
+	    GListDeviceStatesRequest.Builder grequest = GListDeviceStatesRequest.newBuilder();
+	    grequest.setCriteria(DeviceStateModelConverter.asGrpcDeviceStateSearchCriteria(criteria));
+	    GListDeviceStatesResponse gresponse = getGrpcChannel().getBlockingStub()
+		    .listDeviceStates(grequest.build());
+	    ISearchResults<IDeviceState> results = DeviceStateModelConverter
+		    .asApiDeviceStateSearchResults(gresponse.getResults());
+	    GrpcUtils.logClientMethodResponse(DeviceStateGrpc.getListDeviceStatesMethod(), results);
+	    return results;
+	} catch (Throwable t) {
+	    throw GrpcUtils.handleClientMethodException(DeviceStateGrpc.getListDeviceStatesMethod(), t);
+	}
+    }
+
+    /*
+     * @see
+     * com.sitewhere.spi.device.state.IDeviceStateManagement#updateDeviceState(java.
+     * util.UUID, com.sitewhere.spi.device.state.request.IDeviceStateCreateRequest)
+     */
+    @Override
+    public IDeviceState updateDeviceState(UUID id, IDeviceStateCreateRequest request) throws SiteWhereException {
+	try {
+	    GrpcUtils.handleClientMethodEntry(this, DeviceStateGrpc.getUpdateDeviceStateMethod());
+	    GUpdateDeviceStateRequest.Builder grequest = GUpdateDeviceStateRequest.newBuilder();
+	    grequest.setId(CommonModelConverter.asGrpcUuid(id));
+	    grequest.setRequest(DeviceStateModelConverter.asGrpcDeviceStateCreateRequest(request));
+	    GUpdateDeviceStateResponse gresponse = getGrpcChannel().getBlockingStub()
+		    .updateDeviceState(grequest.build());
+	    IDeviceState response = (gresponse.hasDeviceState())
+		    ? DeviceStateModelConverter.asApiDeviceState(gresponse.getDeviceState())
+		    : null;
+	    GrpcUtils.logClientMethodResponse(DeviceStateGrpc.getUpdateDeviceStateMethod(), response);
+	    return response;
+	} catch (Throwable t) {
+	    throw GrpcUtils.handleClientMethodException(DeviceStateGrpc.getUpdateDeviceStateMethod(), t);
+	}
+    }
+
+    /*
+     * @see
+     * com.sitewhere.spi.device.state.IDeviceStateManagement#deleteDeviceState(java.
+     * util.UUID, boolean)
+     */
+    @Override
+    public IDeviceState deleteDeviceState(UUID id, boolean force) throws SiteWhereException {
+	try {
+	    GrpcUtils.handleClientMethodEntry(this, DeviceStateGrpc.getDeleteDeviceStateMethod());
+	    GDeleteDeviceStateRequest.Builder grequest = GDeleteDeviceStateRequest.newBuilder();
+	    grequest.setId(CommonModelConverter.asGrpcUuid(id));
+	    grequest.setForce(force);
+	    GDeleteDeviceStateResponse gresponse = getGrpcChannel().getBlockingStub()
+		    .deleteDeviceState(grequest.build());
+	    IDeviceState response = (gresponse.hasDeviceState())
+		    ? DeviceStateModelConverter.asApiDeviceState(gresponse.getDeviceState())
+		    : null;
+	    GrpcUtils.logClientMethodResponse(DeviceStateGrpc.getDeleteDeviceStateMethod(), response);
+	    return response;
+	} catch (Throwable t) {
+	    throw GrpcUtils.handleClientMethodException(DeviceStateGrpc.getDeleteDeviceStateMethod(), t);
+	}
+    }
+
+    /*
+     * @see com.sitewhere.grpc.client.spi.client.IDeviceStateApiChannel#
+     * getLastValuesForAssignments(java.util.List)
+     */
+    @Override
+    public List<IDeviceAssignmentLastValues> getLastValuesForAssignments(List<UUID> assignmentIds)
+	    throws SiteWhereException {
+	try {
+	    GrpcUtils.handleClientMethodEntry(this, DeviceStateGrpc.getGetLastValuesForAssignmentsMethod());
+	    GGetLastValuesForAssignmentsRequest.Builder grequest = GGetLastValuesForAssignmentsRequest.newBuilder();
+	    grequest.addAllDeviceAssignmentIds(CommonModelConverter.asGrpcUuids(assignmentIds));
+	    GGetLastValuesForAssignmentsResponse gresponse = getGrpcChannel().getBlockingStub()
+		    .getLastValuesForAssignments(grequest.build());
+	    List<IDeviceAssignmentLastValues> response = DeviceStateModelConverter
+		    .asApiDeviceAssignmentLastValues(gresponse.getLastValuesList());
+	    GrpcUtils.logClientMethodResponse(DeviceStateGrpc.getGetLastValuesForAssignmentsMethod(), response);
+	    return response;
+	} catch (Throwable t) {
+	    throw GrpcUtils.handleClientMethodException(DeviceStateGrpc.getGetLastValuesForAssignmentsMethod(), t);
+	}
+    }
+}
@@ -1148,6 +1148,7 @@ public class DeviceModelConverter {
 	DeviceSearchCriteria api = new DeviceSearchCriteria(pageNumber, pageSize, createdAfter, createdBefore);
 	api.setExcludeAssigned(grpc.hasExcludeAssigned() ? grpc.getExcludeAssigned().getValue() : false);
 	api.setDeviceTypeToken(grpc.hasDeviceType() ? grpc.getDeviceType().getToken() : null);
+	api.setDeviceTokens(grpc.getDeviceTokensCount() > 0 ? new ArrayList<>(grpc.getDeviceTokensList()) : null);
 	return api;
     }
 
@@ -1170,6 +1171,9 @@ public class DeviceModelConverter {
 	if (api.isExcludeAssigned()) {
 	    grpc.setExcludeAssigned(GOptionalBoolean.newBuilder().setValue(true));
 	}
+	if (api.getDeviceTokens() != null) {
+	    grpc.addAllDeviceTokens(api.getDeviceTokens());
+	}
 	return grpc.build();
     }
 
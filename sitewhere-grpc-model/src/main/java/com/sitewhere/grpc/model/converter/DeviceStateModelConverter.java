@@ -7,18 +7,31 @@
  */
 package com.sitewhere.grpc.model.converter;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 
 import com.sitewhere.grpc.model.CommonModel.GUUID;
+import com.sitewhere.grpc.model.DeviceEventModel.GDeviceAlert;
+import com.sitewhere.grpc.model.DeviceStateModel.GDeviceAssignmentLastValues;
+import com.sitewhere.grpc.model.DeviceStateModel.GDeviceMeasurementValue;
 import com.sitewhere.grpc.model.DeviceStateModel.GDeviceState;
 import com.sitewhere.grpc.model.DeviceStateModel.GDeviceStateCreateRequest;
 import com.sitewhere.grpc.model.DeviceStateModel.GDeviceStateSearchCriteria;
+import com.sitewhere.grpc.model.DeviceStateModel.GDeviceStateSearchResults;
+import com.sitewhere.rest.model.device.event.DeviceMeasurement;
+import com.sitewhere.rest.model.device.state.DeviceAssignmentLastValues;
 import com.sitewhere.rest.model.device.state.DeviceState;
 import com.sitewhere.rest.model.device.state.request.DeviceStateCreateRequest;
+import com.sitewhere.rest.model.search.SearchResults;
 import com.sitewhere.rest.model.search.device.DeviceStateSearchCriteria;
 import com.sitewhere.spi.SiteWhereException;
+import com.sitewhere.spi.device.event.IDeviceAlert;
+import com.sitewhere.spi.device.event.IDeviceMeasurement;
+import com.sitewhere.spi.device.state.IDeviceAssignmentLastValues;
 import com.sitewhere.spi.device.state.IDeviceState;
 import com.sitewhere.spi.device.state.request.IDeviceStateCreateRequest;
+import com.sitewhere.spi.search.ISearchResults;
 import com.sitewhere.spi.search.device.IDeviceStateSearchCriteria;
 
 /**
@@ -195,4 +208,114 @@ public class DeviceStateModelConverter {
 	}
 	return grpc.build();
     }
+
+    /**
+     * Convert device state search results from GRPC to API.
+     * 
+     * @param grpc
+     * @return
+     * @throws SiteWhereException
+     */
+    public static ISearchResults<IDeviceState> asApiDeviceStateSearchResults(GDeviceStateSearchResults grpc)
+	    throws SiteWhereException {
+	List<IDeviceState> api = new ArrayList<IDeviceState>();
+	for (GDeviceState grpcState : grpc.getDeviceStatesList()) {
+	    api.add(DeviceStateModelConverter.asApiDeviceState(grpcState));
+	}
+	return new SearchResults<IDeviceState>(api, grpc.getCount());
+    }
+
+    /**
+     * Convert single measurement value from GRPC to API.
+     * 
+     * @param grpc
+     * @return
+     * @throws SiteWhereException
+     */
+    public static DeviceMeasurement asApiDeviceMeasurementValue(GDeviceMeasurementValue grpc)
+	    throws SiteWhereException {
+	DeviceMeasurement api = new DeviceMeasurement();
+	api.setName(grpc.getName());
+	api.setValue(grpc.getValue());
+	EventModelConverter.copyApiDeviceEvent(grpc.getEvent(), api);
+	return api;
+    }
+
+    /**
+     * Convert single measurement value from API to GRPC.
+     * 
+     * @param api
+     * @return
+     * @throws SiteWhereException
+     */
+    public static GDeviceMeasurementValue asGrpcDeviceMeasurementValue(IDeviceMeasurement api)
+	    throws SiteWhereException {
+	GDeviceMeasurementValue.Builder grpc = GDeviceMeasurementValue.newBuilder();
+	grpc.setName(api.getName());
+	grpc.setValue(api.getValue());
+	grpc.setEvent(EventModelConverter.createGrpcDeviceEvent(api));
+	return grpc.build();
+    }
+
+    /**
+     * Convert assignment last values from GRPC to API.
+     * 
+     * @param grpc
+     * @return
+     * @throws SiteWhereException
+     */
+    public static DeviceAssignmentLastValues asApiDeviceAssignmentLastValues(GDeviceAssignmentLastValues grpc)
+	    throws SiteWhereException {
+	DeviceAssignmentLastValues api = new DeviceAssignmentLastValues();
+	api.setDeviceAssignmentId(CommonModelConverter.asApiUuid(grpc.getDeviceAssignmentId()));
+	for (GDeviceMeasurementValue mx : grpc.getLastMeasurementsList()) {
+	    api.getLastMeasurements().put(mx.getName(), asApiDeviceMeasurementValue(mx));
+	}
+	if (grpc.hasLastLocation()) {
+	    api.setLastLocation(EventModelConverter.asApiDeviceLocation(grpc.getLastLocation()));
+	}
+	for (GDeviceAlert alert : grpc.getLastAlertsList()) {
+	    api.getLastAlerts().put(alert.getType(), EventModelConverter.asApiDeviceAlert(alert));
+	}
+	return api;
+    }
+
+    /**
+     * Convert assignment last values from API to GRPC.
+     * 
+     * @param api
+     * @return
+     * @throws SiteWhereException
+     */
+    public static GDeviceAssignmentLastValues asGrpcDeviceAssignmentLastValues(IDeviceAssignmentLastValues api)
+	    throws SiteWhereException {
+	GDeviceAssignmentLastValues.Builder grpc = GDeviceAssignmentLastValues.newBuilder();
+	grpc.setDeviceAssignmentId(CommonModelConverter.asGrpcUuid(api.getDeviceAssignmentId()));
+	for (IDeviceMeasurement mx : api.getLastMeasurements().values()) {
+	    grpc.addLastMeasurements(asGrpcDeviceMeasurementValue(mx));
+	}
+	if (api.getLastLocation() != null) {
+	    grpc.setLastLocation(EventModelConverter.asGrpcDeviceLocation(api.getLastLocation()));
+	}
+	for (IDeviceAlert alert : api.getLastAlerts().values()) {
+	    grpc.addLastAlerts(EventModelConverter.asGrpcDeviceAlert(alert));
+	}
+	return grpc.build();
+    }
+
+    /**
+     * Convert list of assignment last values from GRPC to API.
+     * 
+     * @param grpcs
+     * @return
+     * @throws SiteWhereException
+     */
+    public static List<IDeviceAssignmentLastValues> asApiDeviceAssignmentLastValues(
+	    List<GDeviceAssignmentLastValues> grpcs) throws SiteWhereException {
+	List<IDeviceAssignmentLastValues> api = new ArrayList<>();
+	for (GDeviceAssignmentLastValues grpc : grpcs) {
+	    api.add(asApiDeviceAssignmentLastValues(grpc));
+	}
+	return api;
+    }
 }
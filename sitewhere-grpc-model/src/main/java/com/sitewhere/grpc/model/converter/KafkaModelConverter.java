@@ -11,6 +11,7 @@ import java.util.ArrayList;
 import java.util.List;
 
 import com.sitewhere.grpc.kafka.model.KafkaModel.GEnrichedEventPayload;
+import com.sitewhere.grpc.kafka.model.KafkaModel.GEventReplayStage;
 import com.sitewhere.grpc.kafka.model.KafkaModel.GInboundEventPayload;
 import com.sitewhere.grpc.kafka.model.KafkaModel.GLifecycleStatus;
 import com.sitewhere.grpc.kafka.model.KafkaModel.GLogLevel;
@@ -113,6 +114,19 @@ public class KafkaModelConverter {
 	return grpc.build();
     }
 
+    /**
+     * Indicates whether an enriched event payload should be processed by a stage.
+     * Live events are processed by all stages, while replayed events are only
+     * processed by the stages selected when the replay was started.
+     * 
+     * @param grpc
+     * @param stage
+     * @return
+     */
+    public static boolean isProcessedByStage(GEnrichedEventPayload grpc, GEventReplayStage stage) {
+	return !grpc.hasReplay() || grpc.getReplay().getStagesList().contains(stage);
+    }
+
     /**
      * Convert enriched event payload from GRPC to API.
      * 
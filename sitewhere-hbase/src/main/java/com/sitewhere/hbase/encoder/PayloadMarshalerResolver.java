@@ -25,6 +25,7 @@ public class PayloadMarshalerResolver {
 
     static {
 	MARSHALERS.put(PayloadEncoding.Json, new JsonPayloadMarshaler());
+	MARSHALERS.put(PayloadEncoding.ProtocolBuffers, new ProtobufPayloadMarshaler());
     }
 
     /**
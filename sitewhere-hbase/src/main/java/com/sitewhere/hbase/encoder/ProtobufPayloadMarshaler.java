@@ -0,0 +1,263 @@
+/*
+ * Copyright (c) SiteWhere, LLC. All rights reserved. http://www.sitewhere.com
+ *
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package com.sitewhere.hbase.encoder;
+
+import com.google.protobuf.InvalidProtocolBufferException;
+import com.sitewhere.grpc.model.DeviceEventModel.GDeviceAlert;
+import com.sitewhere.grpc.model.DeviceEventModel.GDeviceCommandInvocation;
+import com.sitewhere.grpc.model.DeviceEventModel.GDeviceCommandResponse;
+import com.sitewhere.grpc.model.DeviceEventModel.GDeviceLocation;
+import com.sitewhere.grpc.model.DeviceEventModel.GDeviceMeasurements;
+import com.sitewhere.grpc.model.DeviceEventModel.GDeviceStateChange;
+import com.sitewhere.grpc.model.DeviceEventModel.GDeviceStreamData;
+import com.sitewhere.grpc.model.converter.EventModelConverter;
+import com.sitewhere.rest.model.device.event.DeviceAlert;
+import com.sitewhere.rest.model.device.event.DeviceCommandInvocation;
+import com.sitewhere.rest.model.device.event.DeviceCommandResponse;
+import com.sitewhere.rest.model.device.event.DeviceLocation;
+import com.sitewhere.rest.model.device.event.DeviceMeasurements;
+import com.sitewhere.rest.model.device.event.DeviceStateChange;
+import com.sitewhere.rest.model.device.event.DeviceStreamData;
+import com.sitewhere.spi.SiteWhereException;
+import com.sitewhere.spi.device.event.IDeviceAlert;
+import com.sitewhere.spi.device.event.IDeviceCommandInvocation;
+import com.sitewhere.spi.device.event.IDeviceCommandResponse;
+import com.sitewhere.spi.device.event.IDeviceLocation;
+import com.sitewhere.spi.device.event.IDeviceMeasurements;
+import com.sitewhere.spi.device.event.IDeviceStateChange;
+import com.sitewhere.spi.device.event.IDeviceStreamData;
+
+/**
+ * Implementation of {@link IPayloadMarshaler} that stores device events in the
+ * protocol buffers format from the GRPC event model. Events make up the bulk
+ * of stored data, so only they use the binary format. Other entities are
+ * marshaled to JSON as in {@link JsonPayloadMarshaler}. Rows are tagged with
+ * the encoding used to write them, so tables may contain a mix of both formats
+ * while data is being migrated.
+ * 
+ * @author Derek
+ */
+public class ProtobufPayloadMarshaler extends JsonPayloadMarshaler {
+
+    /*
+     * @see com.sitewhere.hbase.encoder.JsonPayloadMarshaler#getEncoding()
+     */
+    @Override
+    public PayloadEncoding getEncoding() throws SiteWhereException {
+	return PayloadEncoding.ProtocolBuffers;
+    }
+
+    /*
+     * @see com.sitewhere.hbase.encoder.JsonPayloadMarshaler#encode(java.lang.Object)
+     */
+    @Override
+    public byte[] encode(Object obj) throws SiteWhereException {
+	if (obj instanceof IDeviceMeasurements) {
+	    return encodeDeviceMeasurements((IDeviceMeasurements) obj);
+	} else if (obj instanceof IDeviceLocation) {
+	    return encodeDeviceLocation((IDeviceLocation) obj);
+	} else if (obj instanceof IDeviceAlert) {
+	    return encodeDeviceAlert((IDeviceAlert) obj);
+	} else if (obj instanceof IDeviceStreamData) {
+	    return encodeDeviceStreamData((IDeviceStreamData) obj);
+	} else if (obj instanceof IDeviceCommandInvocation) {
+	    return encodeDeviceCommandInvocation((IDeviceCommandInvocation) obj);
+	} else if (obj instanceof IDeviceCommandResponse) {
+	    return encodeDeviceCommandResponse((IDeviceCommandResponse) obj);
+	} else if (obj instanceof IDeviceStateChange) {
+	    return encodeDeviceStateChange((IDeviceStateChange) obj);
+	}
+	return super.encode(obj);
+    }
+
+    /*
+     * @see com.sitewhere.hbase.encoder.JsonPayloadMarshaler#decode(byte[],
+     * java.lang.Class)
+     */
+    @Override
+    public <T> T decode(byte[] payload, Class<T> type) throws SiteWhereException {
+	if (type == DeviceMeasurements.class) {
+	    return type.cast(decodeDeviceMeasurements(payload));
+	} else if (type == DeviceLocation.class) {
+	    return type.cast(decodeDeviceLocation(payload));
+	} else if (type == DeviceAlert.class) {
+	    return type.cast(decodeDeviceAlert(payload));
+	} else if (type == DeviceStreamData.class) {
+	    return type.cast(decodeDeviceStreamData(payload));
+	} else if (type == DeviceCommandInvocation.class) {
+	    return type.cast(decodeDeviceCommandInvocation(payload));
+	} else if (type == DeviceCommandResponse.class) {
+	    return type.cast(decodeDeviceCommandResponse(payload));
+	} else if (type == DeviceStateChange.class) {
+	    return type.cast(decodeDeviceStateChange(payload));
+	}
+	return super.decode(payload, type);
+    }
+
+    /*
+     * @see com.sitewhere.hbase.encoder.JsonPayloadMarshaler#encodeDeviceMeasurements(
+     * com.sitewhere.spi.device.event.IDeviceMeasurements)
+     */
+    @Override
+    public byte[] encodeDeviceMeasurements(IDeviceMeasurements measurements) throws SiteWhereException {
+	return EventModelConverter.asGrpcDeviceMeasurements(measurements).toByteArray();
+    }
+
+    /*
+     * @see
+     * com.sitewhere.hbase.encoder.JsonPayloadMarshaler#decodeDeviceMeasurements(
+     * byte[])
+     */
+    @Override
+    public DeviceMeasurements decodeDeviceMeasurements(byte[] payload) throws SiteWhereException {
+	try {
+	    return EventModelConverter.asApiDeviceMeasurements(GDeviceMeasurements.parseFrom(payload));
+	} catch (InvalidProtocolBufferException e) {
+	    throw new SiteWhereException("Unable to decode device measurements payload.", e);
+	}
+    }
+
+    /*
+     * @see com.sitewhere.hbase.encoder.JsonPayloadMarshaler#encodeDeviceLocation(
+     * com.sitewhere.spi.device.event.IDeviceLocation)
+     */
+    @Override
+    public byte[] encodeDeviceLocation(IDeviceLocation location) throws SiteWhereException {
+	return EventModelConverter.asGrpcDeviceLocation(location).toByteArray();
+    }
+
+    /*
+     * @see
+     * com.sitewhere.hbase.encoder.JsonPayloadMarshaler#decodeDeviceLocation(byte[])
+     */
+    @Override
+    public DeviceLocation decodeDeviceLocation(byte[] payload) throws SiteWhereException {
+	try {
+	    return EventModelConverter.asApiDeviceLocation(GDeviceLocation.parseFrom(payload));
+	} catch (InvalidProtocolBufferException e) {
+	    throw new SiteWhereException("Unable to decode device location payload.", e);
+	}
+    }
+
+    /*
+     * @see com.sitewhere.hbase.encoder.JsonPayloadMarshaler#encodeDeviceAlert(com.
+     * sitewhere.spi.device.event.IDeviceAlert)
+     */
+    @Override
+    public byte[] encodeDeviceAlert(IDeviceAlert alert) throws SiteWhereException {
+	return EventModelConverter.asGrpcDeviceAlert(alert).toByteArray();
+    }
+
+    /*
+     * @see
+     * com.sitewhere.hbase.encoder.JsonPayloadMarshaler#decodeDeviceAlert(byte[])
+     */
+    @Override
+    public DeviceAlert decodeDeviceAlert(byte[] payload) throws SiteWhereException {
+	try {
+	    return EventModelConverter.asApiDeviceAlert(GDeviceAlert.parseFrom(payload));
+	} catch (InvalidProtocolBufferException e) {
+	    throw new SiteWhereException("Unable to decode device alert payload.", e);
+	}
+    }
+
+    /*
+     * @see com.sitewhere.hbase.encoder.JsonPayloadMarshaler#encodeDeviceStreamData(
+     * com.sitewhere.spi.device.event.IDeviceStreamData)
+     */
+    @Override
+    public byte[] encodeDeviceStreamData(IDeviceStreamData streamData) throws SiteWhereException {
+	return EventModelConverter.asGrpcDeviceStreamData(streamData).toByteArray();
+    }
+
+    /*
+     * @see
+     * com.sitewhere.hbase.encoder.JsonPayloadMarshaler#decodeDeviceStreamData(
+     * byte[])
+     */
+    @Override
+    public DeviceStreamData decodeDeviceStreamData(byte[] payload) throws SiteWhereException {
+	try {
+	    return EventModelConverter.asApiDeviceStreamData(GDeviceStreamData.parseFrom(payload));
+	} catch (InvalidProtocolBufferException e) {
+	    throw new SiteWhereException("Unable to decode device stream data payload.", e);
+	}
+    }
+
+    /*
+     * @see
+     * com.sitewhere.hbase.encoder.JsonPayloadMarshaler#encodeDeviceCommandInvocation
+     * (com.sitewhere.spi.device.event.IDeviceCommandInvocation)
+     */
+    @Override
+    public byte[] encodeDeviceCommandInvocation(IDeviceCommandInvocation invocation) throws SiteWhereException {
+	return EventModelConverter.asGrpcDeviceCommandInvocation(invocation).toByteArray();
+    }
+
+    /*
+     * @see
+     * com.sitewhere.hbase.encoder.JsonPayloadMarshaler#decodeDeviceCommandInvocation
+     * (byte[])
+     */
+    @Override
+    public DeviceCommandInvocation decodeDeviceCommandInvocation(byte[] payload) throws SiteWhereException {
+	try {
+	    return EventModelConverter.asApiDeviceCommandInvocation(GDeviceCommandInvocation.parseFrom(payload));
+	} catch (InvalidProtocolBufferException e) {
+	    throw new SiteWhereException("Unable to decode device command invocation payload.", e);
+	}
+    }
+
+    /*
+     * @see
+     * com.sitewhere.hbase.encoder.JsonPayloadMarshaler#encodeDeviceStateChange(com.
+     * sitewhere.spi.device.event.IDeviceStateChange)
+     */
+    @Override
+    public byte[] encodeDeviceStateChange(IDeviceStateChange change) throws SiteWhereException {
+	return EventModelConverter.asGrpcDeviceStateChange(change).toByteArray();
+    }
+
+    /*
+     * @see
+     * com.sitewhere.hbase.encoder.JsonPayloadMarshaler#decodeDeviceStateChange(
+     * byte[])
+     */
+    @Override
+    public DeviceStateChange decodeDeviceStateChange(byte[] payload) throws SiteWhereException {
+	try {
+	    return EventModelConverter.asApiDeviceStateChange(GDeviceStateChange.parseFrom(payload));
+	} catch (InvalidProtocolBufferException e) {
+	    throw new SiteWhereException("Unable to decode device state change payload.", e);
+	}
+    }
+
+    /*
+     * @see
+     * com.sitewhere.hbase.encoder.JsonPayloadMarshaler#encodeDeviceCommandResponse(
+     * com.sitewhere.spi.device.event.IDeviceCommandResponse)
+     */
+    @Override
+    public byte[] encodeDeviceCommandResponse(IDeviceCommandResponse response) throws SiteWhereException {
+	return EventModelConverter.asGrpcDeviceCommandResponse(response).toByteArray();
+    }
+
+    /*
+     * @see
+     * com.sitewhere.hbase.encoder.JsonPayloadMarshaler#decodeDeviceCommandResponse(
+     * byte[])
+     */
+    @Override
+    public DeviceCommandResponse decodeDeviceCommandResponse(byte[] payload) throws SiteWhereException {
+	try {
+	    return EventModelConverter.asApiDeviceCommandResponse(GDeviceCommandResponse.parseFrom(payload));
+	} catch (InvalidProtocolBufferException e) {
+	    throw new SiteWhereException("Unable to decode device command response payload.", e);
+	}
+    }
+}
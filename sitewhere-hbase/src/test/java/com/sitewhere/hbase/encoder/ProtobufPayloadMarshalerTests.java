@@ -0,0 +1,227 @@
+/*
+ * Copyright (c) SiteWhere, LLC. All rights reserved. http://www.sitewhere.com
+ *
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package com.sitewhere.hbase.encoder;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import org.junit.Test;
+
+import com.sitewhere.rest.model.device.event.DeviceAlert;
+import com.sitewhere.rest.model.device.event.DeviceCommandInvocation;
+import com.sitewhere.rest.model.device.event.DeviceCommandResponse;
+import com.sitewhere.rest.model.device.event.DeviceEvent;
+import com.sitewhere.rest.model.device.event.DeviceLocation;
+import com.sitewhere.rest.model.device.event.DeviceMeasurements;
+import com.sitewhere.rest.model.device.event.DeviceStateChange;
+import com.sitewhere.rest.model.device.event.DeviceStreamData;
+import com.sitewhere.spi.SiteWhereException;
+import com.sitewhere.spi.device.event.CommandInitiator;
+import com.sitewhere.spi.device.event.CommandTarget;
+import com.sitewhere.spi.device.event.AlertLevel;
+import com.sitewhere.spi.device.event.AlertSource;
+import com.sitewhere.spi.device.event.IDeviceEvent;
+
+/**
+ * Round-trip tests for {@link ProtobufPayloadMarshaler} covering each event
+ * type stored in HBase.
+ * 
+ * @author Derek
+ */
+public class ProtobufPayloadMarshalerTests {
+
+    /** Marshaler being tested */
+    private ProtobufPayloadMarshaler marshaler = new ProtobufPayloadMarshaler();
+
+    @Test
+    public void testEncoding() throws SiteWhereException {
+	assertEquals(PayloadEncoding.ProtocolBuffers, marshaler.getEncoding());
+    }
+
+    @Test
+    public void testMeasurementsRoundTrip() throws SiteWhereException {
+	DeviceMeasurements original = new DeviceMeasurements();
+	populateEvent(original);
+	original.addOrReplaceMeasurement("engine.temp", 98.6);
+	original.addOrReplaceMeasurement("fuel.level", 0.25);
+
+	DeviceMeasurements decoded = marshaler.decodeDeviceMeasurements(marshaler.encodeDeviceMeasurements(original));
+	assertEventEquals(original, decoded);
+	assertEquals(original.getMeasurements(), decoded.getMeasurements());
+    }
+
+    @Test
+    public void testLocationRoundTrip() throws SiteWhereException {
+	DeviceLocation original = new DeviceLocation();
+	populateEvent(original);
+	original.setLatitude(33.755);
+	original.setLongitude(-84.39);
+	original.setElevation(320.0);
+
+	DeviceLocation decoded = marshaler.decodeDeviceLocation(marshaler.encodeDeviceLocation(original));
+	assertEventEquals(original, decoded);
+	assertEquals(original.getLatitude(), decoded.getLatitude());
+	assertEquals(original.getLongitude(), decoded.getLongitude());
+	assertEquals(original.getElevation(), decoded.getElevation());
+    }
+
+    @Test
+    public void testAlertRoundTrip() throws SiteWhereException {
+	DeviceAlert original = new DeviceAlert();
+	populateEvent(original);
+	original.setSource(AlertSource.Device);
+	original.setLevel(AlertLevel.Critical);
+	original.setType("engine.overheat");
+	original.setMessage("Engine temperature exceeded threshold.");
+
+	DeviceAlert decoded = marshaler.decodeDeviceAlert(marshaler.encodeDeviceAlert(original));
+	assertEventEquals(original, decoded);
+	assertEquals(original.getSource(), decoded.getSource());
+	assertEquals(original.getLevel(), decoded.getLevel());
+	assertEquals(original.getType(), decoded.getType());
+	assertEquals(original.getMessage(), decoded.getMessage());
+    }
+
+    @Test
+    public void testStreamDataRoundTrip() throws SiteWhereException {
+	DeviceStreamData original = new DeviceStreamData();
+	populateEvent(original);
+	original.setStreamId("video");
+	original.setSequenceNumber(42L);
+	original.setData(new byte[] { 0, 1, 2, (byte) 0xff });
+
+	DeviceStreamData decoded = marshaler.decodeDeviceStreamData(marshaler.encodeDeviceStreamData(original));
+	assertEventEquals(original, decoded);
+	assertEquals(original.getStreamId(), decoded.getStreamId());
+	assertEquals(original.getSequenceNumber(), decoded.getSequenceNumber());
+	assertArrayEquals(original.getData(), decoded.getData());
+    }
+
+    @Test
+    public void testCommandInvocationRoundTrip() throws SiteWhereException {
+	DeviceCommandInvocation original = new DeviceCommandInvocation();
+	populateEvent(original);
+	original.setInitiator(CommandInitiator.REST);
+	original.setInitiatorId("admin");
+	original.setTarget(CommandTarget.Assignment);
+	original.setTargetId(UUID.randomUUID().toString());
+	original.setCommandToken("ping");
+	Map<String, String> parameters = new HashMap<>();
+	parameters.put("count", "3");
+	original.setParameterValues(parameters);
+
+	DeviceCommandInvocation decoded = marshaler
+		.decodeDeviceCommandInvocation(marshaler.encodeDeviceCommandInvocation(original));
+	assertEventEquals(original, decoded);
+	assertEquals(original.getInitiator(), decoded.getInitiator());
+	assertEquals(original.getInitiatorId(), decoded.getInitiatorId());
+	assertEquals(original.getTarget(), decoded.getTarget());
+	assertEquals(original.getTargetId(), decoded.getTargetId());
+	assertEquals(original.getCommandToken(), decoded.getCommandToken());
+	assertEquals(original.getParameterValues(), decoded.getParameterValues());
+    }
+
+    @Test
+    public void testCommandResponseRoundTrip() throws SiteWhereException {
+	DeviceCommandResponse original = new DeviceCommandResponse();
+	populateEvent(original);
+	original.setOriginatingEventId(UUID.randomUUID());
+	original.setResponseEventId(UUID.randomUUID());
+	original.setResponse("pong");
+
+	DeviceCommandResponse decoded = marshaler
+		.decodeDeviceCommandResponse(marshaler.encodeDeviceCommandResponse(original));
+	assertEventEquals(original, decoded);
+	assertEquals(original.getOriginatingEventId(), decoded.getOriginatingEventId());
+	assertEquals(original.getResponseEventId(), decoded.getResponseEventId());
+	assertEquals(original.getResponse(), decoded.getResponse());
+    }
+
+    @Test
+    public void testStateChangeRoundTrip() throws SiteWhereException {
+	DeviceStateChange original = new DeviceStateChange();
+	populateEvent(original);
+	original.setCategory("registration");
+	original.setType("status");
+	original.setPreviousState("pending");
+	original.setNewState("active");
+
+	DeviceStateChange decoded = marshaler.decodeDeviceStateChange(marshaler.encodeDeviceStateChange(original));
+	assertEventEquals(original, decoded);
+	assertEquals(original.getCategory(), decoded.getCategory());
+	assertEquals(original.getType(), decoded.getType());
+	assertEquals(original.getPreviousState(), decoded.getPreviousState());
+	assertEquals(original.getNewState(), decoded.getNewState());
+    }
+
+    @Test
+    public void testGenericDecodeUsesProtobuf() throws SiteWhereException {
+	DeviceLocation original = new DeviceLocation();
+	populateEvent(original);
+	original.setLatitude(1.0);
+	original.setLongitude(2.0);
+
+	byte[] payload = marshaler.encode(original);
+	assertArrayEquals(marshaler.encodeDeviceLocation(original), payload);
+	assertEventEquals(original, marshaler.decode(payload, DeviceLocation.class));
+    }
+
+    @Test
+    public void testSmallerThanJson() throws SiteWhereException {
+	DeviceMeasurements original = new DeviceMeasurements();
+	populateEvent(original);
+	original.addOrReplaceMeasurement("engine.temp", 98.6);
+	byte[] json = new JsonPayloadMarshaler().encodeDeviceMeasurements(original);
+	byte[] protobuf = marshaler.encodeDeviceMeasurements(original);
+	assertTrue(protobuf.length < json.length);
+    }
+
+    /**
+     * Populate fields common to all events.
+     * 
+     * @param event
+     */
+    protected void populateEvent(DeviceEvent event) {
+	event.setId(UUID.randomUUID());
+	event.setAlternateId("alt-" + event.getId());
+	event.setDeviceId(UUID.randomUUID());
+	event.setDeviceAssignmentId(UUID.randomUUID());
+	event.setAreaId(UUID.randomUUID());
+	event.setAssetId(UUID.randomUUID());
+	event.setEventDate(new Date(1500000000000L));
+	event.setReceivedDate(new Date(1500000001000L));
+	Map<String, String> metadata = new HashMap<>();
+	metadata.put("firmware", "1.0.2");
+	event.setMetadata(metadata);
+    }
+
+    /**
+     * Verify fields common to all events survived encoding.
+     * 
+     * @param expected
+     * @param actual
+     */
+    protected void assertEventEquals(IDeviceEvent expected, IDeviceEvent actual) {
+	assertEquals(expected.getId(), actual.getId());
+	assertEquals(expected.getAlternateId(), actual.getAlternateId());
+	assertEquals(expected.getEventType(), actual.getEventType());
+	assertEquals(expected.getDeviceId(), actual.getDeviceId());
+	assertEquals(expected.getDeviceAssignmentId(), actual.getDeviceAssignmentId());
+	assertEquals(expected.getAreaId(), actual.getAreaId());
+	assertEquals(expected.getAssetId(), actual.getAssetId());
+	assertEquals(expected.getEventDate(), actual.getEventDate());
+	assertEquals(expected.getReceivedDate(), actual.getReceivedDate());
+	assertEquals(expected.getMetadata(), actual.getMetadata());
+    }
+}
@@ -7,6 +7,7 @@
  */
 package com.sitewhere.microservice.kafka;
 
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 
@@ -17,6 +18,15 @@ import org.apache.kafka.common.TopicPartition;
 
 import com.sitewhere.spi.SiteWhereException;
 
+/**
+ * Kafka consumer that processes records for each partition directly on the
+ * polling thread. After a batch for a partition has been processed, only the
+ * offset following the last record of that batch is committed. Positions of
+ * other partitions from the same poll are left alone since their records may
+ * not have been processed yet. Nothing is committed for a failed batch.
+ * 
+ * @author Derek
+ */
 public abstract class DirectKafkaConsumer extends MicroserviceKafkaConsumer {
 
     /*
@@ -26,15 +36,20 @@ public abstract class DirectKafkaConsumer extends MicroserviceKafkaConsumer {
      */
     @Override
     public void process(TopicPartition topicPartition, List<ConsumerRecord<String, byte[]>> records) {
+	if (records.isEmpty()) {
+	    return;
+	}
 	try {
 	    attemptToProcess(topicPartition, records);
-	    getConsumer().commitAsync(new OffsetCommitCallback() {
-		public void onComplete(Map<TopicPartition, OffsetAndMetadata> offsets, Exception e) {
-		    if (e != null) {
-			getLogger().error("Commit failed for offsets " + offsets, e);
-		    }
-		}
-	    });
+	    long next = records.get(records.size() - 1).offset() + 1;
+	    getConsumer().commitAsync(Collections.singletonMap(topicPartition, new OffsetAndMetadata(next)),
+		    new OffsetCommitCallback() {
+			public void onComplete(Map<TopicPartition, OffsetAndMetadata> offsets, Exception e) {
+			    if (e != null) {
+				getLogger().error("Commit failed for offsets " + offsets, e);
+			    }
+			}
+		    });
 	} catch (SiteWhereException e) {
 	    getLogger().error("Processing for batch failed.", e);
 	}
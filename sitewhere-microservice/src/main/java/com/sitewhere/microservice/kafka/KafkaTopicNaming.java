@@ -53,6 +53,9 @@ public class KafkaTopicNaming implements IKafkaTopicNaming {
     /** Topic suffix for events that have been persisted */
     protected static final String TENANT_TOPIC_INBOUND_PERSISTED_EVENTS = "inbound-persisted-events";
 
+    /** Topic suffix for persisted events being replayed */
+    protected static final String TENANT_TOPIC_INBOUND_REPLAY_EVENTS = "inbound-replay-events";
+
     /** Topic suffix for tenant events sent to unregistered devices */
     protected static final String TENANT_TOPIC_INBOUND_UNREGISTERED_DEVICE_EVENTS = "inbound-unregistered-device-events";
 
@@ -167,6 +170,15 @@ public class KafkaTopicNaming implements IKafkaTopicNaming {
 	return getTenantPrefix(tenant) + TENANT_TOPIC_INBOUND_PERSISTED_EVENTS;
     }
 
+    /*
+     * @see com.sitewhere.spi.microservice.kafka.IKafkaTopicNaming#
+     * getInboundReplayEventsTopic(com.sitewhere.spi.tenant.ITenant)
+     */
+    @Override
+    public String getInboundReplayEventsTopic(ITenant tenant) {
+	return getTenantPrefix(tenant) + TENANT_TOPIC_INBOUND_REPLAY_EVENTS;
+    }
+
     /*
      * @see com.sitewhere.spi.microservice.kafka.IKafkaTopicNaming#
      * getUnregisteredDeviceEventsTopic(com.sitewhere.spi.tenant.ITenant)
@@ -87,8 +87,21 @@ public abstract class MicroserviceKafkaProducer extends TenantEngineLifecycleCom
      */
     @Override
     public void send(String key, byte[] message) throws SiteWhereException {
+	send(key, message, CALLBACK);
+    }
+
+    /**
+     * Send a message to the topic, using the given callback to be notified when
+     * delivery completes or fails.
+     * 
+     * @param key
+     * @param message
+     * @param callback
+     * @throws SiteWhereException
+     */
+    public void send(String key, byte[] message, Callback callback) throws SiteWhereException {
 	ProducerRecord<String, byte[]> record = new ProducerRecord<String, byte[]>(getTargetTopicName(), key, message);
-	getProducer().send(record, CALLBACK);
+	getProducer().send(record, callback);
     }
 
     /**
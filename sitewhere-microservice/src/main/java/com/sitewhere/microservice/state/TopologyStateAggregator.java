@@ -39,9 +39,18 @@ import com.sitewhere.spi.server.lifecycle.LifecycleStatus;
  */
 public class TopologyStateAggregator extends MicroserviceStateUpdatesKafkaConsumer implements ITopologyStateAggregator {
 
-    /** Interval at which tenant engine will be checked */
+    /** Maximum interval between checks of tenant engine state */
     private static final long TENANT_ENGINE_CHECK_INTERVAL = 2 * 1000;
 
+    /**
+     * Time without a state update after which a microservice is considered gone
+     * (three missed heartbeats)
+     */
+    private static final long MICROSERVICE_EXPIRATION_INTERVAL = 60 * 1000;
+
+    /** Monitor signalled when topology state is updated */
+    private final Object topologyUpdated = new Object();
+
     /** Latest inferred instance topology snapshot */
     private IInstanceTopologySnapshot instanceTopologySnapshot = new InstanceTopologySnapshot();
 
@@ -94,7 +103,10 @@ public class TopologyStateAggregator extends MicroserviceStateUpdatesKafkaConsum
 			getLogger().info("No tenant engine/s found. Waiting for startup.");
 		    }
 		}
-		Thread.sleep(TENANT_ENGINE_CHECK_INTERVAL);
+		long remaining = deadline - System.currentTimeMillis();
+		synchronized (topologyUpdated) {
+		    topologyUpdated.wait(Math.min(Math.max(remaining, 1), TENANT_ENGINE_CHECK_INTERVAL));
+		}
 	    } catch (Exception e) {
 		throw new ApiChannelNotAvailableException(
 			"Unhandled exception waiting for tenant engine to become available.", e);
@@ -118,6 +130,8 @@ public class TopologyStateAggregator extends MicroserviceStateUpdatesKafkaConsum
 	} else {
 	    getOrCreateMicroservice(state);
 	}
+	expireMicroservices();
+	signalTopologyUpdated();
     }
 
     /*
@@ -129,12 +143,18 @@ public class TopologyStateAggregator extends MicroserviceStateUpdatesKafkaConsum
     @Override
     public void onTenantEngineStateUpdate(ITenantEngineState updated) {
 	getLogger().debug("Received tenant update from '" + updated.getMicroservice().getIdentifier() + "'.");
-	MicroserviceState placeholder = new MicroserviceState();
-	placeholder.setMicroservice(updated.getMicroservice());
-	placeholder.setLifecycleStatus(LifecycleStatus.Started);
 
-	// Get microservice and existing engine (creating if necessary.
-	IInstanceMicroservice microservice = getOrCreateMicroservice(placeholder);
+	// Get microservice and existing engine (creating if necessary). Tenant
+	// updates never change the status or last update of a known microservice,
+	// since engines still report while the microservice is stopping.
+	IInstanceMicroservice microservice = getMicroservice(updated.getMicroservice());
+	if (microservice == null) {
+	    MicroserviceState placeholder = new MicroserviceState();
+	    placeholder.setMicroservice(updated.getMicroservice());
+	    placeholder.setLifecycleStatus(LifecycleStatus.Started);
+	    microservice = addMicroservice(placeholder);
+	    ((InstanceMicroservice) microservice).setLastUpdated(System.currentTimeMillis());
+	}
 	IInstanceTenantEngine engine = microservice.getTenantEngines().get(updated.getTenantId());
 	if (engine == null) {
 	    InstanceTenantEngine created = new InstanceTenantEngine();
@@ -157,6 +177,38 @@ public class TopologyStateAggregator extends MicroserviceStateUpdatesKafkaConsum
 		onTenantEngineUpdated(microservice.getLatestState(), existing, updated);
 	    }
 	}
+	signalTopologyUpdated();
+    }
+
+    /**
+     * Wake threads waiting on topology changes.
+     */
+    protected void signalTopologyUpdated() {
+	synchronized (topologyUpdated) {
+	    topologyUpdated.notifyAll();
+	}
+    }
+
+    /**
+     * Remove microservices that have not sent a state update (including
+     * heartbeats) within the expiration interval. Checked as updates arrive so
+     * that no separate polling thread is needed.
+     */
+    protected void expireMicroservices() {
+	long cutoff = System.currentTimeMillis() - MICROSERVICE_EXPIRATION_INTERVAL;
+	List<IMicroserviceState> expired = new ArrayList<>();
+	for (IInstanceTopologyEntry entry : getInstanceTopologySnapshot().getTopologyEntriesByIdentifier().values()) {
+	    for (IInstanceMicroservice microservice : entry.getMicroservicesByHostname().values()) {
+		if (microservice.getLastUpdated() < cutoff) {
+		    expired.add(microservice.getLatestState());
+		}
+	    }
+	}
+	for (IMicroserviceState state : expired) {
+	    getLogger().info("No state updates received from '" + microserviceId(state) + "' in "
+		    + (MICROSERVICE_EXPIRATION_INTERVAL / 1000) + " seconds. Removing from topology.");
+	    removeMicroservice(state);
+	}
     }
 
     /**
@@ -167,7 +219,7 @@ public class TopologyStateAggregator extends MicroserviceStateUpdatesKafkaConsum
      * @return
      */
     protected IInstanceMicroservice getOrCreateMicroservice(IMicroserviceState updated) {
-	IInstanceMicroservice microservice = getMicroservice(updated);
+	IInstanceMicroservice microservice = getMicroservice(updated.getMicroservice());
 	if (microservice == null) {
 	    microservice = addMicroservice(updated);
 	} else {
@@ -187,11 +239,10 @@ public class TopologyStateAggregator extends MicroserviceStateUpdatesKafkaConsum
     /**
      * Get existing microservice record from topology or null if no match.
      * 
-     * @param state
+     * @param microservice
      * @return
      */
-    protected IInstanceMicroservice getMicroservice(IMicroserviceState state) {
-	IMicroserviceDetails microservice = state.getMicroservice();
+    protected IInstanceMicroservice getMicroservice(IMicroserviceDetails microservice) {
 	IInstanceTopologyEntry entry = getInstanceTopologySnapshot().getTopologyEntriesByIdentifier()
 		.get(microservice.getIdentifier());
 	if (entry == null) {
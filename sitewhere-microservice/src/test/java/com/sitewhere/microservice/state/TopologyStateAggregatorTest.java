@@ -0,0 +1,164 @@
+/*
+ * Copyright (c) SiteWhere, LLC. All rights reserved. http://www.sitewhere.com
+ *
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package com.sitewhere.microservice.state;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.sitewhere.rest.model.microservice.state.MicroserviceDetails;
+import com.sitewhere.rest.model.microservice.state.MicroserviceState;
+import com.sitewhere.rest.model.microservice.state.TenantEngineState;
+import com.sitewhere.spi.microservice.state.IInstanceMicroservice;
+import com.sitewhere.spi.microservice.state.IInstanceTopologyUpdatesListener;
+import com.sitewhere.spi.microservice.state.IMicroserviceState;
+import com.sitewhere.spi.microservice.state.ITenantEngineState;
+import com.sitewhere.spi.server.lifecycle.LifecycleStatus;
+
+public class TopologyStateAggregatorTest {
+
+    /** Microservice identifier */
+    private static String IDENTIFIER = "event-management";
+
+    /** Microservice hostname */
+    private static String HOSTNAME = "event-management-1";
+
+    /** Aggregator being tested */
+    private TopologyStateAggregator aggregator;
+
+    /** Records microservice status changes */
+    private List<String> transitions;
+
+    @Before
+    public void setup() {
+	this.aggregator = new TopologyStateAggregator();
+	this.transitions = new ArrayList<>();
+	aggregator.addInstanceTopologyUpdatesListener(new RecordingListener());
+    }
+
+    @Test
+    public void testTenantUpdatesDoNotRestartStoppingMicroservice() throws Exception {
+	UUID tenantId = UUID.randomUUID();
+	aggregator.onMicroserviceStateUpdate(createMicroserviceState(LifecycleStatus.Started));
+	aggregator.onTenantEngineStateUpdate(createTenantEngineState(tenantId, LifecycleStatus.Started));
+	aggregator.onMicroserviceStateUpdate(createMicroserviceState(LifecycleStatus.Stopping));
+	long stoppingUpdated = getMicroservice().getLastUpdated();
+
+	Thread.sleep(5);
+	aggregator.onTenantEngineStateUpdate(createTenantEngineState(tenantId, LifecycleStatus.Stopping));
+	aggregator.onTenantEngineStateUpdate(createTenantEngineState(tenantId, LifecycleStatus.Stopped));
+
+	assertEquals(LifecycleStatus.Stopping, getMicroservice().getLatestState().getLifecycleStatus());
+	assertEquals(stoppingUpdated, getMicroservice().getLastUpdated());
+	assertEquals(2, transitions.size());
+	assertEquals("added:Started", transitions.get(0));
+	assertEquals("updated:Started->Stopping", transitions.get(1));
+    }
+
+    @Test
+    public void testTenantUpdateCreatesPlaceholderMicroservice() {
+	aggregator.onTenantEngineStateUpdate(createTenantEngineState(UUID.randomUUID(), LifecycleStatus.Started));
+
+	IInstanceMicroservice microservice = getMicroservice();
+	assertNotNull(microservice);
+	assertEquals(LifecycleStatus.Started, microservice.getLatestState().getLifecycleStatus());
+	assertEquals(1, microservice.getTenantEngines().size());
+	assertEquals(1, transitions.size());
+	assertEquals("added:Started", transitions.get(0));
+    }
+
+    /**
+     * Get record for test microservice from topology.
+     * 
+     * @return
+     */
+    protected IInstanceMicroservice getMicroservice() {
+	return aggregator.getInstanceTopologySnapshot().getTopologyEntriesByIdentifier().get(IDENTIFIER)
+		.getMicroservicesByHostname().get(HOSTNAME);
+    }
+
+    /**
+     * Create details for test microservice.
+     * 
+     * @return
+     */
+    protected MicroserviceDetails createMicroserviceDetails() {
+	MicroserviceDetails details = new MicroserviceDetails();
+	details.setIdentifier(IDENTIFIER);
+	details.setHostname(HOSTNAME);
+	return details;
+    }
+
+    /**
+     * Create microservice state update.
+     * 
+     * @param status
+     * @return
+     */
+    protected MicroserviceState createMicroserviceState(LifecycleStatus status) {
+	MicroserviceState state = new MicroserviceState();
+	state.setMicroservice(createMicroserviceDetails());
+	state.setLifecycleStatus(status);
+	return state;
+    }
+
+    /**
+     * Create tenant engine state update.
+     * 
+     * @param tenantId
+     * @param status
+     * @return
+     */
+    protected TenantEngineState createTenantEngineState(UUID tenantId, LifecycleStatus status) {
+	TenantEngineState state = new TenantEngineState();
+	state.setMicroservice(createMicroserviceDetails());
+	state.setTenantId(tenantId);
+	state.setLifecycleStatus(status);
+	return state;
+    }
+
+    /**
+     * Records microservice additions and status changes.
+     */
+    private class RecordingListener implements IInstanceTopologyUpdatesListener {
+
+	@Override
+	public void onMicroserviceAdded(IMicroserviceState microservice) {
+	    transitions.add("added:" + microservice.getLifecycleStatus());
+	}
+
+	@Override
+	public void onMicroserviceUpdated(IMicroserviceState previous, IMicroserviceState updated) {
+	    transitions.add("updated:" + previous.getLifecycleStatus() + "->" + updated.getLifecycleStatus());
+	}
+
+	@Override
+	public void onMicroserviceRemoved(IMicroserviceState microservice) {
+	    transitions.add("removed:" + microservice.getLifecycleStatus());
+	}
+
+	@Override
+	public void onTenantEngineAdded(IMicroserviceState microservice, ITenantEngineState tenantEngine) {
+	}
+
+	@Override
+	public void onTenantEngineUpdated(IMicroserviceState microservice, ITenantEngineState previous,
+		ITenantEngineState updated) {
+	}
+
+	@Override
+	public void onTenantEngineRemoved(IMicroserviceState microservice, ITenantEngineState tenantEngine) {
+	}
+    }
+}